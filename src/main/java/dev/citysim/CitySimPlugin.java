@@ -13,6 +13,7 @@ import dev.citysim.integration.traincarts.TrainCartsReflectionBinder;
 import dev.citysim.integration.traincarts.TrainCartsStationService;
 import dev.citysim.links.LinkService;
 import dev.citysim.migration.MigrationService;
+import dev.citysim.migration.VillagerPool;
 import dev.citysim.migration.StationPlatformResolver;
 import dev.citysim.papi.CitySimExpansion;
 import dev.citysim.selection.SelectionListener;
@@ -22,10 +23,15 @@ import dev.citysim.visual.VisualizationSettings;
 import dev.citysim.stats.BossBarService;
 import dev.citysim.stats.StatsService;
 import dev.citysim.stats.StationCountingMode;
-import dev.citysim.stats.scan.BedEventListener;
+import dev.citysim.stats.scan.BedChangeTracker;
+import dev.citysim.stats.scan.ChunkCensusListener;
+import dev.citysim.trace.Tracer;
 import dev.citysim.ui.DisplayPreferencesStore;
 import dev.citysim.ui.ScoreboardService;
 import dev.citysim.ui.TitleService;
+import dev.citysim.util.BlockChangeJournal;
+import dev.citysim.util.BlockClassifier;
+import dev.citysim.util.HeightmapCache;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.HandlerList;
 import org.bukkit.event.Listener;
@@ -34,6 +40,7 @@ import org.bukkit.event.server.PluginEnableEvent;
 import org.bukkit.plugin.ServicePriority;
 import org.bukkit.plugin.java.JavaPlugin;
 
+import java.io.File;
 import java.util.Objects;
 
 public class CitySimPlugin extends JavaPlugin {
@@ -50,6 +57,11 @@ public class CitySimPlugin extends JavaPlugin {
     private LinkService linkService;
     private MigrationService migrationService;
     private StationPlatformResolver stationPlatformResolver;
+    private BlockChangeJournal blockChangeJournal;
+    private HeightmapCache heightmapCache;
+    private VillagerPool villagerPool;
+    private Tracer tracer;
+    private BlockClassifier blockClassifier;
     private CitySimApiImpl citySimApi;
 
     @Override
@@ -69,11 +81,17 @@ public class CitySimPlugin extends JavaPlugin {
             getLogger().info("TrainCarts plugin not detected yet; station counts will remain manual unless another mode is selected.");
         }
 
-        this.stationPlatformResolver = new StationPlatformResolver(this);
+        this.tracer = new Tracer();
+        this.blockClassifier = new BlockClassifier();
+
+        this.stationPlatformResolver = new StationPlatformResolver(this, blockClassifier);
+        stationPlatformResolver.setTracer(tracer);
+        stationPlatformResolver.loadPersistedSpots();
         getServer().getPluginManager().registerEvents(stationPlatformResolver, this);
         stationPlatformResolver.setStationService(trainCartsStationService);
 
-        this.statsService = new StatsService(this, cityManager, trainCartsStationService);
+        this.statsService = new StatsService(this, cityManager, trainCartsStationService, blockClassifier);
+        statsService.setTracer(tracer);
         getLogger().info("StatsService created (tracking " + cityManager.all().size() + " cities)");
         this.statsService.start();
         getLogger().info("StatsService started");
@@ -81,6 +99,7 @@ public class CitySimPlugin extends JavaPlugin {
         this.budgetService = new BudgetService(this, cityManager);
         this.budgetService.reload(getConfig());
         this.budgetService.start();
+        statsService.addStatsUpdateListener(budgetService);
         getLogger().info("BudgetService started");
 
         this.citySimApi = new CitySimApiImpl(this, cityManager, statsService);
@@ -88,17 +107,35 @@ public class CitySimPlugin extends JavaPlugin {
         getServer().getServicesManager().register(CitySimApi.class, citySimApi, this, ServicePriority.Normal);
         getLogger().info("CitySim API registered");
 
-        getServer().getPluginManager().registerEvents(new BedEventListener(cityManager), this);
-        getLogger().info("BedEventListener registered");
+        this.blockChangeJournal = new BlockChangeJournal(this, blockClassifier);
+        getServer().getPluginManager().registerEvents(blockChangeJournal, this);
+        blockChangeJournal.subscribe(stationPlatformResolver);
+        blockChangeJournal.subscribe(new BedChangeTracker(cityManager, statsService.getBedLedger()));
+        blockChangeJournal.subscribe(statsService.blockMetricsSubscriber());
+        getLogger().info("BlockChangeJournal registered");
+
+        getServer().getPluginManager().registerEvents(new ChunkCensusListener(statsService.getChunkCensusStore()), this);
 
 
         getServer().getPluginManager().registerEvents(new DependencyListener(), this);
 
         this.linkService = new LinkService(cityManager);
         this.linkService.reload(getConfig());
+        statsService.addStatsUpdateListener(linkService);
+
+        this.heightmapCache = new HeightmapCache();
+        getServer().getPluginManager().registerEvents(heightmapCache, this);
+        blockChangeJournal.subscribe(heightmapCache);
 
-        this.migrationService = new MigrationService(this, cityManager, statsService, linkService, stationPlatformResolver);
+        this.villagerPool = new VillagerPool(this, cityManager);
+        getServer().getPluginManager().registerEvents(villagerPool, this);
+        villagerPool.seedLoadedWorlds();
+
+        this.migrationService = new MigrationService(this, cityManager, statsService, linkService, stationPlatformResolver, heightmapCache, villagerPool,
+                blockClassifier);
+        this.migrationService.setTracer(tracer);
         this.migrationService.reload(getConfig());
+        blockChangeJournal.subscribe(migrationService.destinationSpotSubscriber());
         this.migrationService.start();
         getLogger().info("MigrationService started");
 
@@ -175,8 +212,12 @@ public class CitySimPlugin extends JavaPlugin {
         if (migrationService != null) {
             migrationService.stop();
         }
+        if (trainCartsStationService != null) {
+            HandlerList.unregisterAll(trainCartsStationService);
+        }
         if (stationPlatformResolver != null) {
             HandlerList.unregisterAll(stationPlatformResolver);
+            stationPlatformResolver.savePersistedSpots();
         }
         if (cityManager != null) {
             cityManager.save();
@@ -227,6 +268,10 @@ public class CitySimPlugin extends JavaPlugin {
         return migrationService;
     }
 
+    public Tracer getTracer() {
+        return tracer;
+    }
+
     public CitySimApi getCitySimApi() {
         return citySimApi;
     }
@@ -237,9 +282,11 @@ public class CitySimPlugin extends JavaPlugin {
             return null;
         }
         try {
-            TrainCartsReflectionBinder binder = new TrainCartsReflectionBinder(getLogger());
+            TrainCartsReflectionBinder binder = new TrainCartsReflectionBinder(getLogger(),
+                    new File(getDataFolder(), "traincarts-binding.json"));
             StationSignParser parser = new StationSignParser();
             TrainCartsStationService service = new TrainCartsStationService(this, getServer(), plugin, binder, parser);
+            getServer().getPluginManager().registerEvents(service, this);
             getLogger().info("TrainCarts detected: station counts can be synchronized automatically when enabled.");
             return service;
         } catch (Exception ex) {
@@ -298,6 +345,9 @@ public class CitySimPlugin extends JavaPlugin {
             if (!TrainCartsLocator.isTrainCartsName(event.getPlugin().getName())) {
                 return;
             }
+            if (trainCartsStationService != null) {
+                HandlerList.unregisterAll(trainCartsStationService);
+            }
             if (trainCartsStationService == null || statsService == null) {
                 trainCartsStationService = null;
                 if (stationPlatformResolver != null) {
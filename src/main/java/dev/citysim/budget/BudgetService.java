@@ -2,22 +2,33 @@ package dev.citysim.budget;
 
 import dev.citysim.city.City;
 import dev.citysim.city.CityManager;
+import dev.citysim.city.CityManagerListener;
 import dev.citysim.stats.EconomyBreakdown;
+import dev.citysim.stats.StatsUpdateListener;
+import org.bukkit.Bukkit;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.plugin.Plugin;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.logging.Level;
 import java.util.Map;
 import java.util.HashMap;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
-public class BudgetService {
+public class BudgetService implements StatsUpdateListener {
 
     private final Plugin plugin;
     private final CityManager cityManager;
     private final BudgetUpdateScheduler scheduler;
     private final Map<String, PreviewCacheEntry> previewCache = new HashMap<>();
+    private final Map<String, Long> inputVersions = new HashMap<>();
+    private long previewHits = 0L;
+    private long previewMisses = 0L;
     private final Map<String, Double> trustCarry = new HashMap<>();
+    private final Map<String, Long> tickGenerations = new HashMap<>();
 
     private boolean landTaxEnabled = true;
     private double landTaxRateDefault = BudgetDefaults.DEFAULT_LAND_TAX_RATE;
@@ -33,16 +44,48 @@ public class BudgetService {
     private long austerityMinOnIntervals = BudgetDefaults.AUSTERITY_MIN_ON_INTERVALS;
     private long austerityCooldownIntervals = BudgetDefaults.AUSTERITY_COOLDOWN_INTERVALS;
 
-    private static final long PREVIEW_TTL_MS = 5000L;
+    private Executor asyncExecutor;
+    private Executor mainThreadExecutor;
+    private Map<Integer, List<City>> tickBuckets = null;
+    private long tickBucketsInterval = -1L;
+    private long budgetTick = 0L;
 
     public BudgetService(Plugin plugin, CityManager cityManager) {
         this.plugin = plugin;
         this.cityManager = cityManager;
-        this.scheduler = new BudgetUpdateScheduler(plugin, this::tickAllCities);
+        this.scheduler = new BudgetUpdateScheduler(plugin, this::tickDueCities);
+        this.asyncExecutor = task -> Bukkit.getScheduler().runTaskAsynchronously(plugin, task);
+        this.mainThreadExecutor = task -> Bukkit.getScheduler().runTask(plugin, task);
+        cityManager.addListener(new CityManagerListener() {
+            @Override
+            public void onCityCreated(City city) {
+                tickBuckets = null;
+            }
+
+            @Override
+            public void onCityRemoved(City city) {
+                tickBuckets = null;
+                forgetPreview(city.id);
+                tickGenerations.remove(city.id);
+            }
+
+            @Override
+            public void onCityRenamed(String previousId, City city) {
+                tickBuckets = null;
+                forgetPreview(previousId);
+                tickGenerations.remove(previousId);
+            }
+        });
+    }
+
+    void setExecutors(Executor asyncExecutor, Executor mainThreadExecutor) {
+        this.asyncExecutor = asyncExecutor != null ? asyncExecutor : Runnable::run;
+        this.mainThreadExecutor = mainThreadExecutor != null ? mainThreadExecutor : Runnable::run;
     }
 
     public void reload(FileConfiguration config) {
         scheduler.updateConfig(config);
+        previewCache.clear();
         if (config == null) {
             return;
         }
@@ -96,16 +139,41 @@ public class BudgetService {
         if (city == null) {
             return null;
         }
-        BudgetSnapshot snapshot = computeSnapshot(city, false, TrustAdjustmentMode.TICK);
-        if (snapshot == null) {
-            return null;
-        }
+        BudgetInputs inputs = BudgetInputs.of(city);
+        BudgetComputation computation = compute(inputs, trustCarry.getOrDefault(city.id, 0.0), false, TrustAdjustmentMode.TICK);
+        commitTick(city, inputs, computation);
+        return computation.snapshot();
+    }
+
+    /**
+     * Applies a computed budget interval to the live city. Rates, trust and treasury may have changed since the
+     * inputs were captured, so trust and treasury are shifted by the computed deltas instead of overwritten.
+     * Bumps the city's tick generation, so an off-thread tick captured before this one is discarded.
+     */
+    private void commitTick(City city, BudgetInputs inputs, BudgetComputation computation) {
+        bumpTickGeneration(city);
+        BudgetSnapshot snapshot = computation.snapshot();
+        if (Double.compare(city.taxRate, inputs.taxRate()) == 0) {
+            city.taxRate = computation.taxRate();
+        }
+        if (Double.compare(city.landTaxRate, inputs.landTaxRate()) == 0) {
+            city.landTaxRate = computation.landTaxRate();
+        }
+        trustCarry.put(city.id, computation.trustCarry());
+        city.trust = clampTrust(city.trust + (snapshot.trust - inputs.trust()));
+        snapshot.trust = city.trust;
+        snapshot.trustState = trustState(snapshot.trust);
+        refreshTrustInEconomyBreakdown(city);
+
+        snapshot.treasuryBefore = city.treasury;
+        snapshot.treasuryAfter = snapshot.treasuryBefore + snapshot.net;
         city.treasury = snapshot.treasuryAfter;
         city.lastBudgetSnapshot = snapshot;
         city.adminFundingMultiplier = snapshot.adminMultiplier;
         city.logisticsFundingMultiplier = snapshot.logisticsMultiplier;
         city.publicWorksFundingMultiplier = snapshot.publicWorksMultiplier;
-        return snapshot;
+        invalidatePreview(city);
+        cityManager.metricsTable().update(city);
     }
 
     public BudgetSnapshot previewCity(City city) {
@@ -116,32 +184,97 @@ public class BudgetService {
         if (city == null) {
             return null;
         }
-        long now = System.currentTimeMillis();
+        long version = inputVersions.getOrDefault(city.id, 0L);
         PreviewCacheEntry cached = previewCache.get(city.id);
-        PreviewSignature signature = PreviewSignature.from(city, landTaxEnabled);
-        if (!force && cached != null && cached.signature.equals(signature) && (now - cached.timestamp) < PREVIEW_TTL_MS) {
-            return cached.snapshot;
+        if (!force && cached != null && cached.version() == version) {
+            previewHits++;
+            return cached.snapshot();
         }
+        previewMisses++;
         BudgetSnapshot snapshot = computeSnapshot(city, true, TrustAdjustmentMode.PREVIEW);
         if (snapshot != null) {
-            previewCache.put(city.id, new PreviewCacheEntry(signature, snapshot, now));
+            previewCache.put(city.id, new PreviewCacheEntry(version, snapshot));
         }
         return snapshot;
     }
 
-    public void tickAllCities() {
-        for (City city : cityManager.all()) {
-            if (city == null) {
+    /**
+     * Runs once per server tick. Each city is due once per budget interval, at an offset derived from its id,
+     * so an interval's work is spread over all of its ticks. Inputs are captured here, the budget maths runs
+     * off the main thread and the results are committed back on the main thread.
+     */
+    public void tickDueCities() {
+        long interval = Math.max(1L, scheduler.getBudgetIntervalTicks());
+        int phase = (int) Math.floorMod(budgetTick++, interval);
+        List<City> due = dueCities(phase, interval);
+        if (due.isEmpty()) {
+            return;
+        }
+        List<PendingTick> pending = new ArrayList<>(due.size());
+        for (City city : due) {
+            if (city != null && city.id != null) {
+                pending.add(new PendingTick(city, BudgetInputs.of(city), trustCarry.getOrDefault(city.id, 0.0),
+                        tickGenerations.getOrDefault(city.id, 0L)));
+            }
+        }
+        CompletableFuture
+                .supplyAsync(() -> computeTicks(pending), asyncExecutor)
+                .thenAcceptAsync(this::commitTicks, mainThreadExecutor)
+                .exceptionally(ex -> {
+                    plugin.getLogger().log(Level.WARNING, "Budget tick batch failed: " + ex.getMessage(), ex);
+                    return null;
+                });
+    }
+
+    private List<ComputedTick> computeTicks(List<PendingTick> pending) {
+        List<ComputedTick> computed = new ArrayList<>(pending.size());
+        for (PendingTick tick : pending) {
+            try {
+                computed.add(new ComputedTick(tick, compute(tick.inputs(), tick.trustCarry(), false, TrustAdjustmentMode.TICK)));
+            } catch (Exception ex) {
+                plugin.getLogger().log(Level.WARNING, "Budget tick failed for city " + tick.city().id + ": " + ex.getMessage(), ex);
+            }
+        }
+        return computed;
+    }
+
+    private void commitTicks(List<ComputedTick> computed) {
+        for (ComputedTick tick : computed) {
+            City city = tick.pending().city();
+            if (city.id == null || cityManager.get(city.id) != city) {
+                continue;
+            }
+            if (tickGenerations.getOrDefault(city.id, 0L) != tick.pending().generation()) {
+                // A synchronous tick or a policy change committed since the inputs were captured.
                 continue;
             }
             try {
-                tickCity(city);
+                commitTick(city, tick.pending().inputs(), tick.computation());
             } catch (Exception ex) {
                 plugin.getLogger().log(Level.WARNING, "Budget tick failed for city " + city.id + ": " + ex.getMessage(), ex);
             }
         }
     }
 
+    private List<City> dueCities(int phase, long interval) {
+        if (tickBuckets == null || tickBucketsInterval != interval) {
+            Map<Integer, List<City>> buckets = new HashMap<>();
+            for (City city : cityManager.all()) {
+                if (city == null || city.id == null) {
+                    continue;
+                }
+                buckets.computeIfAbsent(tickOffset(city.id, interval), key -> new ArrayList<>()).add(city);
+            }
+            tickBuckets = buckets;
+            tickBucketsInterval = interval;
+        }
+        return tickBuckets.getOrDefault(phase, List.of());
+    }
+
+    static int tickOffset(String cityId, long interval) {
+        return (int) Math.floorMod((long) cityId.hashCode(), Math.max(1L, interval));
+    }
+
     public void setTaxRate(City city, double rate) {
         if (city == null) {
             return;
@@ -169,13 +302,17 @@ public class BudgetService {
                 city.trust = clampTrust((int) Math.round(Math.max(0.0, target)));
             }
             refreshTrustInEconomyBreakdown(city);
-            previewCache.remove(city.id);
+            invalidatePreview(city);
+            cityManager.metricsTable().update(city);
         }
         return snapshot;
     }
 
     public BudgetSnapshot previewPolicySnapshot(City city) {
-        return computeSnapshot(city, true, TrustAdjustmentMode.IMMEDIATE_POLICY);
+        BudgetSnapshot snapshot = computeSnapshot(city, true, TrustAdjustmentMode.IMMEDIATE_POLICY);
+        // The policy computation reset the trust carry, which cached previews were built from.
+        invalidatePreview(city);
+        return snapshot;
     }
 
     public int projectedTrustAfterPolicy(City city, BudgetSnapshot snapshot) {
@@ -187,12 +324,47 @@ public class BudgetService {
         return clampTrust((int) Math.round(Math.max(0.0, target)));
     }
 
+    /**
+     * Bumps the city's budget input version so the next preview is recomputed. Call after changing anything a
+     * preview reads: rates, austerity, trust, treasury or the city's stats.
+     */
     public void invalidatePreview(City city) {
-        if (city != null) {
+        if (city != null && city.id != null) {
+            inputVersions.merge(city.id, 1L, Long::sum);
             previewCache.remove(city.id);
         }
     }
 
+    @Override
+    public void onCityStatsUpdated(City city) {
+        invalidatePreview(city);
+    }
+
+    public long getPreviewCacheHits() {
+        return previewHits;
+    }
+
+    public long getPreviewCacheMisses() {
+        return previewMisses;
+    }
+
+    public int getPreviewCacheSize() {
+        return previewCache.size();
+    }
+
+    private void bumpTickGeneration(City city) {
+        if (city.id != null) {
+            tickGenerations.merge(city.id, 1L, Long::sum);
+        }
+    }
+
+    private void forgetPreview(String cityId) {
+        if (cityId != null) {
+            previewCache.remove(cityId);
+            inputVersions.remove(cityId);
+        }
+    }
+
     public boolean isLandTaxEnabled() {
         return landTaxEnabled;
     }
@@ -229,21 +401,29 @@ public class BudgetService {
         if (city == null) {
             return null;
         }
+        BudgetComputation computation = compute(BudgetInputs.of(city), trustCarry.getOrDefault(city.id, 0.0), preview, trustMode);
+        if (trustMode == TrustAdjustmentMode.IMMEDIATE_POLICY) {
+            trustCarry.put(city.id, computation.trustCarry());
+            bumpTickGeneration(city);
+        }
+        return computation.snapshot();
+    }
+
+    /**
+     * Pure budget maths over captured inputs; touches no live city state and is safe off the main thread.
+     */
+    private BudgetComputation compute(BudgetInputs city, double carry, boolean preview, TrustAdjustmentMode trustMode) {
         long timestamp = System.currentTimeMillis();
         BudgetSnapshot snapshot = new BudgetSnapshot();
         snapshot.timestamp = timestamp;
         snapshot.preview = preview;
-        snapshot.treasuryBefore = city.treasury;
+        snapshot.treasuryBefore = city.treasury();
 
-        double sanitizedTax = sanitizeRate(city.taxRate, BudgetDefaults.DEFAULT_TAX_RATE, BudgetDefaults.MAX_TAX_RATE);
-        double sanitizedLandTax = sanitizeRate(city.landTaxRate, landTaxRateDefault, BudgetDefaults.MAX_LAND_TAX_RATE);
-        if (sanitizedTax <= 0.0 && city.lastBudgetSnapshot == null) {
+        double sanitizedTax = sanitizeRate(city.taxRate(), BudgetDefaults.DEFAULT_TAX_RATE, BudgetDefaults.MAX_TAX_RATE);
+        double sanitizedLandTax = sanitizeRate(city.landTaxRate(), landTaxRateDefault, BudgetDefaults.MAX_LAND_TAX_RATE);
+        if (sanitizedTax <= 0.0 && !city.hasBudgetHistory()) {
             sanitizedTax = BudgetDefaults.DEFAULT_TAX_RATE;
         }
-        if (!preview) {
-            city.taxRate = sanitizedTax;
-            city.landTaxRate = sanitizedLandTax;
-        }
 
         BudgetIncome income = computeIncome(city, sanitizedTax, sanitizedLandTax);
         BudgetExpenses expenses = computeExpenses(city, income, sanitizedTax, sanitizedLandTax);
@@ -253,18 +433,17 @@ public class BudgetService {
         snapshot.adminMultiplier = income.adminMultiplier;
         snapshot.logisticsMultiplier = expenses.logistics != null ? expenses.logistics.multiplier : 1.0;
         snapshot.publicWorksMultiplier = expenses.publicWorks != null ? expenses.publicWorks.multiplier : 1.0;
-        snapshot.adminEffectiveMultiplier = effectiveAdminMultiplier(city, snapshot.adminMultiplier);
-        snapshot.logisticsEffectiveMultiplier = effectiveLogisticsMultiplier(city, snapshot.logisticsMultiplier);
-        snapshot.publicWorksEffectiveMultiplier = effectivePublicWorksMultiplier(city, snapshot.publicWorksMultiplier);
+        snapshot.adminEffectiveMultiplier = effectiveAdminMultiplier(city.austerityEnabled(), snapshot.adminMultiplier);
+        snapshot.logisticsEffectiveMultiplier = effectiveLogisticsMultiplier(city.austerityEnabled(), snapshot.logisticsMultiplier);
+        snapshot.publicWorksEffectiveMultiplier = effectivePublicWorksMultiplier(city.austerityEnabled(), snapshot.publicWorksMultiplier);
 
-        snapshot.toleratedTax = toleratedTax(city, BudgetDefaults.MAX_TAX_RATE, taxBaseTolerance, taxToleranceBonus, taxToleranceMin);
-        snapshot.toleratedLandTax = toleratedTax(city, BudgetDefaults.MAX_LAND_TAX_RATE, landTaxBaseTolerance, landTaxToleranceBonus, landTaxToleranceMin);
-        snapshot.collectionEfficiency = collectionEfficiency(city, sanitizedTax, sanitizedLandTax, snapshot.toleratedTax, snapshot.toleratedLandTax);
+        snapshot.toleratedTax = toleratedTax(city.trust(), BudgetDefaults.MAX_TAX_RATE, taxBaseTolerance, taxToleranceBonus, taxToleranceMin);
+        snapshot.toleratedLandTax = toleratedTax(city.trust(), BudgetDefaults.MAX_LAND_TAX_RATE, landTaxBaseTolerance, landTaxToleranceBonus, landTaxToleranceMin);
+        snapshot.collectionEfficiency = collectionEfficiency(city.trust(), sanitizedTax, sanitizedLandTax, snapshot.toleratedTax, snapshot.toleratedLandTax);
         double rawDelta = computeTrustDelta(city, snapshot, sanitizedTax, trustMode);
-        double carry = trustCarry.getOrDefault(city.id, 0.0);
         double adjustedDelta = rawDelta + carry;
         double appliedDelta;
-        double newCarry = carry;
+        double newCarry;
         if (trustMode == TrustAdjustmentMode.IMMEDIATE_POLICY) {
             appliedDelta = adjustedDelta;
             newCarry = 0.0;
@@ -273,67 +452,53 @@ public class BudgetService {
             newCarry = adjustedDelta - appliedDelta;
         }
         snapshot.trustDelta = appliedDelta;
-        if (!preview || trustMode == TrustAdjustmentMode.IMMEDIATE_POLICY) {
-            trustCarry.put(city.id, newCarry);
-        }
         if (trustMode == TrustAdjustmentMode.IMMEDIATE_POLICY) {
-            snapshot.trust = clampTrust((int) Math.round(city.trust + appliedDelta));
+            snapshot.trust = clampTrust((int) Math.round(city.trust() + appliedDelta));
         } else {
-            snapshot.trust = smoothTrust(city.trust, appliedDelta);
+            snapshot.trust = smoothTrust(city.trust(), appliedDelta);
         }
         snapshot.trustState = trustState(snapshot.trust);
-        snapshot.austerityEnabled = city.austerityEnabled;
+        snapshot.austerityEnabled = city.austerityEnabled();
 
         snapshot.net = income.effectiveTotal - expenses.totalPaid;
         snapshot.treasuryAfter = snapshot.treasuryBefore + snapshot.net;
-
-        if (!preview) {
-            city.trust = snapshot.trust;
-            city.adminFundingMultiplier = snapshot.adminEffectiveMultiplier;
-            city.logisticsFundingMultiplier = snapshot.logisticsEffectiveMultiplier;
-            city.publicWorksFundingMultiplier = snapshot.publicWorksEffectiveMultiplier;
-            refreshTrustInEconomyBreakdown(city);
-            previewCache.remove(city.id);
-        }
-
-        return snapshot;
+        return new BudgetComputation(snapshot, sanitizedTax, sanitizedLandTax, newCarry);
     }
 
-    private BudgetIncome computeIncome(City city, double taxRate, double landTaxRate) {
+    private BudgetIncome computeIncome(BudgetInputs city, double taxRate, double landTaxRate) {
         BudgetIncome income = new BudgetIncome();
         income.taxRate = Math.max(0.0, Math.min(1.0, taxRate));
         income.landTaxRate = Math.max(0.0, Math.min(1.0, landTaxRate));
 
-        double gdp = Math.max(0.0, city.gdp);
+        double gdp = Math.max(0.0, city.gdp());
         income.gdpTax = gdp * income.taxRate;
 
         double landTax = 0.0;
         if (landTaxEnabled) {
-            double landValueRatio = Math.max(0.0, city.landValue) / 100.0;
+            double landValueRatio = Math.max(0.0, city.landValue()) / 100.0;
             double landRate = landTaxRate;
             if (!Double.isFinite(landRate) || landRate < 0.0) {
                 landRate = landTaxRateDefault;
             }
             landRate = Math.max(0.0, Math.min(BudgetDefaults.MAX_LAND_TAX_RATE, landRate));
-            landTax = Math.max(0.0, city.population) * landValueRatio * landRate;
+            landTax = Math.max(0.0, city.population()) * landValueRatio * landRate;
         }
         income.landTaxEnabled = landTaxEnabled;
         income.landTax = landTax;
-        income.toleratedTax = toleratedTax(city, BudgetDefaults.MAX_TAX_RATE, taxBaseTolerance, taxToleranceBonus, taxToleranceMin);
-        income.toleratedLandTax = toleratedTax(city, BudgetDefaults.MAX_LAND_TAX_RATE, landTaxBaseTolerance, landTaxToleranceBonus, landTaxToleranceMin);
+        income.toleratedTax = toleratedTax(city.trust(), BudgetDefaults.MAX_TAX_RATE, taxBaseTolerance, taxToleranceBonus, taxToleranceMin);
+        income.toleratedLandTax = toleratedTax(city.trust(), BudgetDefaults.MAX_LAND_TAX_RATE, landTaxBaseTolerance, landTaxToleranceBonus, landTaxToleranceMin);
         income.rawTotal = income.gdpTax + income.landTax;
         return income;
     }
 
-    private BudgetExpenses computeExpenses(City city, BudgetIncome income, double taxRate, double landTaxRate) {
+    private BudgetExpenses computeExpenses(BudgetInputs city, BudgetIncome income, double taxRate, double landTaxRate) {
         double available = snapshotAvailableForSpending(city, income);
-        EconomyBreakdown breakdown = city.economyBreakdown;
-        double maintenanceTransit = breakdown != null ? breakdown.maintenanceTransit : 0.0;
-        double maintenanceLighting = breakdown != null ? breakdown.maintenanceLighting : 0.0;
+        double maintenanceTransit = city.maintenanceTransit();
+        double maintenanceLighting = city.maintenanceLighting();
 
-        double austerityFactor = city.austerityEnabled ? BudgetDefaults.AUSTERITY_UPKEEP_MULT : 1.0;
+        double austerityFactor = city.austerityEnabled() ? BudgetDefaults.AUSTERITY_UPKEEP_MULT : 1.0;
 
-        double adminRequired = Math.max(0.0, city.population * adminPerCapita * austerityFactor);
+        double adminRequired = Math.max(0.0, city.population() * adminPerCapita * austerityFactor);
         double adminPaid = Math.min(adminRequired, available);
         available -= adminPaid;
         SubsystemBudget admin = SubsystemBudget.of(BudgetSubsystem.ADMINISTRATION, adminRequired, adminPaid);
@@ -348,15 +513,15 @@ public class BudgetService {
         available -= publicWorksPaid;
         SubsystemBudget publicWorks = SubsystemBudget.of(BudgetSubsystem.PUBLIC_WORKS, publicWorksRequired, publicWorksPaid);
 
-        income.toleratedTax = toleratedTax(city, BudgetDefaults.MAX_TAX_RATE, taxBaseTolerance, taxToleranceBonus, taxToleranceMin);
-        income.toleratedLandTax = toleratedTax(city, BudgetDefaults.MAX_LAND_TAX_RATE, landTaxBaseTolerance, landTaxToleranceBonus, landTaxToleranceMin);
-        income.collectionEfficiency = collectionEfficiency(city, taxRate, landTaxRate, income.toleratedTax, income.toleratedLandTax);
+        income.toleratedTax = toleratedTax(city.trust(), BudgetDefaults.MAX_TAX_RATE, taxBaseTolerance, taxToleranceBonus, taxToleranceMin);
+        income.toleratedLandTax = toleratedTax(city.trust(), BudgetDefaults.MAX_LAND_TAX_RATE, landTaxBaseTolerance, landTaxToleranceBonus, landTaxToleranceMin);
+        income.collectionEfficiency = collectionEfficiency(city.trust(), taxRate, landTaxRate, income.toleratedTax, income.toleratedLandTax);
 
         double overGdp = Math.max(0.0, income.taxRate - income.toleratedTax);
         double overLand = Math.max(0.0, income.landTaxRate - income.toleratedLandTax);
         double over = Math.max(overGdp, overLand);
         double overIncomePenalty = over > 0 ? clamp(1.0 - over * 2.0, 0.25, 1.0) : 1.0;
-        double effectiveIncome = income.rawTotal * effectiveAdminMultiplier(city, admin.multiplier) * income.collectionEfficiency * overIncomePenalty;
+        double effectiveIncome = income.rawTotal * effectiveAdminMultiplier(city.austerityEnabled(), admin.multiplier) * income.collectionEfficiency * overIncomePenalty;
         income.adminMultiplier = admin.multiplier;
         income.effectiveTotal = effectiveIncome;
 
@@ -369,8 +534,8 @@ public class BudgetService {
         return expenses;
     }
 
-    private double snapshotAvailableForSpending(City city, BudgetIncome income) {
-        double treasury = city.treasury;
+    private double snapshotAvailableForSpending(BudgetInputs city, BudgetIncome income) {
+        double treasury = city.treasury();
         if (!Double.isFinite(treasury)) {
             treasury = 0.0;
         }
@@ -395,23 +560,23 @@ public class BudgetService {
         return Math.max(0.0, Math.min(maxRate, value));
     }
 
-    private double effectiveAdminMultiplier(City city, double actual) {
-        double capped = city.austerityEnabled ? Math.min(actual, BudgetDefaults.AUSTERITY_CAP) : actual;
+    private double effectiveAdminMultiplier(boolean austerityEnabled, double actual) {
+        double capped = austerityEnabled ? Math.min(actual, BudgetDefaults.AUSTERITY_CAP) : actual;
         return clampMultiplier(capped);
     }
 
-    private double effectiveLogisticsMultiplier(City city, double actual) {
-        double capped = city.austerityEnabled ? Math.min(actual, BudgetDefaults.AUSTERITY_CAP) : actual;
+    private double effectiveLogisticsMultiplier(boolean austerityEnabled, double actual) {
+        double capped = austerityEnabled ? Math.min(actual, BudgetDefaults.AUSTERITY_CAP) : actual;
         return clampMultiplier(capped);
     }
 
-    private double effectivePublicWorksMultiplier(City city, double actual) {
-        double capped = city.austerityEnabled ? Math.min(actual, BudgetDefaults.AUSTERITY_CAP) : actual;
+    private double effectivePublicWorksMultiplier(boolean austerityEnabled, double actual) {
+        double capped = austerityEnabled ? Math.min(actual, BudgetDefaults.AUSTERITY_CAP) : actual;
         return clampMultiplier(capped);
     }
 
-    private double collectionEfficiency(City city, double gdpTaxRate, double landTaxRate, double toleratedTax, double toleratedLandTax) {
-        double trustRatio = clampMultiplier(city.trust / 100.0);
+    private double collectionEfficiency(int trust, double gdpTaxRate, double landTaxRate, double toleratedTax, double toleratedLandTax) {
+        double trustRatio = clampMultiplier(trust / 100.0);
         double floor = BudgetDefaults.TRUST_COLLECTION_FLOOR;
         double overShare = 0.0;
         if (gdpTaxRate > toleratedTax) {
@@ -428,13 +593,13 @@ public class BudgetService {
         return floor + (1.0 - floor) * trustRatio;
     }
 
-    private double toleratedTax(City city, double maxRate, double base, double bonus, double min) {
-        double tolerated = base + (clampMultiplier(city.trust / 100.0) * bonus);
+    private double toleratedTax(int trust, double maxRate, double base, double bonus, double min) {
+        double tolerated = base + (clampMultiplier(trust / 100.0) * bonus);
         tolerated = Math.max(min, Math.min(maxRate, tolerated));
         return tolerated;
     }
 
-    private double computeTrustDelta(City city, BudgetSnapshot snapshot, double taxRate, TrustAdjustmentMode mode) {
+    private double computeTrustDelta(BudgetInputs city, BudgetSnapshot snapshot, double taxRate, TrustAdjustmentMode mode) {
         double delta = 0;
         boolean adminOffline = snapshot.expenses.administration != null && snapshot.expenses.administration.state == BudgetSubsystemState.OFFLINE;
         boolean logiOffline = snapshot.expenses.logistics != null && snapshot.expenses.logistics.state == BudgetSubsystemState.OFFLINE;
@@ -446,9 +611,9 @@ public class BudgetService {
         boolean noneOffline = !anyOffline;
 
         double toleratedTax = snapshot.toleratedTax;
-        if (allFunded && taxRate <= toleratedTax && !city.austerityEnabled) {
+        if (allFunded && taxRate <= toleratedTax && !city.austerityEnabled()) {
             delta += 1;
-        } else if (noneOffline && taxRate <= toleratedTax && !city.austerityEnabled) {
+        } else if (noneOffline && taxRate <= toleratedTax && !city.austerityEnabled()) {
             delta += 1;
         }
         if (anyOffline) {
@@ -475,10 +640,10 @@ public class BudgetService {
             if (taxRate <= toleratedTax) {
                 delta = Math.max(BudgetDefaults.TRUST_DELTA_CAP_NEG, Math.min(BudgetDefaults.TRUST_DELTA_CAP_POS, delta));
             }
-            if (city.austerityEnabled && delta > 0) {
+            if (city.austerityEnabled() && delta > 0) {
                 delta = 0;
             }
-            if (withinNeutralBand(city.trust) && delta > 0) {
+            if (withinNeutralBand(city.trust()) && delta > 0) {
                 delta = Math.max(0.5, delta * 0.5);
             }
         }
@@ -488,8 +653,8 @@ public class BudgetService {
     private double computePolicyTrustImpact(City city, BudgetSnapshot snapshot) {
         double newTaxRate = snapshot.income != null ? snapshot.income.taxRate : city.taxRate;
         double newLandRate = snapshot.income != null ? snapshot.income.landTaxRate : city.landTaxRate;
-        double tolerance = toleratedTax(city, BudgetDefaults.MAX_TAX_RATE, taxBaseTolerance, taxToleranceBonus, taxToleranceMin);
-        double toleranceLand = toleratedTax(city, BudgetDefaults.MAX_LAND_TAX_RATE, landTaxBaseTolerance, landTaxToleranceBonus, landTaxToleranceMin);
+        double tolerance = toleratedTax(city.trust, BudgetDefaults.MAX_TAX_RATE, taxBaseTolerance, taxToleranceBonus, taxToleranceMin);
+        double toleranceLand = toleratedTax(city.trust, BudgetDefaults.MAX_LAND_TAX_RATE, landTaxBaseTolerance, landTaxToleranceBonus, landTaxToleranceMin);
         double overFraction = 0.0;
         if (newTaxRate > tolerance) {
             overFraction = Math.max(overFraction, (newTaxRate - tolerance) / BudgetDefaults.MAX_TAX_RATE);
@@ -599,38 +764,45 @@ public class BudgetService {
         breakdown.total = (int) Math.round(clamp(adjustedTotal, 0.0, 100.0));
     }
 
-    private record PreviewSignature(double taxRate,
-                                    double landTaxRate,
-                                    boolean austerity,
-                                    double treasury,
-                                    double gdp,
-                                    double landValue,
-                                    int population,
-                                    int employed,
-                                    double maintenanceTransit,
-                                    double maintenanceLighting,
-                                    boolean landTaxEnabled) {
-        static PreviewSignature from(City city, boolean landTaxEnabled) {
+    private record PreviewCacheEntry(long version, BudgetSnapshot snapshot) { }
+
+    /**
+     * Immutable copy of the city fields the budget maths reads.
+     */
+    private record BudgetInputs(double taxRate,
+                                double landTaxRate,
+                                double treasury,
+                                double gdp,
+                                double landValue,
+                                int population,
+                                int trust,
+                                boolean austerityEnabled,
+                                boolean hasBudgetHistory,
+                                double maintenanceTransit,
+                                double maintenanceLighting) {
+        static BudgetInputs of(City city) {
             EconomyBreakdown breakdown = city.economyBreakdown;
-            double maintenanceTransit = breakdown != null ? breakdown.maintenanceTransit : 0.0;
-            double maintenanceLighting = breakdown != null ? breakdown.maintenanceLighting : 0.0;
-            return new PreviewSignature(
+            return new BudgetInputs(
                     city.taxRate,
                     city.landTaxRate,
-                    city.austerityEnabled,
                     city.treasury,
                     city.gdp,
                     city.landValue,
                     city.population,
-                    city.employed,
-                    maintenanceTransit,
-                    maintenanceLighting,
-                    landTaxEnabled
+                    city.trust,
+                    city.austerityEnabled,
+                    city.lastBudgetSnapshot != null,
+                    breakdown != null ? breakdown.maintenanceTransit : 0.0,
+                    breakdown != null ? breakdown.maintenanceLighting : 0.0
             );
         }
     }
 
-    private record PreviewCacheEntry(PreviewSignature signature, BudgetSnapshot snapshot, long timestamp) { }
+    private record BudgetComputation(BudgetSnapshot snapshot, double taxRate, double landTaxRate, double trustCarry) { }
+
+    private record PendingTick(City city, BudgetInputs inputs, double trustCarry, long generation) { }
+
+    private record ComputedTick(PendingTick pending, BudgetComputation computation) { }
 
     private enum TrustAdjustmentMode {
         TICK,
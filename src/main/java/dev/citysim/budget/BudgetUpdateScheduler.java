@@ -6,6 +6,10 @@ import org.bukkit.plugin.Plugin;
 
 import java.util.logging.Logger;
 
+/**
+ * Drives budget processing. The task runs every server tick; {@link BudgetService} decides which cities are
+ * due in the current tick of the configured budget interval.
+ */
 public class BudgetUpdateScheduler {
     private final Plugin plugin;
     private final Runnable tickTask;
@@ -35,7 +39,7 @@ public class BudgetUpdateScheduler {
         if (isRunning()) {
             return;
         }
-        taskId = Bukkit.getScheduler().scheduleSyncRepeatingTask(plugin, tickTask, budgetIntervalTicks, budgetIntervalTicks);
+        taskId = Bukkit.getScheduler().scheduleSyncRepeatingTask(plugin, tickTask, 1L, 1L);
     }
 
     public void stop() {
@@ -0,0 +1,90 @@
+package dev.citysim.city;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Describes how a city's chunk footprint changed between two cuboid layouts. A chunk counts as
+ * unchanged only when the parts of it clipped by the city's cuboids are identical before and after.
+ */
+public record ChunkFootprintDiff(Set<City.ChunkPosition> added,
+                                 Set<City.ChunkPosition> removed,
+                                 Set<City.ChunkPosition> changed,
+                                 Set<City.ChunkPosition> unchanged) {
+
+    public static ChunkFootprintDiff between(Collection<Cuboid> before, Collection<Cuboid> after) {
+        Map<City.ChunkPosition, Set<ChunkClip>> previous = footprint(before);
+        Map<City.ChunkPosition, Set<ChunkClip>> current = footprint(after);
+
+        Set<City.ChunkPosition> added = new LinkedHashSet<>();
+        Set<City.ChunkPosition> removed = new LinkedHashSet<>();
+        Set<City.ChunkPosition> changed = new LinkedHashSet<>();
+        Set<City.ChunkPosition> unchanged = new LinkedHashSet<>();
+
+        for (Map.Entry<City.ChunkPosition, Set<ChunkClip>> entry : current.entrySet()) {
+            Set<ChunkClip> old = previous.get(entry.getKey());
+            if (old == null) {
+                added.add(entry.getKey());
+            } else if (old.equals(entry.getValue())) {
+                unchanged.add(entry.getKey());
+            } else {
+                changed.add(entry.getKey());
+            }
+        }
+        for (City.ChunkPosition chunk : previous.keySet()) {
+            if (!current.containsKey(chunk)) {
+                removed.add(chunk);
+            }
+        }
+        return new ChunkFootprintDiff(
+                Collections.unmodifiableSet(added),
+                Collections.unmodifiableSet(removed),
+                Collections.unmodifiableSet(changed),
+                Collections.unmodifiableSet(unchanged)
+        );
+    }
+
+    public boolean isEmpty() {
+        return added.isEmpty() && removed.isEmpty() && changed.isEmpty();
+    }
+
+    private static Map<City.ChunkPosition, Set<ChunkClip>> footprint(Collection<Cuboid> cuboids) {
+        Map<City.ChunkPosition, Set<ChunkClip>> clips = new HashMap<>();
+        if (cuboids == null) {
+            return clips;
+        }
+        for (Cuboid cuboid : cuboids) {
+            if (cuboid == null || cuboid.world == null) {
+                continue;
+            }
+            int minCX = cuboid.minX >> 4;
+            int maxCX = cuboid.maxX >> 4;
+            int minCZ = cuboid.minZ >> 4;
+            int maxCZ = cuboid.maxZ >> 4;
+            for (int cx = minCX; cx <= maxCX; cx++) {
+                for (int cz = minCZ; cz <= maxCZ; cz++) {
+                    int chunkMinX = cx << 4;
+                    int chunkMinZ = cz << 4;
+                    int minX = Math.max(cuboid.minX, chunkMinX);
+                    int maxX = Math.min(cuboid.maxX, chunkMinX + 15);
+                    int minZ = Math.max(cuboid.minZ, chunkMinZ);
+                    int maxZ = Math.min(cuboid.maxZ, chunkMinZ + 15);
+                    if (minX > maxX || minZ > maxZ) {
+                        continue;
+                    }
+                    clips.computeIfAbsent(new City.ChunkPosition(cuboid.world, cx, cz), key -> new HashSet<>())
+                            .add(new ChunkClip(minX, maxX, cuboid.minY, cuboid.maxY, minZ, maxZ));
+                }
+            }
+        }
+        return clips;
+    }
+
+    private record ChunkClip(int minX, int maxX, int minY, int maxY, int minZ, int maxZ) {
+    }
+}
@@ -1,5 +1,6 @@
 package dev.citysim.city;
 
+import dev.citysim.stats.ChunkMetricSample;
 import dev.citysim.stats.EconomyBreakdown;
 import dev.citysim.stats.ProsperityBreakdown;
 import dev.citysim.budget.BudgetSnapshot;
@@ -69,6 +70,7 @@ public class City {
     public transient EntityScanCache entityScanCache = null;
     private transient Set<ChunkPosition> residentialChunks = new LinkedHashSet<>();
     private transient java.util.Map<ChunkPosition, BedSnapshot> bedSnapshots = new java.util.HashMap<>();
+    private transient java.util.Map<ChunkPosition, ChunkMetricSample> metricSamples = new java.util.HashMap<>();
 
     public boolean highrise = false;
 
@@ -94,12 +96,74 @@ public class City {
         return false;
     }
 
+    /**
+     * Detached copy of the fields prosperity and economy scoring read, safe to score off the main thread.
+     * Cached metrics and the budget snapshot are shared because they are replaced, not mutated, on update.
+     */
+    public City scoringCopy() {
+        City copy = new City();
+        copy.id = id;
+        copy.name = name;
+        copy.world = world;
+        copy.cuboids = new ArrayList<>(cuboids);
+        copy.population = population;
+        copy.adultPopulation = adultPopulation;
+        copy.employed = employed;
+        copy.unemployed = unemployed;
+        copy.beds = beds;
+        copy.stations = stations;
+        copy.prosperity = prosperity;
+        copy.trust = trust;
+        copy.lastBudgetSnapshot = lastBudgetSnapshot;
+        copy.adminFundingMultiplier = adminFundingMultiplier;
+        copy.logisticsFundingMultiplier = logisticsFundingMultiplier;
+        copy.publicWorksFundingMultiplier = publicWorksFundingMultiplier;
+        copy.sectorAgri = sectorAgri;
+        copy.sectorInd = sectorInd;
+        copy.sectorServ = sectorServ;
+        copy.statsTimestamp = statsTimestamp;
+        copy.blockScanCache = blockScanCache;
+        copy.highrise = highrise;
+        return copy;
+    }
+
     public void invalidateBlockScanCache() {
         blockScanCache = null;
         prosperityBreakdown = null;
         economyBreakdown = null;
         residentialChunks.clear();
         invalidateBedSnapshots();
+        invalidateMetricSamples();
+    }
+
+    /**
+     * Drops cached per-chunk data only for chunks whose clipped footprint was removed or changed.
+     * Bed snapshots of untouched chunks survive, so the next scan only visits new or reshaped chunks.
+     */
+    public void applyGeometryChange(ChunkFootprintDiff diff) {
+        if (diff == null) {
+            invalidateBlockScanCache();
+            return;
+        }
+        expireBlockScanCache();
+        for (ChunkPosition chunk : diff.removed()) {
+            dropChunkCaches(chunk);
+        }
+        for (ChunkPosition chunk : diff.changed()) {
+            dropChunkCaches(chunk);
+        }
+    }
+
+    public void expireBlockScanCache() {
+        if (blockScanCache != null) {
+            blockScanCache.timestamp = 0L;
+        }
+    }
+
+    private void dropChunkCaches(ChunkPosition chunk) {
+        residentialChunks.remove(chunk);
+        bedSnapshotMap().remove(chunk);
+        metricSampleMap().remove(chunk);
     }
 
     public void setResidentialChunks(Collection<ChunkPosition> chunkPositions) {
@@ -145,6 +209,19 @@ public class City {
         }
     }
 
+    public java.util.Map<ChunkPosition, ChunkMetricSample> metricSampleMap() {
+        if (metricSamples == null) {
+            metricSamples = new java.util.HashMap<>();
+        }
+        return metricSamples;
+    }
+
+    public void invalidateMetricSamples() {
+        if (metricSamples != null) {
+            metricSamples.clear();
+        }
+    }
+
     public static class BlockScanCache {
         public double light;
         public double nature;
@@ -153,6 +230,12 @@ public class City {
         public int pollutingBlocks;
         public int pollutionSamples;
         public double overcrowdingPenalty;
+        /** 95% confidence half-widths of the sampled estimates; 0 when every chunk was sampled. */
+        public double lightError;
+        public double natureError;
+        public double pollutionError;
+        public int sampledChunks;
+        public int totalChunks;
         public long timestamp;
     }
 
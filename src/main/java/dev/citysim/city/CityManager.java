@@ -30,6 +30,7 @@ public class CityManager {
     private final Gson gson = new GsonBuilder().setPrettyPrinting().create();
     private final File dataFile;
     private final List<CityManagerListener> listeners = new CopyOnWriteArrayList<>();
+    private final CityMetricsTable metricsTable = new CityMetricsTable();
 
     public CityManager(Plugin plugin) {
         this.plugin = plugin;
@@ -41,6 +42,7 @@ public class CityManager {
     }
 
     public Collection<City> all() { return byId.values(); }
+    public CityMetricsTable metricsTable() { return metricsTable; }
     public City get(String id) { return byId.get(id.toLowerCase(Locale.ROOT)); }
 
     public void addListener(CityManagerListener listener) {
@@ -75,6 +77,7 @@ public class CityManager {
         c.austerityEnabled = false;
         c.treasury = 0.0;
         byId.put(id, c);
+        metricsTable.update(c);
         verifyWorldIndexState("create " + id);
         notifyCityCreated(c);
         return c;
@@ -87,6 +90,7 @@ public class CityManager {
         City removed = byId.remove(id.toLowerCase(Locale.ROOT));
         if (removed != null) {
             removeCityFromWorldIndex(removed);
+            metricsTable.remove(removed);
             int index = 0;
             for (City city : byId.values()) {
                 city.priority = index++;
@@ -115,6 +119,7 @@ public class CityManager {
 
         city.name = newName;
         if (newId.equals(oldId)) {
+            metricsTable.update(city);
             verifyWorldIndexState("rename " + oldId + " (no id change)");
             notifyCityUpdated(city);
             return city;
@@ -128,6 +133,7 @@ public class CityManager {
             byId.put(c.id, c);
         }
 
+        metricsTable.update(city);
         verifyWorldIndexState("rename " + oldId + " -> " + newId);
         notifyCityRenamed(oldId, city);
 
@@ -155,12 +161,13 @@ public class CityManager {
             throw new IllegalArgumentException("Highrise cities cannot contain cuboids with full Y mode.");
         }
 
+        List<Cuboid> before = new ArrayList<>(c.cuboids);
         c.cuboids.add(cuboid);
         if (c.world == null) {
             c.world = cuboid.world;
         }
         addCityToWorldIndex(c);
-        c.invalidateBlockScanCache();
+        c.applyGeometryChange(ChunkFootprintDiff.between(before, c.cuboids));
         verifyWorldIndexState("addCuboid " + id);
         notifyCityUpdated(c);
         return c.cuboids.size();
@@ -184,7 +191,9 @@ public class CityManager {
         }
 
         city.highrise = highrise;
-        city.invalidateBlockScanCache();
+        // Highrise only changes how block metrics are sampled; bed snapshots stay valid.
+        city.invalidateMetricSamples();
+        city.expireBlockScanCache();
         notifyCityUpdated(city);
         return city;
     }
@@ -198,6 +207,7 @@ public class CityManager {
             throw new IllegalArgumentException("Location world cannot be null");
         }
 
+        List<Cuboid> previous = new ArrayList<>(city.cuboids);
         int before = city.cuboids.size();
         city.cuboids.removeIf(c -> c != null && c.contains(location));
         int removed = before - city.cuboids.size();
@@ -208,7 +218,7 @@ public class CityManager {
             addCityToWorldIndex(city);
         }
         if (removed > 0) {
-            city.invalidateBlockScanCache();
+            city.applyGeometryChange(ChunkFootprintDiff.between(previous, city.cuboids));
         }
         if (removed > 0) {
             verifyWorldIndexState("removeCuboidsContaining " + id);
@@ -236,6 +246,26 @@ public class CityManager {
         return null;
     }
 
+    /**
+     * Every city containing the location, for callers that must update all of them where cities overlap.
+     */
+    public List<City> citiesAt(Location loc) {
+        if (loc == null || loc.getWorld() == null) {
+            return List.of();
+        }
+        List<City> candidates = citiesByWorld.get(loc.getWorld().getName());
+        if (candidates == null) {
+            return List.of();
+        }
+        List<City> containing = new ArrayList<>(1);
+        for (City c : candidates) {
+            if (c.contains(loc)) {
+                containing.add(c);
+            }
+        }
+        return containing;
+    }
+
     public void save() {
         try {
             plugin.getDataFolder().mkdirs();
@@ -265,6 +295,7 @@ public class CityManager {
             } catch (JsonParseException e) {
                 byId.clear();
                 citiesByWorld.clear();
+                metricsTable.clear();
                 plugin.getLogger().warning("Failed parsing cities data '" + dataFile.getName() + "': " + e.getMessage() + ". Starting with an empty city list.");
                 return;
             } catch (IOException e) {
@@ -274,6 +305,7 @@ public class CityManager {
         } catch (JsonParseException e) {
             byId.clear();
             citiesByWorld.clear();
+            metricsTable.clear();
             plugin.getLogger().warning("Failed parsing cities data '" + dataFile.getName() + "': " + e.getMessage() + ". Starting with an empty city list.");
             return;
         } catch (IOException e) {
@@ -326,6 +358,7 @@ public class CityManager {
                 addCityToWorldIndex(c);
             }
         }
+        metricsTable.rebuild(byId.values());
         verifyWorldIndexState("load");
     }
 
@@ -0,0 +1,337 @@
+package dev.citysim.city;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.function.IntConsumer;
+import java.util.function.IntPredicate;
+
+/**
+ * Struct-of-arrays copy of the scalar city stats used by bulk queries such as rankings, listings and the
+ * migration averages. Rows are dense and follow city creation order. A row is refreshed whenever stats or a
+ * budget tick are committed for its city, so scans only touch primitive arrays. Main thread only.
+ */
+public class CityMetricsTable {
+    private static final int INITIAL_CAPACITY = 16;
+
+    public enum Column {
+        POPULATION,
+        PROSPERITY,
+        TRUST,
+        EMPLOYMENT_RATE,
+        HOUSING_RATIO,
+        GDP,
+        GDP_PER_CAPITA,
+        LAND_VALUE,
+        TREASURY
+    }
+
+    /**
+     * Orders rows by index; the primitive counterpart of a {@code Comparator<City>}.
+     */
+    @FunctionalInterface
+    public interface RowComparator {
+        int compare(int a, int b);
+
+        default RowComparator then(RowComparator next) {
+            return (a, b) -> {
+                int result = compare(a, b);
+                return result != 0 ? result : next.compare(a, b);
+            };
+        }
+    }
+
+    private final Map<City, Integer> slots = new IdentityHashMap<>();
+    private City[] cities = new City[INITIAL_CAPACITY];
+    private String[] ids = new String[INITIAL_CAPACITY];
+    private String[] names = new String[INITIAL_CAPACITY];
+    private int[] population = new int[INITIAL_CAPACITY];
+    private int[] prosperity = new int[INITIAL_CAPACITY];
+    private int[] trust = new int[INITIAL_CAPACITY];
+    private double[] employmentRate = new double[INITIAL_CAPACITY];
+    private double[] housingRatio = new double[INITIAL_CAPACITY];
+    private double[] gdp = new double[INITIAL_CAPACITY];
+    private double[] gdpPerCapita = new double[INITIAL_CAPACITY];
+    private double[] landValue = new double[INITIAL_CAPACITY];
+    private double[] treasury = new double[INITIAL_CAPACITY];
+    private int size;
+
+    public int size() {
+        return size;
+    }
+
+    public int slotOf(City city) {
+        Integer slot = city != null ? slots.get(city) : null;
+        return slot != null ? slot : -1;
+    }
+
+    public City city(int row) {
+        return cities[row];
+    }
+
+    public String id(int row) {
+        return ids[row];
+    }
+
+    public String name(int row) {
+        return names[row];
+    }
+
+    public int population(int row) {
+        return population[row];
+    }
+
+    public int prosperity(int row) {
+        return prosperity[row];
+    }
+
+    /**
+     * Trust clamped to 0-100.
+     */
+    public int trust(int row) {
+        return trust[row];
+    }
+
+    public double employmentRate(int row) {
+        return employmentRate[row];
+    }
+
+    public double housingRatio(int row) {
+        return housingRatio[row];
+    }
+
+    public double gdp(int row) {
+        return gdp[row];
+    }
+
+    public double gdpPerCapita(int row) {
+        return gdpPerCapita[row];
+    }
+
+    public double landValue(int row) {
+        return landValue[row];
+    }
+
+    /**
+     * Live treasury, falling back to the last budget snapshot when the live value is not finite.
+     */
+    public double treasury(int row) {
+        return treasury[row];
+    }
+
+    public boolean isGhostTown(int row) {
+        return population[row] <= 0;
+    }
+
+    public double value(Column column, int row) {
+        return switch (column) {
+            case POPULATION -> population[row];
+            case PROSPERITY -> prosperity[row];
+            case TRUST -> trust[row];
+            case EMPLOYMENT_RATE -> employmentRate[row];
+            case HOUSING_RATIO -> housingRatio[row];
+            case GDP -> gdp[row];
+            case GDP_PER_CAPITA -> gdpPerCapita[row];
+            case LAND_VALUE -> landValue[row];
+            case TREASURY -> treasury[row];
+        };
+    }
+
+    /**
+     * Copies the city's current stats into its row, appending a row for cities not yet tracked.
+     */
+    public void update(City city) {
+        if (city == null) {
+            return;
+        }
+        Integer slot = slots.get(city);
+        int row;
+        if (slot == null) {
+            ensureCapacity(size + 1);
+            row = size++;
+            slots.put(city, row);
+            cities[row] = city;
+        } else {
+            row = slot;
+        }
+        ids[row] = city.id;
+        names[row] = city.name;
+        population[row] = city.population;
+        prosperity[row] = city.prosperity;
+        trust[row] = Math.max(0, Math.min(100, city.trust));
+        employmentRate[row] = city.employmentRate;
+        housingRatio[row] = city.housingRatio;
+        gdp[row] = city.gdp;
+        gdpPerCapita[row] = city.gdpPerCapita;
+        landValue[row] = city.landValue;
+        treasury[row] = currentTreasury(city);
+    }
+
+    /**
+     * Drops the city's row, shifting later rows down so creation order is kept.
+     */
+    public void remove(City city) {
+        Integer slot = city != null ? slots.remove(city) : null;
+        if (slot == null) {
+            return;
+        }
+        int row = slot;
+        int tail = size - row - 1;
+        if (tail > 0) {
+            System.arraycopy(cities, row + 1, cities, row, tail);
+            System.arraycopy(ids, row + 1, ids, row, tail);
+            System.arraycopy(names, row + 1, names, row, tail);
+            System.arraycopy(population, row + 1, population, row, tail);
+            System.arraycopy(prosperity, row + 1, prosperity, row, tail);
+            System.arraycopy(trust, row + 1, trust, row, tail);
+            System.arraycopy(employmentRate, row + 1, employmentRate, row, tail);
+            System.arraycopy(housingRatio, row + 1, housingRatio, row, tail);
+            System.arraycopy(gdp, row + 1, gdp, row, tail);
+            System.arraycopy(gdpPerCapita, row + 1, gdpPerCapita, row, tail);
+            System.arraycopy(landValue, row + 1, landValue, row, tail);
+            System.arraycopy(treasury, row + 1, treasury, row, tail);
+            for (int i = row; i < size - 1; i++) {
+                slots.put(cities[i], i);
+            }
+        }
+        size--;
+        cities[size] = null;
+        ids[size] = null;
+        names[size] = null;
+    }
+
+    public void rebuild(Collection<City> all) {
+        clear();
+        if (all == null) {
+            return;
+        }
+        for (City city : all) {
+            update(city);
+        }
+    }
+
+    public void clear() {
+        slots.clear();
+        Arrays.fill(cities, 0, size, null);
+        Arrays.fill(ids, 0, size, null);
+        Arrays.fill(names, 0, size, null);
+        size = 0;
+    }
+
+    public void forEachRow(IntConsumer action) {
+        for (int row = 0; row < size; row++) {
+            action.accept(row);
+        }
+    }
+
+    public int[] filter(IntPredicate predicate) {
+        int[] rows = new int[size];
+        int count = 0;
+        for (int row = 0; row < size; row++) {
+            if (predicate.test(row)) {
+                rows[count++] = row;
+            }
+        }
+        return count == size ? rows : Arrays.copyOf(rows, count);
+    }
+
+    /**
+     * All rows in the given order. The sort is stable, so ties keep creation order.
+     */
+    public int[] sorted(RowComparator order) {
+        int[] rows = new int[size];
+        for (int row = 0; row < size; row++) {
+            rows[row] = row;
+        }
+        mergeSort(rows, new int[size], 0, size, order);
+        return rows;
+    }
+
+    /**
+     * The first {@code limit} rows in the given order without sorting the whole table.
+     */
+    public int[] top(int limit, RowComparator order) {
+        int capacity = Math.max(0, Math.min(limit, size));
+        int[] best = new int[capacity];
+        int count = 0;
+        for (int row = 0; row < size && capacity > 0; row++) {
+            if (count == capacity && order.compare(row, best[count - 1]) >= 0) {
+                continue;
+            }
+            int position = count < capacity ? count++ : capacity - 1;
+            while (position > 0 && order.compare(row, best[position - 1]) < 0) {
+                best[position] = best[position - 1];
+                position--;
+            }
+            best[position] = row;
+        }
+        return best;
+    }
+
+    public RowComparator descending(Column column) {
+        return (a, b) -> Double.compare(value(column, b), value(column, a));
+    }
+
+    public RowComparator ghostTownsLast() {
+        return (a, b) -> Boolean.compare(isGhostTown(a), isGhostTown(b));
+    }
+
+    public RowComparator byName() {
+        return (a, b) -> String.CASE_INSENSITIVE_ORDER.compare(nameOrEmpty(a), nameOrEmpty(b));
+    }
+
+    private String nameOrEmpty(int row) {
+        return names[row] != null ? names[row] : "";
+    }
+
+    private static double currentTreasury(City city) {
+        double live = city.treasury;
+        if (Double.isFinite(live)) {
+            return live;
+        }
+        double snapshotValue = city.lastBudgetSnapshot != null ? city.lastBudgetSnapshot.treasuryAfter : 0.0;
+        return Double.isFinite(snapshotValue) ? snapshotValue : 0.0;
+    }
+
+    private static void mergeSort(int[] rows, int[] scratch, int from, int to, RowComparator order) {
+        if (to - from < 2) {
+            return;
+        }
+        int middle = (from + to) >>> 1;
+        mergeSort(rows, scratch, from, middle, order);
+        mergeSort(rows, scratch, middle, to, order);
+        if (order.compare(rows[middle - 1], rows[middle]) <= 0) {
+            return;
+        }
+        System.arraycopy(rows, from, scratch, from, to - from);
+        int left = from;
+        int right = middle;
+        for (int i = from; i < to; i++) {
+            if (right >= to || (left < middle && order.compare(scratch[left], scratch[right]) <= 0)) {
+                rows[i] = scratch[left++];
+            } else {
+                rows[i] = scratch[right++];
+            }
+        }
+    }
+
+    private void ensureCapacity(int required) {
+        if (required <= cities.length) {
+            return;
+        }
+        int capacity = Math.max(required, cities.length * 2);
+        cities = Arrays.copyOf(cities, capacity);
+        ids = Arrays.copyOf(ids, capacity);
+        names = Arrays.copyOf(names, capacity);
+        population = Arrays.copyOf(population, capacity);
+        prosperity = Arrays.copyOf(prosperity, capacity);
+        trust = Arrays.copyOf(trust, capacity);
+        employmentRate = Arrays.copyOf(employmentRate, capacity);
+        housingRatio = Arrays.copyOf(housingRatio, capacity);
+        gdp = Arrays.copyOf(gdp, capacity);
+        gdpPerCapita = Arrays.copyOf(gdpPerCapita, capacity);
+        landValue = Arrays.copyOf(landValue, capacity);
+        treasury = Arrays.copyOf(treasury, capacity);
+    }
+}
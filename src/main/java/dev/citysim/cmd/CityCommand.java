@@ -76,7 +76,7 @@ public class CityCommand implements CommandExecutor {
         register(new DisplayCommand(titleService, bossBarService, scoreboardService));
         register(new TopCommand(cityManager));
         register(new ReloadCommand(plugin));
-        register(new DebugCommand(cityManager, statsService, migrationService, budgetService));
+        register(new DebugCommand(cityManager, statsService, migrationService, budgetService, plugin.getTracer()));
     }
 
     public CitySubcommandRegistry getRegistry() {
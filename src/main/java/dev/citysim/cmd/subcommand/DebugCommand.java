@@ -6,6 +6,8 @@ import dev.citysim.city.City;
 import dev.citysim.city.CityManager;
 import dev.citysim.migration.MigrationService;
 import dev.citysim.stats.StatsService;
+import dev.citysim.trace.TraceCategory;
+import dev.citysim.trace.Tracer;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.format.NamedTextColor;
 import org.bukkit.command.CommandSender;
@@ -13,6 +15,8 @@ import org.bukkit.entity.Player;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
+import java.util.Set;
 
 public class DebugCommand implements CitySubcommand {
 
@@ -20,12 +24,17 @@ public class DebugCommand implements CitySubcommand {
     private final StatsService statsService;
     private final MigrationService migrationService;
     private final BudgetService budgetService;
+    private final Tracer tracer;
 
-    public DebugCommand(CityManager cityManager, StatsService statsService, MigrationService migrationService, BudgetService budgetService) {
+    private static final int DEFAULT_DUMP_LINES = 50;
+
+    public DebugCommand(CityManager cityManager, StatsService statsService, MigrationService migrationService,
+                        BudgetService budgetService, Tracer tracer) {
         this.cityManager = cityManager;
         this.statsService = statsService;
         this.migrationService = migrationService;
         this.budgetService = budgetService;
+        this.tracer = tracer;
     }
 
     @Override
@@ -50,9 +59,16 @@ public class DebugCommand implements CitySubcommand {
         if (migrationService != null) {
             help.add(CommandMessages.help("/city debug show migration"));
         }
+        if (budgetService != null) {
+            help.add(CommandMessages.help("/city debug show previews"));
+        }
         help.add(CommandMessages.help("/city debug set trust <0-100> [cityId|*>]"));
         help.add(CommandMessages.help("/city debug set budget <amount> [cityId|*>]"));
         help.add(CommandMessages.help("/city debug tick budget [cityId|*>]"));
+        if (tracer != null) {
+            help.add(CommandMessages.help("/city debug trace <on|off> <migration|scans|platforms|all> [sampleEvery]"));
+            help.add(CommandMessages.help("/city debug trace <dump [lines]|clear|status>"));
+        }
         return help;
     }
 
@@ -74,6 +90,9 @@ public class DebugCommand implements CitySubcommand {
             case "tick" -> {
                 return handleTick(player, args);
             }
+            case "trace" -> {
+                return handleTrace(player, args);
+            }
             default -> {
                 sendUsage(player);
                 return true;
@@ -84,7 +103,7 @@ public class DebugCommand implements CitySubcommand {
     @Override
     public List<String> tabComplete(CommandSender sender, String[] args) {
         if (args.length == 1) {
-            return List.of("show", "set", "tick");
+            return filterByPrefix(tracer != null ? List.of("show", "set", "tick", "trace") : List.of("show", "set", "tick"), args[0]);
         }
         if (args.length == 2) {
             String first = args[0].toLowerCase();
@@ -94,6 +113,9 @@ public class DebugCommand implements CitySubcommand {
                 if (migrationService != null) {
                     opts.add("migration");
                 }
+                if (budgetService != null) {
+                    opts.add("previews");
+                }
                 return filterByPrefix(opts, args[1]);
             }
             if ("set".equals(first)) {
@@ -102,6 +124,25 @@ public class DebugCommand implements CitySubcommand {
             if ("tick".equals(first)) {
                 return filterByPrefix(List.of("budget"), args[1]);
             }
+            if ("trace".equals(first) && tracer != null) {
+                return filterByPrefix(List.of("on", "off", "dump", "clear", "status"), args[1]);
+            }
+        }
+        if (args.length == 3 && "trace".equalsIgnoreCase(args[0]) && tracer != null) {
+            if ("on".equalsIgnoreCase(args[1]) || "off".equalsIgnoreCase(args[1])) {
+                List<String> opts = new ArrayList<>();
+                for (TraceCategory category : TraceCategory.values()) {
+                    opts.add(category.key());
+                }
+                opts.add("all");
+                return filterByPrefix(opts, args[2]);
+            }
+            if ("dump".equalsIgnoreCase(args[1])) {
+                return List.of(String.valueOf(DEFAULT_DUMP_LINES));
+            }
+        }
+        if (args.length == 4 && "trace".equalsIgnoreCase(args[0]) && "on".equalsIgnoreCase(args[1]) && tracer != null) {
+            return List.of("1", "10");
         }
         if (args.length == 3 && "set".equalsIgnoreCase(args[0])) {
             if ("trust".equalsIgnoreCase(args[1])) {
@@ -127,7 +168,9 @@ public class DebugCommand implements CitySubcommand {
     }
 
     private void sendUsage(Player player) {
-        player.sendMessage(CommandMessages.usage("Usage: /city debug <show|set|tick> ..."));
+        player.sendMessage(CommandMessages.usage(tracer != null
+                ? "Usage: /city debug <show|set|tick|trace> ..."
+                : "Usage: /city debug <show|set|tick> ..."));
     }
 
     private City resolveCity(Player player, String cityId) {
@@ -143,7 +186,7 @@ public class DebugCommand implements CitySubcommand {
 
     private boolean handleShow(Player player, String[] args) {
         if (args.length < 2) {
-            player.sendMessage(CommandMessages.usage("Usage: /city debug show <scans|migration>"));
+            player.sendMessage(CommandMessages.usage("Usage: /city debug show <scans|migration|previews>"));
             return true;
         }
         String target = args[1].toLowerCase();
@@ -169,7 +212,17 @@ public class DebugCommand implements CitySubcommand {
             }
             return true;
         }
-        player.sendMessage(CommandMessages.usage("Usage: /city debug show <scans|migration>"));
+        if ("previews".equals(target) && budgetService != null) {
+            long hits = budgetService.getPreviewCacheHits();
+            long misses = budgetService.getPreviewCacheMisses();
+            long total = hits + misses;
+            double hitRate = total > 0 ? (hits * 100.0) / total : 0.0;
+            player.sendMessage(Component.text(String.format(Locale.US,
+                    "Budget preview cache: %d hits, %d misses (%.1f%% hit rate), %d cached cities.",
+                    hits, misses, hitRate, budgetService.getPreviewCacheSize()), NamedTextColor.AQUA));
+            return true;
+        }
+        player.sendMessage(CommandMessages.usage("Usage: /city debug show <scans|migration|previews>"));
         return true;
     }
 
@@ -197,6 +250,7 @@ public class DebugCommand implements CitySubcommand {
                     if (budgetService != null) {
                         budgetService.invalidatePreview(c);
                     }
+                    cityManager.metricsTable().update(c);
                     count++;
                 }
                 player.sendMessage(Component.text("Set trust for " + count + " cities to " + value + ".", NamedTextColor.GREEN));
@@ -211,6 +265,7 @@ public class DebugCommand implements CitySubcommand {
             if (budgetService != null) {
                 budgetService.invalidatePreview(city);
             }
+            cityManager.metricsTable().update(city);
             player.sendMessage(Component.text("Set trust for " + city.name + " to " + value + ".", NamedTextColor.GREEN));
             return true;
         }
@@ -230,6 +285,7 @@ public class DebugCommand implements CitySubcommand {
                     if (budgetService != null) {
                         budgetService.invalidatePreview(c);
                     }
+                    cityManager.metricsTable().update(c);
                     count++;
                 }
                 player.sendMessage(Component.text("Set treasury for " + count + " cities to " + value + ".", NamedTextColor.GREEN));
@@ -244,6 +300,7 @@ public class DebugCommand implements CitySubcommand {
             if (budgetService != null) {
                 budgetService.invalidatePreview(city);
             }
+            cityManager.metricsTable().update(city);
             player.sendMessage(Component.text("Set treasury for " + city.name + " to " + value + ".", NamedTextColor.GREEN));
             return true;
         }
@@ -285,6 +342,119 @@ public class DebugCommand implements CitySubcommand {
         return true;
     }
 
+    private boolean handleTrace(Player player, String[] args) {
+        if (tracer == null) {
+            player.sendMessage(Component.text("Tracing is unavailable on this server.", NamedTextColor.RED));
+            return true;
+        }
+        String action = args.length >= 2 ? args[1].toLowerCase(Locale.ROOT) : "status";
+        switch (action) {
+            case "on", "off" -> {
+                if (args.length < 3) {
+                    player.sendMessage(CommandMessages.usage("Usage: /city debug trace <on|off> <migration|scans|platforms|all> [sampleEvery]"));
+                    return true;
+                }
+                Set<TraceCategory> categories;
+                if ("all".equalsIgnoreCase(args[2])) {
+                    categories = Set.of(TraceCategory.values());
+                } else {
+                    TraceCategory category = TraceCategory.fromKey(args[2]);
+                    if (category == null) {
+                        player.sendMessage(Component.text("Unknown trace category '" + args[2] + "'.", NamedTextColor.RED));
+                        return true;
+                    }
+                    categories = Set.of(category);
+                }
+                if ("off".equals(action)) {
+                    categories.forEach(tracer::disable);
+                    player.sendMessage(Component.text("Tracing disabled for " + describeCategories(categories) + ".", NamedTextColor.YELLOW));
+                    return true;
+                }
+                int sampleEvery = 1;
+                if (args.length >= 4) {
+                    try {
+                        sampleEvery = Integer.parseInt(args[3]);
+                    } catch (NumberFormatException ex) {
+                        player.sendMessage(Component.text("Sample rate must be a positive number.", NamedTextColor.RED));
+                        return true;
+                    }
+                    if (sampleEvery < 1) {
+                        player.sendMessage(Component.text("Sample rate must be a positive number.", NamedTextColor.RED));
+                        return true;
+                    }
+                }
+                for (TraceCategory category : categories) {
+                    tracer.enable(category, sampleEvery);
+                }
+                String sampling = sampleEvery > 1 ? " (keeping 1 in " + sampleEvery + " events)" : "";
+                player.sendMessage(Component.text("Tracing enabled for " + describeCategories(categories) + sampling + ".", NamedTextColor.GREEN));
+                return true;
+            }
+            case "dump" -> {
+                int lines = DEFAULT_DUMP_LINES;
+                if (args.length >= 3) {
+                    try {
+                        lines = Integer.parseInt(args[2]);
+                    } catch (NumberFormatException ex) {
+                        player.sendMessage(Component.text("Line count must be a number.", NamedTextColor.RED));
+                        return true;
+                    }
+                }
+                lines = Math.max(1, Math.min(tracer.capacity(), lines));
+                List<String> dump = tracer.dump(lines);
+                if (dump.isEmpty()) {
+                    player.sendMessage(Component.text("The trace buffer is empty.", NamedTextColor.YELLOW));
+                    return true;
+                }
+                player.sendMessage(Component.text("Last " + dump.size() + " trace event(s):", NamedTextColor.GOLD));
+                for (String line : dump) {
+                    player.sendMessage(Component.text(line, NamedTextColor.GRAY));
+                }
+                return true;
+            }
+            case "clear" -> {
+                tracer.clear();
+                player.sendMessage(Component.text("Trace buffer cleared.", NamedTextColor.GREEN));
+                return true;
+            }
+            case "status" -> {
+                Set<TraceCategory> enabled = tracer.enabledCategories();
+                StringBuilder status = new StringBuilder("Tracing: ");
+                if (enabled.isEmpty()) {
+                    status.append("off");
+                } else {
+                    List<String> parts = new ArrayList<>();
+                    for (TraceCategory category : enabled) {
+                        int every = tracer.sampleEvery(category);
+                        parts.add(every > 1 ? category.key() + " (1/" + every + ")" : category.key());
+                    }
+                    status.append(String.join(", ", parts));
+                }
+                status.append(" - ").append(tracer.recordedCount()).append(" event(s) recorded, buffer holds ")
+                        .append(tracer.capacity()).append('.');
+                player.sendMessage(Component.text(status.toString(), NamedTextColor.AQUA));
+                return true;
+            }
+            default -> {
+                player.sendMessage(CommandMessages.usage("Usage: /city debug trace <on|off|dump|clear|status> ..."));
+                return true;
+            }
+        }
+    }
+
+    private String describeCategories(Set<TraceCategory> categories) {
+        if (categories.size() == TraceCategory.values().length) {
+            return "all categories";
+        }
+        List<String> keys = new ArrayList<>();
+        for (TraceCategory category : TraceCategory.values()) {
+            if (categories.contains(category)) {
+                keys.add(category.key());
+            }
+        }
+        return String.join(", ", keys);
+    }
+
     private List<String> filterByPrefix(List<String> options, String prefix) {
         String lower = prefix.toLowerCase();
         List<String> matches = new ArrayList<>();
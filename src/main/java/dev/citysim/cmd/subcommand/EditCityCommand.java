@@ -271,7 +271,7 @@ public class EditCityCommand implements CitySubcommand {
         try {
             int index = cityManager.addCuboid(city.id, cuboid);
             cityManager.save();
-            statsService.updateCity(city, true);
+            statsService.updateCityAfterGeometryChange(city);
 
             int width = cuboid.maxX - cuboid.minX + 1;
             int length = cuboid.maxZ - cuboid.minZ + 1;
@@ -327,7 +327,7 @@ public class EditCityCommand implements CitySubcommand {
         }
 
         cityManager.save();
-        statsService.updateCity(city, true);
+        statsService.updateCityAfterGeometryChange(city);
         String suffix = removed == 1 ? " cuboid" : " cuboids";
         player.sendMessage(Component.text()
                 .append(Component.text("Removed ", NamedTextColor.GREEN))
@@ -598,7 +598,7 @@ public class EditCityCommand implements CitySubcommand {
         try {
             cityManager.setHighrise(city.id, enable);
             cityManager.save();
-            statsService.updateCity(city, true);
+            statsService.updateCityAfterGeometryChange(city);
             sender.sendMessage(Component.text()
                     .append(Component.text("City '", NamedTextColor.GREEN))
                     .append(Component.text(city.name, NamedTextColor.GREEN))
@@ -1,7 +1,7 @@
 package dev.citysim.cmd.subcommand;
 
-import dev.citysim.city.City;
 import dev.citysim.city.CityManager;
+import dev.citysim.city.CityMetricsTable;
 import dev.citysim.cmd.CommandFeedback;
 import dev.citysim.cmd.CommandMessages;
 import net.kyori.adventure.text.Component;
@@ -30,17 +30,18 @@ public class ListCitiesCommand implements CitySubcommand {
 
     @Override
     public boolean execute(CommandSender sender, String[] args) {
-        if (cityManager.all().isEmpty()) {
+        CityMetricsTable table = cityManager.metricsTable();
+        if (table.size() == 0) {
             CommandFeedback.sendWarning(sender, "No cities have been created yet.");
             return true;
         }
 
         CommandFeedback.sendInfo(sender, "Cities:");
-        for (City city : cityManager.all()) {
+        for (int row = 0; row < table.size(); row++) {
             sender.sendMessage(Component.text()
-                    .append(Component.text(city.id, NamedTextColor.GOLD))
+                    .append(Component.text(table.id(row), NamedTextColor.GOLD))
                     .append(Component.text(" — ", NamedTextColor.WHITE))
-                    .append(Component.text(city.name, NamedTextColor.WHITE))
+                    .append(Component.text(table.name(row), NamedTextColor.WHITE))
                     .build());
         }
         return true;
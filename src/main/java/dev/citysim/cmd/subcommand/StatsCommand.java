@@ -103,6 +103,7 @@ public class StatsCommand implements CitySubcommand {
         int prosperityTotal = economyBreakdown != null ? economyBreakdown.total : prosperity.total;
         int prosperityBase = economyBreakdown != null ? economyBreakdown.base : prosperity.base;
         city.prosperity = prosperityTotal;
+        cityManager.metricsTable().update(city);
 
         List<String> lines = new ArrayList<>();
         lines.add("");
@@ -2,6 +2,8 @@ package dev.citysim.cmd.subcommand;
 
 import dev.citysim.city.City;
 import dev.citysim.city.CityManager;
+import dev.citysim.city.CityMetricsTable;
+import dev.citysim.city.CityMetricsTable.Column;
 import dev.citysim.cmd.CommandMessages;
 import dev.citysim.util.CurrencyFormatter;
 import net.kyori.adventure.text.Component;
@@ -9,8 +11,6 @@ import net.kyori.adventure.text.format.NamedTextColor;
 import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
 
-import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
 import java.util.Locale;
 
@@ -41,13 +41,12 @@ public class TopCommand implements CitySubcommand {
     public boolean execute(CommandSender sender, String[] args) {
         Player player = (Player) sender;
         Metric metric = Metric.from(args.length >= 1 ? args[0] : "prosperity");
-        List<City> list = new ArrayList<>(cityManager.all());
-        metric.sort(list);
+        CityMetricsTable table = cityManager.metricsTable();
+        int[] rows = table.top(10, metric.comparator(table));
         StringBuilder sb = new StringBuilder();
         sb.append("Top cities by ").append(metric.label).append(":\n");
-        int limit = Math.min(10, list.size());
-        for (int i = 0; i < limit; i++) {
-            City city = list.get(i);
+        for (int i = 0; i < rows.length; i++) {
+            City city = table.city(rows[i]);
             sb.append(metric.formatLine(i + 1, city)).append('\n');
         }
         if (sb.length() > 0 && sb.charAt(sb.length() - 1) == '\n') {
@@ -68,11 +67,10 @@ public class TopCommand implements CitySubcommand {
     private enum Metric {
         PROSPERITY("prosperity") {
             @Override
-            Comparator<City> comparator() {
-                return Comparator
-                        .comparing(City::isGhostTown)
-                        .thenComparing(Comparator.comparingInt((City c) -> c.prosperity).reversed())
-                        .thenComparing(c -> c.name, String.CASE_INSENSITIVE_ORDER);
+            CityMetricsTable.RowComparator comparator(CityMetricsTable table) {
+                return table.ghostTownsLast()
+                        .then(table.descending(Column.PROSPERITY))
+                        .then(table.byName());
             }
 
             @Override
@@ -85,11 +83,10 @@ public class TopCommand implements CitySubcommand {
         },
         POPULATION("population") {
             @Override
-            Comparator<City> comparator() {
-                return Comparator
-                        .comparing(City::isGhostTown)
-                        .thenComparing(Comparator.comparingInt((City c) -> c.population).reversed())
-                        .thenComparing(c -> c.name, String.CASE_INSENSITIVE_ORDER);
+            CityMetricsTable.RowComparator comparator(CityMetricsTable table) {
+                return table.ghostTownsLast()
+                        .then(table.descending(Column.POPULATION))
+                        .then(table.byName());
             }
 
             @Override
@@ -102,12 +99,11 @@ public class TopCommand implements CitySubcommand {
         },
         GDP("GDP") {
             @Override
-            Comparator<City> comparator() {
-                return Comparator
-                        .comparing(City::isGhostTown)
-                        .thenComparing(Comparator.comparingDouble((City c) -> c.gdp).reversed())
-                        .thenComparing(Comparator.comparingInt((City c) -> c.prosperity).reversed())
-                        .thenComparing(c -> c.name, String.CASE_INSENSITIVE_ORDER);
+            CityMetricsTable.RowComparator comparator(CityMetricsTable table) {
+                return table.ghostTownsLast()
+                        .then(table.descending(Column.GDP))
+                        .then(table.descending(Column.PROSPERITY))
+                        .then(table.byName());
             }
 
             @Override
@@ -118,12 +114,11 @@ public class TopCommand implements CitySubcommand {
         },
         GDP_PER_CAPITA("GDP per capita") {
             @Override
-            Comparator<City> comparator() {
-                return Comparator
-                        .comparing(City::isGhostTown)
-                        .thenComparing(Comparator.comparingDouble((City c) -> c.gdpPerCapita).reversed())
-                        .thenComparing(Comparator.comparingInt((City c) -> c.prosperity).reversed())
-                        .thenComparing(c -> c.name, String.CASE_INSENSITIVE_ORDER);
+            CityMetricsTable.RowComparator comparator(CityMetricsTable table) {
+                return table.ghostTownsLast()
+                        .then(table.descending(Column.GDP_PER_CAPITA))
+                        .then(table.descending(Column.PROSPERITY))
+                        .then(table.byName());
             }
 
             @Override
@@ -134,12 +129,11 @@ public class TopCommand implements CitySubcommand {
         },
         LAND_VALUE("land value") {
             @Override
-            Comparator<City> comparator() {
-                return Comparator
-                        .comparing(City::isGhostTown)
-                        .thenComparing(Comparator.comparingDouble((City c) -> c.landValue).reversed())
-                        .thenComparing(Comparator.comparingInt((City c) -> c.prosperity).reversed())
-                        .thenComparing(c -> c.name, String.CASE_INSENSITIVE_ORDER);
+            CityMetricsTable.RowComparator comparator(CityMetricsTable table) {
+                return table.ghostTownsLast()
+                        .then(table.descending(Column.LAND_VALUE))
+                        .then(table.descending(Column.PROSPERITY))
+                        .then(table.byName());
             }
 
             @Override
@@ -150,11 +144,10 @@ public class TopCommand implements CitySubcommand {
         },
         TRUST("trust") {
             @Override
-            Comparator<City> comparator() {
-                return Comparator
-                        .comparingInt((City c) -> Math.max(0, Math.min(100, c.trust))).reversed()
-                        .thenComparing(City::isGhostTown)
-                        .thenComparing(c -> c.name, String.CASE_INSENSITIVE_ORDER);
+            CityMetricsTable.RowComparator comparator(CityMetricsTable table) {
+                return table.descending(Column.TRUST)
+                        .then(table.ghostTownsLast())
+                        .then(table.byName());
             }
 
             @Override
@@ -165,11 +158,10 @@ public class TopCommand implements CitySubcommand {
         },
         BUDGET("budget") {
             @Override
-            Comparator<City> comparator() {
-                return Comparator
-                        .comparingDouble((City c) -> currentTreasury(c)).reversed()
-                        .thenComparing(City::isGhostTown)
-                        .thenComparing(c -> c.name, String.CASE_INSENSITIVE_ORDER);
+            CityMetricsTable.RowComparator comparator(CityMetricsTable table) {
+                return table.descending(Column.TREASURY)
+                        .then(table.ghostTownsLast())
+                        .then(table.byName());
             }
 
             @Override
@@ -186,14 +178,10 @@ public class TopCommand implements CitySubcommand {
             this.label = label;
         }
 
-        abstract Comparator<City> comparator();
+        abstract CityMetricsTable.RowComparator comparator(CityMetricsTable table);
 
         abstract String formatLine(int rank, City city);
 
-        void sort(List<City> cities) {
-            cities.sort(comparator());
-        }
-
         static Metric from(String input) {
             if (input == null) {
                 return PROSPERITY;
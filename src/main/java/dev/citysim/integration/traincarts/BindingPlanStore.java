@@ -0,0 +1,155 @@
+package dev.citysim.integration.traincarts;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import org.bukkit.plugin.Plugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.CodeSource;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Remembers which TrainCarts member exposed the sign chunks, keyed by the TrainCarts version and a hash of its jar, so
+ * later startups can bind it directly instead of searching the class hierarchy again.
+ */
+final class BindingPlanStore {
+
+    static final int VERSION = 1;
+
+    private final Gson gson = new Gson();
+    private final File file;
+    private final Logger logger;
+
+    BindingPlanStore(File file, Logger logger) {
+        this.file = file;
+        this.logger = logger;
+    }
+
+    /**
+     * Returns the stored plan when it was recorded for the same TrainCarts build, otherwise {@code null}.
+     */
+    Plan load(Key key) {
+        if (file == null || key == null || !file.exists()) {
+            return null;
+        }
+        try (Reader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            Snapshot snapshot = gson.fromJson(reader, Snapshot.class);
+            if (snapshot == null || snapshot.version() != VERSION || snapshot.plan() == null) {
+                return null;
+            }
+            Plan plan = snapshot.plan();
+            return plan.isWellFormed() && key.equals(plan.key()) ? plan : null;
+        } catch (IOException | JsonParseException e) {
+            warn("Failed loading TrainCarts binding cache '" + file.getName() + "': " + e.getMessage(), null);
+            return null;
+        }
+    }
+
+    void save(Plan plan) {
+        if (file == null || plan == null) {
+            return;
+        }
+        Path target = file.toPath();
+        Path temp = target.resolveSibling(file.getName() + ".tmp");
+        try {
+            Files.createDirectories(target.toAbsolutePath().getParent());
+            try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                gson.toJson(new Snapshot(VERSION, plan), writer);
+            }
+            try {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            warn("Failed saving TrainCarts binding cache: " + e.getMessage(), e);
+        }
+    }
+
+    void clear() {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file.toPath());
+        } catch (IOException e) {
+            warn("Failed clearing TrainCarts binding cache: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Identifies the running TrainCarts build, or {@code null} when its version or jar cannot be determined.
+     */
+    static Key keyFor(Plugin trainCarts) {
+        String version = trainCarts.getPluginMeta() != null ? trainCarts.getPluginMeta().getVersion() : null;
+        CodeSource source = trainCarts.getClass().getProtectionDomain().getCodeSource();
+        if (version == null || source == null || source.getLocation() == null) {
+            return null;
+        }
+        try {
+            return new Key(version, hash(Path.of(source.getLocation().toURI())));
+        } catch (IOException | URISyntaxException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    static String hash(Path jar) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        byte[] buffer = new byte[8192];
+        try (InputStream in = Files.newInputStream(jar)) {
+            for (int read = in.read(buffer); read >= 0; read = in.read(buffer)) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private void warn(String message, Throwable error) {
+        if (logger != null) {
+            logger.log(Level.WARNING, message, error);
+        }
+    }
+
+    record Key(String trainCartsVersion, String jarHash) {
+    }
+
+    /**
+     * The member of {@code owner} that returned sign chunks holding entries; {@code field} tells whether it is a
+     * field or a zero-argument method.
+     */
+    record Plan(String trainCartsVersion, String jarHash, String owner, String member, boolean field) {
+        Plan(Key key, String owner, String member, boolean field) {
+            this(key.trainCartsVersion(), key.jarHash(), owner, member, field);
+        }
+
+        Key key() {
+            return new Key(trainCartsVersion, jarHash);
+        }
+
+        boolean isWellFormed() {
+            return trainCartsVersion != null && jarHash != null && owner != null && member != null;
+        }
+    }
+
+    private record Snapshot(int version, Plan plan) {
+    }
+}
@@ -0,0 +1,205 @@
+package dev.citysim.integration.traincarts;
+
+import dev.citysim.city.Cuboid;
+import dev.citysim.util.LongObjectMap;
+import org.bukkit.block.Block;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Station sign positions of one world, bucketed by chunk and packed into longs. The blocks are kept next to their
+ * positions so lookups never have to touch the world again.
+ */
+final class StationSignIndex {
+    private final LongObjectMap<Bucket> chunks = new LongObjectMap<>();
+    private final long builtAt;
+    private int size;
+
+    StationSignIndex(long builtAt) {
+        this.builtAt = builtAt;
+    }
+
+    long builtAt() {
+        return builtAt;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean add(Block block) {
+        int x = block.getX();
+        int z = block.getZ();
+        long key = chunkKey(x >> 4, z >> 4);
+        Bucket bucket = chunks.get(key);
+        if (bucket == null) {
+            bucket = new Bucket(x >> 4, z >> 4);
+            chunks.put(key, bucket);
+        }
+        if (!bucket.add(pack(x, block.getY(), z), block)) {
+            return false;
+        }
+        size++;
+        return true;
+    }
+
+    boolean remove(int x, int y, int z) {
+        long key = chunkKey(x >> 4, z >> 4);
+        Bucket bucket = chunks.get(key);
+        if (bucket == null || !bucket.remove(pack(x, y, z))) {
+            return false;
+        }
+        if (bucket.size == 0) {
+            chunks.remove(key);
+        }
+        size--;
+        return true;
+    }
+
+    boolean contains(int x, int y, int z) {
+        Bucket bucket = chunks.get(chunkKey(x >> 4, z >> 4));
+        return bucket != null && bucket.indexOf(pack(x, y, z)) >= 0;
+    }
+
+    /**
+     * Visits every indexed sign inside any of the cuboids exactly once. Chunks covered by several cuboids are only
+     * walked for the first of them; when the cuboids span more chunks than the index holds, the buckets are scanned
+     * instead.
+     */
+    void query(List<Cuboid> cuboids, Consumer<Block> sink) {
+        if (size == 0 || cuboids.isEmpty()) {
+            return;
+        }
+        long span = 0L;
+        for (Cuboid cuboid : cuboids) {
+            if (cuboid != null) {
+                span += (long) ((cuboid.maxX >> 4) - (cuboid.minX >> 4) + 1) * ((cuboid.maxZ >> 4) - (cuboid.minZ >> 4) + 1);
+            }
+        }
+        if (span > chunks.size()) {
+            chunks.forEachValue(bucket -> {
+                if (coveredBy(cuboids, cuboids.size(), bucket.chunkX, bucket.chunkZ)) {
+                    bucket.collect(cuboids, sink);
+                }
+            });
+            return;
+        }
+        for (int i = 0; i < cuboids.size(); i++) {
+            Cuboid cuboid = cuboids.get(i);
+            if (cuboid == null) {
+                continue;
+            }
+            for (int chunkX = cuboid.minX >> 4; chunkX <= cuboid.maxX >> 4; chunkX++) {
+                for (int chunkZ = cuboid.minZ >> 4; chunkZ <= cuboid.maxZ >> 4; chunkZ++) {
+                    Bucket bucket = chunks.get(chunkKey(chunkX, chunkZ));
+                    if (bucket != null && !coveredBy(cuboids, i, chunkX, chunkZ)) {
+                        bucket.collect(cuboids, sink);
+                    }
+                }
+            }
+        }
+    }
+
+    private static boolean coveredBy(List<Cuboid> cuboids, int limit, int chunkX, int chunkZ) {
+        for (int i = 0; i < limit; i++) {
+            Cuboid cuboid = cuboids.get(i);
+            if (cuboid != null
+                    && chunkX >= cuboid.minX >> 4 && chunkX <= cuboid.maxX >> 4
+                    && chunkZ >= cuboid.minZ >> 4 && chunkZ <= cuboid.maxZ >> 4) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean insideAny(List<Cuboid> cuboids, int x, int y, int z) {
+        for (Cuboid cuboid : cuboids) {
+            if (cuboid != null
+                    && x >= cuboid.minX && x <= cuboid.maxX
+                    && z >= cuboid.minZ && z <= cuboid.maxZ
+                    && y >= cuboid.minY && y <= cuboid.maxY) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static long chunkKey(int chunkX, int chunkZ) {
+        return ((long) chunkX << 32) ^ (chunkZ & 0xffffffffL);
+    }
+
+    static long pack(int x, int y, int z) {
+        return ((long) (x & 0x3FFFFFF) << 38) | ((long) (z & 0x3FFFFFF) << 12) | (y & 0xFFF);
+    }
+
+    static int unpackX(long packed) {
+        return (int) (packed >> 38);
+    }
+
+    static int unpackY(long packed) {
+        return (int) (packed << 52 >> 52);
+    }
+
+    static int unpackZ(long packed) {
+        return (int) (packed << 26 >> 38);
+    }
+
+    private static final class Bucket {
+        private final int chunkX;
+        private final int chunkZ;
+        private long[] positions = new long[2];
+        private Block[] blocks = new Block[2];
+        private int size;
+
+        private Bucket(int chunkX, int chunkZ) {
+            this.chunkX = chunkX;
+            this.chunkZ = chunkZ;
+        }
+
+        private boolean add(long packed, Block block) {
+            if (indexOf(packed) >= 0) {
+                return false;
+            }
+            if (size == positions.length) {
+                positions = Arrays.copyOf(positions, size * 2);
+                blocks = Arrays.copyOf(blocks, size * 2);
+            }
+            positions[size] = packed;
+            blocks[size] = block;
+            size++;
+            return true;
+        }
+
+        private boolean remove(long packed) {
+            int index = indexOf(packed);
+            if (index < 0) {
+                return false;
+            }
+            size--;
+            positions[index] = positions[size];
+            blocks[index] = blocks[size];
+            blocks[size] = null;
+            return true;
+        }
+
+        private int indexOf(long packed) {
+            for (int i = 0; i < size; i++) {
+                if (positions[i] == packed) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private void collect(List<Cuboid> cuboids, Consumer<Block> sink) {
+            for (int i = 0; i < size; i++) {
+                long packed = positions[i];
+                if (insideAny(cuboids, unpackX(packed), unpackY(packed), unpackZ(packed))) {
+                    sink.accept(blocks[i]);
+                }
+            }
+        }
+    }
+}
@@ -9,11 +9,15 @@ import org.bukkit.block.sign.Side;
 import org.bukkit.block.sign.SignSide;
 import org.bukkit.plugin.Plugin;
 
+import java.io.File;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.AccessibleObject;
 import java.lang.reflect.Array;
 import java.lang.reflect.Field;
 import java.lang.reflect.GenericArrayType;
-import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Member;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.lang.reflect.ParameterizedType;
@@ -28,6 +32,7 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Consumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -39,6 +44,9 @@ import java.util.logging.Logger;
 public class TrainCartsReflectionBinder {
 
     private static final LegacyComponentSerializer SIGN_TEXT_SERIALIZER = LegacyComponentSerializer.legacySection();
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+    private static final MethodType ACCESSOR_TYPE = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType CONDITION_TYPE = MethodType.methodType(boolean.class, Object.class);
 
     public interface TrainCartsBinding {
         Object getSignController() throws ReflectiveOperationException;
@@ -62,9 +70,19 @@ public class TrainCartsReflectionBinder {
     }
 
     private final Logger logger;
+    private final BindingPlanStore planStore;
 
     public TrainCartsReflectionBinder(Logger logger) {
+        this(logger, null);
+    }
+
+    /**
+     * @param planFile where the resolved sign chunk accessor is remembered between startups, or {@code null} to
+     *                 always discover it
+     */
+    public TrainCartsReflectionBinder(Logger logger, File planFile) {
         this.logger = logger;
+        this.planStore = planFile != null ? new BindingPlanStore(planFile, logger) : null;
     }
 
     public TrainCartsBinding bind(Plugin trainCarts) throws ReflectiveOperationException {
@@ -117,7 +135,8 @@ public class TrainCartsReflectionBinder {
                 longHashMapClass,
                 longHashMapValuesMethod);
 
-        SignChunksAccessor signChunksAccessor = discoverSignChunksAccessor(
+        SignChunksAccessor signChunksAccessor = bindSignChunksAccessor(
+                trainCarts,
                 signControllerWorldClass,
                 chunkClass,
                 entryClass,
@@ -168,20 +187,119 @@ public class TrainCartsReflectionBinder {
 
         return new ReflectionBinding(
                 trainCarts,
-                getSignControllerMethod,
-                signControllerForWorldMethod,
-                signControllerWorldIsEnabledMethod,
+                accessor(getSignControllerMethod),
+                biAccessor(signControllerForWorldMethod),
+                condition(signControllerWorldIsEnabledMethod),
                 signChunksAccessor,
-                entryClass,
-                entryGetBlockMethod,
-                entryHasSignActionEventsMethod,
-                entryCreateFrontTrackedSignMethod,
-                entryCreateBackTrackedSignMethod,
-                railPieceNone,
-                trackedSignGetLineMethod,
+                accessor(entryGetBlockMethod),
+                entryHasSignActionEventsMethod != null ? condition(entryHasSignActionEventsMethod) : null,
+                entryCreateFrontTrackedSignMethod != null ? accessor(entryCreateFrontTrackedSignMethod, railPieceNone) : null,
+                entryCreateBackTrackedSignMethod != null ? accessor(entryCreateBackTrackedSignMethod, railPieceNone) : null,
+                lineReader(trackedSignGetLineMethod),
                 chunkIntrospector);
     }
 
+    /**
+     * Turns a discovered method into a direct accessor. The handle is adapted once to an erased signature, so each
+     * call is a plain {@code invokeExact} without the argument array, boxing and access checks of
+     * {@link Method#invoke}. Trailing arguments are bound into the handle.
+     */
+    static Accessor accessor(Method method, Object... trailing) throws IllegalAccessException {
+        MethodHandle handle = unreflect(method);
+        if (trailing.length > 0) {
+            handle = MethodHandles.insertArguments(handle, 1, trailing);
+        }
+        MethodHandle exact = handle.asType(ACCESSOR_TYPE);
+        return target -> {
+            try {
+                return (Object) exact.invokeExact(target);
+            } catch (Throwable ex) {
+                throw rethrow(ex);
+            }
+        };
+    }
+
+    static BiAccessor biAccessor(Method method) throws IllegalAccessException {
+        MethodHandle exact = unreflect(method).asType(MethodType.methodType(Object.class, Object.class, Object.class));
+        return (target, argument) -> {
+            try {
+                return (Object) exact.invokeExact(target, argument);
+            } catch (Throwable ex) {
+                throw rethrow(ex);
+            }
+        };
+    }
+
+    static Condition condition(Method method) throws IllegalAccessException {
+        MethodHandle exact = unreflect(method).asType(CONDITION_TYPE);
+        return target -> {
+            try {
+                return (boolean) exact.invokeExact(target);
+            } catch (Throwable ex) {
+                throw rethrow(ex);
+            }
+        };
+    }
+
+    static LineReader lineReader(Method method) throws IllegalAccessException {
+        MethodHandle exact = unreflect(method).asType(MethodType.methodType(Object.class, Object.class, int.class));
+        return (target, index) -> {
+            try {
+                return (Object) exact.invokeExact(target, index);
+            } catch (Throwable ex) {
+                throw rethrow(ex);
+            }
+        };
+    }
+
+    private static Accessor fieldAccessor(Field field) throws IllegalAccessException {
+        ensureAccessible(field);
+        MethodHandle exact = LOOKUP.unreflectGetter(field).asType(ACCESSOR_TYPE);
+        return target -> {
+            try {
+                return (Object) exact.invokeExact(target);
+            } catch (Throwable ex) {
+                throw rethrow(ex);
+            }
+        };
+    }
+
+    private static MethodHandle unreflect(Method method) throws IllegalAccessException {
+        method.trySetAccessible();
+        return LOOKUP.unreflect(method);
+    }
+
+    /**
+     * Mirrors {@link Method#invoke}: failures inside TrainCarts surface as a {@link ReflectiveOperationException}
+     * carrying the original cause.
+     */
+    private static ReflectiveOperationException rethrow(Throwable ex) {
+        if (ex instanceof ReflectiveOperationException reflective) {
+            return reflective;
+        }
+        return new ReflectiveOperationException(ex);
+    }
+
+    @FunctionalInterface
+    interface Accessor {
+        Object get(Object target) throws ReflectiveOperationException;
+    }
+
+    @FunctionalInterface
+    interface BiAccessor {
+        Object get(Object target, Object argument) throws ReflectiveOperationException;
+    }
+
+    @FunctionalInterface
+    interface Condition {
+        boolean test(Object target) throws ReflectiveOperationException;
+    }
+
+    @FunctionalInterface
+    interface LineReader {
+        Object line(Object target, int index) throws ReflectiveOperationException;
+    }
+
     private void logFine(String message) {
         if (logger != null) {
             logger.log(Level.FINE, message);
@@ -198,29 +316,95 @@ public class TrainCartsReflectionBinder {
         throw new IllegalStateException("Unable to access member via reflection: " + member);
     }
 
-    private SignChunksAccessor discoverSignChunksAccessor(Class<?> signControllerWorldClass,
-                                                           Class<?> chunkClass,
-                                                           Class<?> entryClass,
-                                                           ChunkIntrospector chunkIntrospector)
+    /**
+     * Binds the sign chunk accessor from the cached plan when it was recorded for this TrainCarts build. Discovery,
+     * including the adaptive probing, only runs without a usable plan or once the planned accessor fails.
+     */
+    private SignChunksAccessor bindSignChunksAccessor(Plugin trainCarts,
+                                                      Class<?> signControllerWorldClass,
+                                                      Class<?> chunkClass,
+                                                      Class<?> entryClass,
+                                                      ChunkIntrospector chunkIntrospector)
+            throws ReflectiveOperationException {
+        BindingPlanStore.Key key = planStore != null ? BindingPlanStore.keyFor(trainCarts) : null;
+        return bindSignChunksAccessor(key, signControllerWorldClass, chunkClass, entryClass, chunkIntrospector);
+    }
+
+    /**
+     * Same as above for an already resolved build key. Without a key or plan file no plan is loaded or recorded.
+     */
+    SignChunksAccessor bindSignChunksAccessor(BindingPlanStore.Key buildKey,
+                                              Class<?> signControllerWorldClass,
+                                              Class<?> chunkClass,
+                                              Class<?> entryClass,
+                                              ChunkIntrospector chunkIntrospector)
+            throws ReflectiveOperationException {
+        BindingPlanStore.Key key = planStore != null ? buildKey : null;
+        Consumer<Member> recorder = key == null
+                ? member -> {
+                }
+                : member -> planStore.save(new BindingPlanStore.Plan(
+                        key, member.getDeclaringClass().getName(), member.getName(), member instanceof Field));
+
+        BindingPlanStore.Plan plan = key != null ? planStore.load(key) : null;
+        SignChunksAccessor planned = plan != null ? applyPlan(plan, signControllerWorldClass, chunkIntrospector) : null;
+        if (planned == null) {
+            return discoverSignChunksAccessor(signControllerWorldClass, chunkClass, entryClass, chunkIntrospector, recorder);
+        }
+        logFine("Bound TrainCarts sign chunks through cached plan " + plan.owner() + "#" + plan.member());
+        return new PlannedSignChunksAccessor(planned, () -> {
+            planStore.clear();
+            return discoverSignChunksAccessor(signControllerWorldClass, chunkClass, entryClass, chunkIntrospector, recorder);
+        });
+    }
+
+    private SignChunksAccessor applyPlan(BindingPlanStore.Plan plan,
+                                         Class<?> signControllerWorldClass,
+                                         ChunkIntrospector chunkIntrospector) {
+        try {
+            Class<?> owner = Class.forName(plan.owner(), false, signControllerWorldClass.getClassLoader());
+            if (!owner.isAssignableFrom(signControllerWorldClass)) {
+                return null;
+            }
+            if (plan.field()) {
+                return createFieldAccessor(owner.getDeclaredField(plan.member()), chunkIntrospector);
+            }
+            return createMethodAccessor(owner.getDeclaredMethod(plan.member()), chunkIntrospector);
+        } catch (ReflectiveOperationException | RuntimeException ex) {
+            logFine("Cached TrainCarts binding plan " + plan.owner() + "#" + plan.member()
+                    + " no longer applies; discovering again");
+            return null;
+        }
+    }
+
+    SignChunksAccessor discoverSignChunksAccessor(Class<?> signControllerWorldClass,
+                                                  Class<?> chunkClass,
+                                                  Class<?> entryClass,
+                                                  ChunkIntrospector chunkIntrospector,
+                                                  Consumer<Member> recorder)
             throws ReflectiveOperationException {
         Field namedField = findField(signControllerWorldClass, "signChunks");
         if (namedField != null) {
+            recorder.accept(namedField);
             return createFieldAccessor(namedField, chunkIntrospector);
         }
 
         Method namedMethod = findZeroArgMethod(signControllerWorldClass, "getSignChunks");
         if (namedMethod != null) {
+            recorder.accept(namedMethod);
             return createMethodAccessor(namedMethod, chunkIntrospector);
         }
 
         if (chunkClass != null) {
             Field chunkField = findFieldReferencingType(signControllerWorldClass, chunkClass);
             if (chunkField != null) {
+                recorder.accept(chunkField);
                 return createFieldAccessor(chunkField, chunkIntrospector);
             }
 
             Method chunkMethod = findMethodReferencingType(signControllerWorldClass, chunkClass);
             if (chunkMethod != null) {
+                recorder.accept(chunkMethod);
                 return createMethodAccessor(chunkMethod, chunkIntrospector);
             }
         }
@@ -229,7 +413,8 @@ public class TrainCartsReflectionBinder {
                 signControllerWorldClass,
                 chunkIntrospector,
                 chunkClass,
-                entryClass);
+                entryClass,
+                recorder);
         if (fallback != null) {
             return fallback;
         }
@@ -240,7 +425,8 @@ public class TrainCartsReflectionBinder {
     private SignChunksAccessor discoverFallbackAccessor(Class<?> signControllerWorldClass,
                                                          ChunkIntrospector chunkIntrospector,
                                                          Class<?> chunkClass,
-                                                         Class<?> entryClass) {
+                                                         Class<?> entryClass,
+                                                         Consumer<Member> recorder) {
         List<AccessorCandidate> candidates = new ArrayList<>();
 
         for (Class<?> current = signControllerWorldClass; current != null; current = current.getSuperclass()) {
@@ -255,9 +441,15 @@ public class TrainCartsReflectionBinder {
                         && !referencesEntry) {
                     continue;
                 }
-                ensureAccessible(field);
+                SignChunksAccessor accessor;
+                try {
+                    accessor = createFieldAccessor(field, chunkIntrospector);
+                } catch (IllegalAccessException | RuntimeException ex) {
+                    continue;
+                }
                 candidates.add(new AccessorCandidate(
-                        createFieldAccessor(field, chunkIntrospector),
+                        accessor,
+                        field,
                         field.getDeclaringClass().getName() + "#" + field.getName()));
             }
         }
@@ -275,9 +467,15 @@ public class TrainCartsReflectionBinder {
                         && !referencesEntry) {
                     continue;
                 }
-                ensureAccessible(method);
+                SignChunksAccessor accessor;
+                try {
+                    accessor = createMethodAccessor(method, chunkIntrospector);
+                } catch (IllegalAccessException | RuntimeException ex) {
+                    continue;
+                }
                 candidates.add(new AccessorCandidate(
-                        createMethodAccessor(method, chunkIntrospector),
+                        accessor,
+                        method,
                         method.getDeclaringClass().getName() + "#" + method.getName() + "()"));
             }
         }
@@ -290,7 +488,8 @@ public class TrainCartsReflectionBinder {
                 signControllerWorldClass,
                 candidates,
                 entryClass,
-                chunkIntrospector);
+                chunkIntrospector,
+                recorder);
     }
 
     private boolean isCollectionLikeRaw(Class<?> rawType, ChunkIntrospector chunkIntrospector) {
@@ -308,22 +507,17 @@ public class TrainCartsReflectionBinder {
         return chunkIntrospector != null && chunkIntrospector.isKnownContainerType(rawType);
     }
 
-    private SignChunksAccessor createFieldAccessor(Field field, ChunkIntrospector chunkIntrospector) {
-        ensureAccessible(field);
-        return worldController -> chunkIntrospector.toCollection(field.get(worldController));
+    private SignChunksAccessor createFieldAccessor(Field field, ChunkIntrospector chunkIntrospector)
+            throws IllegalAccessException {
+        Accessor getter = fieldAccessor(field);
+        return worldController -> chunkIntrospector.toCollection(getter.get(worldController));
     }
 
-    private SignChunksAccessor createMethodAccessor(Method method, ChunkIntrospector chunkIntrospector) {
+    private SignChunksAccessor createMethodAccessor(Method method, ChunkIntrospector chunkIntrospector)
+            throws IllegalAccessException {
         ensureAccessible(method);
-        return worldController -> {
-            try {
-                Object container = method.invoke(worldController);
-                return chunkIntrospector.toCollection(container);
-            } catch (InvocationTargetException ex) {
-                Throwable cause = ex.getCause();
-                throw new ReflectiveOperationException(cause != null ? cause : ex);
-            }
-        };
+        Accessor getter = accessor(method);
+        return worldController -> chunkIntrospector.toCollection(getter.get(worldController));
     }
 
     private Field findField(Class<?> type, String name) {
@@ -448,32 +642,76 @@ public class TrainCartsReflectionBinder {
 
     private static final class AccessorCandidate {
         private final SignChunksAccessor accessor;
+        private final Member member;
         private final String description;
 
-        private AccessorCandidate(SignChunksAccessor accessor, String description) {
+        private AccessorCandidate(SignChunksAccessor accessor, Member member, String description) {
             this.accessor = accessor;
+            this.member = member;
             this.description = description;
         }
     }
 
-    private interface SignChunksAccessor {
+    interface SignChunksAccessor {
         Collection<?> load(Object worldController) throws ReflectiveOperationException;
     }
 
+    private interface SignChunksDiscovery {
+        SignChunksAccessor discover() throws ReflectiveOperationException;
+    }
+
+    /**
+     * Accessor bound from the cached plan. The first failure clears the plan and hands over to regular discovery for
+     * the rest of the session.
+     */
+    private static final class PlannedSignChunksAccessor implements SignChunksAccessor {
+        private final SignChunksAccessor planned;
+        private final SignChunksDiscovery discovery;
+        private volatile SignChunksAccessor fallback;
+
+        private PlannedSignChunksAccessor(SignChunksAccessor planned, SignChunksDiscovery discovery) {
+            this.planned = planned;
+            this.discovery = discovery;
+        }
+
+        @Override
+        public Collection<?> load(Object worldController) throws ReflectiveOperationException {
+            SignChunksAccessor current = fallback;
+            if (current == null) {
+                try {
+                    return planned.load(worldController);
+                } catch (ReflectiveOperationException | RuntimeException ex) {
+                    current = fallback();
+                }
+            }
+            return current.load(worldController);
+        }
+
+        private synchronized SignChunksAccessor fallback() throws ReflectiveOperationException {
+            if (fallback == null) {
+                fallback = discovery.discover();
+            }
+            return fallback;
+        }
+    }
+
     private static final class AdaptiveSignChunksAccessor implements SignChunksAccessor {
         private final Class<?> worldClass;
         private final Class<?> entryType;
         private final ChunkIntrospector chunkIntrospector;
+        private final Consumer<Member> recorder;
         private List<AccessorCandidate> pending;
         private SignChunksAccessor delegate;
 
         private AdaptiveSignChunksAccessor(Class<?> worldClass,
                                            List<AccessorCandidate> candidates,
                                            Class<?> entryType,
-                                           ChunkIntrospector chunkIntrospector) {
+                                           ChunkIntrospector chunkIntrospector,
+                                           Consumer<Member> recorder) {
             this.worldClass = worldClass;
             this.entryType = entryType;
             this.chunkIntrospector = chunkIntrospector;
+            this.recorder = recorder;
             this.pending = new ArrayList<>(candidates);
         }
 
@@ -507,6 +745,7 @@ public class TrainCartsReflectionBinder {
                 if (containsEntry(values)) {
                     delegate = candidate.accessor;
                     pending = null;
+                    recorder.accept(candidate.member);
                     return delegate.load(worldController);
                 }
 
@@ -558,25 +797,31 @@ public class TrainCartsReflectionBinder {
         }
     }
 
-    private static final class ChunkIntrospector {
+    /**
+     * Resolves sign chunks and entries from whatever container TrainCarts uses. Accessors are located once per
+     * runtime class; classes without a usable method are cached as empty and never searched again.
+     */
+    static final class ChunkIntrospector {
         private final Class<?> chunkClass;
-        private final Method chunkGetEntriesMethod;
+        private final Class<?> chunkGetEntriesOwner;
+        private final Accessor chunkGetEntries;
         private final Class<?> entryClass;
         private final Class<?> longHashMapClass;
-        private final Method longHashMapValuesMethod;
-        private final Map<Class<?>, Optional<Method>> chunkEntriesMethodCache = new HashMap<>();
-        private final Map<Class<?>, Optional<Method>> valuesMethodCache = new HashMap<>();
-
-        private ChunkIntrospector(Class<?> chunkClass,
-                                  Method chunkGetEntriesMethod,
-                                  Class<?> entryClass,
-                                  Class<?> longHashMapClass,
-                                  Method longHashMapValuesMethod) {
+        private final Accessor longHashMapValues;
+        private final Map<Class<?>, Optional<Accessor>> chunkEntriesAccessorCache = new HashMap<>();
+        private final Map<Class<?>, Optional<Accessor>> valuesAccessorCache = new HashMap<>();
+
+        ChunkIntrospector(Class<?> chunkClass,
+                          Method chunkGetEntriesMethod,
+                          Class<?> entryClass,
+                          Class<?> longHashMapClass,
+                          Method longHashMapValuesMethod) throws IllegalAccessException {
             this.chunkClass = chunkClass;
-            this.chunkGetEntriesMethod = chunkGetEntriesMethod;
+            this.chunkGetEntriesOwner = chunkGetEntriesMethod != null ? chunkGetEntriesMethod.getDeclaringClass() : null;
+            this.chunkGetEntries = chunkGetEntriesMethod != null ? accessor(chunkGetEntriesMethod) : null;
             this.entryClass = entryClass;
             this.longHashMapClass = longHashMapClass;
-            this.longHashMapValuesMethod = longHashMapValuesMethod;
+            this.longHashMapValues = accessor(longHashMapValuesMethod);
         }
 
         boolean isKnownContainerType(Class<?> rawType) {
@@ -617,12 +862,12 @@ public class TrainCartsReflectionBinder {
                 return values;
             }
             if (longHashMapClass.isInstance(container)) {
-                Object nested = longHashMapValuesMethod.invoke(container);
+                Object nested = longHashMapValues.get(container);
                 return toCollection(nested);
             }
-            Method valuesMethod = findValuesLikeMethod(containerClass);
-            if (valuesMethod != null) {
-                Object nested = invoke(valuesMethod, container);
+            Accessor values = findValuesLikeAccessor(containerClass);
+            if (values != null) {
+                Object nested = values.get(container);
                 return toCollection(nested);
             }
             return null;
@@ -658,25 +903,31 @@ public class TrainCartsReflectionBinder {
                 }
                 return values;
             }
-            if (chunkGetEntriesMethod != null && chunkGetEntriesMethod.getDeclaringClass().isInstance(chunk)) {
-                Object result = invoke(chunkGetEntriesMethod, chunk);
+            if (chunkGetEntries != null && chunkGetEntriesOwner.isInstance(chunk)) {
+                Object result = chunkGetEntries.get(chunk);
                 return convertEntriesResult(result);
             }
-            Method method = findChunkEntriesMethod(chunkType);
-            if (method == null) {
+            Accessor entries = findChunkEntriesAccessor(chunkType);
+            if (entries == null) {
                 return null;
             }
-            Object value = invoke(method, chunk);
+            Object value = entries.get(chunk);
             return convertEntriesResult(value);
         }
 
-        private Method findChunkEntriesMethod(Class<?> type) {
-            Optional<Method> cached = chunkEntriesMethodCache.get(type);
+        private Accessor findChunkEntriesAccessor(Class<?> type) {
+            Optional<Accessor> cached = chunkEntriesAccessorCache.get(type);
             if (cached != null) {
                 return cached.orElse(null);
             }
-            Method located = locateChunkEntriesMethod(type);
-            chunkEntriesMethodCache.put(type, Optional.ofNullable(located));
+            Accessor located = null;
+            try {
+                Method method = locateChunkEntriesMethod(type);
+                located = method != null ? accessor(method) : null;
+            } catch (IllegalAccessException | RuntimeException ignored) {
+                // Cached as missing below so the lookup is not repeated for every chunk.
+            }
+            chunkEntriesAccessorCache.put(type, Optional.ofNullable(located));
             return located;
         }
 
@@ -725,17 +976,6 @@ public class TrainCartsReflectionBinder {
             return false;
         }
 
-        private Object invoke(Method method, Object target) throws ReflectiveOperationException {
-            try {
-                return method.invoke(target);
-            } catch (IllegalAccessException ex) {
-                throw new ReflectiveOperationException(ex);
-            } catch (InvocationTargetException ex) {
-                Throwable cause = ex.getCause();
-                throw new ReflectiveOperationException(cause != null ? cause : ex);
-            }
-        }
-
         private Object[] convertEntriesResult(Object value) throws ReflectiveOperationException {
             if (value == null) {
                 return null;
@@ -767,24 +1007,30 @@ public class TrainCartsReflectionBinder {
                 return array;
             }
             if (longHashMapClass.isInstance(value)) {
-                Object nested = longHashMapValuesMethod.invoke(value);
+                Object nested = longHashMapValues.get(value);
                 return convertEntriesResult(nested);
             }
-            Method valuesMethod = findValuesLikeMethod(valueClass);
-            if (valuesMethod != null) {
-                Object nested = invoke(valuesMethod, value);
+            Accessor values = findValuesLikeAccessor(valueClass);
+            if (values != null) {
+                Object nested = values.get(value);
                 return convertEntriesResult(nested);
             }
             return null;
         }
 
-        private Method findValuesLikeMethod(Class<?> type) {
-            Optional<Method> cached = valuesMethodCache.get(type);
+        private Accessor findValuesLikeAccessor(Class<?> type) {
+            Optional<Accessor> cached = valuesAccessorCache.get(type);
             if (cached != null) {
                 return cached.orElse(null);
             }
-            Method located = locateValuesLikeMethod(type);
-            valuesMethodCache.put(type, Optional.ofNullable(located));
+            Accessor located = null;
+            try {
+                Method method = locateValuesLikeMethod(type);
+                located = method != null ? accessor(method) : null;
+            } catch (IllegalAccessException | RuntimeException ignored) {
+                // Cached as missing below so the lookup is not repeated for every container.
+            }
+            valuesAccessorCache.put(type, Optional.ofNullable(located));
             return located;
         }
 
@@ -857,50 +1103,44 @@ public class TrainCartsReflectionBinder {
 
     private static final class ReflectionBinding implements TrainCartsBinding {
         private final Plugin trainCarts;
-        private final Method getSignControllerMethod;
-        private final Method signControllerForWorldMethod;
-        private final Method signControllerWorldIsEnabledMethod;
+        private final Accessor getSignController;
+        private final BiAccessor signControllerForWorld;
+        private final Condition signControllerWorldIsEnabled;
         private final SignChunksAccessor signChunksAccessor;
-        private final Class<?> entryClass;
-        private final Method entryGetBlockMethod;
-        private final Method entryHasSignActionEventsMethod;
-        private final Method entryCreateFrontTrackedSignMethod;
-        private final Method entryCreateBackTrackedSignMethod;
-        private final Object railPieceNone;
-        private final Method trackedSignGetLineMethod;
+        private final Accessor entryGetBlock;
+        private final Condition entryHasSignActionEvents;
+        private final Accessor entryCreateFrontTrackedSign;
+        private final Accessor entryCreateBackTrackedSign;
+        private final LineReader trackedSignGetLine;
         private final ChunkIntrospector chunkIntrospector;
 
         private ReflectionBinding(Plugin trainCarts,
-                                  Method getSignControllerMethod,
-                                  Method signControllerForWorldMethod,
-                                  Method signControllerWorldIsEnabledMethod,
+                                  Accessor getSignController,
+                                  BiAccessor signControllerForWorld,
+                                  Condition signControllerWorldIsEnabled,
                                   SignChunksAccessor signChunksAccessor,
-                                  Class<?> entryClass,
-                                  Method entryGetBlockMethod,
-                                  Method entryHasSignActionEventsMethod,
-                                  Method entryCreateFrontTrackedSignMethod,
-                                  Method entryCreateBackTrackedSignMethod,
-                                  Object railPieceNone,
-                                  Method trackedSignGetLineMethod,
+                                  Accessor entryGetBlock,
+                                  Condition entryHasSignActionEvents,
+                                  Accessor entryCreateFrontTrackedSign,
+                                  Accessor entryCreateBackTrackedSign,
+                                  LineReader trackedSignGetLine,
                                   ChunkIntrospector chunkIntrospector) {
             this.trainCarts = trainCarts;
-            this.getSignControllerMethod = getSignControllerMethod;
-            this.signControllerForWorldMethod = signControllerForWorldMethod;
-            this.signControllerWorldIsEnabledMethod = signControllerWorldIsEnabledMethod;
+            this.getSignController = getSignController;
+            this.signControllerForWorld = signControllerForWorld;
+            this.signControllerWorldIsEnabled = signControllerWorldIsEnabled;
             this.signChunksAccessor = signChunksAccessor;
-            this.entryClass = entryClass;
-            this.entryGetBlockMethod = entryGetBlockMethod;
-            this.entryHasSignActionEventsMethod = entryHasSignActionEventsMethod;
-            this.entryCreateFrontTrackedSignMethod = entryCreateFrontTrackedSignMethod;
-            this.entryCreateBackTrackedSignMethod = entryCreateBackTrackedSignMethod;
-            this.railPieceNone = railPieceNone;
-            this.trackedSignGetLineMethod = trackedSignGetLineMethod;
+            this.entryGetBlock = entryGetBlock;
+            this.entryHasSignActionEvents = entryHasSignActionEvents;
+            this.entryCreateFrontTrackedSign = entryCreateFrontTrackedSign;
+            this.entryCreateBackTrackedSign = entryCreateBackTrackedSign;
+            this.trackedSignGetLine = trackedSignGetLine;
             this.chunkIntrospector = chunkIntrospector;
         }
 
         @Override
         public Object getSignController() throws ReflectiveOperationException {
-            return invoke(trainCarts, getSignControllerMethod);
+            return getSignController.get(trainCarts);
         }
 
         @Override
@@ -908,7 +1148,7 @@ public class TrainCartsReflectionBinder {
             if (signController == null || world == null) {
                 return null;
             }
-            return invoke(signController, signControllerForWorldMethod, world);
+            return signControllerForWorld.get(signController, world);
         }
 
         @Override
@@ -916,8 +1156,7 @@ public class TrainCartsReflectionBinder {
             if (worldController == null) {
                 return false;
             }
-            Object result = invoke(worldController, signControllerWorldIsEnabledMethod);
-            return Boolean.TRUE.equals(result);
+            return signControllerWorldIsEnabled.test(worldController);
         }
 
         @Override
@@ -935,16 +1174,15 @@ public class TrainCartsReflectionBinder {
 
         @Override
         public boolean hasSignActionEvents(Object entry) throws ReflectiveOperationException {
-            if (entryHasSignActionEventsMethod == null) {
+            if (entryHasSignActionEvents == null) {
                 return true;
             }
-            Object value = invoke(entry, entryHasSignActionEventsMethod);
-            return Boolean.TRUE.equals(value);
+            return entryHasSignActionEvents.test(entry);
         }
 
         @Override
         public Block getBlock(Object entry) throws ReflectiveOperationException {
-            Object block = invoke(entry, entryGetBlockMethod);
+            Object block = entryGetBlock.get(entry);
             if (block instanceof Block b) {
                 return b;
             }
@@ -954,8 +1192,8 @@ public class TrainCartsReflectionBinder {
         @Override
         public List<StationText> resolveStationTexts(Object entry, Block block) throws ReflectiveOperationException {
             List<StationText> texts = new ArrayList<>(3);
-            addTrackedSignText(texts, entry, entryCreateFrontTrackedSignMethod);
-            addTrackedSignText(texts, entry, entryCreateBackTrackedSignMethod);
+            addTrackedSignText(texts, entry, entryCreateFrontTrackedSign);
+            addTrackedSignText(texts, entry, entryCreateBackTrackedSign);
             StationText fromBlock = resolveBlockText(block);
             if (fromBlock != null) {
                 texts.add(fromBlock);
@@ -963,18 +1201,12 @@ public class TrainCartsReflectionBinder {
             return texts;
         }
 
-        private void addTrackedSignText(List<StationText> texts, Object entry, Method factory)
+        private void addTrackedSignText(List<StationText> texts, Object entry, Accessor factory)
                 throws ReflectiveOperationException {
             if (factory == null) {
                 return;
             }
-            Object trackedSign;
-            try {
-                trackedSign = factory.invoke(entry, railPieceNone);
-            } catch (InvocationTargetException ex) {
-                Throwable cause = ex.getCause();
-                throw new ReflectiveOperationException(cause != null ? cause : ex);
-            }
+            Object trackedSign = factory.get(entry);
             StationText text = resolveTrackedSignText(trackedSign);
             if (text != null) {
                 texts.add(text);
@@ -994,16 +1226,11 @@ public class TrainCartsReflectionBinder {
         }
 
         private String readTrackedSignLine(Object trackedSign, int index) throws ReflectiveOperationException {
-            try {
-                Object value = trackedSignGetLineMethod.invoke(trackedSign, index);
-                if (value instanceof String str) {
-                    return str;
-                }
-                return value != null ? value.toString() : null;
-            } catch (InvocationTargetException ex) {
-                Throwable cause = ex.getCause();
-                throw new ReflectiveOperationException(cause != null ? cause : ex);
+            Object value = trackedSignGetLine.line(trackedSign, index);
+            if (value instanceof String str) {
+                return str;
             }
+            return value != null ? value.toString() : null;
         }
 
         private StationText resolveBlockText(Block block) {
@@ -1034,16 +1261,5 @@ public class TrainCartsReflectionBinder {
                 return null;
             }
         }
-
-        private Object invoke(Object target, Method method, Object... args) throws ReflectiveOperationException {
-            try {
-                return method.invoke(target, args);
-            } catch (IllegalAccessException ex) {
-                throw new ReflectiveOperationException(ex);
-            } catch (InvocationTargetException ex) {
-                Throwable cause = ex.getCause();
-                throw new ReflectiveOperationException(cause != null ? cause : ex);
-            }
-        }
     }
 }
@@ -4,29 +4,43 @@ import dev.citysim.city.City;
 import dev.citysim.city.Cuboid;
 import dev.citysim.stats.StationCountResult;
 import dev.citysim.stats.StationCounter;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer;
 import org.bukkit.Server;
 import org.bukkit.World;
 import org.bukkit.block.Block;
+import org.bukkit.block.sign.Side;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.event.block.SignChangeEvent;
+import org.bukkit.event.world.WorldUnloadEvent;
 import org.bukkit.plugin.Plugin;
 
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.Set;
+import java.util.UUID;
 import java.util.logging.Level;
 
-public class TrainCartsStationService implements StationCounter {
+public class TrainCartsStationService implements StationCounter, Listener {
+
+    static final long INDEX_REFRESH_MILLIS = 60_000L;
+
+    private static final LegacyComponentSerializer SIGN_TEXT_SERIALIZER = LegacyComponentSerializer.legacySection();
 
     private final Plugin plugin;
     private final Server server;
     private final TrainCartsReflectionBinder.TrainCartsBinding binding;
     private final StationSignParser parser;
 
+    private final Map<UUID, StationSignIndex> indexes = new HashMap<>();
+
     private boolean failureLogged;
 
     public TrainCartsStationService(Plugin plugin,
@@ -113,60 +127,113 @@ public class TrainCartsStationService implements StationCounter {
             return Optional.empty();
         }
 
-        Set<String> counted = new HashSet<>();
         List<Block> blocks = new ArrayList<>();
-
+        long now = System.currentTimeMillis();
         try {
             for (Map.Entry<World, List<Cuboid>> entry : cuboidsByWorld.entrySet()) {
-                World world = entry.getKey();
-                Object worldController = binding.getWorldController(signController, world);
-                if (worldController == null || !binding.isWorldEnabled(worldController)) {
+                StationSignIndex index = indexFor(signController, entry.getKey(), now);
+                index.query(entry.getValue(), blocks::add);
+            }
+        } catch (ReflectiveOperationException ex) {
+            return Optional.of(new StationBlockResult(List.of(), new Failure("counting TrainCarts station signs", ex)));
+        }
+
+        return Optional.of(new StationBlockResult(List.copyOf(blocks), null));
+    }
+
+    private StationSignIndex indexFor(Object signController, World world, long now) throws ReflectiveOperationException {
+        StationSignIndex index = indexes.get(world.getUID());
+        if (index != null && now - index.builtAt() < INDEX_REFRESH_MILLIS) {
+            return index;
+        }
+        index = buildIndex(signController, world, now);
+        indexes.put(world.getUID(), index);
+        return index;
+    }
+
+    /**
+     * Enumerates every TrainCarts sign chunk of the world once and keeps the station signs among them.
+     */
+    private StationSignIndex buildIndex(Object signController, World world, long now) throws ReflectiveOperationException {
+        StationSignIndex index = new StationSignIndex(now);
+        Object worldController = binding.getWorldController(signController, world);
+        if (worldController == null || !binding.isWorldEnabled(worldController)) {
+            return index;
+        }
+
+        Collection<?> chunks = binding.loadSignChunks(worldController);
+        if (chunks == null || chunks.isEmpty()) {
+            return index;
+        }
+
+        for (Object chunk : chunks) {
+            if (chunk == null) {
+                continue;
+            }
+            Object[] entries = binding.resolveEntries(chunk);
+            if (entries == null || entries.length == 0) {
+                continue;
+            }
+            for (Object rawEntry : entries) {
+                if (rawEntry == null) {
                     continue;
                 }
-
-                Collection<?> chunks = binding.loadSignChunks(worldController);
-                if (chunks == null || chunks.isEmpty()) {
+                if (!binding.hasSignActionEvents(rawEntry)) {
                     continue;
                 }
-
-                for (Object chunk : chunks) {
-                    if (chunk == null) {
-                        continue;
-                    }
-                    Object[] entries = binding.resolveEntries(chunk);
-                    if (entries == null || entries.length == 0) {
-                        continue;
-                    }
-                    for (Object rawEntry : entries) {
-                        if (rawEntry == null) {
-                            continue;
-                        }
-                        if (!binding.hasSignActionEvents(rawEntry)) {
-                            continue;
-                        }
-                        Block block = binding.getBlock(rawEntry);
-                        if (block == null || block.getWorld() != world) {
-                            continue;
-                        }
-                        if (!isInsideAny(entry.getValue(), block.getX(), block.getY(), block.getZ())) {
-                            continue;
-                        }
-                        List<TrainCartsReflectionBinder.StationText> texts = binding.resolveStationTexts(rawEntry, block);
-                        if (!parser.isStationEntry(texts)) {
-                            continue;
-                        }
-                        String key = blockKey(world, block.getX(), block.getY(), block.getZ());
-                        if (counted.add(key)) {
-                            blocks.add(block);
-                        }
-                    }
+                Block block = binding.getBlock(rawEntry);
+                if (block == null || block.getWorld() != world) {
+                    continue;
+                }
+                List<TrainCartsReflectionBinder.StationText> texts = binding.resolveStationTexts(rawEntry, block);
+                if (parser.isStationEntry(texts)) {
+                    index.add(block);
                 }
             }
-        } catch (ReflectiveOperationException ex) {
-            return Optional.of(new StationBlockResult(List.of(), new Failure("counting TrainCarts station signs", ex)));
         }
+        return index;
+    }
 
-        return Optional.of(new StationBlockResult(List.copyOf(blocks), null));
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onSignChange(SignChangeEvent event) {
+        if (event.getSide() != Side.FRONT) {
+            return;
+        }
+        updateIndex(event.getBlock(), serialize(event.line(0)), serialize(event.line(1)));
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockBreak(BlockBreakEvent event) {
+        Block block = event.getBlock();
+        StationSignIndex index = indexes.get(block.getWorld().getUID());
+        if (index != null) {
+            index.remove(block.getX(), block.getY(), block.getZ());
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onWorldUnload(WorldUnloadEvent event) {
+        indexes.remove(event.getWorld().getUID());
+    }
+
+    /**
+     * Applies a sign edit to an already built index. Only the front text is consulted here, like the block
+     * fallback of the binder; the next periodic rebuild reconciles anything TrainCarts tracks differently.
+     */
+    void updateIndex(Block block, String header, String action) {
+        StationSignIndex index = indexes.get(block.getWorld().getUID());
+        if (index == null) {
+            return;
+        }
+        if (parser.isStationLines(header, action)) {
+            index.add(block);
+        } else {
+            index.remove(block.getX(), block.getY(), block.getZ());
+        }
+    }
+
+    private static String serialize(Component line) {
+        return line != null ? SIGN_TEXT_SERIALIZER.serialize(line) : null;
     }
 
     private Optional<StationCountResult> logFailure(String context, Exception ex) {
@@ -187,27 +254,4 @@ public class TrainCartsStationService implements StationCounter {
 
     private record Failure(String context, Exception exception) {
     }
-
-    private boolean isInsideAny(List<Cuboid> cuboids, int x, int y, int z) {
-        for (Cuboid cuboid : cuboids) {
-            if (cuboid == null) {
-                continue;
-            }
-            if (x < cuboid.minX || x > cuboid.maxX) {
-                continue;
-            }
-            if (z < cuboid.minZ || z > cuboid.maxZ) {
-                continue;
-            }
-            if (y < cuboid.minY || y > cuboid.maxY) {
-                continue;
-            }
-            return true;
-        }
-        return false;
-    }
-
-    private String blockKey(World world, int x, int y, int z) {
-        return world.getUID() + ":" + x + ':' + y + ':' + z;
-    }
 }
@@ -0,0 +1,346 @@
+package dev.citysim.links;
+
+import dev.citysim.city.City;
+import dev.citysim.city.Cuboid;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Incrementally maintained inter-city links. Cities are bucketed per world into a uniform grid whose cell size is
+ * the link distance, so candidate neighbours only come from the surrounding 3x3 cells. Edges are recomputed only for
+ * cities marked dirty or whose stations, cuboid count or logistics multiplier drifted since the last sweep.
+ * Main thread only.
+ */
+final class LinkGraph {
+
+    private static final Comparator<CityLink> ORDER = Comparator
+            .comparingInt(CityLink::opsStrength)
+            .reversed()
+            .thenComparing(link -> link.neighbor().name, Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER))
+            .thenComparing(link -> link.neighbor().id, Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER));
+
+    /**
+     * Builds the directed link from one city to another, or returns {@code null} when they are not linked.
+     */
+    @FunctionalInterface
+    interface EdgeFactory {
+        CityLink link(City from, City to, double distance);
+    }
+
+    private final EdgeFactory edgeFactory;
+    private final ToDoubleFunction<City> logistics;
+    private final Map<City, Node> nodes = new IdentityHashMap<>();
+    private final Map<String, Map<Long, List<Node>>> grid = new HashMap<>();
+    private final Set<City> dirty = Collections.newSetFromMap(new IdentityHashMap<>());
+    private double cellSize;
+    private long version;
+    private long sweepStamp;
+
+    LinkGraph(EdgeFactory edgeFactory, ToDoubleFunction<City> logistics) {
+        this.edgeFactory = edgeFactory;
+        this.logistics = logistics;
+    }
+
+    /**
+     * Drops every node; the next {@link #sync} rebuilds the graph with the given cell size.
+     */
+    void reset(double cellSize) {
+        nodes.clear();
+        grid.clear();
+        dirty.clear();
+        this.cellSize = cellSize;
+        version++;
+    }
+
+    long version() {
+        return version;
+    }
+
+    int size() {
+        return nodes.size();
+    }
+
+    void markDirty(City city) {
+        if (city != null) {
+            dirty.add(city);
+        }
+    }
+
+    void remove(City city) {
+        if (city == null) {
+            return;
+        }
+        dirty.remove(city);
+        Node node = nodes.remove(city);
+        if (node != null) {
+            detach(node);
+            unindex(node);
+            version++;
+        }
+    }
+
+    /**
+     * Brings the graph up to date. A sweep additionally checks every city for unannounced changes and drops nodes
+     * of cities that are no longer registered.
+     */
+    void sync(Collection<City> cities, boolean sweep) {
+        if (cellSize <= 0.0) {
+            return;
+        }
+        if (sweep) {
+            long stamp = ++sweepStamp;
+            for (City city : cities) {
+                if (city == null) {
+                    continue;
+                }
+                Node node = nodes.get(city);
+                if (node == null || node.isStale(city, logistics)) {
+                    dirty.add(city);
+                }
+                if (node != null) {
+                    node.seen = stamp;
+                }
+            }
+            Iterator<Node> iterator = nodes.values().iterator();
+            while (iterator.hasNext()) {
+                Node node = iterator.next();
+                if (node.seen != stamp && !dirty.contains(node.city)) {
+                    iterator.remove();
+                    detach(node);
+                    unindex(node);
+                    version++;
+                }
+            }
+        }
+        if (dirty.isEmpty()) {
+            return;
+        }
+        // Reposition every dirty node before connecting so two dirty neighbours see each other's new state.
+        List<Node> changed = new ArrayList<>(dirty.size());
+        for (City city : dirty) {
+            Node node = nodes.computeIfAbsent(city, Node::new);
+            node.seen = sweepStamp;
+            detach(node);
+            unindex(node);
+            node.capture(logistics);
+            index(node);
+            changed.add(node);
+        }
+        dirty.clear();
+        for (Node node : changed) {
+            connect(node);
+        }
+        version++;
+    }
+
+    List<CityLink> linksOf(City city) {
+        Node node = city != null ? nodes.get(city) : null;
+        return node != null ? node.view() : List.of();
+    }
+
+    int physicalLinks(City city) {
+        Node node = city != null ? nodes.get(city) : null;
+        if (node == null) {
+            return 0;
+        }
+        node.view();
+        return node.physical;
+    }
+
+    int operationalLinks(City city) {
+        Node node = city != null ? nodes.get(city) : null;
+        if (node == null) {
+            return 0;
+        }
+        node.view();
+        return node.operational;
+    }
+
+    private void connect(Node node) {
+        if (!node.linkable()) {
+            return;
+        }
+        Map<Long, List<Node>> cells = grid.get(node.world);
+        if (cells == null) {
+            return;
+        }
+        for (int dx = -1; dx <= 1; dx++) {
+            for (int dz = -1; dz <= 1; dz++) {
+                List<Node> bucket = cells.get(cellKey(node.cellX + dx, node.cellZ + dz));
+                if (bucket == null) {
+                    continue;
+                }
+                for (Node other : bucket) {
+                    if (other == node || !other.linkable() || node.edges.containsKey(other.city)) {
+                        continue;
+                    }
+                    double distance = Math.hypot(node.x - other.x, node.z - other.z);
+                    if (distance > cellSize) {
+                        continue;
+                    }
+                    CityLink forward = edgeFactory.link(node.city, other.city, distance);
+                    CityLink backward = edgeFactory.link(other.city, node.city, distance);
+                    if (forward == null || backward == null) {
+                        continue;
+                    }
+                    node.edges.put(other.city, forward);
+                    node.view = null;
+                    other.edges.put(node.city, backward);
+                    other.view = null;
+                }
+            }
+        }
+    }
+
+    private void detach(Node node) {
+        for (City neighbor : node.edges.keySet()) {
+            Node other = nodes.get(neighbor);
+            if (other != null && other.edges.remove(node.city) != null) {
+                other.view = null;
+            }
+        }
+        node.edges.clear();
+        node.view = null;
+    }
+
+    private void index(Node node) {
+        if (!node.linkable()) {
+            return;
+        }
+        node.cellX = (int) Math.floor(node.x / cellSize);
+        node.cellZ = (int) Math.floor(node.z / cellSize);
+        grid.computeIfAbsent(node.world, ignored -> new HashMap<>())
+                .computeIfAbsent(cellKey(node.cellX, node.cellZ), ignored -> new ArrayList<>())
+                .add(node);
+        node.indexed = true;
+    }
+
+    private void unindex(Node node) {
+        if (!node.indexed) {
+            return;
+        }
+        node.indexed = false;
+        Map<Long, List<Node>> cells = grid.get(node.world);
+        if (cells == null) {
+            return;
+        }
+        long key = cellKey(node.cellX, node.cellZ);
+        List<Node> bucket = cells.get(key);
+        if (bucket == null) {
+            return;
+        }
+        bucket.remove(node);
+        if (bucket.isEmpty()) {
+            cells.remove(key);
+            if (cells.isEmpty()) {
+                grid.remove(node.world);
+            }
+        }
+    }
+
+    private static long cellKey(int cellX, int cellZ) {
+        return ((long) cellX << 32) | (cellZ & 0xFFFFFFFFL);
+    }
+
+    private static final class Node {
+        private final City city;
+        private final Map<City, CityLink> edges = new IdentityHashMap<>();
+        private String world;
+        private int stations;
+        private int cuboidCount;
+        private double logistics;
+        private boolean hasCentroid;
+        private double x;
+        private double z;
+        private int cellX;
+        private int cellZ;
+        private boolean indexed;
+        private long seen;
+        private List<CityLink> view;
+        private int physical;
+        private int operational;
+
+        private Node(City city) {
+            this.city = city;
+        }
+
+        private boolean linkable() {
+            return world != null && stations > 0 && hasCentroid;
+        }
+
+        private boolean isStale(City city, ToDoubleFunction<City> logisticsOf) {
+            return !Objects.equals(world, city.world)
+                    || stations != city.stations
+                    || cuboidCount != cuboidCount(city)
+                    || Double.compare(logistics, logisticsOf.applyAsDouble(city)) != 0;
+        }
+
+        private void capture(ToDoubleFunction<City> logisticsOf) {
+            world = city.world;
+            stations = city.stations;
+            cuboidCount = cuboidCount(city);
+            logistics = logisticsOf.applyAsDouble(city);
+            hasCentroid = false;
+            if (city.cuboids == null || city.cuboids.isEmpty()) {
+                return;
+            }
+            int minX = Integer.MAX_VALUE;
+            int minZ = Integer.MAX_VALUE;
+            int maxX = Integer.MIN_VALUE;
+            int maxZ = Integer.MIN_VALUE;
+            for (Cuboid cuboid : city.cuboids) {
+                if (cuboid == null) {
+                    continue;
+                }
+                if (city.world != null && cuboid.world != null && !Objects.equals(city.world, cuboid.world)) {
+                    continue;
+                }
+                minX = Math.min(minX, cuboid.minX);
+                minZ = Math.min(minZ, cuboid.minZ);
+                maxX = Math.max(maxX, cuboid.maxX);
+                maxZ = Math.max(maxZ, cuboid.maxZ);
+                hasCentroid = true;
+            }
+            if (hasCentroid) {
+                x = (minX + maxX) / 2.0;
+                z = (minZ + maxZ) / 2.0;
+            }
+        }
+
+        private List<CityLink> view() {
+            if (view == null) {
+                List<CityLink> links = new ArrayList<>(edges.values());
+                links.sort(ORDER);
+                int rawCount = 0;
+                int opsCount = 0;
+                for (CityLink link : links) {
+                    if (link.rawStrength() > 0) {
+                        rawCount++;
+                    }
+                    if (link.opsStrength() > 0) {
+                        opsCount++;
+                    }
+                }
+                physical = rawCount;
+                operational = opsCount;
+                view = List.copyOf(links);
+            }
+            return view;
+        }
+
+        private static int cuboidCount(City city) {
+            return city.cuboids != null ? city.cuboids.size() : 0;
+        }
+    }
+}
@@ -2,18 +2,19 @@ package dev.citysim.links;
 
 import dev.citysim.city.City;
 import dev.citysim.city.CityManager;
-import dev.citysim.city.Cuboid;
+import dev.citysim.city.CityManagerListener;
+import dev.citysim.stats.StatsUpdateListener;
+import org.bukkit.Bukkit;
 import org.bukkit.configuration.file.FileConfiguration;
 
-import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
-import java.util.Objects;
+import java.util.function.LongSupplier;
 
 /**
- * Computes lightweight inter-city links based on proximity and station counts.
+ * Computes lightweight inter-city links based on proximity and station counts. Links are kept in an incrementally
+ * maintained {@link LinkGraph} so queries do not rescan every city pair.
  */
-public class LinkService {
+public class LinkService implements CityManagerListener, StatsUpdateListener {
 
     private static final double DEFAULT_STATION_FACTOR = 0.2;
     private static final double DEFAULT_DISTANCE_SCALE = 0.4;
@@ -24,9 +25,13 @@ public class LinkService {
     private double linkDistance = 0.0;
     private double stationFactor = DEFAULT_STATION_FACTOR;
     private double distanceFactor = 0.0;
+    private final LinkGraph graph = new LinkGraph(this::link, this::logisticsMultiplier);
+    private LongSupplier tickSource = LinkService::currentTick;
+    private long lastSweepTick = Long.MIN_VALUE;
 
     public LinkService(CityManager cityManager) {
         this.cityManager = cityManager;
+        cityManager.addListener(this);
     }
 
     public void reload(FileConfiguration config) {
@@ -34,6 +39,7 @@ public class LinkService {
             this.enabled = false;
             this.linkDistance = 0.0;
             this.distanceFactor = 0.0;
+            graph.reset(0.0);
             return;
         }
         this.enabled = config.getBoolean("links.enabled", false);
@@ -45,6 +51,7 @@ public class LinkService {
             this.distanceFactor = 0.0;
         }
         this.stationFactor = DEFAULT_STATION_FACTOR;
+        graph.reset(linkDistance);
     }
 
     public boolean isEnabled() {
@@ -55,50 +62,20 @@ public class LinkService {
         return linkDistance;
     }
 
+    /**
+     * Version of the link graph, bumped whenever any edge is added, removed or recomputed.
+     */
+    public long getGraphVersion() {
+        syncGraph();
+        return graph.version();
+    }
+
     public List<CityLink> computeLinks(City city) {
         if (!isEnabled() || city == null || city.world == null || city.stations <= 0) {
             return List.of();
         }
-        Point2D origin = centroidOf(city);
-        if (origin == null) {
-            return List.of();
-        }
-
-        List<CityLink> links = new ArrayList<>();
-        for (City candidate : cityManager.all()) {
-            if (candidate == null || candidate == city) {
-                continue;
-            }
-            if (!Objects.equals(city.world, candidate.world)) {
-                continue;
-            }
-            if (city.stations <= 0 || candidate.stations <= 0) {
-                continue;
-            }
-            Point2D candidateCentroid = centroidOf(candidate);
-            if (candidateCentroid == null) {
-                continue;
-            }
-            double distance = origin.distance(candidateCentroid);
-            if (linkDistance > 0.0 && distance > linkDistance) {
-                continue;
-            }
-            double rawStrength = computeRawStrength(city.stations, candidate.stations, distance);
-            if (rawStrength <= 0) {
-                continue;
-            }
-            double logisticsMultiplier = Math.min(logisticsMultiplier(city), logisticsMultiplier(candidate));
-            double effectiveStrength = rawStrength * logisticsMultiplier;
-            int raw = (int) Math.round(rawStrength);
-            int ops = (int) Math.round(effectiveStrength);
-            links.add(new CityLink(candidate, distance, raw, ops));
-        }
-        links.sort(Comparator
-                .comparingInt(CityLink::opsStrength)
-                .reversed()
-                .thenComparing(link -> link.neighbor().name, Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER))
-                .thenComparing(link -> link.neighbor().id, Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER)));
-        return List.copyOf(links);
+        syncGraph();
+        return graph.linksOf(city);
     }
 
     public List<CityLink> topLinks(City city, int limit) {
@@ -114,11 +91,74 @@ public class LinkService {
     }
 
     public int countPhysicalLinks(City city) {
-        return (int) computeLinks(city).stream().filter(link -> link.rawStrength() > 0).count();
+        if (computeLinks(city).isEmpty()) {
+            return 0;
+        }
+        return graph.physicalLinks(city);
     }
 
     public int countOperationalLinks(City city) {
-        return (int) computeLinks(city).stream().filter(link -> link.opsStrength() > 0).count();
+        if (computeLinks(city).isEmpty()) {
+            return 0;
+        }
+        return graph.operationalLinks(city);
+    }
+
+    @Override
+    public void onCityCreated(City city) {
+        graph.markDirty(city);
+    }
+
+    @Override
+    public void onCityRemoved(City city) {
+        graph.remove(city);
+    }
+
+    @Override
+    public void onCityRenamed(String previousId, City city) {
+        graph.markDirty(city);
+    }
+
+    @Override
+    public void onCityUpdated(City city) {
+        graph.markDirty(city);
+    }
+
+    @Override
+    public void onCityStatsUpdated(City city) {
+        graph.markDirty(city);
+    }
+
+    void setTickSource(LongSupplier tickSource) {
+        this.tickSource = tickSource != null ? tickSource : LinkService::currentTick;
+        this.lastSweepTick = Long.MIN_VALUE;
+    }
+
+    /**
+     * Applies pending changes. Unannounced edits (stations set by command, logistics from budget ticks) are picked up
+     * by a sweep that runs at most once per server tick, or on every query when no server is running.
+     */
+    private void syncGraph() {
+        long tick = tickSource.getAsLong();
+        boolean sweep = tick < 0 || tick != lastSweepTick;
+        lastSweepTick = tick;
+        graph.sync(cityManager.all(), sweep);
+    }
+
+    private static long currentTick() {
+        return Bukkit.getServer() != null ? Bukkit.getCurrentTick() : -1L;
+    }
+
+    private CityLink link(City from, City to, double distance) {
+        double rawStrength = computeRawStrength(from.stations, to.stations, distance);
+        if (rawStrength <= 0) {
+            return null;
+        }
+        double logisticsMultiplier = Math.min(logisticsMultiplier(from), logisticsMultiplier(to));
+        double effectiveStrength = rawStrength * logisticsMultiplier;
+        int raw = (int) Math.round(rawStrength);
+        int ops = (int) Math.round(effectiveStrength);
+        return new CityLink(to, distance, raw, ops);
     }
 
     private double computeRawStrength(int stationsA, int stationsB, double distance) {
@@ -128,36 +168,6 @@ public class LinkService {
         return clamped * 100.0;
     }
 
-    private Point2D centroidOf(City city) {
-        if (city == null || city.cuboids == null || city.cuboids.isEmpty()) {
-            return null;
-        }
-        int minX = Integer.MAX_VALUE;
-        int minZ = Integer.MAX_VALUE;
-        int maxX = Integer.MIN_VALUE;
-        int maxZ = Integer.MIN_VALUE;
-        boolean found = false;
-        for (Cuboid cuboid : city.cuboids) {
-            if (cuboid == null) {
-                continue;
-            }
-            if (city.world != null && cuboid.world != null && !Objects.equals(city.world, cuboid.world)) {
-                continue;
-            }
-            minX = Math.min(minX, cuboid.minX);
-            minZ = Math.min(minZ, cuboid.minZ);
-            maxX = Math.max(maxX, cuboid.maxX);
-            maxZ = Math.max(maxZ, cuboid.maxZ);
-            found = true;
-        }
-        if (!found) {
-            return null;
-        }
-        double centerX = (minX + maxX) / 2.0;
-        double centerZ = (minZ + maxZ) / 2.0;
-        return new Point2D(centerX, centerZ);
-    }
-
     private double logisticsMultiplier(City city) {
         if (city == null) {
             return 1.0;
@@ -174,10 +184,4 @@ public class LinkService {
         }
         return multiplier;
     }
-
-    private record Point2D(double x, double z) {
-        double distance(Point2D other) {
-            return Math.hypot(x - other.x, z - other.z);
-        }
-    }
 }
@@ -0,0 +1,153 @@
+package dev.citysim.migration;
+
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.Material;
+import org.bukkit.World;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Read-only block access for the platform search, backed either by the live world (main thread) or by chunk
+ * snapshots captured for a worker.
+ */
+interface BlockView {
+
+    int minHeight();
+
+    int maxHeight();
+
+    boolean isLoaded(int x, int z);
+
+    Material type(int x, int y, int z);
+
+    boolean isPassable(int x, int y, int z);
+
+    /**
+     * Block data in its string form, or {@code null} when the position is outside the view.
+     */
+    String dataString(int x, int y, int z);
+
+    static BlockView of(World world) {
+        return new LiveView(world);
+    }
+
+    /**
+     * Live world view. Unloaded chunks are loaded synchronously, matching the resolver's previous behaviour.
+     */
+    final class LiveView implements BlockView {
+        private final World world;
+
+        private LiveView(World world) {
+            this.world = world;
+        }
+
+        @Override
+        public int minHeight() {
+            return world.getMinHeight();
+        }
+
+        @Override
+        public int maxHeight() {
+            return world.getMaxHeight();
+        }
+
+        @Override
+        public boolean isLoaded(int x, int z) {
+            int chunkX = x >> 4;
+            int chunkZ = z >> 4;
+            if (world.isChunkLoaded(chunkX, chunkZ)) {
+                return true;
+            }
+            world.loadChunk(chunkX, chunkZ);
+            return world.isChunkLoaded(chunkX, chunkZ);
+        }
+
+        @Override
+        public Material type(int x, int y, int z) {
+            return world.getBlockAt(x, y, z).getType();
+        }
+
+        @Override
+        public boolean isPassable(int x, int y, int z) {
+            return world.getBlockAt(x, y, z).isPassable();
+        }
+
+        @Override
+        public String dataString(int x, int y, int z) {
+            return world.getBlockAt(x, y, z).getBlockData().getAsString();
+        }
+    }
+
+    /**
+     * Snapshot view that is safe to read off the main thread. Snapshots carry no collision shapes, so passability
+     * falls back to {@link Material#isSolid()}; spots are revalidated against the live world before use.
+     */
+    final class SnapshotView implements BlockView {
+        private final Map<Long, ChunkSnapshot> chunks = new HashMap<>();
+        private final int minHeight;
+        private final int maxHeight;
+
+        SnapshotView(int minHeight, int maxHeight) {
+            this.minHeight = minHeight;
+            this.maxHeight = maxHeight;
+        }
+
+        void add(int chunkX, int chunkZ, ChunkSnapshot snapshot) {
+            if (snapshot != null) {
+                chunks.put(key(chunkX, chunkZ), snapshot);
+            }
+        }
+
+        int chunkCount() {
+            return chunks.size();
+        }
+
+        @Override
+        public int minHeight() {
+            return minHeight;
+        }
+
+        @Override
+        public int maxHeight() {
+            return maxHeight;
+        }
+
+        @Override
+        public boolean isLoaded(int x, int z) {
+            return chunks.containsKey(key(x >> 4, z >> 4));
+        }
+
+        @Override
+        public Material type(int x, int y, int z) {
+            ChunkSnapshot snapshot = snapshot(x, y, z);
+            return snapshot != null ? snapshot.getBlockType(x & 15, y, z & 15) : Material.VOID_AIR;
+        }
+
+        @Override
+        public boolean isPassable(int x, int y, int z) {
+            ChunkSnapshot snapshot = snapshot(x, y, z);
+            if (snapshot == null) {
+                return y >= maxHeight;
+            }
+            return !snapshot.getBlockType(x & 15, y, z & 15).isSolid();
+        }
+
+        @Override
+        public String dataString(int x, int y, int z) {
+            ChunkSnapshot snapshot = snapshot(x, y, z);
+            return snapshot != null ? snapshot.getBlockData(x & 15, y, z & 15).getAsString() : null;
+        }
+
+        private ChunkSnapshot snapshot(int x, int y, int z) {
+            if (y < minHeight || y >= maxHeight) {
+                return null;
+            }
+            return chunks.get(key(x >> 4, z >> 4));
+        }
+
+        private static long key(int chunkX, int chunkZ) {
+            return ((long) chunkX << 32) ^ (chunkZ & 0xffffffffL);
+        }
+    }
+}
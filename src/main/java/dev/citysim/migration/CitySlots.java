@@ -0,0 +1,91 @@
+package dev.citysim.migration;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.IntConsumer;
+
+/**
+ * Interns city ids to dense int slots so per-city migration state can live in arrays and per-pair state can be keyed
+ * by the destination slot. Slots of cities not seen during a sweep are released and recycled. Main thread only.
+ */
+final class CitySlots {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final Map<String, Integer> byId = new HashMap<>();
+    private String[] ids = new String[INITIAL_CAPACITY];
+    private long[] seen = new long[INITIAL_CAPACITY];
+    private int[] free = new int[INITIAL_CAPACITY];
+    private int freeCount;
+    private int next;
+    private long sweep;
+
+    /**
+     * Slot for the id, allocating one if needed, and marks it as seen in the current sweep.
+     */
+    int intern(String id) {
+        Integer existing = byId.get(id);
+        int slot;
+        if (existing != null) {
+            slot = existing;
+        } else {
+            slot = freeCount > 0 ? free[--freeCount] : next++;
+            ensureCapacity(slot + 1);
+            ids[slot] = id;
+            byId.put(id, slot);
+        }
+        seen[slot] = sweep;
+        return slot;
+    }
+
+    int find(String id) {
+        Integer slot = id != null ? byId.get(id) : null;
+        return slot != null ? slot : -1;
+    }
+
+    String id(int slot) {
+        return slot >= 0 && slot < next ? ids[slot] : null;
+    }
+
+    /**
+     * Upper bound (exclusive) of allocated slots; per-slot arrays must be at least this long.
+     */
+    int capacity() {
+        return next;
+    }
+
+    void beginSweep() {
+        sweep++;
+    }
+
+    /**
+     * Releases every slot not interned since {@link #beginSweep()}.
+     */
+    void endSweep(IntConsumer released) {
+        for (int slot = 0; slot < next; slot++) {
+            if (ids[slot] != null && seen[slot] != sweep) {
+                byId.remove(ids[slot]);
+                ids[slot] = null;
+                free[freeCount++] = slot;
+                released.accept(slot);
+            }
+        }
+    }
+
+    void clear() {
+        byId.clear();
+        Arrays.fill(ids, null);
+        freeCount = 0;
+        next = 0;
+    }
+
+    private void ensureCapacity(int required) {
+        if (required <= ids.length) {
+            return;
+        }
+        int capacity = Math.max(required, ids.length * 2);
+        ids = Arrays.copyOf(ids, capacity);
+        seen = Arrays.copyOf(seen, capacity);
+        free = Arrays.copyOf(free, capacity);
+    }
+}
@@ -0,0 +1,310 @@
+package dev.citysim.migration;
+
+import dev.citysim.city.City;
+import dev.citysim.city.CityManager;
+import dev.citysim.city.CityManagerListener;
+import dev.citysim.util.BlockChangeJournal;
+import dev.citysim.util.BlockClassifier;
+import org.bukkit.Bukkit;
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.plugin.Plugin;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Pre-validated fallback teleport spots per destination city, used when a destination has no resolved platform
+ * slots. Refills sample columns around the fallback anchor and validate them off-thread against chunk snapshots with
+ * the same floor, rail and headroom rules as the inline search; taking a spot only re-reads its headroom. Spots in
+ * chunks reported by the {@link BlockChangeJournal} are dropped. Only loaded chunks are sampled. A city's pool is
+ * dropped when the city is removed or renamed.
+ */
+final class DestinationSpotPool implements BlockChangeJournal.Subscriber, CityManagerListener {
+
+    private static final int TARGET_SIZE = 8;
+    private static final int LOW_WATER = 3;
+    private static final int LOCAL_RAIL_RADIUS = 5;
+
+    private final Map<String, Pool> pools = new HashMap<>();
+    private final BlockClassifier classifier;
+    private final Executor asyncExecutor;
+    private final Executor mainThreadExecutor;
+
+    DestinationSpotPool(Plugin plugin, CityManager cityManager, BlockClassifier classifier) {
+        this.classifier = classifier;
+        this.asyncExecutor = task -> Bukkit.getScheduler().runTaskAsynchronously(plugin, task);
+        this.mainThreadExecutor = task -> Bukkit.getScheduler().runTask(plugin, task);
+        cityManager.addListener(this);
+    }
+
+    void clear() {
+        pools.clear();
+    }
+
+    int size() {
+        return pools.size();
+    }
+
+    @Override
+    public void onCityRemoved(City city) {
+        pools.remove(city.id);
+    }
+
+    @Override
+    public void onCityRenamed(String previousId, City city) {
+        pools.remove(previousId);
+    }
+
+    /**
+     * Pops a pooled spot around the anchor whose headroom is still clear, or {@code null} when none is ready. Either
+     * way a background refill is started once the pool runs low.
+     */
+    Location take(String cityId, Location anchor, TeleportSettings settings, int radiusLimit, int maxStartY) {
+        if (cityId == null || anchor == null || anchor.getWorld() == null || settings == null) {
+            return null;
+        }
+        World world = anchor.getWorld();
+        Request request = new Request(world.getName(), anchor.getBlockX(), anchor.getBlockY(), anchor.getBlockZ(),
+                radiusLimit, maxStartY, settings);
+        Pool pool = pools.computeIfAbsent(cityId, ignored -> new Pool());
+        if (!request.equals(pool.request)) {
+            pool.request = request;
+            pool.spots.clear();
+            pool.generation++;
+        }
+        Location result = null;
+        while (result == null && !pool.spots.isEmpty()) {
+            Spot spot = pool.spots.poll();
+            if (!world.isChunkLoaded(spot.x() >> 4, spot.z() >> 4) || !hasHeadroom(world, spot)) {
+                continue;
+            }
+            result = new Location(world, spot.x() + 0.5, spot.floorY() + 1.01, spot.z() + 0.5);
+        }
+        if (pool.spots.size() < LOW_WATER) {
+            refill(cityId, pool, world);
+        }
+        return result;
+    }
+
+    @Override
+    public void onBlockChanges(World world, BlockChangeJournal.ChunkChanges changes) {
+        if (pools.isEmpty() || (changes.edits().isEmpty() && changes.updates().isEmpty())) {
+            return;
+        }
+        String worldName = world.getName();
+        for (Pool pool : pools.values()) {
+            if (pool.request != null && pool.request.world().equals(worldName)) {
+                pool.spots.removeIf(spot -> spot.x() >> 4 == changes.chunkX() && spot.z() >> 4 == changes.chunkZ());
+            }
+        }
+    }
+
+    private void refill(String cityId, Pool pool, World world) {
+        if (pool.refilling) {
+            return;
+        }
+        Request request = pool.request;
+        int radius = Math.max(0, Math.min(request.settings().radius, Math.max(0, request.radiusLimit())));
+        int pad = Math.max(LOCAL_RAIL_RADIUS, Math.max(0, request.settings().railAvoidHorizRadius));
+        if (!world.isChunkLoaded(request.x() >> 4, request.z() >> 4)) {
+            return;
+        }
+        Map<Long, ChunkSnapshot> snapshots = new HashMap<>();
+        for (int chunkX = (request.x() - radius - pad) >> 4; chunkX <= (request.x() + radius + pad) >> 4; chunkX++) {
+            for (int chunkZ = (request.z() - radius - pad) >> 4; chunkZ <= (request.z() + radius + pad) >> 4; chunkZ++) {
+                if (world.isChunkLoaded(chunkX, chunkZ)) {
+                    snapshots.put(packKey(chunkX, chunkZ), world.getChunkAt(chunkX, chunkZ).getChunkSnapshot(true, false, false));
+                }
+            }
+        }
+        Snapshots area = new Snapshots(snapshots, world.getMinHeight(), world.getMaxHeight());
+        int needed = TARGET_SIZE - pool.spots.size();
+        long generation = pool.generation;
+        pool.refilling = true;
+        CompletableFuture
+                .supplyAsync(() -> sample(area, classifier, request, radius, needed), asyncExecutor)
+                .whenCompleteAsync((spots, error) -> {
+                    pool.refilling = false;
+                    if (error != null || spots == null || pools.get(cityId) != pool || pool.generation != generation) {
+                        return;
+                    }
+                    for (Spot spot : spots) {
+                        if (pool.spots.size() >= TARGET_SIZE) {
+                            break;
+                        }
+                        pool.spots.offer(spot);
+                    }
+                }, mainThreadExecutor);
+    }
+
+    /**
+     * Snapshot counterpart of the inline fallback search. Headroom is judged by solidity here; the passability
+     * check happens when the spot is taken.
+     */
+    static List<Spot> sample(Snapshots area, BlockClassifier classifier, Request request, int radius, int needed) {
+        TeleportSettings settings = request.settings();
+        List<Spot> spots = new ArrayList<>();
+        if (needed <= 0) {
+            return spots;
+        }
+        int baseX = request.x();
+        int baseZ = request.z();
+        int railY = localRailY(area, classifier, baseX, request.y(), baseZ, Math.min(settings.radius, LOCAL_RAIL_RADIUS));
+        int attempts = Math.max(1, settings.maxSamples) * needed;
+        Set<Long> visited = new HashSet<>();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        for (int sample = 0; sample < attempts && spots.size() < needed; sample++) {
+            int candidateX = baseX;
+            int candidateZ = baseZ;
+            if (sample > 0) {
+                if (radius <= 0) {
+                    break;
+                }
+                int dx = random.nextInt(-radius, radius + 1);
+                int dz = random.nextInt(-radius, radius + 1);
+                if (dx * dx + dz * dz > radius * radius) {
+                    continue;
+                }
+                candidateX = baseX + dx;
+                candidateZ = baseZ + dz;
+            }
+            if (!visited.add(packKey(candidateX, candidateZ))) {
+                continue;
+            }
+            ChunkSnapshot snapshot = area.at(candidateX, candidateZ);
+            if (snapshot == null) {
+                continue;
+            }
+            int surfaceY = Math.max(area.minHeight(), snapshot.getHighestBlockYAt(candidateX & 15, candidateZ & 15));
+            int startY = settings.requireYAtLeastRail ? Math.max(surfaceY, railY) : surfaceY;
+            startY = Math.min(startY, Math.min(area.maxHeight() - 1, Math.max(area.minHeight(), request.maxStartY())));
+            for (int down = 0; down <= 2; down++) {
+                int floorY = startY - down;
+                if (floorY < area.minHeight()) {
+                    break;
+                }
+                if (isValid(area, classifier, settings, candidateX, floorY, candidateZ)) {
+                    spots.add(new Spot(candidateX, floorY, candidateZ));
+                    break;
+                }
+            }
+        }
+        return spots;
+    }
+
+    private static boolean isValid(Snapshots area, BlockClassifier classifier, TeleportSettings settings,
+                                   int x, int floorY, int z) {
+        Material floor = area.type(x, floorY, z);
+        if (floor == null || floor.isAir() || !classifier.is(floor, BlockClassifier.SOLID_FLOOR)) {
+            return false;
+        }
+        if (settings.floorAllowlist != null && !settings.floorAllowlist.isEmpty() && !settings.floorAllowlist.contains(floor)) {
+            return false;
+        }
+        if (settings.floorBlacklist.contains(floor)) {
+            return false;
+        }
+        Material feet = area.type(x, floorY + 1, z);
+        Material head = area.type(x, floorY + 2, z);
+        if (feet == null || head == null || feet.isSolid() || head.isSolid()) {
+            return false;
+        }
+        if (settings.disallowOnRail && (classifier.is(floor, BlockClassifier.RAIL) || classifier.is(feet, BlockClassifier.RAIL))) {
+            return false;
+        }
+        if (settings.disallowBelowRail) {
+            for (int dy = 1; dy <= settings.railAvoidVertAbove; dy++) {
+                Material above = area.type(x, floorY + dy, z);
+                if (above != null && classifier.is(above, BlockClassifier.RAIL)) {
+                    return false;
+                }
+            }
+        }
+        int horizRadius = settings.railAvoidHorizRadius;
+        if (horizRadius > 0 && classifier.hasAny(BlockClassifier.RAIL)) {
+            for (int dx = -horizRadius; dx <= horizRadius; dx++) {
+                for (int dz = -horizRadius; dz <= horizRadius; dz++) {
+                    if (dx == 0 && dz == 0) {
+                        continue;
+                    }
+                    Material near = area.type(x + dx, floorY, z + dz);
+                    if (near == null || classifier.is(near, BlockClassifier.RAIL)) {
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    private static int localRailY(Snapshots area, BlockClassifier classifier, int centerX, int centerY, int centerZ, int radius) {
+        int minY = Math.max(area.minHeight(), centerY - 3);
+        int maxY = Math.min(area.maxHeight() - 1, centerY + 3);
+        int highest = Integer.MIN_VALUE;
+        for (int x = centerX - radius; x <= centerX + radius; x++) {
+            for (int z = centerZ - radius; z <= centerZ + radius; z++) {
+                ChunkSnapshot snapshot = area.at(x, z);
+                if (snapshot == null) {
+                    continue;
+                }
+                for (int y = minY; y <= maxY; y++) {
+                    if (y > highest && classifier.is(snapshot.getBlockType(x & 15, y, z & 15), BlockClassifier.RAIL)) {
+                        highest = y;
+                    }
+                }
+            }
+        }
+        return highest != Integer.MIN_VALUE ? highest : centerY;
+    }
+
+    private static boolean hasHeadroom(World world, Spot spot) {
+        if (spot.floorY() + 2 > world.getMaxHeight()) {
+            return false;
+        }
+        return world.getBlockAt(spot.x(), spot.floorY() + 1, spot.z()).isPassable()
+                && world.getBlockAt(spot.x(), spot.floorY() + 2, spot.z()).isPassable();
+    }
+
+    private static long packKey(int a, int b) {
+        return ((long) a << 32) | (b & 0xFFFFFFFFL);
+    }
+
+    record Spot(int x, int floorY, int z) {
+    }
+
+    record Request(String world, int x, int y, int z, int radiusLimit, int maxStartY, TeleportSettings settings) {
+    }
+
+    record Snapshots(Map<Long, ChunkSnapshot> chunks, int minHeight, int maxHeight) {
+        ChunkSnapshot at(int x, int z) {
+            return chunks.get(packKey(x >> 4, z >> 4));
+        }
+
+        Material type(int x, int y, int z) {
+            if (y < minHeight || y >= maxHeight) {
+                return null;
+            }
+            ChunkSnapshot snapshot = at(x, z);
+            return snapshot != null ? snapshot.getBlockType(x & 15, y, z & 15) : null;
+        }
+    }
+
+    private static final class Pool {
+        private final ArrayDeque<Spot> spots = new ArrayDeque<>();
+        private Request request;
+        private long generation;
+        private boolean refilling;
+    }
+}
@@ -0,0 +1,348 @@
+package dev.citysim.migration;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Global allocation of migration moves for one interval. The main thread captures an immutable {@link Snapshot} of
+ * every eligible (origin, destination) pair and the remaining origin, destination, link and global capacities;
+ * {@link #plan} then picks moves greedily by score across all pairs, so no origin loses capacity to weaker pairs
+ * merely because they were iterated first. {@link #plan} is pure, so it runs off the main thread; {@link #collect}
+ * and {@link #approve} run on the main thread around it and update the {@link Host}'s streaks, buckets and counters.
+ */
+final class MigrationPlanner {
+
+    static final int UNLIMITED = Integer.MAX_VALUE;
+
+    private static final Comparator<Pair> ORDER = Comparator
+            .comparingDouble(Pair::score).reversed()
+            .thenComparingDouble(Pair::distance)
+            .thenComparingInt(Pair::origin)
+            .thenComparingInt(Pair::destination);
+
+    private MigrationPlanner() {
+    }
+
+    /**
+     * A candidate move between two city slots; {@code linkCapacity} is the number of further moves the link allows.
+     */
+    record Pair(int origin, int destination, int linkCapacity, double score, double distance) {
+    }
+
+    /**
+     * Capacities are indexed by city slot and give the number of further moves allowed; slots beyond an array or
+     * left at zero allow none and {@link #UNLIMITED} is uncapped.
+     */
+    record Snapshot(List<Pair> pairs, int[] originCapacity, int[] destinationCapacity, int globalCapacity, int maxMoves) {
+        Snapshot {
+            pairs = List.copyOf(pairs);
+            originCapacity = originCapacity.clone();
+            destinationCapacity = destinationCapacity.clone();
+        }
+    }
+
+    record Move(int origin, int destination) {
+    }
+
+    /**
+     * A destination that passed the pair gates and consistency streak, scored against the origin's other candidates.
+     */
+    record Candidate(int destination, double score, double strength, double prosperityDelta) {
+    }
+
+    /**
+     * Why an origin or a planned move was held back.
+     */
+    enum Skip {
+        CONSISTENCY,
+        POPULATION_BUDGET,
+        MAX_APPROVALS,
+        POST_MOVE_GUARD,
+        GLOBAL_RATE,
+        ORIGIN_RATE,
+        DESTINATION_RATE,
+        LINK_RATE
+    }
+
+    /**
+     * The live cities and migration state, addressed by city slot. Implemented by {@link MigrationService} over real
+     * cities and by the simulator over synthetic ones.
+     */
+    interface Host {
+        MigrationService.MigrationSettings settings();
+
+        long logicalTick();
+
+        MigrationService.CityState state(int slot);
+
+        /**
+         * The global bucket, configured for the current settings.
+         */
+        MigrationService.TokenBucket globalBucket();
+
+        /**
+         * Whether the slot still names a city; moves touching a missing city are dropped.
+         */
+        boolean exists(int slot);
+
+        int population(int slot);
+
+        int beds(int slot);
+
+        /**
+         * Origin gates ahead of the consistency streak.
+         */
+        boolean isOriginEligible(int slot);
+
+        /**
+         * Scored destinations for an origin that passed its streak and budget.
+         */
+        List<Candidate> candidates(int origin);
+
+        double distance(int origin, int destination);
+
+        /**
+         * Host-specific checks made just before the tokens are reserved.
+         */
+        boolean canApprove(int origin, int destination);
+
+        /**
+         * A uniformly random delay in {@code [0, max]} ticks.
+         */
+        int jitter(int max);
+
+        void enqueue(long executeTick, int origin, int destination);
+
+        default void originEligible(int origin, int streak) {
+        }
+
+        default void originSkipped(int origin, Skip reason, int streak) {
+        }
+
+        default void candidate(int origin, Candidate candidate) {
+        }
+
+        default void moveSkipped(int origin, int destination, Skip reason) {
+        }
+
+        default void approved(int origin, int destination, long executeTick, int jitter) {
+        }
+    }
+
+    /**
+     * Runs the origin streaks and gates over {@code originSlots}, collects the scored pairs of the origins that pass
+     * and captures the remaining capacities, or returns {@code null} when no pair qualifies. Origin capacity combines
+     * the population floor with the origin token bucket; destination capacity combines the post-move housing guard
+     * with the destination token bucket. Per-link capacity is carried on each pair.
+     */
+    static Snapshot collect(Host host, int[] originSlots, int slotCapacity) {
+        MigrationService.MigrationSettings settings = host.settings();
+        MigrationService.RateSettings rate = settings.rate;
+        long tick = host.logicalTick();
+        List<Pair> pairs = new ArrayList<>();
+        int[] origins = new int[originSlots.length];
+        int originCount = 0;
+        int[] destinations = new int[Math.max(1, originSlots.length)];
+        int destinationCount = 0;
+        for (int origin : originSlots) {
+            MigrationService.CityState state = host.state(origin);
+            boolean eligible = host.isOriginEligible(origin);
+            int streak = MigrationRules.streak(state.consistency, eligible, tick, settings.intervalTicks);
+            if (!eligible) {
+                state.resetPairConsistency();
+                continue;
+            }
+            host.originEligible(origin, streak);
+            if (streak < settings.logic.requireConsistencyScans) {
+                host.originSkipped(origin, Skip.CONSISTENCY, streak);
+                continue;
+            }
+            if (!MigrationRules.hasPopulationBudget(host.population(origin), state.pending, settings.minPopulationFloor)) {
+                host.originSkipped(origin, Skip.POPULATION_BUDGET, streak);
+                continue;
+            }
+            List<Candidate> candidates = host.candidates(origin);
+            if (candidates.isEmpty()) {
+                continue;
+            }
+            origins[originCount++] = origin;
+            for (Candidate candidate : candidates) {
+                host.candidate(origin, candidate);
+                int destination = candidate.destination();
+                MigrationService.CityState destinationState = host.state(destination);
+                if (destinationState.plannedTick != tick) {
+                    destinationState.plannedTick = tick;
+                    if (destinationCount == destinations.length) {
+                        destinations = Arrays.copyOf(destinations, destinationCount * 2);
+                    }
+                    destinations[destinationCount++] = destination;
+                }
+                int linkTokens = rate.perLinkPerInterval > 0
+                        ? state.pair(destination).bucket(rate.perLinkPerInterval).available(tick, rate.intervalTicks)
+                        : UNLIMITED;
+                pairs.add(new Pair(origin, destination, linkTokens, candidate.score(), host.distance(origin, destination)));
+            }
+        }
+        if (pairs.isEmpty()) {
+            return null;
+        }
+
+        int[] originCapacity = new int[slotCapacity];
+        for (int i = 0; i < originCount; i++) {
+            int slot = origins[i];
+            MigrationService.CityState state = host.state(slot);
+            int population = MigrationRules.populationHeadroom(host.population(slot), state.pending, settings.minPopulationFloor);
+            int tokens = rate.perOriginPerInterval > 0
+                    ? state.originBucket(rate.perOriginPerInterval).available(tick, rate.intervalTicks)
+                    : UNLIMITED;
+            originCapacity[slot] = Math.max(0, Math.min(population, tokens));
+        }
+        int[] destinationCapacity = new int[slotCapacity];
+        for (int i = 0; i < destinationCount; i++) {
+            int slot = destinations[i];
+            MigrationService.CityState state = host.state(slot);
+            int housing = MigrationRules.housingHeadroom(settings.logic.postMoveHousingFloor, host.population(slot),
+                    host.beds(slot), state.inflight);
+            int tokens = rate.perDestinationPerInterval > 0
+                    ? state.destinationBucket(rate.perDestinationPerInterval).available(tick, rate.intervalTicks)
+                    : UNLIMITED;
+            destinationCapacity[slot] = Math.max(0, Math.min(housing, tokens));
+        }
+        int global = rate.globalPerInterval > 0
+                ? host.globalBucket().available(tick, rate.intervalTicks)
+                : UNLIMITED;
+        return new Snapshot(pairs, originCapacity, destinationCapacity, global, settings.maxMovesPerTick);
+    }
+
+    /**
+     * Enqueues the planned moves. Each is re-checked against live state, since moves may have executed while the
+     * plan was computed. Returns the number approved.
+     */
+    static int approve(Host host, List<Move> moves) {
+        MigrationService.MigrationSettings settings = host.settings();
+        int approvals = 0;
+        for (Move move : moves) {
+            if (approvals >= settings.maxMovesPerTick) {
+                host.moveSkipped(move.origin(), move.destination(), Skip.MAX_APPROVALS);
+                break;
+            }
+            int origin = move.origin();
+            int destination = move.destination();
+            if (!host.exists(origin) || !host.exists(destination)) {
+                continue;
+            }
+            MigrationService.CityState originState = host.state(origin);
+            MigrationService.CityState destinationState = host.state(destination);
+            if (!MigrationRules.hasPopulationBudget(host.population(origin), originState.pending, settings.minPopulationFloor)) {
+                host.moveSkipped(origin, destination, Skip.POPULATION_BUDGET);
+                continue;
+            }
+            if (!MigrationRules.passesPostMoveGuard(settings.logic.postMoveHousingFloor, host.population(destination),
+                    host.beds(destination), destinationState.inflight)) {
+                host.moveSkipped(origin, destination, Skip.POST_MOVE_GUARD);
+                continue;
+            }
+            if (!host.canApprove(origin, destination) || !reserveTokens(host, originState, destinationState, origin, destination)) {
+                continue;
+            }
+            int jitter = settings.rate.jitterTicksMax > 0 ? host.jitter(settings.rate.jitterTicksMax) : 0;
+            long executeTick = host.logicalTick() + jitter;
+            destinationState.inflight++;
+            originState.pending++;
+            host.enqueue(executeTick, origin, destination);
+            host.approved(origin, destination, executeTick, jitter);
+            approvals++;
+        }
+        return approvals;
+    }
+
+    /**
+     * Takes one token from every configured bucket on the move's path, or none when any of them is empty.
+     */
+    private static boolean reserveTokens(Host host, MigrationService.CityState originState,
+                                         MigrationService.CityState destinationState, int origin, int destination) {
+        MigrationService.RateSettings rate = host.settings().rate;
+        long tick = host.logicalTick();
+        MigrationService.TokenBucket global = rate.globalPerInterval > 0 ? host.globalBucket() : null;
+        MigrationService.TokenBucket originBucket = rate.perOriginPerInterval > 0
+                ? originState.originBucket(rate.perOriginPerInterval)
+                : null;
+        MigrationService.TokenBucket destinationBucket = rate.perDestinationPerInterval > 0
+                ? destinationState.destinationBucket(rate.perDestinationPerInterval)
+                : null;
+        MigrationService.TokenBucket linkBucket = rate.perLinkPerInterval > 0
+                ? originState.pair(destination).bucket(rate.perLinkPerInterval)
+                : null;
+
+        Skip empty = null;
+        if (global != null && !global.hasTokens(tick, rate.intervalTicks)) {
+            empty = Skip.GLOBAL_RATE;
+        } else if (originBucket != null && !originBucket.hasTokens(tick, rate.intervalTicks)) {
+            empty = Skip.ORIGIN_RATE;
+        } else if (destinationBucket != null && !destinationBucket.hasTokens(tick, rate.intervalTicks)) {
+            empty = Skip.DESTINATION_RATE;
+        } else if (linkBucket != null && !linkBucket.hasTokens(tick, rate.intervalTicks)) {
+            empty = Skip.LINK_RATE;
+        }
+        if (empty != null) {
+            host.moveSkipped(origin, destination, empty);
+            return false;
+        }
+
+        if (global != null) {
+            global.consume();
+        }
+        if (originBucket != null) {
+            originBucket.consume();
+        }
+        if (destinationBucket != null) {
+            destinationBucket.consume();
+        }
+        if (linkBucket != null) {
+            linkBucket.consume();
+        }
+        return true;
+    }
+
+    static List<Move> plan(Snapshot snapshot) {
+        List<Move> moves = new ArrayList<>();
+        if (snapshot == null || snapshot.maxMoves() <= 0 || snapshot.pairs().isEmpty()) {
+            return moves;
+        }
+        List<Pair> ordered = new ArrayList<>(snapshot.pairs());
+        ordered.sort(ORDER);
+        int[] origins = snapshot.originCapacity().clone();
+        int[] destinations = snapshot.destinationCapacity().clone();
+        int global = snapshot.globalCapacity();
+
+        for (Pair pair : ordered) {
+            if (moves.size() >= snapshot.maxMoves() || global <= 0) {
+                break;
+            }
+            if (pair.linkCapacity() <= 0
+                    || capacity(origins, pair.origin()) <= 0
+                    || capacity(destinations, pair.destination()) <= 0) {
+                continue;
+            }
+            take(origins, pair.origin());
+            take(destinations, pair.destination());
+            if (global != UNLIMITED) {
+                global--;
+            }
+            moves.add(new Move(pair.origin(), pair.destination()));
+        }
+        return moves;
+    }
+
+    private static int capacity(int[] capacity, int slot) {
+        return slot >= 0 && slot < capacity.length ? capacity[slot] : 0;
+    }
+
+    private static void take(int[] capacity, int slot) {
+        if (capacity[slot] != UNLIMITED) {
+            capacity[slot]--;
+        }
+    }
+}
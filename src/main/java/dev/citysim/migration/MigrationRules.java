@@ -0,0 +1,156 @@
+package dev.citysim.migration;
+
+/**
+ * Pure migration gates and scoring, shared by {@link MigrationService} and the offline simulator so both make the
+ * same decisions from the same inputs.
+ */
+final class MigrationRules {
+
+    static final double EMPLOYMENT_PRESSURE = 0.75d;
+    static final double HOUSING_PRESSURE = 1.0d;
+
+    static final String HARD_CAP = "hard_cap";
+    static final String SOFT_CAP = "soft_cap";
+
+    static final String NO_AVERAGES = "no_averages";
+    static final String AT_FLOOR = "at_floor";
+    static final String NO_PRESSURE = "no_pressure";
+
+    private MigrationRules() {
+    }
+
+    static boolean underPressure(MigrationService.CityEma ema) {
+        return ema.employment() < EMPLOYMENT_PRESSURE || ema.housing() < HOUSING_PRESSURE;
+    }
+
+    /**
+     * {@code null} when the city may send migrants, otherwise {@link #NO_AVERAGES}, {@link #AT_FLOOR} or
+     * {@link #NO_PRESSURE}.
+     */
+    static String originRejection(MigrationService.CityEma ema, int population, int populationFloor) {
+        if (!ema.isInitialized()) {
+            return NO_AVERAGES;
+        }
+        if (population <= populationFloor) {
+            return AT_FLOOR;
+        }
+        return underPressure(ema) ? null : NO_PRESSURE;
+    }
+
+    /**
+     * Advances {@code counter} for one scan and returns the streak, or resets it and returns zero when the gate
+     * failed.
+     */
+    static int streak(MigrationService.ConsistencyCounter counter, boolean eligible, long tick, int intervalTicks) {
+        if (eligible) {
+            return counter.increment(tick, Math.max(1, intervalTicks));
+        }
+        counter.reset(tick);
+        return 0;
+    }
+
+    /**
+     * Moves the origin can still give up before reaching the population floor, counting pending departures.
+     */
+    static int populationHeadroom(int population, int pending, int populationFloor) {
+        return Math.max(0, population) - pending - populationFloor - 1;
+    }
+
+    static boolean hasPopulationBudget(int population, int pending, int populationFloor) {
+        return populationHeadroom(population, pending, populationFloor) > 0;
+    }
+
+    /**
+     * Arrivals the destination can take before the post-move housing floor is hit, or
+     * {@link MigrationPlanner#UNLIMITED} when the guard is off.
+     */
+    static int housingHeadroom(double postMoveHousingFloor, int population, int beds, int inflight) {
+        if (postMoveHousingFloor <= 0) {
+            return MigrationPlanner.UNLIMITED;
+        }
+        double maxResidents = Math.max(0, beds) / postMoveHousingFloor;
+        return (int) Math.min(MigrationPlanner.UNLIMITED - 1L,
+                (long) Math.floor(maxResidents) - Math.max(0, population) - inflight);
+    }
+
+    static boolean passesPostMoveGuard(double postMoveHousingFloor, int population, int beds, int inflight) {
+        if (postMoveHousingFloor <= 0) {
+            return true;
+        }
+        int denominator = Math.max(0, population) + inflight + 1;
+        if (denominator <= 0) {
+            return false;
+        }
+        return Math.max(0, beds) / (double) denominator >= postMoveHousingFloor;
+    }
+
+    /**
+     * Destination gates for one pair. {@code zeroPopArrivals} is the grace already used by an empty destination.
+     */
+    static DestinationCheck checkDestination(MigrationService.LogicSettings logic,
+                                             MigrationService.CityEma originEma,
+                                             MigrationService.CityEma destinationEma,
+                                             int population, int beds, int zeroPopArrivals) {
+        boolean destinationEmpty = population <= 0;
+        boolean housingOk = destinationEmpty
+                ? beds >= logic.zeroPopulationMinBeds
+                : destinationEma.housing() >= logic.destMinHousingRatio;
+        int arrivalGraceUsed = Math.max(population, zeroPopArrivals);
+        boolean employmentOk = destinationEmpty
+                ? arrivalGraceUsed < logic.zeroPopulationEmploymentGrace
+                : destinationEma.employment() >= logic.destMinEmploymentFloor;
+        double prosperityDelta = destinationEma.prosperity() - originEma.prosperity();
+        if (destinationEmpty) {
+            prosperityDelta = Math.max(prosperityDelta, logic.zeroPopulationProsperityBoost);
+        }
+        boolean prosperityOk = destinationEmpty || prosperityDelta >= logic.minProsperityDelta;
+        return new DestinationCheck(destinationEmpty, housingOk, employmentOk, prosperityOk, arrivalGraceUsed, prosperityDelta);
+    }
+
+    /**
+     * {@code null} when the destination's unemployment is acceptable, otherwise {@link #HARD_CAP} or
+     * {@link #SOFT_CAP}.
+     */
+    static String unemploymentRejection(MigrationService.LogicSettings.UnemploymentSettings unemployment,
+                                        int adults, int none, int nitwit) {
+        if (unemployment == null || adults <= 0) {
+            return null;
+        }
+        double noneShare = Math.max(0, none) / (double) adults;
+        if (noneShare > unemployment.hardCap()) {
+            return HARD_CAP;
+        }
+        if (noneShare > unemployment.softCap() && Math.max(0, nitwit) < unemployment.nitwitReliefRatio() * Math.max(0, none)) {
+            return SOFT_CAP;
+        }
+        return null;
+    }
+
+    /**
+     * Candidate score from link strength and prosperity gain, each normalised by the best among the origin's
+     * candidates.
+     */
+    static double score(MigrationService.ScoreWeights weights, double strength, double maxStrength,
+                        double prosperityDelta, double maxProsperityDelta) {
+        double linkScore = maxStrength > 0 ? strength / maxStrength : 0.0d;
+        double prosperityScore = maxProsperityDelta > 0 ? prosperityDelta / maxProsperityDelta : 0.0d;
+        return weights.linkStrength * clamp01(linkScore) + weights.prosperityDelta * clamp01(prosperityScore);
+    }
+
+    static double clamp01(double value) {
+        if (value <= 0.0d) {
+            return 0.0d;
+        }
+        if (value >= 1.0d) {
+            return 1.0d;
+        }
+        return value;
+    }
+
+    record DestinationCheck(boolean destinationEmpty, boolean housingOk, boolean employmentOk, boolean prosperityOk,
+                            int arrivalGraceUsed, double prosperityDelta) {
+        boolean passes() {
+            return housingOk && employmentOk && prosperityOk;
+        }
+    }
+}
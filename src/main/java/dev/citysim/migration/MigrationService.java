@@ -2,12 +2,20 @@ package dev.citysim.migration;
 
 import dev.citysim.city.City;
 import dev.citysim.city.CityManager;
+import dev.citysim.city.CityMetricsTable;
 import dev.citysim.city.Cuboid;
 import dev.citysim.links.CityLink;
 import dev.citysim.links.LinkService;
 import dev.citysim.stats.StatsService;
 import dev.citysim.stats.StationCountingMode;
 import dev.citysim.stats.StatsService.FreshnessSnapshot;
+import dev.citysim.trace.TraceEvent;
+import dev.citysim.trace.TraceType;
+import dev.citysim.trace.Tracer;
+import dev.citysim.util.BlockChangeJournal;
+import dev.citysim.util.BlockClassifier;
+import dev.citysim.util.HeightmapCache;
+import dev.citysim.util.LongObjectMap;
 import org.bukkit.Bukkit;
 import org.bukkit.Location;
 import org.bukkit.Material;
@@ -15,16 +23,15 @@ import org.bukkit.NamespacedKey;
 import org.bukkit.World;
 import org.bukkit.block.Block;
 import org.bukkit.configuration.file.FileConfiguration;
-import org.bukkit.entity.Entity;
 import org.bukkit.entity.Player;
 import org.bukkit.entity.Villager;
 import org.bukkit.entity.Villager.Profession;
-import org.bukkit.persistence.PersistentDataContainer;
 import org.bukkit.persistence.PersistentDataType;
 import org.bukkit.plugin.Plugin;
 import org.bukkit.scheduler.BukkitTask;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
@@ -38,6 +45,8 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.PriorityQueue;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
@@ -56,32 +65,41 @@ public class MigrationService implements Runnable {
     private final StatsService statsService;
     private final NamespacedKey cooldownKey;
     private final StationPlatformResolver platformResolver;
+    private final BlockClassifier classifier;
 
     private final Map<String, CityMigrationCounters> counters = new HashMap<>();
-    private final Map<String, CityEma> cityEmas = new HashMap<>();
-    private final Map<String, ConsistencyCounter> originConsistency = new HashMap<>();
-    private final Map<String, Map<String, ConsistencyCounter>> pairConsistency = new HashMap<>();
-    private final Map<String, TokenBucket> originBuckets = new HashMap<>();
-    private final Map<String, TokenBucket> destinationBuckets = new HashMap<>();
-    private final Map<String, TokenBucket> linkBuckets = new HashMap<>();
-    private final Map<String, Integer> inflightToDest = new HashMap<>();
-    private final Map<String, Integer> pendingFromOrigin = new HashMap<>();
-    private final Map<String, Integer> zeroPopulationArrivals = new HashMap<>();
+    private final CitySlots slots = new CitySlots();
+    private CityState[] states = new CityState[16];
     private final PriorityQueue<DelayedMove> delayedQueue = new PriorityQueue<>(Comparator.comparingLong(DelayedMove::executeTick));
     private final TokenBucket globalBucket = new TokenBucket();
-    private final Map<String, Integer> platformIndices = new HashMap<>();
-    private final Map<String, Long> staleStatsLogTick = new HashMap<>();
-    private final Map<String, Long> platformHintsLogTick = new HashMap<>();
-    private final Map<String, Long> unemploymentGateLogTick = new HashMap<>();
     private final MigrationDebugManager debugManager = new MigrationDebugManager();
+    private final HeightmapCache heightmapCache;
+    private final VillagerPool villagerPool;
+    private final DestinationSpotPool destinationSpots;
+    private final Executor asyncExecutor;
+    private final Executor mainThreadExecutor;
+    private Tracer tracer = new Tracer();
     private boolean stationModeWarningLogged = false;
 
     private MigrationSettings settings = MigrationSettings.disabled();
     private BukkitTask task;
     private long logicalTick = 0L;
+    private boolean planInFlight;
+    private long planGeneration;
 
-    public MigrationService(Plugin plugin, CityManager cityManager, StatsService statsService, LinkService linkService, StationPlatformResolver platformResolver) {
+    /**
+     * The villager pool must be registered as a listener by the caller for selection to see any villagers.
+     */
+    public MigrationService(Plugin plugin, CityManager cityManager, StatsService statsService, LinkService linkService,
+                            StationPlatformResolver platformResolver, HeightmapCache heightmapCache, VillagerPool villagerPool,
+                            BlockClassifier classifier) {
         this.plugin = plugin;
+        this.classifier = Objects.requireNonNull(classifier, "classifier");
+        this.heightmapCache = heightmapCache != null ? heightmapCache : new HeightmapCache();
+        this.villagerPool = Objects.requireNonNull(villagerPool, "villagerPool");
+        this.destinationSpots = new DestinationSpotPool(plugin, cityManager, this.classifier);
+        this.asyncExecutor = task -> Bukkit.getScheduler().runTaskAsynchronously(plugin, task);
+        this.mainThreadExecutor = task -> Bukkit.getScheduler().runTask(plugin, task);
         this.cityManager = cityManager;
         this.statsService = statsService;
         this.linkService = linkService;
@@ -93,12 +111,24 @@ public class MigrationService implements Runnable {
         syncZeroPopulationArrivalsFromCities();
     }
 
+    /**
+     * Drops pooled fallback destination spots in chunks whose blocks changed.
+     */
+    public BlockChangeJournal.Subscriber destinationSpotSubscriber() {
+        return destinationSpots;
+    }
+
     public boolean toggleDebug(Player player) {
         return debugManager.toggle(player);
     }
 
+    public void setTracer(Tracer tracer) {
+        this.tracer = tracer != null ? tracer : new Tracer();
+    }
+
     public void reload(FileConfiguration config) {
         this.settings = MigrationSettings.fromConfig(plugin, config);
+        classifier.configureRails(settings.teleport.railMaterials);
         if (platformResolver != null) {
             platformResolver.updateTeleportSettings(settings.teleport);
         }
@@ -137,18 +167,11 @@ public class MigrationService implements Runnable {
 
     private void resetRuntimeState() {
         delayedQueue.clear();
-        inflightToDest.clear();
-        pendingFromOrigin.clear();
-        cityEmas.clear();
-        originConsistency.clear();
-        pairConsistency.clear();
-        originBuckets.clear();
-        destinationBuckets.clear();
-        linkBuckets.clear();
-        platformIndices.clear();
-        staleStatsLogTick.clear();
-        platformHintsLogTick.clear();
-        unemploymentGateLogTick.clear();
+        slots.clear();
+        Arrays.fill(states, null);
+        destinationSpots.clear();
+        planGeneration++;
+        planInFlight = false;
         globalBucket.configure(settings.rate.globalPerInterval);
         globalBucket.reset();
         logicalTick = 0L;
@@ -176,19 +199,16 @@ public class MigrationService implements Runnable {
 
         long now = System.currentTimeMillis();
         logicalTick += Math.max(1, settings.intervalTicks);
+        villagerPool.refresh(now);
 
         if (debugManager.isEnabled()) {
             int approvalsQueued = delayedQueue.size();
             int inflight = 0;
-            for (Integer value : inflightToDest.values()) {
-                if (value != null) {
-                    inflight += value;
-                }
-            }
             int pending = 0;
-            for (Integer value : pendingFromOrigin.values()) {
-                if (value != null) {
-                    pending += value;
+            for (CityState state : states) {
+                if (state != null) {
+                    inflight += state.inflight;
+                    pending += state.pending;
                 }
             }
             debugInfo(String.format(
@@ -211,88 +231,66 @@ public class MigrationService implements Runnable {
             return;
         }
 
-        prunePlatformRoundRobin(cities);
-
+        CityMetricsTable metrics = cityManager.metricsTable();
+        slots.beginSweep();
+        for (int row = 0; row < metrics.size(); row++) {
+            updateEma(metrics, row);
+        }
         for (City city : cities) {
-            if (city == null || city.id == null) {
-                continue;
+            if (city != null && city.id != null) {
+                slots.intern(city.id);
             }
-            updateEma(city);
         }
 
-        int approvals = 0;
-        for (City origin : cities) {
-            if (origin == null || origin.id == null) {
-                continue;
-            }
-
-            boolean originEligible = isOriginEligible(origin, now);
-            int originStreak = updateOriginConsistency(origin.id, originEligible);
-            if (!originEligible) {
-                pairConsistency.remove(origin.id);
-                continue;
-            }
+        if (planInFlight) {
             if (debugManager.isEnabled()) {
-                debugInfo("Origin " + describeCity(origin) + " eligible - streak=" + originStreak + "/" + settings.logic.requireConsistencyScans);
-            }
-            if (originStreak < settings.logic.requireConsistencyScans) {
-                if (debugManager.isEnabled()) {
-                    debugInfo("Origin " + describeCity(origin) + " waiting for consistency streak (current=" + originStreak + ").");
-                }
-                continue;
-            }
-            if (!hasPopulationBudget(origin)) {
-                if (debugManager.isEnabled()) {
-                    int pending = pendingFromOrigin.getOrDefault(origin.id, 0);
-                    debugWarning("Origin " + describeCity(origin) + " exhausted population budget (pending=" + pending + ", population=" + Math.max(0, origin.population) + ").");
-                }
-                continue;
-            }
-
-            List<CityLink> links = new ArrayList<>(linkService.computeLinks(origin));
-            if (links.isEmpty()) {
-                if (debugManager.isEnabled()) {
-                    debugInfo("Origin " + describeCity(origin) + " has no eligible links.");
-                }
-                continue;
+                debugInfo("Tick " + logicalTick + " - previous migration plan still running; skipping planning.");
             }
+            return;
+        }
+        // Slots are only recycled while no plan is in flight, so planned moves always resolve to their own cities.
+        slots.endSweep(this::releaseSlot);
 
-            List<DestinationCandidate> candidates = evaluateCandidates(origin, links, now);
-            if (candidates.isEmpty()) {
-                if (debugManager.isEnabled()) {
-                    debugInfo("Origin " + describeCity(origin) + " produced no destination candidates this tick.");
-                }
-                continue;
+        int[] originSlots = new int[cities.size()];
+        int originCount = 0;
+        for (City origin : cities) {
+            if (origin != null && origin.id != null) {
+                originSlots[originCount++] = slots.intern(origin.id);
             }
+        }
+        MigrationPlanner.Snapshot snapshot = MigrationPlanner.collect(new PlanningHost(now),
+                Arrays.copyOf(originSlots, originCount), slots.capacity());
+        if (snapshot == null) {
+            return;
+        }
 
-            for (DestinationCandidate candidate : candidates) {
-                if (approvals >= settings.maxMovesPerTick) {
-                    if (debugManager.isEnabled()) {
-                        debugInfo("Reached max approvals for tick (" + approvals + "/" + settings.maxMovesPerTick + ").");
+        long generation = planGeneration;
+        planInFlight = true;
+        CompletableFuture
+                .supplyAsync(() -> MigrationPlanner.plan(snapshot), asyncExecutor)
+                .whenCompleteAsync((moves, error) -> {
+                    if (generation != planGeneration) {
+                        return;
                     }
-                    return;
-                }
-                if (!hasPopulationBudget(origin)) {
-                    if (debugManager.isEnabled()) {
-                        debugWarning("Origin " + describeCity(origin) + " ran out of population budget mid-loop.");
+                    planInFlight = false;
+                    if (error != null) {
+                        plugin.getLogger().log(Level.WARNING, "Migration planning failed", error);
+                        return;
                     }
-                    break;
-                }
-                if (debugManager.isEnabled()) {
-                    debugInfo(String.format(
-                            Locale.US,
-                            "Evaluating link %s - score=%.3f, strength=%.3f, prosperityDelta=%.3f",
-                            describeMove(origin, candidate.destination),
-                            candidate.score,
-                            candidate.linkStrength,
-                            candidate.prosperityDelta
-                    ));
-                }
-                if (tryApproveMove(origin, candidate.destination, now)) {
-                    approvals++;
-                }
-            }
+                    tracer.record(TraceType.MIGRATION_PLAN, null, null, null, snapshot.pairs().size(),
+                            moves != null ? moves.size() : 0, 0L, 0L, null);
+                    approvePlannedMoves(moves, System.currentTimeMillis());
+                }, mainThreadExecutor);
+    }
+
+    /**
+     * Enqueues the planner's moves through {@link MigrationPlanner#approve}, which re-checks each against live state.
+     */
+    private void approvePlannedMoves(List<MigrationPlanner.Move> moves, long nowMillis) {
+        if (moves == null || moves.isEmpty() || !settings.enabled) {
+            return;
         }
+        MigrationPlanner.approve(new PlanningHost(nowMillis), moves);
     }
 
     private void processDelayedQueue(long nowMillis) {
@@ -306,30 +304,42 @@ public class MigrationService implements Runnable {
         }
     }
 
-    private void prunePlatformRoundRobin(Collection<City> cities) {
-        if (platformIndices.isEmpty() || cities == null || cities.isEmpty()) {
-            return;
+    private CityState state(int slot) {
+        if (slot >= states.length) {
+            states = Arrays.copyOf(states, Math.max(slot + 1, states.length * 2));
         }
-        Set<String> activeIds = new HashSet<>();
-        for (City city : cities) {
-            if (city == null || city.id == null) {
-                continue;
-            }
-            activeIds.add(city.id);
+        CityState state = states[slot];
+        if (state == null) {
+            state = new CityState();
+            states[slot] = state;
         }
-        if (activeIds.isEmpty()) {
-            platformIndices.clear();
-            return;
+        return state;
+    }
+
+    private CityState state(City city) {
+        return state(slots.intern(city.id));
+    }
+
+    private void releaseSlot(int slot) {
+        if (slot < states.length) {
+            states[slot] = null;
+        }
+        for (CityState state : states) {
+            if (state != null) {
+                state.pairs.remove(slot);
+            }
         }
-        platformIndices.keySet().removeIf(id -> !activeIds.contains(id));
     }
 
-    private void updateEma(City city) {
-        CityEma ema = cityEmas.computeIfAbsent(city.id, id -> new CityEma());
-        ema.update(city.employmentRate, city.housingRatio, city.prosperity);
+    private void updateEma(CityMetricsTable metrics, int row) {
+        String cityId = metrics.id(row);
+        if (cityId == null) {
+            return;
+        }
+        state(slots.intern(cityId)).ema.update(metrics.employmentRate(row), metrics.housingRatio(row), metrics.prosperity(row));
     }
 
-    private boolean isOriginEligible(City city, long nowMillis) {
+    private boolean isOriginEligible(City city, CityState state, long nowMillis) {
         if (city == null || city.id == null) {
             return false;
         }
@@ -339,44 +349,24 @@ public class MigrationService implements Runnable {
             }
             return false;
         }
-        CityEma ema = cityEmas.get(city.id);
-        if (ema == null || !ema.isInitialized()) {
-            if (debugManager.isEnabled()) {
-                debugOriginSkip(city, "waiting for rolling averages.");
-            }
-            return false;
-        }
-        boolean employmentPressure = ema.employment() < 0.75d;
-        boolean housingPressure = ema.housing() < 1.0d;
-        if (city.population <= settings.minPopulationFloor) {
+        CityEma ema = state.ema;
+        String rejection = MigrationRules.originRejection(ema, city.population, settings.minPopulationFloor);
+        if (rejection != null) {
             if (debugManager.isEnabled()) {
-                debugOriginSkip(city, "population at floor (" + Math.max(0, city.population) + ").");
-            }
-            return false;
-        }
-        if (!employmentPressure && !housingPressure) {
-            if (debugManager.isEnabled()) {
-                debugOriginSkip(city, String.format(Locale.US, "no pressure (employment=%.2f, housing=%.2f).", ema.employment(), ema.housing()));
+                debugOriginSkip(city, switch (rejection) {
+                    case MigrationRules.NO_AVERAGES -> "waiting for rolling averages.";
+                    case MigrationRules.AT_FLOOR -> "population at floor (" + Math.max(0, city.population) + ").";
+                    default -> String.format(Locale.US, "no pressure (employment=%.2f, housing=%.2f).",
+                            ema.employment(), ema.housing());
+                });
             }
             return false;
         }
         return true;
     }
 
-    private boolean hasPopulationBudget(City origin) {
-        if (origin == null || origin.id == null) {
-            return false;
-        }
-        int pending = pendingFromOrigin.getOrDefault(origin.id, 0);
-        int population = Math.max(0, origin.population);
-        return population - (pending + 1) > settings.minPopulationFloor;
-    }
-
-    private List<DestinationCandidate> evaluateCandidates(City origin, List<CityLink> links, long nowMillis) {
-        CityEma originEma = cityEmas.get(origin.id);
-        if (originEma == null) {
-            return List.of();
-        }
+    private List<DestinationCandidate> evaluateCandidates(City origin, CityState originState, List<CityLink> links, long nowMillis) {
+        CityEma originEma = originState.ema;
 
         List<DestinationCandidate> rawCandidates = new ArrayList<>();
         double maxStrength = 0.0d;
@@ -390,55 +380,46 @@ public class MigrationService implements Runnable {
                 }
                 continue;
             }
+            int destinationSlot = slots.intern(destination.id);
+            CityState destinationState = state(destinationSlot);
             if (!isStatsFresh(destination, nowMillis)) {
-                updatePairConsistency(origin.id, destination.id, false);
+                updatePairConsistency(originState, destinationSlot, false);
                 if (debugManager.isEnabled()) {
                     debugCandidateSkip(origin, destination, "destination stats are stale.");
                 }
                 continue;
             }
             if (!settings.logic.allowZeroPopulationDestinations && destination.population <= 0) {
-                updatePairConsistency(origin.id, destination.id, false);
+                updatePairConsistency(originState, destinationSlot, false);
                 if (debugManager.isEnabled()) {
                     debugCandidateSkip(origin, destination, "destination population is zero (disabled by config).");
                 }
                 continue;
             }
-            CityEma destEma = cityEmas.get(destination.id);
-            if (destEma == null || !destEma.isInitialized()) {
-                updatePairConsistency(origin.id, destination.id, false);
+            CityEma destEma = destinationState.ema;
+            if (!destEma.isInitialized()) {
+                updatePairConsistency(originState, destinationSlot, false);
                 if (debugManager.isEnabled()) {
                     debugCandidateSkip(origin, destination, "destination averages not initialized.");
                 }
                 continue;
             }
-            boolean destinationEmpty = destination.population <= 0;
-            boolean housingOk = destinationEmpty
-                    ? destination.beds >= settings.logic.zeroPopulationMinBeds
-                    : destEma.housing() >= settings.logic.destMinHousingRatio;
-            if (!destinationEmpty) {
-                if (zeroPopulationArrivals.remove(destination.id) != null) {
-                    destination.migrationZeroPopArrivals = 0;
-                }
+            if (destination.population > 0 && destinationState.zeroPopArrivals > 0) {
+                destinationState.zeroPopArrivals = 0;
+                destination.migrationZeroPopArrivals = 0;
             }
-            int arrivalGraceUsed = Math.max(destination.population, arrivalCount(destination.id));
-            boolean employmentOk = destinationEmpty
-                    ? arrivalGraceUsed < settings.logic.zeroPopulationEmploymentGrace
-                    : destEma.employment() >= settings.logic.destMinEmploymentFloor;
-            double prosperityDelta = destEma.prosperity() - originEma.prosperity();
-            if (destinationEmpty) {
-                prosperityDelta = Math.max(prosperityDelta, settings.logic.zeroPopulationProsperityBoost);
-            }
-            boolean prosperityOk = destinationEmpty || prosperityDelta >= settings.logic.minProsperityDelta;
-            if (!housingOk || !employmentOk || !prosperityOk) {
-                updatePairConsistency(origin.id, destination.id, false);
+            MigrationRules.DestinationCheck check = MigrationRules.checkDestination(settings.logic, originEma, destEma,
+                    destination.population, destination.beds, destinationState.zeroPopArrivals);
+            double prosperityDelta = check.prosperityDelta();
+            if (!check.passes()) {
+                updatePairConsistency(originState, destinationSlot, false);
                 if (debugManager.isEnabled()) {
                     String reason;
-                    if (destinationEmpty) {
+                    if (check.destinationEmpty()) {
                         reason = String.format(Locale.US,
                                 "destination zero-pop gates failed (beds=%d, arrivals=%d, prosperityDelta=%.2f).",
                                 Math.max(0, destination.beds),
-                                arrivalGraceUsed,
+                                check.arrivalGraceUsed(),
                                 prosperityDelta);
                     } else {
                         reason = String.format(Locale.US,
@@ -453,11 +434,11 @@ public class MigrationService implements Runnable {
             }
 
             if (!passesUnemploymentGate(origin, destination)) {
-                updatePairConsistency(origin.id, destination.id, false);
+                updatePairConsistency(originState, destinationSlot, false);
                 continue;
             }
 
-            int pairStreak = updatePairConsistency(origin.id, destination.id, true);
+            int pairStreak = updatePairConsistency(originState, destinationSlot, true);
             if (pairStreak < settings.logic.requireConsistencyScans) {
                 if (debugManager.isEnabled()) {
                     debugInfo("Link " + describeMove(origin, destination) + " waiting for consistency streak (current=" + pairStreak + ").");
@@ -467,7 +448,7 @@ public class MigrationService implements Runnable {
 
             double strength = Math.max(0, link.rawStrength());
 
-            DestinationCandidate candidate = new DestinationCandidate(destination, link, strength, prosperityDelta);
+            DestinationCandidate candidate = new DestinationCandidate(destination, destinationSlot, link, strength, prosperityDelta);
             rawCandidates.add(candidate);
 
             if (strength > maxStrength) {
@@ -482,13 +463,9 @@ public class MigrationService implements Runnable {
             return List.of();
         }
 
-        double maxStrengthFinal = maxStrength;
-        double maxProsperityFinal = maxProsperityDelta;
         for (DestinationCandidate candidate : rawCandidates) {
-            double linkScore = maxStrengthFinal > 0 ? candidate.linkStrength / maxStrengthFinal : 0.0d;
-            double prosperityScore = maxProsperityFinal > 0 ? candidate.prosperityDelta / maxProsperityFinal : 0.0d;
-            candidate.score = settings.logic.scoreWeights.linkStrength * clamp01(linkScore)
-                    + settings.logic.scoreWeights.prosperityDelta * clamp01(prosperityScore);
+            candidate.score = MigrationRules.score(settings.logic.scoreWeights, candidate.linkStrength, maxStrength,
+                    candidate.prosperityDelta, maxProsperityDelta);
         }
 
         rawCandidates.sort(Comparator
@@ -498,99 +475,6 @@ public class MigrationService implements Runnable {
         return rawCandidates;
     }
 
-    private double clamp01(double value) {
-        if (value <= 0.0d) {
-            return 0.0d;
-        }
-        if (value >= 1.0d) {
-            return 1.0d;
-        }
-        return value;
-    }
-
-    private boolean tryApproveMove(City origin, City destination, long nowMillis) {
-        if (origin == null || destination == null || origin.id == null || destination.id == null) {
-            if (debugManager.isEnabled()) {
-                debugCandidateSkip(origin, destination, "missing city metadata.");
-            }
-            return false;
-        }
-        if (!passesPostMoveGuard(origin, destination)) {
-            return false;
-        }
-
-        Location originAnchor = stationAnchor(origin);
-        if (originAnchor == null) {
-            if (debugManager.isEnabled()) {
-                debugCandidateSkip(origin, destination, "no origin station anchor.");
-            }
-            return false;
-        }
-
-        Location destinationAnchor = stationAnchor(destination);
-        if (destinationAnchor == null) {
-            if (debugManager.isEnabled()) {
-                debugCandidateSkip(origin, destination, "no destination station anchor.");
-            }
-            return false;
-        }
-
-        if (!reserveTokens(origin, destination, linkKey(origin.id, destination.id))) {
-            return false;
-        }
-
-        int jitter = settings.rate.jitterTicksMax > 0
-                ? ThreadLocalRandom.current().nextInt(settings.rate.jitterTicksMax + 1)
-                : 0;
-        long executeTick = logicalTick + jitter;
-
-        inflightToDest.merge(destination.id, 1, Integer::sum);
-        pendingFromOrigin.merge(origin.id, 1, Integer::sum);
-        delayedQueue.add(new DelayedMove(executeTick, origin.id, destination.id));
-        if (debugManager.isEnabled()) {
-            debugSuccess(String.format(Locale.US,
-                    "Approved migration %s - executeTick=%d (jitter=%d).",
-                    describeMove(origin, destination),
-                    executeTick,
-                    jitter));
-        }
-        return true;
-    }
-
-    private boolean passesPostMoveGuard(City origin, City destination) {
-        if (destination == null || destination.id == null) {
-            if (debugManager.isEnabled()) {
-                debugCandidateSkip(origin, destination, "destination missing for post-move guard.");
-            }
-            return false;
-        }
-        if (settings.logic.postMoveHousingFloor <= 0) {
-            return true;
-        }
-        int inflight = inflightToDest.getOrDefault(destination.id, 0);
-        int population = Math.max(0, destination.population);
-        int beds = Math.max(0, destination.beds);
-        int denominator = population + inflight + 1;
-        if (denominator <= 0) {
-            if (debugManager.isEnabled()) {
-                debugCandidateSkip(origin, destination, "post-move guard denominator invalid.");
-            }
-            return false;
-        }
-        double effectiveHousing = beds / (double) denominator;
-        boolean allowed = effectiveHousing >= settings.logic.postMoveHousingFloor;
-        if (!allowed && debugManager.isEnabled()) {
-            debugCandidateSkip(origin, destination, String.format(Locale.US,
-                    "post-move housing guard (%.2f < %.2f) [beds=%d, inflight=%d, population=%d].",
-                    effectiveHousing,
-                    settings.logic.postMoveHousingFloor,
-                    beds,
-                    inflight,
-                    population));
-        }
-        return allowed;
-    }
-
     private boolean passesUnemploymentGate(City origin, City destination) {
         if (destination == null || destination.id == null) {
             if (debugManager.isEnabled()) {
@@ -603,25 +487,13 @@ public class MigrationService implements Runnable {
             return true;
         }
         int adults = Math.max(0, destination.adultPopulation);
-        if (adults <= 0) {
-            return true;
-        }
         int none = Math.max(0, destination.adultNone);
         int nitwit = Math.max(0, destination.adultNitwit);
-        double noneShare = none / (double) adults;
-
-        if (noneShare > unemployment.hardCap()) {
-            logUnemploymentGate(origin, destination, "hard_cap", noneShare, none, nitwit);
+        String rejection = MigrationRules.unemploymentRejection(unemployment, adults, none, nitwit);
+        if (rejection != null) {
+            logUnemploymentGate(origin, destination, rejection, none / (double) adults, none, nitwit);
             return false;
         }
-        if (noneShare > unemployment.softCap()) {
-            double reliefThreshold = unemployment.nitwitReliefRatio() * none;
-            boolean relief = nitwit >= reliefThreshold;
-            if (!relief) {
-                logUnemploymentGate(origin, destination, "soft_cap", noneShare, none, nitwit);
-                return false;
-            }
-        }
         return true;
     }
 
@@ -629,16 +501,21 @@ public class MigrationService implements Runnable {
         if (destination == null || destination.id == null) {
             return;
         }
-        String key = destination.id + ':' + reasonKey;
-        long lastTick = unemploymentGateLogTick.getOrDefault(key, Long.MIN_VALUE);
+        CityState state = state(destination);
+        boolean hardCap = MigrationRules.HARD_CAP.equals(reasonKey);
+        long lastTick = hardCap ? state.hardCapLogTick : state.softCapLogTick;
         if (lastTick == logicalTick) {
             return;
         }
-        unemploymentGateLogTick.put(key, logicalTick);
+        if (hardCap) {
+            state.hardCapLogTick = logicalTick;
+        } else {
+            state.softCapLogTick = logicalTick;
+        }
         String cityLabel = destination.name != null && !destination.name.isBlank() ? destination.name : destination.id;
         String reason = switch (reasonKey) {
-            case "hard_cap" -> "dest NONE share > hard cap";
-            case "soft_cap" -> "soft cap, no nitwit relief";
+            case MigrationRules.HARD_CAP -> "dest NONE share > hard cap";
+            case MigrationRules.SOFT_CAP -> "soft cap, no nitwit relief";
             default -> "unemployment gate";
         };
         String formattedShare = String.format(Locale.US, "%.2f", noneShare);
@@ -652,75 +529,6 @@ public class MigrationService implements Runnable {
         }
     }
 
-    private boolean reserveTokens(City origin, City destination, String linkKey) {
-        String originId = origin != null ? origin.id : null;
-        String destinationId = destination != null ? destination.id : null;
-        TokenBucket global = settings.rate.globalPerInterval > 0 ? globalBucket : null;
-        TokenBucket originBucket = settings.rate.perOriginPerInterval > 0
-                ? getBucket(originBuckets, originId, settings.rate.perOriginPerInterval)
-                : null;
-        TokenBucket destinationBucket = settings.rate.perDestinationPerInterval > 0
-                ? getBucket(destinationBuckets, destinationId, settings.rate.perDestinationPerInterval)
-                : null;
-        TokenBucket linkBucket = settings.rate.perLinkPerInterval > 0
-                ? getBucket(linkBuckets, linkKey, settings.rate.perLinkPerInterval)
-                : null;
-
-        if (global != null && !global.hasTokens(logicalTick, settings.rate.intervalTicks)) {
-            if (debugManager.isEnabled()) {
-                debugCandidateSkip(origin, destination, "global rate limit reached.");
-            }
-            return false;
-        }
-        if (originBucket != null && !originBucket.hasTokens(logicalTick, settings.rate.intervalTicks)) {
-            if (debugManager.isEnabled()) {
-                debugCandidateSkip(origin, destination, "origin rate limit reached.");
-            }
-            return false;
-        }
-        if (destinationBucket != null && !destinationBucket.hasTokens(logicalTick, settings.rate.intervalTicks)) {
-            if (debugManager.isEnabled()) {
-                debugCandidateSkip(origin, destination, "destination rate limit reached.");
-            }
-            return false;
-        }
-        if (linkBucket != null && !linkBucket.hasTokens(logicalTick, settings.rate.intervalTicks)) {
-            if (debugManager.isEnabled()) {
-                debugCandidateSkip(origin, destination, "link rate limit reached.");
-            }
-            return false;
-        }
-
-        if (global != null) {
-            global.consume();
-        }
-        if (originBucket != null) {
-            originBucket.consume();
-        }
-        if (destinationBucket != null) {
-            destinationBucket.consume();
-        }
-        if (linkBucket != null) {
-            linkBucket.consume();
-        }
-        return true;
-    }
-
-    private TokenBucket getBucket(Map<String, TokenBucket> buckets, String key, int capacity) {
-        if (key == null) {
-            return null;
-        }
-        return buckets.compute(key, (k, existing) -> {
-            if (existing == null) {
-                TokenBucket bucket = new TokenBucket();
-                bucket.configure(capacity);
-                return bucket;
-            }
-            existing.configure(capacity);
-            return existing;
-        });
-    }
-
     private void executeApprovedMove(DelayedMove move, long nowMillis) {
         boolean success = false;
         Villager villager = null;
@@ -766,7 +574,7 @@ public class MigrationService implements Runnable {
                     .mapToInt(spots -> spots.spots() != null ? spots.spots().size() : 0)
                     .sum();
             String destinationLabel = destination.name != null && !destination.name.isBlank() ? destination.name : destination.id;
-            logDebugMessage("[Migration] resolver returned " + resolverSlotCount + " slot(s) for '" + destinationLabel + "'");
+            trace(TraceType.MIGRATION_RESOLVER_SLOTS, destinationLabel, null, null, resolverSlotCount, 0L, 0L, 0L, null);
             boolean hasPrevalidated = resolverSlotCount > 0;
 
             Location target;
@@ -794,16 +602,21 @@ public class MigrationService implements Runnable {
                 }
                 int clampY = fallbackAnchor.getBlockY() + 1;
                 int fallbackRadiusLimit = Math.max(FALLBACK_SIGN_RADIUS, Math.max(0, settings.teleport.radius));
-                target = findDestinationSpot(fallbackAnchor, settings.teleport, fallbackRadiusLimit, clampY);
+                target = destinationSpots.take(destination.id, fallbackAnchor, settings.teleport, fallbackRadiusLimit, clampY);
+                if (target == null) {
+                    target = findDestinationSpot(fallbackAnchor, settings.teleport, fallbackRadiusLimit, clampY);
+                    if (target != null && debugManager.isEnabled()) {
+                        debugInfo("Using fallback destination search for " + describeCity(destination) + ".");
+                    }
+                } else if (debugManager.isEnabled()) {
+                    debugInfo("Using pooled fallback spot for " + describeCity(destination) + ".");
+                }
                 if (target == null) {
                     if (debugManager.isEnabled()) {
                         debugFailure("Migration " + describeMove(origin, destination) + " aborted - no safe fallback destination found.");
                     }
                     return;
                 }
-                if (debugManager.isEnabled()) {
-                    debugInfo("Using fallback destination search for " + describeCity(destination) + ".");
-                }
             }
             if (!ensureChunkLoaded(target.getWorld(), target.getBlockX(), target.getBlockZ())) {
                 if (debugManager.isEnabled()) {
@@ -822,8 +635,10 @@ public class MigrationService implements Runnable {
             resetVillagerProfession(villager);
             recordDeparture(origin, destination);
             recordArrival(destination, origin);
-            updateZeroPopulationArrivals(destination.id, destinationWasZeroPop);
+            updateZeroPopulationArrivals(destination, destinationWasZeroPop);
             success = true;
+            tracer.record(TraceType.MIGRATION_MOVED, origin.id, destination.id, target.getWorld().getName(),
+                    target.getBlockX(), target.getBlockY(), target.getBlockZ(), 0L, villager.getProfession());
             if (debugManager.isEnabled()) {
                 debugSuccess(String.format(Locale.US,
                         "Migrated %s villager from %s to %s at %s.",
@@ -837,54 +652,30 @@ public class MigrationService implements Runnable {
             if (!success && villager != null) {
                 villager.setFallDistance(0f);
             }
-            decrementPending(move != null ? move.originId : null);
-            decrementInflight(move != null ? move.destinationId : null);
-        }
-    }
-
-    private void decrementPending(String originId) {
-        if (originId == null) {
-            return;
+            if (move != null) {
+                decrementPending(move);
+                decrementInflight(move);
+            }
         }
-        pendingFromOrigin.computeIfPresent(originId, (id, value) -> {
-            int next = value - 1;
-            return next <= 0 ? null : next;
-        });
     }
 
-    private void decrementInflight(String destinationId) {
-        if (destinationId == null) {
-            return;
+    private void decrementPending(DelayedMove move) {
+        if (Objects.equals(slots.id(move.originSlot), move.originId)) {
+            CityState state = state(move.originSlot);
+            state.pending = Math.max(0, state.pending - 1);
         }
-        inflightToDest.computeIfPresent(destinationId, (id, value) -> {
-            int next = value - 1;
-            return next <= 0 ? null : next;
-        });
     }
 
-    private int updateOriginConsistency(String originId, boolean eligible) {
-        if (originId == null) {
-            return 0;
+    private void decrementInflight(DelayedMove move) {
+        if (Objects.equals(slots.id(move.destinationSlot), move.destinationId)) {
+            CityState state = state(move.destinationSlot);
+            state.inflight = Math.max(0, state.inflight - 1);
         }
-        ConsistencyCounter counter = originConsistency.computeIfAbsent(originId, id -> new ConsistencyCounter());
-        if (eligible) {
-            return counter.increment(logicalTick, Math.max(1, settings.intervalTicks));
-        }
-        counter.reset(logicalTick);
-        return 0;
     }
 
-    private int updatePairConsistency(String originId, String destinationId, boolean eligible) {
-        if (originId == null || destinationId == null) {
-            return 0;
-        }
-        Map<String, ConsistencyCounter> map = pairConsistency.computeIfAbsent(originId, id -> new HashMap<>());
-        ConsistencyCounter counter = map.computeIfAbsent(destinationId, id -> new ConsistencyCounter());
-        if (eligible) {
-            return counter.increment(logicalTick, Math.max(1, settings.intervalTicks));
-        }
-        counter.reset(logicalTick);
-        return 0;
+    private int updatePairConsistency(CityState originState, int destinationSlot, boolean eligible) {
+        return MigrationRules.streak(originState.pair(destinationSlot).consistency, eligible, logicalTick,
+                settings.intervalTicks);
     }
 
     private boolean isStatsFresh(City city, long nowMillis) {
@@ -904,7 +695,7 @@ public class MigrationService implements Runnable {
             return false;
         }
         if (city != null && city.id != null) {
-            staleStatsLogTick.remove(city.id);
+            state(city).staleLogTick = Long.MIN_VALUE;
         }
         return true;
     }
@@ -974,11 +765,11 @@ public class MigrationService implements Runnable {
         if (city == null || city.id == null) {
             return;
         }
-        long lastTick = staleStatsLogTick.getOrDefault(city.id, Long.MIN_VALUE);
-        if (lastTick == logicalTick) {
+        CityState state = state(city);
+        if (state.staleLogTick == logicalTick) {
             return;
         }
-        staleStatsLogTick.put(city.id, logicalTick);
+        state.staleLogTick = logicalTick;
         String cityLabel = city.name != null && !city.name.isBlank() ? city.name : city.id;
         long lastTimestamp = timestamps.maxTimestamp();
         String baseMessage;
@@ -1006,11 +797,11 @@ public class MigrationService implements Runnable {
         if (!debugManager.isEnabled()) {
             return;
         }
-        long lastTick = platformHintsLogTick.getOrDefault(city.id, Long.MIN_VALUE);
-        if (lastTick == logicalTick) {
+        CityState state = state(city);
+        if (state.platformHintsLogTick == logicalTick) {
             return;
         }
-        platformHintsLogTick.put(city.id, logicalTick);
+        state.platformHintsLogTick = logicalTick;
         String cityLabel = city.name != null && !city.name.isBlank() ? city.name : city.id;
         boolean requireWallSign = teleportSettings != null && teleportSettings.requireWallSign;
         if (requireWallSign && sawNonWallSigns) {
@@ -1029,38 +820,27 @@ public class MigrationService implements Runnable {
         if (!debugManager.isEnabled()) {
             return;
         }
-        long lastTick = platformHintsLogTick.getOrDefault(city.id, Long.MIN_VALUE);
-        if (lastTick == logicalTick) {
+        CityState state = state(city);
+        if (state.platformHintsLogTick == logicalTick) {
             return;
         }
-        platformHintsLogTick.put(city.id, logicalTick);
+        state.platformHintsLogTick = logicalTick;
         String cityLabel = city.name != null && !city.name.isBlank() ? city.name : city.id;
         String message = "No validated platform slots for '" + cityLabel + "'. See LATE-REJECT logs above.";
         debugWarning(message);
     }
 
-    private void logLateReject(String reason, String context, World world, int floorX, int floorY, int floorZ, String detail) {
-        if (!debugManager.isEnabled()) {
-            return;
-        }
-        String worldName = world != null ? world.getName() : "unknown";
-        int feetY = floorY + 1;
-        String base = "[Migration] LATE-REJECT[" + reason + "]: context='" + (context != null ? context : "unknown")
-                + "' floor=" + floorX + "," + floorY + "," + floorZ
-                + " feet=" + floorX + "," + feetY + "," + floorZ
-                + " world=" + worldName;
-        if (detail != null && !detail.isBlank()) {
-            base += " detail=" + detail;
-        }
-        debugWarning(base);
+    private void logLateReject(String reason, String context, World world, int floorX, int floorY, int floorZ, Object detail) {
+        trace(TraceType.MIGRATION_LATE_REJECT, context != null ? context : "unknown", reason,
+                world != null ? world.getName() : "unknown", floorX, floorY, floorZ, 0L, detail);
     }
 
-    private boolean railsNearFeet(Location feet, int radius, Set<Material> railTypes) {
+    private boolean railsNearFeet(Location feet, int radius) {
         if (radius <= 0 || feet == null) {
             return false;
         }
         World world = feet.getWorld();
-        if (world == null || railTypes == null || railTypes.isEmpty()) {
+        if (world == null || !classifier.hasAny(BlockClassifier.RAIL)) {
             return false;
         }
         int x = feet.getBlockX();
@@ -1072,7 +852,7 @@ public class MigrationService implements Runnable {
                     continue;
                 }
                 Material type = world.getBlockAt(x + dx, floorY, z + dz).getType();
-                if (railTypes.contains(type)) {
+                if (classifier.is(type, BlockClassifier.RAIL)) {
                     return true;
                 }
             }
@@ -1080,12 +860,24 @@ public class MigrationService implements Runnable {
         return false;
     }
 
-    private void logDebugMessage(String message) {
-        debugInfo(message);
-    }
-
-    private void logDebugWarning(String message) {
-        debugWarning(message);
+    /**
+     * Captures a trace event and, while a player watches migration debug, shows it in chat. Callers pass raw values
+     * so nothing is formatted unless someone is looking.
+     */
+    private void trace(TraceType type, String subject, String tag, String world, long a, long b, long c, long d, Object detail) {
+        TraceEvent event = tracer.record(type, subject, tag, world, a, b, c, d, detail);
+        if (!debugManager.isEnabled()) {
+            return;
+        }
+        if (event == null) {
+            event = TraceEvent.unbuffered(type, subject, tag, world, a, b, c, d, detail);
+        }
+        String message = "[Migration] " + event.message();
+        if (type.isWarning()) {
+            debugWarning(message);
+        } else {
+            debugInfo(message);
+        }
     }
 
     private void debugInfo(String message) {
@@ -1157,16 +949,13 @@ public class MigrationService implements Runnable {
         return worldName + " (" + location.getBlockX() + ", " + location.getBlockY() + ", " + location.getBlockZ() + ")";
     }
 
-    private String linkKey(String originId, String destinationId) {
-        return originId + "->" + destinationId;
-    }
-
     private void applyCooldown(Villager villager, long now) {
         if (settings.cooldownMillis <= 0) {
             return;
         }
         long until = now + settings.cooldownMillis;
         villager.getPersistentDataContainer().set(cooldownKey, PersistentDataType.LONG, until);
+        villagerPool.markCooldown(villager, until);
     }
 
     private Villager selectVillager(City city, Location anchor, long now) {
@@ -1174,9 +963,10 @@ public class MigrationService implements Runnable {
         if (world == null) {
             return null;
         }
-        List<Villager> nearby = findVillagers(world.getNearbyEntities(anchor, PREFERRED_STATION_RADIUS, FALLBACK_VERTICAL_RANGE, PREFERRED_STATION_RADIUS), city, anchor, now);
-        if (!nearby.isEmpty()) {
-            return nearby.get(0);
+        Villager nearby = villagerPool.nearest(city, anchor, PREFERRED_STATION_RADIUS, FALLBACK_VERTICAL_RANGE, now,
+                villager -> isVillagerAvailable(villager, city));
+        if (nearby != null) {
+            return nearby;
         }
 
         CityBounds bounds = computeBounds(city);
@@ -1186,36 +976,14 @@ public class MigrationService implements Runnable {
         }
         fallbackRadius = Math.min(MAX_FALLBACK_RADIUS, fallbackRadius);
 
-        Collection<Entity> fallbackEntities = world.getNearbyEntities(anchor, fallbackRadius, FALLBACK_VERTICAL_RANGE_WIDE, fallbackRadius);
-        List<Villager> fallback = findVillagers(fallbackEntities, city, anchor, now);
-        if (!fallback.isEmpty()) {
-            return fallback.get(0);
-        }
-        return null;
-    }
-
-    private List<Villager> findVillagers(Collection<Entity> entities, City city, Location anchor, long now) {
-        if (entities == null || entities.isEmpty()) {
-            return List.of();
-        }
-        List<Villager> results = new ArrayList<>();
-        for (Entity entity : entities) {
-            if (!(entity instanceof Villager villager)) {
-                continue;
-            }
-            if (!isVillagerEligible(villager, city, now)) {
-                continue;
-            }
-            results.add(villager);
-        }
-        results.sort(Comparator.comparingDouble(v -> distanceSquared(anchor, v.getLocation())));
-        return results;
+        return villagerPool.nearest(city, anchor, fallbackRadius, FALLBACK_VERTICAL_RANGE_WIDE, now,
+                villager -> isVillagerAvailable(villager, city));
     }
 
     private Location selectPlatformTarget(City city, List<StationPlatformResolver.StationSpots> stationSpots, TeleportSettings teleportSettings) {
         if (city == null || city.id == null || teleportSettings == null || stationSpots == null || stationSpots.isEmpty()) {
             if (city != null && city.id != null) {
-                platformIndices.remove(city.id);
+                state(city).platformIndex = 0;
             }
             return null;
         }
@@ -1229,14 +997,14 @@ public class MigrationService implements Runnable {
         boolean sawNonWallSigns = platformResolver != null && platformResolver.hasOnlyNonWallSignStations(city.id);
         String cityLabel = city.name != null && !city.name.isBlank() ? city.name : city.id;
         int totalCandidates = candidates.size();
-        logDebugMessage("[Migration] evaluating " + totalCandidates + " candidate slot(s) for '" + cityLabel + "'");
+        trace(TraceType.MIGRATION_CANDIDATES, cityLabel, null, null, totalCandidates, 0L, 0L, 0L, null);
         if (totalCandidates == 0) {
-            platformIndices.remove(city.id);
+            state(city).platformIndex = 0;
             logNoPlatformCandidates(city, teleportSettings, sawNonWallSigns);
             return null;
         }
 
-        int startIndex = Math.max(0, platformIndices.getOrDefault(city.id, 0));
+        int startIndex = Math.max(0, state(city).platformIndex);
         int validatedCount = 0;
         int selectedIndex = -1;
         Location selected = null;
@@ -1245,20 +1013,21 @@ public class MigrationService implements Runnable {
             int idx = (startIndex + i) % totalCandidates;
             Location candidate = candidates.get(idx);
             if (candidate == null) {
-                logDebugWarning("[Migration] LATE-REJECT[null-slot]: city='" + cityLabel + "' index=" + idx);
+                trace(TraceType.MIGRATION_LATE_REJECT, cityLabel, "null-slot", "unknown",
+                        TraceEvent.UNKNOWN, TraceEvent.UNKNOWN, TraceEvent.UNKNOWN, 0L, idx);
                 continue;
             }
             World world = candidate.getWorld();
             if (world == null) {
-                logDebugWarning("[Migration] LATE-REJECT[null-world]: city='" + cityLabel + "' candidate="
-                        + candidate.getBlockX() + "," + candidate.getBlockY() + "," + candidate.getBlockZ());
+                trace(TraceType.MIGRATION_LATE_REJECT, cityLabel, "null-world", "unknown",
+                        candidate.getBlockX(), candidate.getBlockY() - 1, candidate.getBlockZ(), 0L, null);
                 continue;
             }
             int x = candidate.getBlockX();
             int z = candidate.getBlockZ();
             if (!ensureChunkLoaded(world, x, z)) {
-                logDebugWarning("[Migration] LATE-REJECT[chunk-unloaded]: city='" + cityLabel + "' candidate="
-                        + x + "," + candidate.getBlockY() + "," + z);
+                trace(TraceType.MIGRATION_LATE_REJECT, cityLabel, "chunk-unloaded", world.getName(),
+                        x, candidate.getBlockY() - 1, z, 0L, null);
                 continue;
             }
             int feetY = candidate.getBlockY();
@@ -1267,10 +1036,9 @@ public class MigrationService implements Runnable {
                 continue;
             }
             int horizRadius = teleportSettings.railAvoidHorizRadius;
-            if (railsNearFeet(candidate, horizRadius, teleportSettings.railMaterials)) {
-                logDebugWarning("[Migration] LATE-REJECT[rail-near-feet]: city='" + cityLabel + "' feet="
-                        + candidate.getBlockX() + "," + candidate.getBlockY() + "," + candidate.getBlockZ()
-                        + " radius=" + horizRadius);
+            if (railsNearFeet(candidate, horizRadius)) {
+                trace(TraceType.MIGRATION_RAIL_NEAR_FEET, cityLabel, null, world.getName(),
+                        candidate.getBlockX(), candidate.getBlockY(), candidate.getBlockZ(), horizRadius, null);
                 continue;
             }
             validatedCount++;
@@ -1280,10 +1048,10 @@ public class MigrationService implements Runnable {
             }
         }
 
-        logDebugMessage("[Migration] validated slots=" + validatedCount + " for '" + cityLabel + "'");
+        trace(TraceType.MIGRATION_VALIDATED, cityLabel, null, null, validatedCount, 0L, 0L, 0L, null);
 
         if (validatedCount == 0 || selected == null) {
-            platformIndices.remove(city.id);
+            state(city).platformIndex = 0;
             logNoValidatedSlots(city);
             if (platformResolver != null) {
                 platformResolver.invalidateCity(city);
@@ -1292,7 +1060,7 @@ public class MigrationService implements Runnable {
         }
 
         if (selectedIndex >= 0) {
-            platformIndices.put(city.id, (selectedIndex + 1) % totalCandidates);
+            state(city).platformIndex = (selectedIndex + 1) % totalCandidates;
         }
         return selected;
     }
@@ -1312,26 +1080,21 @@ public class MigrationService implements Runnable {
         return defaultAnchor != null ? defaultAnchor.clone() : null;
     }
 
-    private boolean isVillagerEligible(Villager villager, City city, long now) {
+    /**
+     * Live checks for a pooled villager; profession and cooldown are already tracked by the {@link VillagerPool}.
+     */
+    private boolean isVillagerAvailable(Villager villager, City city) {
         if (villager == null || !villager.isValid() || villager.isDead()) {
             return false;
         }
         if (villager.isSleeping() || !villager.isAdult() || villager.isInsideVehicle()) {
             return false;
         }
-        if (villager.getProfession() == Profession.NITWIT) {
-            return false;
-        }
         Location location = villager.getLocation();
         if (location == null || location.getWorld() == null) {
             return false;
         }
-        if (!city.contains(location)) {
-            return false;
-        }
-        PersistentDataContainer pdc = villager.getPersistentDataContainer();
-        Long until = pdc.get(cooldownKey, PersistentDataType.LONG);
-        return until == null || until <= now;
+        return city.contains(location);
     }
 
     private Location findDestinationSpot(Location anchor, TeleportSettings teleportSettings) {
@@ -1388,12 +1151,12 @@ public class MigrationService implements Runnable {
             }
 
             if (!ensureChunkLoaded(world, candidateX, candidateZ)) {
-                logDebugWarning("[Migration] LATE-REJECT[chunk-unloaded]: context='fallback' candidate="
-                        + candidateX + ",?," + candidateZ);
+                trace(TraceType.MIGRATION_LATE_REJECT, "fallback", "chunk-unloaded", world.getName(),
+                        candidateX, TraceEvent.UNKNOWN, candidateZ, 0L, null);
                 continue;
             }
 
-            int surfaceY = Math.max(world.getMinHeight(), world.getHighestBlockYAt(candidateX, candidateZ));
+            int surfaceY = Math.max(world.getMinHeight(), heightmapCache.highestBlockY(world, candidateX, candidateZ));
             int startY = teleportSettings.requireYAtLeastRail ? Math.max(surfaceY, railY) : surfaceY;
             startY = Math.min(startY, Math.min(world.getMaxHeight() - 1, Math.max(world.getMinHeight(), maxStartY)));
 
@@ -1407,10 +1170,9 @@ public class MigrationService implements Runnable {
                 }
                 Location location = new Location(world, candidateX + 0.5, floorY + 1.01, candidateZ + 0.5);
                 int horizRadius = teleportSettings.railAvoidHorizRadius;
-                if (railsNearFeet(location, horizRadius, teleportSettings.railMaterials)) {
-                    logDebugWarning("[Migration] LATE-REJECT[rail-near-feet]: context='fallback' feet="
-                            + location.getBlockX() + "," + location.getBlockY() + "," + location.getBlockZ()
-                            + " radius=" + horizRadius);
+                if (railsNearFeet(location, horizRadius)) {
+                    trace(TraceType.MIGRATION_RAIL_NEAR_FEET, "fallback", null, world.getName(),
+                            location.getBlockX(), location.getBlockY(), location.getBlockZ(), horizRadius, null);
                     continue;
                 }
                 return location;
@@ -1427,20 +1189,20 @@ public class MigrationService implements Runnable {
         Block floor = world.getBlockAt(x, floorY, z);
         Material type = floor.getType();
         if (type.isAir()) {
-            logLateReject("floor-air", context, world, x, floorY, z, "type=" + type);
+            logLateReject("floor-air", context, world, x, floorY, z, type);
             return false;
         }
-        if (!type.isSolid() || !type.isOccluding()) {
-            logLateReject("floor-non-occluding", context, world, x, floorY, z, "type=" + type);
+        if (!classifier.is(type, BlockClassifier.SOLID_FLOOR)) {
+            logLateReject("floor-non-occluding", context, world, x, floorY, z, type);
             return false;
         }
         if (teleportSettings.floorAllowlist != null && !teleportSettings.floorAllowlist.isEmpty()
                 && !teleportSettings.floorAllowlist.contains(type)) {
-            logLateReject("floor-not-allowlist", context, world, x, floorY, z, "type=" + type);
+            logLateReject("floor-not-allowlist", context, world, x, floorY, z, type);
             return false;
         }
         if (teleportSettings.floorBlacklist.contains(type)) {
-            logLateReject("floor-blacklisted", context, world, x, floorY, z, "type=" + type);
+            logLateReject("floor-blacklisted", context, world, x, floorY, z, type);
             return false;
         }
         if (!hasHeadroom(world, floorY, x, z)) {
@@ -1448,13 +1210,13 @@ public class MigrationService implements Runnable {
             return false;
         }
         if (teleportSettings.disallowOnRail) {
-            if (teleportSettings.railMaterials.contains(type)) {
-                logLateReject("floor-is-rail", context, world, x, floorY, z, "type=" + type);
+            if (classifier.is(type, BlockClassifier.RAIL)) {
+                logLateReject("floor-is-rail", context, world, x, floorY, z, type);
                 return false;
             }
             Material feet = world.getBlockAt(x, floorY + 1, z).getType();
-            if (teleportSettings.railMaterials.contains(feet)) {
-                logLateReject("feet-is-rail", context, world, x, floorY, z, "type=" + feet);
+            if (classifier.is(feet, BlockClassifier.RAIL)) {
+                logLateReject("feet-is-rail", context, world, x, floorY, z, feet);
                 return false;
             }
         }
@@ -1482,7 +1244,7 @@ public class MigrationService implements Runnable {
                 break;
             }
             Material type = world.getBlockAt(x, y, z).getType();
-            if (teleportSettings.railMaterials.contains(type)) {
+            if (classifier.is(type, BlockClassifier.RAIL)) {
                 return true;
             }
         }
@@ -1502,7 +1264,7 @@ public class MigrationService implements Runnable {
                 }
                 for (int y = minY; y <= maxY; y++) {
                     Material type = world.getBlockAt(x, y, z).getType();
-                    if (teleportSettings.railMaterials.contains(type) && y > highest) {
+                    if (classifier.is(type, BlockClassifier.RAIL) && y > highest) {
                         highest = y;
                     }
                 }
@@ -1530,31 +1292,16 @@ public class MigrationService implements Runnable {
         villager.setVillagerExperience(0);
     }
 
-    private int arrivalCount(String cityId) {
-        return zeroPopulationArrivals.getOrDefault(cityId, 0);
-    }
-
-    private void updateZeroPopulationArrivals(String cityId, boolean destinationWasZeroPop) {
-        if (cityId == null) {
+    private void updateZeroPopulationArrivals(City city, boolean destinationWasZeroPop) {
+        if (city == null || city.id == null) {
             return;
         }
-        if (destinationWasZeroPop) {
-            int updated = zeroPopulationArrivals.merge(cityId, 1, Integer::sum);
-            City city = cityManager != null ? cityManager.get(cityId) : null;
-            if (city != null) {
-                city.migrationZeroPopArrivals = updated;
-            }
-        } else {
-            zeroPopulationArrivals.remove(cityId);
-            City city = cityManager != null ? cityManager.get(cityId) : null;
-            if (city != null) {
-                city.migrationZeroPopArrivals = 0;
-            }
-        }
+        CityState state = state(city);
+        state.zeroPopArrivals = destinationWasZeroPop ? state.zeroPopArrivals + 1 : 0;
+        city.migrationZeroPopArrivals = state.zeroPopArrivals;
     }
 
     private void syncZeroPopulationArrivalsFromCities() {
-        zeroPopulationArrivals.clear();
         if (cityManager == null) {
             return;
         }
@@ -1562,10 +1309,7 @@ public class MigrationService implements Runnable {
             if (city == null || city.id == null) {
                 continue;
             }
-            int stored = Math.max(0, city.migrationZeroPopArrivals);
-            if (stored > 0) {
-                zeroPopulationArrivals.put(city.id, stored);
-            }
+            state(city).zeroPopArrivals = Math.max(0, city.migrationZeroPopArrivals);
         }
     }
     private boolean ensureChunkLoaded(World world, int blockX, int blockZ) {
@@ -1605,7 +1349,7 @@ public class MigrationService implements Runnable {
         if (!ensureChunkLoaded(world, x, z)) {
             return null;
         }
-        int y = Math.max(world.getMinHeight(), world.getHighestBlockYAt(x, z));
+        int y = Math.max(world.getMinHeight(), heightmapCache.highestBlockY(world, x, z));
         return new Location(world, x + 0.5, y, z + 0.5);
     }
 
@@ -1772,7 +1516,7 @@ public class MigrationService implements Runnable {
         }
     }
 
-    private static class CityEma {
+    static class CityEma {
         private static final double ALPHA = 0.3d;
 
         private double employment;
@@ -1818,15 +1562,214 @@ public class MigrationService implements Runnable {
         }
     }
 
+    /**
+     * Lets {@link MigrationPlanner} gate and approve moves over the live cities, resolving slots through
+     * {@link CitySlots} and turning its skips into debug output.
+     */
+    private final class PlanningHost implements MigrationPlanner.Host {
+        private final long nowMillis;
+
+        private PlanningHost(long nowMillis) {
+            this.nowMillis = nowMillis;
+        }
+
+        private City city(int slot) {
+            String id = slots.id(slot);
+            return id != null ? cityManager.get(id) : null;
+        }
+
+        @Override
+        public MigrationSettings settings() {
+            return settings;
+        }
+
+        @Override
+        public long logicalTick() {
+            return logicalTick;
+        }
+
+        @Override
+        public CityState state(int slot) {
+            return MigrationService.this.state(slot);
+        }
+
+        @Override
+        public TokenBucket globalBucket() {
+            return globalBucket;
+        }
+
+        @Override
+        public boolean exists(int slot) {
+            return city(slot) != null;
+        }
+
+        @Override
+        public int population(int slot) {
+            City city = city(slot);
+            return city != null ? city.population : 0;
+        }
+
+        @Override
+        public int beds(int slot) {
+            City city = city(slot);
+            return city != null ? city.beds : 0;
+        }
+
+        @Override
+        public boolean isOriginEligible(int slot) {
+            return MigrationService.this.isOriginEligible(city(slot), state(slot), nowMillis);
+        }
+
+        @Override
+        public List<MigrationPlanner.Candidate> candidates(int origin) {
+            City city = city(origin);
+            List<CityLink> links = linkService.computeLinks(city);
+            if (links.isEmpty()) {
+                if (debugManager.isEnabled()) {
+                    debugInfo("Origin " + describeCity(city) + " has no eligible links.");
+                }
+                return List.of();
+            }
+            List<DestinationCandidate> candidates = evaluateCandidates(city, state(origin), links, nowMillis);
+            if (candidates.isEmpty()) {
+                if (debugManager.isEnabled()) {
+                    debugInfo("Origin " + describeCity(city) + " produced no destination candidates this tick.");
+                }
+                return List.of();
+            }
+            List<MigrationPlanner.Candidate> scored = new ArrayList<>(candidates.size());
+            for (DestinationCandidate candidate : candidates) {
+                scored.add(new MigrationPlanner.Candidate(candidate.destinationSlot, candidate.score,
+                        candidate.linkStrength, candidate.prosperityDelta));
+            }
+            return scored;
+        }
+
+        @Override
+        public double distance(int origin, int destination) {
+            return horizDistance(city(origin), city(destination));
+        }
+
+        @Override
+        public boolean canApprove(int origin, int destination) {
+            City from = city(origin);
+            City to = city(destination);
+            if (stationAnchor(from) == null) {
+                if (debugManager.isEnabled()) {
+                    debugCandidateSkip(from, to, "no origin station anchor.");
+                }
+                return false;
+            }
+            if (stationAnchor(to) == null) {
+                if (debugManager.isEnabled()) {
+                    debugCandidateSkip(from, to, "no destination station anchor.");
+                }
+                return false;
+            }
+            return true;
+        }
+
+        @Override
+        public int jitter(int max) {
+            return ThreadLocalRandom.current().nextInt(max + 1);
+        }
+
+        @Override
+        public void enqueue(long executeTick, int origin, int destination) {
+            delayedQueue.add(new DelayedMove(executeTick, origin, destination, slots.id(origin), slots.id(destination)));
+        }
+
+        @Override
+        public void originEligible(int origin, int streak) {
+            if (debugManager.isEnabled()) {
+                debugInfo("Origin " + describeCity(city(origin)) + " eligible - streak=" + streak + "/" + settings.logic.requireConsistencyScans);
+            }
+        }
+
+        @Override
+        public void originSkipped(int origin, MigrationPlanner.Skip reason, int streak) {
+            if (!debugManager.isEnabled()) {
+                return;
+            }
+            City city = city(origin);
+            if (reason == MigrationPlanner.Skip.CONSISTENCY) {
+                debugInfo("Origin " + describeCity(city) + " waiting for consistency streak (current=" + streak + ").");
+            } else {
+                debugWarning("Origin " + describeCity(city) + " exhausted population budget (pending=" + state(origin).pending
+                        + ", population=" + Math.max(0, city.population) + ").");
+            }
+        }
+
+        @Override
+        public void candidate(int origin, MigrationPlanner.Candidate candidate) {
+            if (debugManager.isEnabled()) {
+                debugInfo(String.format(
+                        Locale.US,
+                        "Evaluating link %s - score=%.3f, strength=%.3f, prosperityDelta=%.3f",
+                        describeMove(city(origin), city(candidate.destination())),
+                        candidate.score(),
+                        candidate.strength(),
+                        candidate.prosperityDelta()
+                ));
+            }
+        }
+
+        @Override
+        public void moveSkipped(int origin, int destination, MigrationPlanner.Skip reason) {
+            if (!debugManager.isEnabled()) {
+                return;
+            }
+            City from = city(origin);
+            City to = city(destination);
+            switch (reason) {
+                case MAX_APPROVALS -> debugInfo("Reached max approvals for tick (" + settings.maxMovesPerTick + "/"
+                        + settings.maxMovesPerTick + ").");
+                case POPULATION_BUDGET -> debugWarning("Origin " + describeCity(from) + " ran out of population budget before approval.");
+                case POST_MOVE_GUARD -> {
+                    int inflight = state(destination).inflight;
+                    int population = Math.max(0, to.population);
+                    int beds = Math.max(0, to.beds);
+                    double effectiveHousing = beds / (double) (population + inflight + 1);
+                    debugCandidateSkip(from, to, String.format(Locale.US,
+                            "post-move housing guard (%.2f < %.2f) [beds=%d, inflight=%d, population=%d].",
+                            effectiveHousing,
+                            settings.logic.postMoveHousingFloor,
+                            beds,
+                            inflight,
+                            population));
+                }
+                case GLOBAL_RATE -> debugCandidateSkip(from, to, "global rate limit reached.");
+                case ORIGIN_RATE -> debugCandidateSkip(from, to, "origin rate limit reached.");
+                case DESTINATION_RATE -> debugCandidateSkip(from, to, "destination rate limit reached.");
+                case LINK_RATE -> debugCandidateSkip(from, to, "link rate limit reached.");
+                default -> {
+                }
+            }
+        }
+
+        @Override
+        public void approved(int origin, int destination, long executeTick, int jitter) {
+            if (debugManager.isEnabled()) {
+                debugSuccess(String.format(Locale.US,
+                        "Approved migration %s - executeTick=%d (jitter=%d).",
+                        describeMove(city(origin), city(destination)),
+                        executeTick,
+                        jitter));
+            }
+        }
+    }
+
     private static class DestinationCandidate {
         final City destination;
+        final int destinationSlot;
         final CityLink link;
         final double linkStrength;
         final double prosperityDelta;
         double score;
 
-        DestinationCandidate(City destination, CityLink link, double linkStrength, double prosperityDelta) {
+        DestinationCandidate(City destination, int destinationSlot, CityLink link, double linkStrength, double prosperityDelta) {
             this.destination = destination;
+            this.destinationSlot = destinationSlot;
             this.link = link;
             this.linkStrength = linkStrength;
             this.prosperityDelta = prosperityDelta;
@@ -1835,11 +1778,15 @@ public class MigrationService implements Runnable {
 
     private static class DelayedMove {
         final long executeTick;
+        final int originSlot;
+        final int destinationSlot;
         final String originId;
         final String destinationId;
 
-        DelayedMove(long executeTick, String originId, String destinationId) {
+        DelayedMove(long executeTick, int originSlot, int destinationSlot, String originId, String destinationId) {
             this.executeTick = executeTick;
+            this.originSlot = originSlot;
+            this.destinationSlot = destinationSlot;
             this.originId = originId;
             this.destinationId = destinationId;
         }
@@ -1849,7 +1796,7 @@ public class MigrationService implements Runnable {
         }
     }
 
-    private static class ConsistencyCounter {
+    static class ConsistencyCounter {
         private int streak = 0;
         private long lastTick = Long.MIN_VALUE;
 
@@ -1867,6 +1814,73 @@ public class MigrationService implements Runnable {
             streak = 0;
             lastTick = currentTick;
         }
+
+        void clear() {
+            streak = 0;
+            lastTick = Long.MIN_VALUE;
+        }
+    }
+
+    /**
+     * Migration state of one city, stored at its {@link CitySlots} slot. Pair state is keyed by destination slot.
+     */
+    static final class CityState {
+        final CityEma ema = new CityEma();
+        final ConsistencyCounter consistency = new ConsistencyCounter();
+        final LongObjectMap<PairState> pairs = new LongObjectMap<>();
+        TokenBucket originBucket;
+        TokenBucket destinationBucket;
+        int inflight;
+        int pending;
+        int zeroPopArrivals;
+        int platformIndex;
+        long plannedTick = Long.MIN_VALUE;
+        long staleLogTick = Long.MIN_VALUE;
+        long platformHintsLogTick = Long.MIN_VALUE;
+        long hardCapLogTick = Long.MIN_VALUE;
+        long softCapLogTick = Long.MIN_VALUE;
+
+        PairState pair(int destinationSlot) {
+            PairState pair = pairs.get(destinationSlot);
+            if (pair == null) {
+                pair = new PairState();
+                pairs.put(destinationSlot, pair);
+            }
+            return pair;
+        }
+
+        void resetPairConsistency() {
+            pairs.forEachValue(pair -> pair.consistency.clear());
+        }
+
+        TokenBucket originBucket(int capacity) {
+            if (originBucket == null) {
+                originBucket = new TokenBucket();
+            }
+            originBucket.configure(capacity);
+            return originBucket;
+        }
+
+        TokenBucket destinationBucket(int capacity) {
+            if (destinationBucket == null) {
+                destinationBucket = new TokenBucket();
+            }
+            destinationBucket.configure(capacity);
+            return destinationBucket;
+        }
+    }
+
+    static final class PairState {
+        final ConsistencyCounter consistency = new ConsistencyCounter();
+        TokenBucket linkBucket;
+
+        TokenBucket bucket(int capacity) {
+            if (linkBucket == null) {
+                linkBucket = new TokenBucket();
+            }
+            linkBucket.configure(capacity);
+            return linkBucket;
+        }
     }
 
     /**
@@ -1874,7 +1888,7 @@ public class MigrationService implements Runnable {
      * meets or exceeds {@code migration.rate.interval_ticks}. {@code logicalTick} advances by
      * {@code migration.interval_ticks} every service run, so approvals are capped per configured window.
      */
-    private static class TokenBucket {
+    static class TokenBucket {
         private int capacity = 0;
         private int tokens = Integer.MAX_VALUE;
         private long lastRefillTick = Long.MIN_VALUE;
@@ -1898,6 +1912,11 @@ public class MigrationService implements Runnable {
             return capacity <= 0 || tokens > 0;
         }
 
+        int available(long tick, int interval) {
+            refill(tick, interval);
+            return capacity <= 0 ? Integer.MAX_VALUE : tokens;
+        }
+
         void consume() {
             if (capacity <= 0) {
                 return;
@@ -1925,7 +1944,7 @@ public class MigrationService implements Runnable {
         }
     }
 
-    private static class MigrationSettings {
+    static class MigrationSettings {
         final boolean enabled;
         final int intervalTicks;
         final int maxMovesPerTick;
@@ -1935,7 +1954,7 @@ public class MigrationService implements Runnable {
         final LogicSettings logic;
         final RateSettings rate;
 
-        private MigrationSettings(boolean enabled, int intervalTicks, int maxMovesPerTick, long cooldownMillis,
+        MigrationSettings(boolean enabled, int intervalTicks, int maxMovesPerTick, long cooldownMillis,
                                   int minPopulationFloor, TeleportSettings teleport,
                                   LogicSettings logic, RateSettings rate) {
             this.enabled = enabled;
@@ -1969,7 +1988,7 @@ public class MigrationService implements Runnable {
         }
     }
 
-    private static class LogicSettings {
+    static class LogicSettings {
         final long freshnessBaseMillis;
         final long freshnessQueueSlackMillis;
         final double freshnessBacklogWeight;
@@ -1985,7 +2004,7 @@ public class MigrationService implements Runnable {
         final ScoreWeights scoreWeights;
         final UnemploymentSettings unemployment;
 
-        private LogicSettings(long freshnessBaseMillis, long freshnessQueueSlackMillis, double freshnessBacklogWeight,
+        LogicSettings(long freshnessBaseMillis, long freshnessQueueSlackMillis, double freshnessBacklogWeight,
                               int requireConsistencyScans, double minProsperityDelta,
                               double destMinHousingRatio, double destMinEmploymentFloor, double postMoveHousingFloor,
                               boolean allowZeroPopulationDestinations, double zeroPopulationProsperityBoost,
@@ -2092,7 +2111,7 @@ public class MigrationService implements Runnable {
         }
     }
 
-    private static class ScoreWeights {
+    static class ScoreWeights {
         final double linkStrength;
         final double prosperityDelta;
 
@@ -2112,7 +2131,7 @@ public class MigrationService implements Runnable {
         }
     }
 
-    private static class RateSettings {
+    static class RateSettings {
         final int intervalTicks;
         final int globalPerInterval;
         final int perOriginPerInterval;
@@ -2120,7 +2139,7 @@ public class MigrationService implements Runnable {
         final int perLinkPerInterval;
         final int jitterTicksMax;
 
-        private RateSettings(int intervalTicks, int globalPerInterval, int perOriginPerInterval,
+        RateSettings(int intervalTicks, int globalPerInterval, int perOriginPerInterval,
                              int perDestinationPerInterval, int perLinkPerInterval, int jitterTicksMax) {
             this.intervalTicks = Math.max(1, intervalTicks);
             this.globalPerInterval = Math.max(0, globalPerInterval);
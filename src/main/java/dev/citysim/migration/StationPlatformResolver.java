@@ -2,6 +2,11 @@ package dev.citysim.migration;
 
 import dev.citysim.city.City;
 import dev.citysim.integration.traincarts.TrainCartsStationService;
+import dev.citysim.trace.TraceEvent;
+import dev.citysim.trace.TraceType;
+import dev.citysim.trace.Tracer;
+import dev.citysim.util.BlockChangeJournal;
+import dev.citysim.util.BlockClassifier;
 import org.bukkit.Bukkit;
 import org.bukkit.Chunk;
 import org.bukkit.Location;
@@ -14,12 +19,10 @@ import org.bukkit.block.data.type.WallSign;
 import org.bukkit.block.data.type.Sign;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
-import org.bukkit.event.block.BlockBreakEvent;
-import org.bukkit.event.block.BlockPhysicsEvent;
-import org.bukkit.event.block.BlockPlaceEvent;
 import org.bukkit.event.world.ChunkLoadEvent;
 import org.bukkit.plugin.Plugin;
 
+import java.io.File;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -30,36 +33,98 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.TreeSet;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 import java.util.function.BooleanSupplier;
 import java.util.logging.Level;
 import java.util.stream.Collectors;
 
-public class StationPlatformResolver implements Listener {
+public class StationPlatformResolver implements Listener, BlockChangeJournal.Subscriber {
 
     private static final int BLOCK_INVALIDATION_RADIUS = 4;
     private static final int RAIL_INVALIDATION_RADIUS = 5;
+    private static final int FALLBACK_FORWARD_MAX = 4;
+    private static final int NO_FLOOR = Integer.MIN_VALUE;
 
     private final Plugin plugin;
+    private final BlockClassifier classifier;
     private volatile TrainCartsStationService stationService;
     private TeleportSettings teleportSettings = TeleportSettings.defaults();
 
     private final Map<StationKey, CachedEntry> cache = new HashMap<>();
+    private final Map<StationKey, StationSpotStore.Entry> persisted = new HashMap<>();
+    private final Map<StationKey, Long> rebuilding = new HashMap<>();
+    private final StationSpotStore spotStore;
+    private long settingsHash;
     private final Map<StationKey, StationMetadata> metadata = new HashMap<>();
     private final Map<String, Set<StationKey>> cityIndex = new HashMap<>();
     private final Map<ChunkKey, Set<StationKey>> chunkIndex = new HashMap<>();
     private final Set<String> wallSignWarnings = ConcurrentHashMap.newKeySet();
     private BooleanSupplier debugSupplier = () -> false;
+    private volatile Tracer tracer = new Tracer();
 
+    private Executor asyncExecutor;
+    private Executor mainThreadExecutor;
+    private long rebuildTicket = 0L;
     private long lastRebuildTick = Long.MIN_VALUE;
-    private int rebuildsThisTick = 0;
+    private long rebuildNanosThisTick = 0L;
 
-    public StationPlatformResolver(Plugin plugin) {
+    public StationPlatformResolver(Plugin plugin, BlockClassifier classifier) {
         this.plugin = plugin;
+        this.classifier = Objects.requireNonNull(classifier, "classifier");
+        this.spotStore = plugin != null
+                ? new StationSpotStore(new File(plugin.getDataFolder(), "station-spots.json"), plugin.getLogger())
+                : null;
+        this.settingsHash = settingsFingerprint(this.teleportSettings);
+        this.asyncExecutor = plugin != null ? task -> Bukkit.getScheduler().runTaskAsynchronously(plugin, task) : Runnable::run;
+        this.mainThreadExecutor = plugin != null ? task -> Bukkit.getScheduler().runTask(plugin, task) : Runnable::run;
         debugSettings(this.teleportSettings);
     }
 
+    void setExecutors(Executor asyncExecutor, Executor mainThreadExecutor) {
+        this.asyncExecutor = asyncExecutor != null ? asyncExecutor : Runnable::run;
+        this.mainThreadExecutor = mainThreadExecutor != null ? mainThreadExecutor : Runnable::run;
+    }
+
+    /**
+     * Loads spots saved by the previous run. They are only trusted once the station is resolved again and the block
+     * hash still matches.
+     */
+    public void loadPersistedSpots() {
+        if (spotStore == null) {
+            return;
+        }
+        persisted.clear();
+        for (StationSpotStore.Entry entry : spotStore.load()) {
+            persisted.put(new StationKey(entry.world(), entry.x(), entry.y(), entry.z()), entry);
+        }
+        logInfo("[StationPlatformResolver] loaded " + persisted.size() + " persisted station(s)");
+    }
+
+    public void savePersistedSpots() {
+        if (spotStore == null) {
+            return;
+        }
+        Map<StationKey, StationSpotStore.Entry> entries = new HashMap<>(persisted);
+        for (Map.Entry<StationKey, CachedEntry> cached : cache.entrySet()) {
+            StationKey key = cached.getKey();
+            CachedEntry entry = cached.getValue();
+            if (entry.spots.isEmpty()) {
+                continue;
+            }
+            List<double[]> spots = new ArrayList<>(entry.spots.size());
+            for (Location spot : entry.spots) {
+                spots.add(new double[]{spot.getX(), spot.getY(), spot.getZ()});
+            }
+            entries.put(key, new StationSpotStore.Entry(key.worldId, key.x, key.y, key.z, settingsHash,
+                    entry.contentHash, spots));
+        }
+        spotStore.save(entries.values());
+    }
+
     public void setStationService(TrainCartsStationService service) {
         this.stationService = service;
         clearAll();
@@ -69,6 +134,10 @@ public class StationPlatformResolver implements Listener {
         this.debugSupplier = debugSupplier != null ? debugSupplier : () -> false;
     }
 
+    public void setTracer(Tracer tracer) {
+        this.tracer = tracer != null ? tracer : new Tracer();
+    }
+
     private boolean isDebugEnabled() {
         try {
             return debugSupplier != null && debugSupplier.getAsBoolean();
@@ -79,6 +148,7 @@ public class StationPlatformResolver implements Listener {
 
     public void updateTeleportSettings(TeleportSettings teleportSettings) {
         this.teleportSettings = teleportSettings != null ? teleportSettings : TeleportSettings.defaults();
+        this.settingsHash = settingsFingerprint(this.teleportSettings);
         clearAll();
         debugSettings(this.teleportSettings);
     }
@@ -100,7 +170,8 @@ public class StationPlatformResolver implements Listener {
             return;
         }
         for (StationKey key : keys) {
-            cache.remove(key);
+            markStale(key, false);
+            persisted.remove(key);
         }
     }
 
@@ -154,15 +225,20 @@ public class StationPlatformResolver implements Listener {
             List<Location> cached = resolveCachedSpots(key, block);
             int count = cached != null ? cached.size() : 0;
             totalSlots += count;
-            logInfo("[StationPlatformResolver] resolved " + count + " slot(s) for sign=" + describeBlock(block)
-                    + " city='" + cityLabel + "'");
+            if (isDebugEnabled()) {
+                logInfo("[StationPlatformResolver] resolved " + count + " slot(s) for sign=" + describeBlock(block)
+                        + " city='" + cityLabel + "'");
+            }
             Location signLocation = block.getLocation().toCenterLocation();
             spots.add(new StationSpots(signLocation, cached));
         }
 
         reconcileCityKeys(city.id, currentKeys);
         handleWallSignWarnings(city, hadStationBlocks, sawWallSignStation);
-        logInfo("[StationPlatformResolver] returning total slots=" + totalSlots + " for city='" + cityLabel + "'");
+        tracer.record(TraceType.PLATFORM_RESOLVED, cityLabel, null, null, totalSlots, 0L, 0L, 0L, null);
+        if (isDebugEnabled()) {
+            logInfo("[StationPlatformResolver] returning total slots=" + totalSlots + " for city='" + cityLabel + "'");
+        }
         return spots;
     }
 
@@ -198,6 +274,7 @@ public class StationPlatformResolver implements Listener {
 
     private void clearAll() {
         cache.clear();
+        rebuilding.clear();
         metadata.clear();
         cityIndex.clear();
         chunkIndex.clear();
@@ -228,112 +305,254 @@ public class StationPlatformResolver implements Listener {
         if (entry != null && entry.expiresAtTick > tick) {
             return entry.spots;
         }
-        if (!canRebuild(tick)) {
-            return entry != null ? entry.spots : List.of();
+        if (entry == null) {
+            List<Location> restored = restorePersisted(key, signBlock, tick);
+            if (restored != null) {
+                return restored;
+            }
+        }
+        List<Location> lastKnown = entry != null ? entry.spots : List.of();
+        if (!rebuilding.containsKey(key) && withinRebuildBudget(tick)) {
+            scheduleRebuild(key, signBlock);
+            CachedEntry latest = cache.get(key);
+            return latest != null ? latest.spots : lastKnown;
+        }
+        return lastKnown;
+    }
+
+    /**
+     * Adopts the spots saved by the previous run when the settings and the hashed block states still match, without
+     * scheduling a rebuild.
+     */
+    private List<Location> restorePersisted(StationKey key, Block signBlock, long tick) {
+        StationSpotStore.Entry stored = persisted.remove(key);
+        if (stored == null || stored.settingsHash() != settingsHash) {
+            return null;
+        }
+        World world = signBlock.getWorld();
+        List<Location> spots = new ArrayList<>(stored.spots().size());
+        for (double[] spot : stored.spots()) {
+            spots.add(new Location(world, spot[0], spot[1], spot[2]));
+        }
+        long hash = contentHash(BlockView.of(world), signBlock.getBlockData().getAsString(), spots, teleportSettings);
+        if (hash != stored.contentHash()) {
+            if (isDebugEnabled()) {
+                logInfo("[StationPlatformResolver] persisted spots stale for sign=" + describeBlock(signBlock));
+            }
+            return null;
+        }
+        List<Location> restored = List.copyOf(spots);
+        cache.put(key, new CachedEntry(restored, tick + teleportSettings.cacheTtlTicks, hash));
+        if (isDebugEnabled()) {
+            logInfo("[StationPlatformResolver] restored " + restored.size() + " persisted slot(s) for sign="
+                    + describeBlock(signBlock));
+        }
+        return restored;
+    }
+
+    /**
+     * Snapshots the chunks around the sign on the main thread and runs the platform search on a worker. The result is
+     * installed only if no invalidation or reset happened in between.
+     */
+    private void scheduleRebuild(StationKey key, Block signBlock) {
+        long started = System.nanoTime();
+        SignContext sign = captureSign(signBlock);
+        rebuildNanosThisTick += System.nanoTime() - started;
+        if (sign == null) {
+            return;
         }
-        List<Location> rebuilt = buildSpots(signBlock);
-        cache.put(key, new CachedEntry(List.copyOf(rebuilt), tick + teleportSettings.cacheTtlTicks));
-        return rebuilt;
+        long ticket = ++rebuildTicket;
+        rebuilding.put(key, ticket);
+        CompletableFuture
+                .supplyAsync(() -> rebuild(sign), asyncExecutor)
+                .whenCompleteAsync((result, error) -> installRebuild(key, ticket, result, error), mainThreadExecutor);
     }
 
-    private boolean canRebuild(long tick) {
-        if (teleportSettings.rebuildPerTick <= 0) {
+    private RebuildResult rebuild(SignContext sign) {
+        List<Location> spots = buildSpots(sign);
+        return new RebuildResult(List.copyOf(spots), contentHash(sign.view, sign.data, spots, sign.settings));
+    }
+
+    private void installRebuild(StationKey key, long ticket, RebuildResult result, Throwable error) {
+        Long current = rebuilding.get(key);
+        if (current == null || current != ticket) {
+            return;
+        }
+        rebuilding.remove(key);
+        if (error != null) {
+            if (plugin != null) {
+                plugin.getLogger().log(Level.WARNING, "Station platform rebuild failed", error);
+            }
+            return;
+        }
+        if (result == null || !metadata.containsKey(key)) {
+            return;
+        }
+        cache.put(key, new CachedEntry(result.spots, Bukkit.getCurrentTick() + teleportSettings.cacheTtlTicks,
+                result.contentHash));
+    }
+
+    private boolean withinRebuildBudget(long tick) {
+        if (teleportSettings.rebuildBudgetNanos <= 0) {
             return true;
         }
         if (tick != lastRebuildTick) {
             lastRebuildTick = tick;
-            rebuildsThisTick = 0;
-        }
-        if (rebuildsThisTick >= teleportSettings.rebuildPerTick) {
-            return false;
+            rebuildNanosThisTick = 0L;
         }
-        rebuildsThisTick++;
-        return true;
+        return rebuildNanosThisTick < teleportSettings.rebuildBudgetNanos;
     }
 
-    private List<Location> buildSpots(Block signBlock) {
+    /**
+     * Captures everything the search reads: sign position, facing and block data, the settings in force and
+     * snapshots of every chunk the offsets, fallback grid and backoff can reach.
+     */
+    private SignContext captureSign(Block signBlock) {
         World world = signBlock.getWorld();
         if (world == null) {
-            return List.of();
+            return null;
         }
+        TeleportSettings settings = teleportSettings;
+        int reach = 1 + FALLBACK_FORWARD_MAX + (int) Math.ceil(settings.platformHorizontalOffset);
+        for (TeleportSettings.PlatformOffset offset : settings.platformOffsets) {
+            reach = Math.max(reach, 1 + Math.max(Math.abs(offset.dx()), Math.abs(offset.dz()))
+                    + (int) Math.ceil(settings.platformHorizontalOffset));
+        }
+        BlockView.SnapshotView view = new BlockView.SnapshotView(world.getMinHeight(), world.getMaxHeight());
+        for (int chunkX = (signBlock.getX() - reach) >> 4; chunkX <= (signBlock.getX() + reach) >> 4; chunkX++) {
+            for (int chunkZ = (signBlock.getZ() - reach) >> 4; chunkZ <= (signBlock.getZ() + reach) >> 4; chunkZ++) {
+                if (ensureChunkLoaded(world, chunkX << 4, chunkZ << 4)) {
+                    view.add(chunkX, chunkZ, world.getChunkAt(chunkX, chunkZ).getChunkSnapshot(false, false, false));
+                }
+            }
+        }
+        if (view.chunkCount() == 0) {
+            return null;
+        }
+        return new SignContext(world, world.getName(), signBlock.getX(), signBlock.getY(), signBlock.getZ(),
+                resolveSignFacing(signBlock), signBlock.getBlockData().getAsString(), settings, view);
+    }
+
+    /**
+     * Hashes the sign and, for every spot, the floor, feet and head blocks plus the column checked for rails above.
+     * These are the states {@link #isValidPlatform} and {@link #isFeetLocationSafe} depend on.
+     */
+    private static long contentHash(BlockView view, String signData, List<Location> spots, TeleportSettings settings) {
+        long hash = StationSpotStore.mix(StationSpotStore.seed(), signData);
+        int above = 2 + (settings.disallowBelowRail ? Math.max(0, settings.railAvoidVertAbove) : 0);
+        for (Location spot : spots) {
+            int x = spot.getBlockX();
+            int floorY = spot.getBlockY() - 1;
+            int z = spot.getBlockZ();
+            hash = StationSpotStore.mix(hash, x);
+            hash = StationSpotStore.mix(hash, floorY);
+            hash = StationSpotStore.mix(hash, z);
+            if (!view.isLoaded(x, z)) {
+                return StationSpotStore.mix(hash, -1L);
+            }
+            int top = Math.min(view.maxHeight() - 1, floorY + above);
+            for (int y = Math.max(view.minHeight(), floorY); y <= top; y++) {
+                hash = StationSpotStore.mix(hash, view.dataString(x, y, z));
+            }
+        }
+        return hash;
+    }
+
+    private static long settingsFingerprint(TeleportSettings settings) {
+        StringBuilder builder = new StringBuilder();
+        builder.append(settings.disallowOnRail).append(';')
+                .append(settings.disallowBelowRail).append(';')
+                .append(settings.railAvoidVertAbove).append(';')
+                .append(settings.requireWallSign).append(';')
+                .append(settings.maxCandidatesPerStation).append(';')
+                .append(settings.platformVerticalSearch).append(';')
+                .append(settings.platformHorizontalOffset).append(';')
+                .append(settings.radius).append(';');
+        for (TeleportSettings.PlatformOffset offset : settings.platformOffsets) {
+            builder.append(offset.dx()).append(',').append(offset.dy()).append(',').append(offset.dz()).append(' ');
+        }
+        builder.append(';').append(materialNames(settings.floorAllowlist))
+                .append(';').append(materialNames(settings.floorBlacklist));
+        return StationSpotStore.mix(StationSpotStore.seed(), builder);
+    }
+
+    private static Set<String> materialNames(Set<Material> materials) {
+        Set<String> names = new TreeSet<>();
+        for (Material material : materials) {
+            names.add(material.name());
+        }
+        return names;
+    }
+
+    private List<Location> buildSpots(SignContext sign) {
         List<Location> spots = new ArrayList<>();
-        int max = teleportSettings.maxCandidatesPerStation;
-        for (TeleportSettings.PlatformOffset offset : teleportSettings.platformOffsets) {
+        int max = sign.settings.maxCandidatesPerStation;
+        for (TeleportSettings.PlatformOffset offset : sign.settings.platformOffsets) {
             if (spots.size() >= max) {
                 break;
             }
-            Block base = offsetFromSign(signBlock, offset);
-            if (base == null || base.getWorld() == null) {
-                continue;
-            }
+            int[] base = offsetFromSign(sign, offset);
             logInfo(String.format("[StationPlatformResolver] offset dx=%d dy=%d dz=%d -> start=(%d,%d,%d)",
-                    offset.dx(), offset.dy(), offset.dz(), base.getX(), base.getY(), base.getZ()));
-            if (!ensureChunkLoaded(base.getWorld(), base.getX(), base.getZ())) {
+                    offset.dx(), offset.dy(), offset.dz(), base[0], base[1], base[2]));
+            if (!sign.view.isLoaded(base[0], base[2])) {
                 continue;
             }
-            Block floor = findPlatformFloor(signBlock, base);
-            if (floor == null) {
+            int floorY = findPlatformFloor(sign, base[0], base[1], base[2]);
+            if (floorY == NO_FLOOR) {
                 continue;
             }
-            Location location = new Location(floor.getWorld(), floor.getX() + 0.5, floor.getY() + 1.01, floor.getZ() + 0.5);
-            applyPlatformBackoff(signBlock, location);
-            if (!isFeetLocationSafe(location)) {
-            logInfo("[StationPlatformResolver] LATE-REJECT[unsafe-feet]: floor=" + floor.getX() + "," + floor.getY() + "," + floor.getZ()
-                    + " feet=" + location.getBlockX() + "," + location.getBlockY() + "," + location.getBlockZ()
-                    + " sign=" + describeBlock(signBlock));
+            Location location = new Location(sign.world, base[0] + 0.5, floorY + 1.01, base[2] + 0.5);
+            applyPlatformBackoff(sign, location);
+            if (!isFeetLocationSafe(sign.view, location)) {
+                logPlatformDebug(sign, base[0], floorY, base[2], "unsafe-feet", null);
                 continue;
             }
-            logFeet(signBlock, floor, location, "primary");
+            logFeet(sign, base[0], floorY, base[2], location, "primary");
             spots.add(location);
         }
         if (spots.isEmpty()) {
-            collectFallbackSpots(signBlock, spots, max);
+            collectFallbackSpots(sign, spots, max);
+        }
+        if (isDebugEnabled()) {
+            logInfo("[StationPlatformResolver] final slot count=" + spots.size() + " for sign=" + describeSign(sign));
         }
-        logInfo("[StationPlatformResolver] final slot count=" + spots.size() + " for sign=" + describeBlock(signBlock));
         return spots;
     }
 
-    private void collectFallbackSpots(Block signBlock, List<Location> spots, int max) {
-        BlockFace facing = resolveSignFacing(signBlock);
+    private void collectFallbackSpots(SignContext sign, List<Location> spots, int max) {
+        BlockFace facing = sign.facing;
         if (!isHorizontal(facing)) {
             return;
         }
-        Block anchor = signBlock.getRelative(facing);
-        if (anchor == null || anchor.getWorld() == null) {
-            return;
-        }
-        World world = anchor.getWorld();
+        int anchorX = sign.x + facing.getModX();
+        int anchorY = sign.y;
+        int anchorZ = sign.z + facing.getModZ();
         int forwardX = facing.getModX();
         int forwardZ = facing.getModZ();
         int rightX = forwardZ;
         int rightZ = -forwardX;
-        int forwardRange = Math.max(1, Math.min(teleportSettings.radius > 0 ? teleportSettings.radius : 3, 4));
+        int forwardRange = Math.max(1, Math.min(sign.settings.radius > 0 ? sign.settings.radius : 3, FALLBACK_FORWARD_MAX));
         int sidewaysRange = 2;
         for (int dz = 0; dz <= forwardRange && spots.size() < max; dz++) {
             for (int dx = -sidewaysRange; dx <= sidewaysRange && spots.size() < max; dx++) {
                 for (int dy = 1; dy <= 2; dy++) {
-                    int worldDx = rightX * dx + forwardX * dz;
-                    int worldDz = rightZ * dx + forwardZ * dz;
-                    Block base = anchor.getRelative(worldDx, dy, worldDz);
-                    if (base == null || base.getWorld() == null) {
-                        continue;
-                    }
-                    if (!ensureChunkLoaded(world, base.getX(), base.getZ())) {
+                    int x = anchorX + rightX * dx + forwardX * dz;
+                    int y = anchorY + dy;
+                    int z = anchorZ + rightZ * dx + forwardZ * dz;
+                    if (!sign.view.isLoaded(x, z)) {
                         continue;
                     }
-                    Block floor = findPlatformFloor(signBlock, base);
-                    if (floor == null) {
+                    int floorY = findPlatformFloor(sign, x, y, z);
+                    if (floorY == NO_FLOOR) {
                         continue;
                     }
-                    Location location = new Location(floor.getWorld(), floor.getX() + 0.5, floor.getY() + 1.01, floor.getZ() + 0.5);
-                    applyPlatformBackoff(signBlock, location);
-                    if (!isFeetLocationSafe(location)) {
-                        logInfo("[StationPlatformResolver] LATE-REJECT[unsafe-feet]: floor=" + floor.getX() + "," + floor.getY() + "," + floor.getZ()
-                                + " feet=" + location.getBlockX() + "," + location.getBlockY() + "," + location.getBlockZ()
-                                + " sign=" + describeBlock(signBlock));
+                    Location location = new Location(sign.world, x + 0.5, floorY + 1.01, z + 0.5);
+                    applyPlatformBackoff(sign, location);
+                    if (!isFeetLocationSafe(sign.view, location)) {
+                        logPlatformDebug(sign, x, floorY, z, "unsafe-feet", null);
                         continue;
                     }
-                    logFeet(signBlock, floor, location, "fallback");
+                    logFeet(sign, x, floorY, z, location, "fallback");
                     spots.add(location);
                     break;
                 }
@@ -348,40 +567,45 @@ public class StationPlatformResolver implements Listener {
         plugin.getLogger().info(message);
     }
 
-    private void logFeet(Block signBlock, Block floor, Location feet, String source) {
-        if (signBlock == null || floor == null || feet == null) {
+    private void logFeet(SignContext sign, int floorX, int floorY, int floorZ, Location feet, String source) {
+        if (sign == null || feet == null) {
+            return;
+        }
+        tracer.record(TraceType.PLATFORM_SLOT, null, source, sign.worldName,
+                feet.getBlockX(), feet.getBlockY(), feet.getBlockZ(), 0L, null);
+        if (!isDebugEnabled()) {
             return;
         }
-        String floorCoords = floor.getX() + "," + floor.getY() + "," + floor.getZ();
+        String floorCoords = floorX + "," + floorY + "," + floorZ;
         String feetCoords = feet.getBlockX() + "," + feet.getBlockY() + "," + feet.getBlockZ();
         logInfo("[StationPlatformResolver] ADD slot: source=" + source
                 + " floor=" + floorCoords + " feet=" + feetCoords
-                + " sign=" + describeBlock(signBlock));
+                + " sign=" + describeSign(sign));
     }
 
-    private boolean isFeetLocationSafe(Location feet) {
+    private static boolean isFeetLocationSafe(BlockView view, Location feet) {
         if (feet == null) {
             return false;
         }
-        World world = feet.getWorld();
-        if (world == null) {
-            return false;
-        }
-        Block feetBlock = world.getBlockAt(feet.getBlockX(), feet.getBlockY(), feet.getBlockZ());
-        if (!feetBlock.isPassable()) {
-            return false;
-        }
-        Block headBlock = feetBlock.getRelative(BlockFace.UP);
-        return headBlock.isPassable();
+        int x = feet.getBlockX();
+        int y = feet.getBlockY();
+        int z = feet.getBlockZ();
+        return view.isPassable(x, y, z) && view.isPassable(x, y + 1, z);
     }
 
-    private void logPlatformDebug(Block signBlock, Block candidate, String tag, String detail) {
+    /**
+     * Records a rejected candidate. The detail is passed raw (usually the offending material) and only formatted
+     * when the platform debug log is on. Safe to call from the rebuild worker.
+     */
+    private void logPlatformDebug(SignContext sign, int x, int y, int z, String tag, Object detail) {
+        TraceEvent event = tracer.record(TraceType.PLATFORM_REJECT, null, tag, sign.worldName, x, y, z, 0L, detail);
         if (!isDebugEnabled() || plugin == null) {
             return;
         }
-        String signDesc = describeBlock(signBlock);
-        String candidateDesc = describeBlock(candidate);
-        plugin.getLogger().info("[StationPlatformResolver] rejected[" + tag + "]: " + detail + " (sign=" + signDesc + ", candidate=" + candidateDesc + ")");
+        if (event == null) {
+            event = TraceEvent.unbuffered(TraceType.PLATFORM_REJECT, null, tag, sign.worldName, x, y, z, 0L, detail);
+        }
+        plugin.getLogger().info("[StationPlatformResolver] " + event.message() + " (sign=" + describeSign(sign) + ")");
     }
 
     private String describeBlock(Block block) {
@@ -393,17 +617,14 @@ public class StationPlatformResolver implements Listener {
         return worldName + "@" + block.getX() + "," + block.getY() + "," + block.getZ();
     }
 
-    private Block offsetFromSign(Block signBlock, TeleportSettings.PlatformOffset offset) {
-        if (signBlock == null || offset == null) {
-            return null;
-        }
-        BlockFace facing = resolveSignFacing(signBlock);
+    private static String describeSign(SignContext sign) {
+        return sign.worldName + "@" + sign.x + "," + sign.y + "," + sign.z;
+    }
+
+    private int[] offsetFromSign(SignContext sign, TeleportSettings.PlatformOffset offset) {
+        BlockFace facing = sign.facing;
         if (!isHorizontal(facing)) {
-            return signBlock.getRelative(offset.dx(), offset.dy(), offset.dz());
-        }
-        Block anchor = signBlock.getRelative(facing);
-        if (anchor == null || anchor.getWorld() == null) {
-            return null;
+            return new int[]{sign.x + offset.dx(), sign.y + offset.dy(), sign.z + offset.dz()};
         }
         int forwardX = facing.getModX();
         int forwardZ = facing.getModZ();
@@ -411,71 +632,75 @@ public class StationPlatformResolver implements Listener {
         int rightZ = -forwardX;
         int worldDx = rightX * offset.dx() + forwardX * offset.dz();
         int worldDz = rightZ * offset.dx() + forwardZ * offset.dz();
-        return anchor.getRelative(worldDx, offset.dy(), worldDz);
+        return new int[]{sign.x + forwardX + worldDx, sign.y + offset.dy(), sign.z + forwardZ + worldDz};
     }
 
     private boolean isHorizontal(BlockFace face) {
         return face != null && (face == BlockFace.NORTH || face == BlockFace.SOUTH || face == BlockFace.EAST || face == BlockFace.WEST);
     }
 
-    private Block findPlatformFloor(Block signBlock, Block start) {
-        if (signBlock == null || start == null) {
-            return null;
-        }
-        World world = start.getWorld();
-        if (world == null) {
-            return null;
+    /**
+     * Returns the Y of the first valid platform floor in the column, or {@link #NO_FLOOR}.
+     */
+    private int findPlatformFloor(SignContext sign, int x, int startY, int z) {
+        BlockView view = sign.view;
+        final int signY = sign.y;
+        final int worldMax = view.maxHeight();
+        final int maxY = Math.min(worldMax, Math.max(startY, signY + sign.settings.platformVerticalSearch));
+        boolean debug = isDebugEnabled();
+        if (debug) {
+            logInfo(String.format("[StationPlatformResolver] probe-start: signY=%d startY=%d maxY=%d at (%d,%d,%d)",
+                    signY, startY, maxY, x, startY, z));
         }
-        final int x = start.getX();
-        final int z = start.getZ();
-        final int signY = signBlock.getY();
-        final int startY = start.getY();
-        final int worldMax = world.getMaxHeight();
-        final int maxY = Math.min(worldMax, Math.max(startY, signY + teleportSettings.platformVerticalSearch));
-        logInfo(String.format("[StationPlatformResolver] probe-start: signY=%d startY=%d maxY=%d at (%d,%d,%d)",
-                signY, startY, maxY, x, startY, z));
-        if (!ensureChunkLoaded(world, x, z)) {
-            return null;
+        if (!view.isLoaded(x, z)) {
+            return NO_FLOOR;
         }
-        final int minWorldY = world.getMinHeight();
+        final int minWorldY = view.minHeight();
 
         int downY = startY - 1;
         if (downY >= signY && downY >= minWorldY) {
-            Block down = world.getBlockAt(x, downY, z);
-            logInfo("[StationPlatformResolver] try y=" + downY + " type=" + down.getType());
-            if (isValidPlatform(signBlock, down)) {
-                logInfo("[StationPlatformResolver] ACCEPT floor at y=" + downY + " type=" + down.getType()
-                        + " floor=" + down.getX() + "," + down.getY() + "," + down.getZ());
-                return down;
+            if (debug) {
+                logInfo("[StationPlatformResolver] try y=" + downY + " type=" + view.type(x, downY, z));
+            }
+            if (isValidPlatform(sign, x, downY, z)) {
+                if (debug) {
+                    logInfo("[StationPlatformResolver] ACCEPT floor at y=" + downY + " type=" + view.type(x, downY, z)
+                            + " floor=" + x + "," + downY + "," + z);
+                }
+                return downY;
             }
         }
 
         int loopStart = Math.max(Math.max(startY, signY), minWorldY);
         // Upward scan that actually iterates Y to discover platforms above the sign.
         for (int y = loopStart; y <= maxY; y++) {
-            Block candidate = world.getBlockAt(x, y, z);
-            logInfo("[StationPlatformResolver] try y=" + y + " type=" + candidate.getType());
-            if (isValidPlatform(signBlock, candidate)) {
-                logInfo("[StationPlatformResolver] ACCEPT floor at y=" + y + " type=" + candidate.getType()
-                + " floor=" + candidate.getX() + "," + candidate.getY() + "," + candidate.getZ());
-                return candidate;
+            if (debug) {
+                logInfo("[StationPlatformResolver] try y=" + y + " type=" + view.type(x, y, z));
+            }
+            if (isValidPlatform(sign, x, y, z)) {
+                if (debug) {
+                    logInfo("[StationPlatformResolver] ACCEPT floor at y=" + y + " type=" + view.type(x, y, z)
+                            + " floor=" + x + "," + y + "," + z);
+                }
+                return y;
             }
         }
 
-        Block summary = world.getBlockAt(x, Math.max(Math.min(startY, worldMax), minWorldY), z);
-        logPlatformDebug(signBlock, summary, "no-platform", "scan failed (startY=" + startY + ", maxY=" + maxY + ", search=" + teleportSettings.platformVerticalSearch + ")");
-        return null;
+        logPlatformDebug(sign, x, Math.max(Math.min(startY, worldMax), minWorldY), z, "no-platform", debug
+                ? "scan failed (startY=" + startY + ", maxY=" + maxY + ", search=" + sign.settings.platformVerticalSearch + ")"
+                : null);
+        return NO_FLOOR;
     }
 
-    private void applyPlatformBackoff(Block signBlock, Location location) {
-        if (signBlock == null || location == null || teleportSettings.platformHorizontalOffset <= 0.0d) {
+    private void applyPlatformBackoff(SignContext sign, Location location) {
+        if (location == null || sign.settings.platformHorizontalOffset <= 0.0d) {
             return;
         }
-        BlockFace facing = resolveSignFacing(signBlock);
+        BlockFace facing = sign.facing;
         if (facing == null || !isHorizontal(facing)) {
             return;
         }
-        double offset = teleportSettings.platformHorizontalOffset;
+        double offset = sign.settings.platformHorizontalOffset;
         int modX = facing.getModX();
         int modZ = facing.getModZ();
         if (modX != 0 || modZ != 0) {
@@ -500,70 +725,66 @@ public class StationPlatformResolver implements Listener {
         return null;
     }
 
-    private boolean isValidPlatform(Block signBlock, Block floor) {
-        World world = floor.getWorld();
-        if (world == null) {
-            logPlatformDebug(signBlock, floor, "world", "world missing");
+    private boolean isValidPlatform(SignContext sign, int x, int y, int z) {
+        BlockView view = sign.view;
+        TeleportSettings settings = sign.settings;
+        Material type = view.type(x, y, z);
+        if (!classifier.is(type, BlockClassifier.SOLID_FLOOR)) {
+            logPlatformDebug(sign, x, y, z, "non-occluding", type);
             return false;
         }
-        Material type = floor.getType();
-        if (!type.isSolid() || !type.isOccluding()) {
-            logPlatformDebug(signBlock, floor, "non-occluding", "floor not solid/occluding (" + type + ")");
+        if (!settings.floorAllowlist.isEmpty() && !settings.floorAllowlist.contains(type)) {
+            logPlatformDebug(sign, x, y, z, "not-in-allowlist", type);
             return false;
         }
-        if (!teleportSettings.floorAllowlist.isEmpty() && !teleportSettings.floorAllowlist.contains(type)) {
-            logPlatformDebug(signBlock, floor, "not-in-allowlist", "floor not in allowlist (" + type + ")");
+        if (settings.floorBlacklist.contains(type)) {
+            logPlatformDebug(sign, x, y, z, "blacklisted", type);
             return false;
         }
-        if (teleportSettings.floorBlacklist.contains(type)) {
-            logPlatformDebug(signBlock, floor, "blacklisted", "floor material blacklisted (" + type + ")");
-            return false;
-        }
-        if (teleportSettings.disallowOnRail) {
-            if (teleportSettings.railMaterials.contains(type)) {
-                logPlatformDebug(signBlock, floor, "floor-is-rail", "floor is rail block (" + type + ")");
+        if (settings.disallowOnRail) {
+            if (classifier.is(type, BlockClassifier.RAIL)) {
+                logPlatformDebug(sign, x, y, z, "floor-is-rail", type);
                 return false;
             }
-            Material feetType = world.getBlockAt(floor.getX(), floor.getY() + 1, floor.getZ()).getType();
-            if (teleportSettings.railMaterials.contains(feetType)) {
-                logPlatformDebug(signBlock, floor, "feet-is-rail", "landing space is rail (" + feetType + ")");
+            Material feetType = view.type(x, y + 1, z);
+            if (classifier.is(feetType, BlockClassifier.RAIL)) {
+                logPlatformDebug(sign, x, y, z, "feet-is-rail", feetType);
                 return false;
             }
         }
-        if (!hasHeadroom(world, floor.getY(), floor.getX(), floor.getZ())) {
-            logPlatformDebug(signBlock, floor, "no headroom", "insufficient headroom");
+        if (!hasHeadroom(view, y, x, z)) {
+            logPlatformDebug(sign, x, y, z, "no-headroom", null);
             return false;
         }
-        if (teleportSettings.disallowBelowRail && isBelowAnyRail(world, floor.getX(), floor.getY(), floor.getZ())) {
-            logPlatformDebug(signBlock, floor, "below-rail", "rail detected within disallowBelowRail");
+        if (settings.disallowBelowRail && isBelowAnyRail(view, settings, x, y, z)) {
+            logPlatformDebug(sign, x, y, z, "below-rail", null);
             return false;
         }
         return true;
     }
 
-    private boolean hasHeadroom(World world, int floorY, int x, int z) {
-        if (floorY + 2 > world.getMaxHeight()) {
+    private static boolean hasHeadroom(BlockView view, int floorY, int x, int z) {
+        if (floorY + 2 > view.maxHeight()) {
             return false;
         }
-        Block feet = world.getBlockAt(x, floorY + 1, z);
-        Block head = world.getBlockAt(x, floorY + 2, z);
-        return feet.isPassable() && head.isPassable();
+        return view.isPassable(x, floorY + 1, z) && view.isPassable(x, floorY + 2, z);
     }
 
-    private boolean isBelowAnyRail(World world, int x, int floorY, int z) {
-        int maxDy = teleportSettings.railAvoidVertAbove;
+    private boolean isBelowAnyRail(BlockView view, TeleportSettings settings, int x, int floorY, int z) {
+        int maxDy = settings.railAvoidVertAbove;
         for (int dy = 1; dy <= maxDy; dy++) {
             int y = floorY + dy;
-            if (y > world.getMaxHeight()) {
+            if (y > view.maxHeight()) {
                 break;
             }
-            Material check = world.getBlockAt(x, y, z).getType();
-            if (teleportSettings.railMaterials.contains(check)) {
+            Material check = view.type(x, y, z);
+            if (classifier.is(check, BlockClassifier.RAIL)) {
                 return true;
             }
         }
         return false;
     }
+
     private void registerStation(String cityId, Block block, StationKey key) {
         StationMetadata meta = metadata.get(key);
         ChunkKey chunkKey = ChunkKey.from(block);
@@ -591,6 +812,7 @@ public class StationPlatformResolver implements Listener {
         for (StationKey stale : toRemove) {
             known.remove(stale);
             cache.remove(stale);
+            rebuilding.remove(stale);
             StationMetadata meta = metadata.remove(stale);
             if (meta != null) {
                 Set<StationKey> chunkKeys = chunkIndex.get(meta.chunkKey);
@@ -618,17 +840,11 @@ public class StationPlatformResolver implements Listener {
         }
     }
 
-    private void invalidateNearby(Block block, int radius) {
-        if (block == null) {
-            return;
-        }
-        World world = block.getWorld();
-        if (world == null) {
-            return;
-        }
-        UUID worldId = world.getUID();
-        int chunkX = block.getX() >> 4;
-        int chunkZ = block.getZ() >> 4;
+    /**
+     * Drops cached stations within {@code radius} of the bounding box of the changed blocks. Using the box
+     * instead of every position keeps bursts such as explosions to a single pass over the nearby stations.
+     */
+    private void invalidateNearby(UUID worldId, int chunkX, int chunkZ, BlockChangeJournal.Changes changes, int radius) {
         int radiusSq = radius * radius;
         for (int dx = -1; dx <= 1; dx++) {
             for (int dz = -1; dz <= 1; dz++) {
@@ -638,21 +854,28 @@ public class StationPlatformResolver implements Listener {
                     continue;
                 }
                 for (StationKey key : keys) {
-                    if (distanceSquared(block, key) <= radiusSq) {
-                        cache.remove(key);
+                    if (distanceSquared(changes, key) <= radiusSq) {
+                        markStale(key, true);
                     }
                 }
             }
         }
     }
 
-    private int distanceSquared(Block block, StationKey key) {
-        int dx = block.getX() - key.x;
-        int dy = block.getY() - key.y;
-        int dz = block.getZ() - key.z;
+    private int distanceSquared(BlockChangeJournal.Changes changes, StationKey key) {
+        int dx = outside(key.x, changes.minX(), changes.maxX());
+        int dy = outside(key.y, changes.minY(), changes.maxY());
+        int dz = outside(key.z, changes.minZ(), changes.maxZ());
         return dx * dx + dy * dy + dz * dz;
     }
 
+    private static int outside(int value, int min, int max) {
+        if (value < min) {
+            return min - value;
+        }
+        return value > max ? value - max : 0;
+    }
+
     private void invalidateChunk(Chunk chunk) {
         if (chunk == null) {
             return;
@@ -667,13 +890,27 @@ public class StationPlatformResolver implements Listener {
             return;
         }
         for (StationKey stationKey : keys) {
-            cache.remove(stationKey);
+            markStale(stationKey, true);
+        }
+    }
+
+    /**
+     * Expires a station's spots but keeps them as the last-known answer until a rebuild lands. Block changes also
+     * cancel an in-flight rebuild, whose snapshot predates the change.
+     */
+    private void markStale(StationKey key, boolean cancelRebuild) {
+        CachedEntry entry = cache.get(key);
+        if (entry != null) {
+            cache.put(key, new CachedEntry(entry.spots, Long.MIN_VALUE, entry.contentHash));
+        }
+        if (cancelRebuild) {
+            rebuilding.remove(key);
         }
     }
 
     /**
      * Ensures the chunk that backs the provided block coordinates is loaded, synchronously loading if required.
-     * Platform rebuilds are throttled, so the occasional sync load should remain lightweight.
+     * Rebuild captures run within the per-tick budget, so the occasional sync load should remain lightweight.
      */
     private static boolean ensureChunkLoaded(World world, int blockX, int blockZ) {
         int chunkX = blockX >> 4;
@@ -692,26 +929,21 @@ public class StationPlatformResolver implements Listener {
         return type.name().endsWith("_WALL_SIGN");
     }
 
-    @EventHandler(ignoreCancelled = true)
-    public void onBlockPlace(BlockPlaceEvent event) {
-        handleBlockUpdate(event.getBlockPlaced());
-    }
-
-    @EventHandler(ignoreCancelled = true)
-    public void onBlockBreak(BlockBreakEvent event) {
-        handleBlockUpdate(event.getBlock());
-    }
-
-    @EventHandler(ignoreCancelled = true)
-    public void onBlockPhysics(BlockPhysicsEvent event) {
-        Block block = event.getBlock();
-        if (block == null) {
+    @Override
+    public void onBlockChanges(World world, BlockChangeJournal.ChunkChanges changes) {
+        if (cache.isEmpty() && rebuilding.isEmpty()) {
             return;
         }
-        if (!teleportSettings.railMaterials.contains(block.getType())) {
-            return;
+        UUID worldId = world.getUID();
+        BlockChangeJournal.Changes edits = changes.edits();
+        if (!edits.isEmpty()) {
+            int radius = edits.touched(BlockClassifier.RAIL) ? RAIL_INVALIDATION_RADIUS : BLOCK_INVALIDATION_RADIUS;
+            invalidateNearby(worldId, changes.chunkX(), changes.chunkZ(), edits, radius);
+        }
+        BlockChangeJournal.Changes updates = changes.updates();
+        if (!updates.isEmpty() && updates.touched(BlockClassifier.RAIL)) {
+            invalidateNearby(worldId, changes.chunkX(), changes.chunkZ(), updates, RAIL_INVALIDATION_RADIUS);
         }
-        invalidateNearby(block, RAIL_INVALIDATION_RADIUS);
     }
 
     @EventHandler
@@ -719,16 +951,6 @@ public class StationPlatformResolver implements Listener {
         invalidateChunk(event.getChunk());
     }
 
-    private void handleBlockUpdate(Block block) {
-        if (block == null) {
-            return;
-        }
-        invalidateNearby(block, BLOCK_INVALIDATION_RADIUS);
-        if (teleportSettings.railMaterials.contains(block.getType())) {
-            invalidateNearby(block, RAIL_INVALIDATION_RADIUS);
-        }
-    }
-
     public record StationSpots(Location signLocation, List<Location> spots) {
         public StationSpots {
             signLocation = signLocation != null ? signLocation.clone() : null;
@@ -761,6 +983,16 @@ public class StationPlatformResolver implements Listener {
     private record StationMetadata(String cityId, ChunkKey chunkKey) {
     }
 
-    private record CachedEntry(List<Location> spots, long expiresAtTick) {
+    private record CachedEntry(List<Location> spots, long expiresAtTick, long contentHash) {
+    }
+
+    private record RebuildResult(List<Location> spots, long contentHash) {
+    }
+
+    /**
+     * Immutable inputs of one rebuild, captured on the main thread.
+     */
+    private record SignContext(World world, String worldName, int x, int y, int z, BlockFace facing, String data,
+                               TeleportSettings settings, BlockView view) {
     }
 }
@@ -0,0 +1,137 @@
+package dev.citysim.migration;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Persists validated station platform spots between restarts. Each entry carries the settings fingerprint and a hash
+ * of the block states its spots stand on, so a restored entry is trusted after one hash comparison instead of a
+ * platform rebuild.
+ */
+final class StationSpotStore {
+
+    static final int VERSION = 1;
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final Gson gson = new Gson();
+    private final File file;
+    private final Logger logger;
+
+    StationSpotStore(File file, Logger logger) {
+        this.file = file;
+        this.logger = logger;
+    }
+
+    List<Entry> load() {
+        if (file == null || !file.exists()) {
+            return List.of();
+        }
+        try (Reader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            Snapshot snapshot = gson.fromJson(reader, Snapshot.class);
+            if (snapshot == null || snapshot.version() != VERSION || snapshot.entries() == null) {
+                return List.of();
+            }
+            List<Entry> entries = new ArrayList<>(snapshot.entries().size());
+            for (Entry entry : snapshot.entries()) {
+                if (entry != null && entry.isWellFormed()) {
+                    entries.add(entry);
+                }
+            }
+            return entries;
+        } catch (IOException | JsonParseException e) {
+            warn("Failed loading station spot cache '" + file.getName() + "': " + e.getMessage(), null);
+            return List.of();
+        }
+    }
+
+    void save(Collection<Entry> entries) {
+        if (file == null) {
+            return;
+        }
+        Path target = file.toPath();
+        Path temp = target.resolveSibling(file.getName() + ".tmp");
+        try {
+            Files.createDirectories(target.toAbsolutePath().getParent());
+            try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                gson.toJson(new Snapshot(VERSION, new ArrayList<>(entries)), writer);
+            }
+            try {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            warn("Failed saving station spot cache: " + e.getMessage(), e);
+        }
+    }
+
+    static long seed() {
+        return FNV_OFFSET;
+    }
+
+    /**
+     * FNV-1a over the characters of {@code value}; stable across restarts, unlike identity or enum hash codes.
+     */
+    static long mix(long hash, CharSequence value) {
+        if (value == null) {
+            return mix(hash, 0L);
+        }
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+
+    static long mix(long hash, long value) {
+        for (int shift = 0; shift < 64; shift += 8) {
+            hash ^= (value >>> shift) & 0xffL;
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+
+    private void warn(String message, Throwable error) {
+        if (logger != null) {
+            logger.log(Level.WARNING, message, error);
+        }
+    }
+
+    /**
+     * One station sign. {@code spots} holds x/y/z triples of the feet locations in the sign's world.
+     */
+    record Entry(UUID world, int x, int y, int z, long settingsHash, long contentHash, List<double[]> spots) {
+        boolean isWellFormed() {
+            if (world == null || spots == null || spots.isEmpty()) {
+                return false;
+            }
+            for (double[] spot : spots) {
+                if (spot == null || spot.length != 3) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private record Snapshot(int version, List<Entry> entries) {
+    }
+}
@@ -12,8 +12,15 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 final class TeleportSettings {
+    /**
+     * Rough main-thread cost of one station rebuild, used to translate the old {@code rebuild_per_tick} count
+     * into a time budget. The old default of 8 maps onto the new default of 2000 micros.
+     */
+    private static final long LEGACY_MICROS_PER_REBUILD = 250L;
+
     final int radius;
     final int maxSamples;
     final boolean requireYAtLeastRail;
@@ -28,7 +35,7 @@ final class TeleportSettings {
     final boolean requireWallSign;
     final int maxCandidatesPerStation;
     final int cacheTtlTicks;
-    final int rebuildPerTick;
+    final long rebuildBudgetNanos;
     final int platformVerticalSearch;
     final double platformHorizontalOffset;
 
@@ -46,7 +53,7 @@ final class TeleportSettings {
                              boolean requireWallSign,
                              int maxCandidatesPerStation,
                              int cacheTtlTicks,
-                             int rebuildPerTick,
+                             long rebuildBudgetNanos,
                              int platformVerticalSearch,
                              double platformHorizontalOffset) {
         this.radius = radius;
@@ -63,7 +70,7 @@ final class TeleportSettings {
         this.requireWallSign = requireWallSign;
         this.maxCandidatesPerStation = maxCandidatesPerStation;
         this.cacheTtlTicks = cacheTtlTicks;
-        this.rebuildPerTick = rebuildPerTick;
+        this.rebuildBudgetNanos = rebuildBudgetNanos;
         this.platformVerticalSearch = platformVerticalSearch;
         this.platformHorizontalOffset = platformHorizontalOffset;
     }
@@ -84,7 +91,7 @@ final class TeleportSettings {
                 true,
                 8,
                 200,
-                8,
+                TimeUnit.MICROSECONDS.toNanos(2000),
                 3,
                 0.4d
         );
@@ -105,12 +112,25 @@ final class TeleportSettings {
         boolean requireWallSign = config.getBoolean(path + ".require_wall_sign", true);
         int maxCandidates = Math.max(1, config.getInt(path + ".max_candidates_per_station", 8));
         int cacheTtlTicks = Math.max(20, config.getInt(path + ".cache_ttl_ticks", 200));
-        int rebuildPerTick = Math.max(1, config.getInt(path + ".rebuild_per_tick", 8));
+        long rebuildBudgetNanos = TimeUnit.MICROSECONDS.toNanos(rebuildBudgetMicros(plugin, config, path));
         int platformVerticalSearch = Math.max(0, config.getInt(path + ".platform_vertical_search", 6));
         double platformHorizontalOffset = Math.max(0.0d, config.getDouble(path + ".platform_horizontal_offset", 0.4d));
         return new TeleportSettings(radius, maxSamples, requireY, disallowOnRail, disallowBelowRail,
                 avoidHoriz, avoidVert, allow, blacklist, rails, platformOffsets,
-                requireWallSign, maxCandidates, cacheTtlTicks, rebuildPerTick, platformVerticalSearch, platformHorizontalOffset);
+                requireWallSign, maxCandidates, cacheTtlTicks, rebuildBudgetNanos, platformVerticalSearch, platformHorizontalOffset);
+    }
+
+    private static long rebuildBudgetMicros(Plugin plugin, FileConfiguration config, String path) {
+        if (!config.contains(path + ".rebuild_budget_micros", true) && config.contains(path + ".rebuild_per_tick", true)) {
+            int rebuildPerTick = Math.max(1, config.getInt(path + ".rebuild_per_tick", 8));
+            long budget = rebuildPerTick * LEGACY_MICROS_PER_REBUILD;
+            if (plugin != null) {
+                plugin.getLogger().warning(path + ".rebuild_per_tick is deprecated; using " + budget
+                        + " micros. Set " + path + ".rebuild_budget_micros instead.");
+            }
+            return budget;
+        }
+        return Math.max(0L, config.getLong(path + ".rebuild_budget_micros", 2000L));
     }
 
     private static List<PlatformOffset> parseOffsets(List<?> rawOffsets) {
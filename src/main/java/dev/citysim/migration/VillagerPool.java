@@ -0,0 +1,361 @@
+package dev.citysim.migration;
+
+import com.destroystokyo.paper.event.entity.EntityAddToWorldEvent;
+import com.destroystokyo.paper.event.entity.EntityRemoveFromWorldEvent;
+import dev.citysim.city.City;
+import dev.citysim.city.CityManager;
+import dev.citysim.city.CityManagerListener;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.NamespacedKey;
+import org.bukkit.World;
+import org.bukkit.entity.Villager;
+import org.bukkit.entity.Villager.Profession;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.entity.VillagerCareerChangeEvent;
+import org.bukkit.persistence.PersistentDataType;
+import org.bukkit.plugin.Plugin;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.UUID;
+import java.util.function.Predicate;
+
+/**
+ * Villagers that may be picked for migration, bucketed by city and chunk; a villager inside overlapping cities sits
+ * in the buckets of each of them. The pool follows entity add/remove, career change and cooldown events, so picking
+ * a migrant never sweeps nearby entities or reads the cooldown tag.
+ * Villagers wander without events; {@link #refresh(long)} re-buckets a few of them per call. Main thread only.
+ */
+public class VillagerPool implements Listener, CityManagerListener {
+
+    private static final int REFRESH_BUDGET = 32;
+
+    private final CityManager cityManager;
+    private final NamespacedKey cooldownKey;
+    private final Map<UUID, Tracked> tracked = new HashMap<>();
+    private final Map<String, Map<Long, List<Tracked>>> byCity = new HashMap<>();
+    private final PriorityQueue<Cooldown> cooldowns = new PriorityQueue<>(Comparator.comparingLong(Cooldown::until));
+    private final ArrayDeque<Tracked> refreshOrder = new ArrayDeque<>();
+    private int pooled;
+
+    public VillagerPool(Plugin plugin, CityManager cityManager) {
+        this.cityManager = cityManager;
+        this.cooldownKey = new NamespacedKey(plugin, "migrate_until");
+        cityManager.addListener(this);
+    }
+
+    /**
+     * Tracks the villagers of every loaded world; entities added later arrive through events.
+     */
+    public void seedLoadedWorlds() {
+        long now = System.currentTimeMillis();
+        for (World world : Bukkit.getWorlds()) {
+            for (Villager villager : world.getEntitiesByClass(Villager.class)) {
+                track(villager, now);
+            }
+        }
+    }
+
+    public void clear() {
+        tracked.clear();
+        byCity.clear();
+        cooldowns.clear();
+        refreshOrder.clear();
+        pooled = 0;
+    }
+
+    public int trackedCount() {
+        return tracked.size();
+    }
+
+    public int pooledCount() {
+        return pooled;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onEntityAdd(EntityAddToWorldEvent event) {
+        if (event.getEntity() instanceof Villager villager) {
+            track(villager, System.currentTimeMillis());
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onEntityRemove(EntityRemoveFromWorldEvent event) {
+        if (event.getEntity() instanceof Villager villager) {
+            untrack(villager.getUniqueId());
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onCareerChange(VillagerCareerChangeEvent event) {
+        Tracked entry = tracked.get(event.getEntity().getUniqueId());
+        if (entry == null) {
+            return;
+        }
+        entry.nitwit = isNitwit(event.getProfession());
+        place(entry, System.currentTimeMillis());
+    }
+
+    @Override
+    public void onCityCreated(City city) {
+        reassignAll();
+    }
+
+    @Override
+    public void onCityRemoved(City city) {
+        reassignAll();
+    }
+
+    @Override
+    public void onCityRenamed(String previousId, City city) {
+        reassignAll();
+    }
+
+    @Override
+    public void onCityUpdated(City city) {
+        reassignAll();
+    }
+
+    /**
+     * Records a migration cooldown, keeping the villager out of the pool until it expires.
+     */
+    public void markCooldown(Villager villager, long until) {
+        if (villager == null) {
+            return;
+        }
+        Tracked entry = tracked.get(villager.getUniqueId());
+        if (entry == null) {
+            entry = register(villager);
+        }
+        entry.cooldownUntil = until;
+        place(entry, System.currentTimeMillis());
+    }
+
+    /**
+     * Re-buckets up to {@code REFRESH_BUDGET} villagers so wandering between chunks and cities is followed.
+     */
+    public void refresh(long now) {
+        expireCooldowns(now);
+        for (int i = 0, count = Math.min(REFRESH_BUDGET, refreshOrder.size()); i < count; i++) {
+            Tracked entry = refreshOrder.poll();
+            if (entry == null || entry.removed) {
+                continue;
+            }
+            if (!entry.villager.isValid()) {
+                untrack(entry.villager.getUniqueId());
+                continue;
+            }
+            place(entry, now);
+            refreshOrder.offer(entry);
+        }
+    }
+
+    /**
+     * Nearest pooled villager of the city inside the box around the anchor that passes the live check, or
+     * {@code null}. Only the chunks overlapping the box are visited.
+     */
+    public Villager nearest(City city, Location anchor, double horizontal, double vertical, long now,
+                            Predicate<Villager> available) {
+        if (city == null || city.id == null || anchor == null || anchor.getWorld() == null) {
+            return null;
+        }
+        expireCooldowns(now);
+        Map<Long, List<Tracked>> chunks = byCity.get(city.id);
+        if (chunks == null || chunks.isEmpty()) {
+            return null;
+        }
+        String worldName = anchor.getWorld().getName();
+        double ax = anchor.getX();
+        double ay = anchor.getY();
+        double az = anchor.getZ();
+        int minChunkX = (int) Math.floor(ax - horizontal) >> 4;
+        int maxChunkX = (int) Math.floor(ax + horizontal) >> 4;
+        int minChunkZ = (int) Math.floor(az - horizontal) >> 4;
+        int maxChunkZ = (int) Math.floor(az + horizontal) >> 4;
+
+        List<Tracked> moved = new ArrayList<>();
+        Villager best = null;
+        double bestDistance = Double.MAX_VALUE;
+        for (int chunkX = minChunkX; chunkX <= maxChunkX; chunkX++) {
+            for (int chunkZ = minChunkZ; chunkZ <= maxChunkZ; chunkZ++) {
+                List<Tracked> bucket = chunks.get(chunkKey(chunkX, chunkZ));
+                if (bucket == null) {
+                    continue;
+                }
+                for (Tracked entry : bucket) {
+                    Villager villager = entry.villager;
+                    Location location = villager.getLocation();
+                    if (!villager.isValid() || location.getWorld() == null
+                            || chunkKey(location.getBlockX() >> 4, location.getBlockZ() >> 4) != entry.chunkKey) {
+                        moved.add(entry);
+                        continue;
+                    }
+                    if (!Objects.equals(worldName, location.getWorld().getName())) {
+                        continue;
+                    }
+                    double dx = location.getX() - ax;
+                    double dy = location.getY() - ay;
+                    double dz = location.getZ() - az;
+                    if (Math.abs(dx) > horizontal || Math.abs(dz) > horizontal || Math.abs(dy) > vertical) {
+                        continue;
+                    }
+                    double distance = dx * dx + dy * dy + dz * dz;
+                    if (distance < bestDistance && available.test(villager)) {
+                        best = villager;
+                        bestDistance = distance;
+                    }
+                }
+            }
+        }
+        for (Tracked entry : moved) {
+            if (entry.villager.isValid()) {
+                place(entry, now);
+            } else {
+                untrack(entry.villager.getUniqueId());
+            }
+        }
+        return best;
+    }
+
+    private void track(Villager villager, long now) {
+        Tracked entry = tracked.get(villager.getUniqueId());
+        if (entry == null) {
+            entry = register(villager);
+        } else {
+            entry.villager = villager;
+        }
+        Long until = villager.getPersistentDataContainer().get(cooldownKey, PersistentDataType.LONG);
+        entry.cooldownUntil = until != null ? until : 0L;
+        entry.nitwit = isNitwit(villager.getProfession());
+        place(entry, now);
+    }
+
+    private Tracked register(Villager villager) {
+        Tracked entry = new Tracked(villager);
+        tracked.put(villager.getUniqueId(), entry);
+        refreshOrder.offer(entry);
+        return entry;
+    }
+
+    private void untrack(UUID id) {
+        Tracked entry = tracked.remove(id);
+        if (entry != null) {
+            entry.removed = true;
+            unpool(entry);
+        }
+    }
+
+    private void reassignAll() {
+        long now = System.currentTimeMillis();
+        for (Tracked entry : new ArrayList<>(tracked.values())) {
+            place(entry, now);
+        }
+    }
+
+    private void expireCooldowns(long now) {
+        while (!cooldowns.isEmpty() && cooldowns.peek().until() <= now) {
+            Cooldown cooldown = cooldowns.poll();
+            Tracked entry = cooldown.entry();
+            if (!entry.removed && entry.cooldownUntil == cooldown.until()) {
+                place(entry, now);
+            }
+        }
+    }
+
+    private void place(Tracked entry, long now) {
+        unpool(entry);
+        if (entry.removed) {
+            return;
+        }
+        Location location = entry.villager.getLocation();
+        if (location.getWorld() == null) {
+            entry.cityIds = List.of();
+            return;
+        }
+        List<String> cityIds = new ArrayList<>(1);
+        for (City city : cityManager.citiesAt(location)) {
+            if (city.id != null) {
+                cityIds.add(city.id);
+            }
+        }
+        entry.cityIds = cityIds;
+        entry.chunkKey = chunkKey(location.getBlockX() >> 4, location.getBlockZ() >> 4);
+        if (cityIds.isEmpty() || entry.nitwit) {
+            return;
+        }
+        if (entry.cooldownUntil > now) {
+            if (entry.queuedUntil != entry.cooldownUntil) {
+                entry.queuedUntil = entry.cooldownUntil;
+                cooldowns.add(new Cooldown(entry, entry.cooldownUntil));
+            }
+            return;
+        }
+        for (String cityId : cityIds) {
+            byCity.computeIfAbsent(cityId, ignored -> new HashMap<>())
+                    .computeIfAbsent(entry.chunkKey, ignored -> new ArrayList<>())
+                    .add(entry);
+        }
+        entry.pooled = true;
+        pooled++;
+    }
+
+    private void unpool(Tracked entry) {
+        if (!entry.pooled) {
+            return;
+        }
+        entry.pooled = false;
+        pooled--;
+        for (String cityId : entry.cityIds) {
+            Map<Long, List<Tracked>> chunks = byCity.get(cityId);
+            if (chunks == null) {
+                continue;
+            }
+            List<Tracked> bucket = chunks.get(entry.chunkKey);
+            if (bucket == null) {
+                continue;
+            }
+            bucket.remove(entry);
+            if (bucket.isEmpty()) {
+                chunks.remove(entry.chunkKey);
+                if (chunks.isEmpty()) {
+                    byCity.remove(cityId);
+                }
+            }
+        }
+    }
+
+    private static boolean isNitwit(Profession profession) {
+        return profession != null && profession == Profession.NITWIT;
+    }
+
+    private static long chunkKey(int chunkX, int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+
+    private record Cooldown(Tracked entry, long until) {
+    }
+
+    private static final class Tracked {
+        private Villager villager;
+        private List<String> cityIds = List.of();
+        private long chunkKey;
+        private long cooldownUntil;
+        private long queuedUntil;
+        private boolean nitwit;
+        private boolean pooled;
+        private boolean removed;
+
+        private Tracked(Villager villager) {
+            this.villager = villager;
+        }
+    }
+}
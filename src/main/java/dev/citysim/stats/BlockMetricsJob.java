@@ -0,0 +1,269 @@
+package dev.citysim.stats;
+
+import dev.citysim.city.City;
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.Material;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+/**
+ * One block-metric refresh for a city. The main thread feeds it chunk snapshots (or last-known samples
+ * for unloaded chunks); sampling runs on the supplied executor and the results are committed back on
+ * the main thread by {@link BlockScanService#commitBlockMetrics}.
+ * <p>
+ * Chunks are the sampling strata: residential chunks come first, the rest in random order, and
+ * {@link #hasConverged()} reports once the 95% interval of every metric is within the tolerance so the
+ * caller can stop capturing further chunks.
+ */
+public final class BlockMetricsJob {
+    private final String cityId;
+    private final boolean highrise;
+    private final Map<City.ChunkPosition, List<ChunkMetricSampler.Clip>> clips;
+    private final Map<City.ChunkPosition, ChunkMetricSample> lastKnown;
+    private final long lastKnownMaxAgeMillis;
+    private final Predicate<Material> natureTest;
+    private final Predicate<Material> pollutionTest;
+    private final Executor executor;
+    private final Set<City.ChunkPosition> priority;
+    private final double tolerance;
+    private final int minChunks;
+
+    private final Set<City.ChunkPosition> pending;
+    private final Map<City.ChunkPosition, ChunkMetricSample> samples = new ConcurrentHashMap<>();
+    private final Map<City.ChunkPosition, ChunkMetricSample> reused = new HashMap<>();
+    private final Queue<ChunkMetricSample> completed = new ConcurrentLinkedQueue<>();
+    private final ClusterRatioEstimate light = new ClusterRatioEstimate();
+    private final ClusterRatioEstimate nature = new ClusterRatioEstimate();
+    private final ClusterRatioEstimate pollution = new ClusterRatioEstimate();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private int skippedChunks = 0;
+    private int unsampledChunks = 0;
+
+    BlockMetricsJob(String cityId,
+                    boolean highrise,
+                    Map<City.ChunkPosition, List<ChunkMetricSampler.Clip>> clips,
+                    Map<City.ChunkPosition, ChunkMetricSample> lastKnown,
+                    long lastKnownMaxAgeMillis,
+                    Predicate<Material> natureTest,
+                    Predicate<Material> pollutionTest,
+                    Executor executor,
+                    Set<City.ChunkPosition> priority,
+                    double tolerance,
+                    int minChunks) {
+        this.cityId = cityId;
+        this.highrise = highrise;
+        this.clips = clips;
+        this.lastKnown = lastKnown;
+        this.lastKnownMaxAgeMillis = lastKnownMaxAgeMillis;
+        this.natureTest = natureTest;
+        this.pollutionTest = pollutionTest;
+        this.executor = executor;
+        this.priority = new HashSet<>(priority);
+        this.priority.retainAll(clips.keySet());
+        this.tolerance = tolerance;
+        this.minChunks = Math.max(2, minChunks);
+        List<City.ChunkPosition> rest = new ArrayList<>(clips.keySet());
+        rest.removeAll(this.priority);
+        Collections.shuffle(rest, ThreadLocalRandom.current());
+        this.pending = new LinkedHashSet<>(this.priority);
+        this.pending.addAll(rest);
+    }
+
+    public String cityId() {
+        return cityId;
+    }
+
+    public boolean highrise() {
+        return highrise;
+    }
+
+    public Set<City.ChunkPosition> chunks() {
+        return Collections.unmodifiableSet(clips.keySet());
+    }
+
+    public boolean needs(City.ChunkPosition chunk) {
+        return pending.contains(chunk);
+    }
+
+    public City.ChunkPosition nextPending() {
+        Iterator<City.ChunkPosition> iterator = pending.iterator();
+        return iterator.hasNext() ? iterator.next() : null;
+    }
+
+    /**
+     * Samples the chunk off-thread. The snapshot must belong to {@code chunk}; it is not retained after sampling.
+     */
+    public void submit(City.ChunkPosition chunk, ChunkSnapshot snapshot, int minHeight, int maxHeight) {
+        if (!pending.remove(chunk)) {
+            return;
+        }
+        List<ChunkMetricSampler.Clip> chunkClips = clips.get(chunk);
+        if (snapshot == null || chunkClips == null) {
+            skippedChunks++;
+            return;
+        }
+        long timestamp = System.currentTimeMillis();
+        inFlight.incrementAndGet();
+        try {
+            executor.execute(() -> {
+                try {
+                    ChunkMetricSample sample = ChunkMetricSampler.sample(snapshot, chunkClips, highrise,
+                            minHeight, maxHeight, natureTest, pollutionTest, timestamp);
+                    samples.put(chunk, sample);
+                    completed.add(sample);
+                } finally {
+                    inFlight.decrementAndGet();
+                }
+            });
+        } catch (RuntimeException ex) {
+            inFlight.decrementAndGet();
+            skippedChunks++;
+        }
+    }
+
+    /**
+     * Uses the last-known sample for an unloaded chunk when it is still fresh.
+     */
+    public boolean reuseLastKnown(City.ChunkPosition chunk, long now) {
+        if (!pending.contains(chunk)) {
+            return false;
+        }
+        ChunkMetricSample sample = lastKnown.get(chunk);
+        if (sample == null || lastKnownMaxAgeMillis <= 0L || now - sample.timestamp() > lastKnownMaxAgeMillis) {
+            return false;
+        }
+        pending.remove(chunk);
+        reused.put(chunk, sample);
+        add(sample);
+        return true;
+    }
+
+    /**
+     * Gives up on a chunk; its last-known sample, if any, still counts towards the averages.
+     */
+    public void skip(City.ChunkPosition chunk) {
+        if (pending.remove(chunk)) {
+            skippedChunks++;
+        }
+    }
+
+    public boolean isComplete() {
+        return pending.isEmpty() && inFlight.get() == 0;
+    }
+
+    /**
+     * True once residential chunks are done and the sampled chunks pin every metric down to the
+     * tolerance. Always false when adaptive sampling is disabled (tolerance {@code 0}).
+     */
+    public boolean hasConverged() {
+        if (tolerance <= 0.0 || pending.isEmpty()) {
+            return false;
+        }
+        for (City.ChunkPosition chunk : priority) {
+            if (pending.contains(chunk)) {
+                return false;
+            }
+        }
+        foldCompleted();
+        if (light.clusters() < Math.min(minChunks, clips.size())) {
+            return false;
+        }
+        int population = clips.size();
+        return light.halfWidth(population) <= tolerance * BlockScanService.MAX_LIGHT_LEVEL
+                && nature.halfWidth(population) <= tolerance
+                && pollution.halfWidth(population) <= tolerance;
+    }
+
+    /**
+     * Drops the chunks still waiting to be captured; their last-known samples keep counting.
+     */
+    public void stopSampling() {
+        unsampledChunks += pending.size();
+        pending.clear();
+    }
+
+    /**
+     * Running estimate over the chunks sampled or reused in this pass. Main thread only.
+     */
+    ClusterRatioEstimate lightEstimate() {
+        foldCompleted();
+        return light;
+    }
+
+    ClusterRatioEstimate natureEstimate() {
+        foldCompleted();
+        return nature;
+    }
+
+    ClusterRatioEstimate pollutionEstimate() {
+        foldCompleted();
+        return pollution;
+    }
+
+    /**
+     * The sample taken or reused for the chunk in this pass, or {@code null}.
+     */
+    ChunkMetricSample passSample(City.ChunkPosition chunk) {
+        ChunkMetricSample sample = samples.get(chunk);
+        return sample != null ? sample : reused.get(chunk);
+    }
+
+    private void foldCompleted() {
+        ChunkMetricSample sample;
+        while ((sample = completed.poll()) != null) {
+            add(sample);
+        }
+    }
+
+    private void add(ChunkMetricSample sample) {
+        light.add(sample.lightSum(), sample.lightSamples());
+        nature.add(sample.natureFound(), sample.natureProbes());
+        pollution.add(sample.pollutionFound(), sample.pollutionProbes());
+    }
+
+    static void accumulate(Iterable<ChunkMetricSample> source,
+                           ClusterRatioEstimate light,
+                           ClusterRatioEstimate nature,
+                           ClusterRatioEstimate pollution) {
+        for (ChunkMetricSample sample : source) {
+            light.add(sample.lightSum(), sample.lightSamples());
+            nature.add(sample.natureFound(), sample.natureProbes());
+            pollution.add(sample.pollutionFound(), sample.pollutionProbes());
+        }
+    }
+
+    public int sampledChunks() {
+        return samples.size();
+    }
+
+    public int reusedChunks() {
+        return reused.size();
+    }
+
+    public int unsampledChunks() {
+        return unsampledChunks;
+    }
+
+    public int skippedChunks() {
+        return skippedChunks;
+    }
+
+    Map<City.ChunkPosition, ChunkMetricSample> samples() {
+        return samples;
+    }
+}
@@ -1,32 +1,46 @@
 package dev.citysim.stats;
 
 import dev.citysim.city.City;
-import dev.citysim.city.Cuboid;
+import dev.citysim.util.BlockClassifier;
 import org.bukkit.Bukkit;
+import org.bukkit.ChunkSnapshot;
 import org.bukkit.Material;
-import org.bukkit.Tag;
 import org.bukkit.World;
-import org.bukkit.block.Block;
 import org.bukkit.configuration.file.FileConfiguration;
 
-import java.util.HashSet;
-import java.util.Set;
 import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.function.ToIntFunction;
 
 /**
  * Provides reusable logic for sampling block-level metrics that feed into the prosperity calculation.
+ * Metrics are sampled per chunk from {@link ChunkSnapshot}s and kept on the city, so only chunks that
+ * were re-captured need sampling again.
  */
 public class BlockScanService {
-    private static final int HIGHRISE_VERTICAL_STEP = 4;
+    static final int MAX_LIGHT_LEVEL = 15;
     private static final long DEFAULT_BLOCK_SCAN_REFRESH_INTERVAL_MILLIS = 60000L;
+    private static final double DEFAULT_SAMPLING_TOLERANCE = 0.02;
+    private static final int DEFAULT_SAMPLING_MIN_CHUNKS = 8;
+    private static final long DEFAULT_SAMPLE_MAX_AGE_MILLIS = 30L * 60L * 1000L;
 
     private final ProsperityCalculator prosperityCalculator;
+    private final BlockClassifier classifier;
     private long blockScanRefreshIntervalMillis = DEFAULT_BLOCK_SCAN_REFRESH_INTERVAL_MILLIS;
-    private Set<Material> extraNatureBlocks = EnumSet.noneOf(Material.class);
+    private long sampleMaxAgeMillis = DEFAULT_SAMPLE_MAX_AGE_MILLIS;
+    private double samplingTolerance = DEFAULT_SAMPLING_TOLERANCE;
+    private int samplingMinChunks = DEFAULT_SAMPLING_MIN_CHUNKS;
+    private Executor executor = Runnable::run;
+    private final Map<String, Set<City.ChunkPosition>> dirtyChunks = new HashMap<>();
 
-    public BlockScanService(ProsperityCalculator prosperityCalculator) {
+    public BlockScanService(ProsperityCalculator prosperityCalculator, BlockClassifier classifier) {
         this.prosperityCalculator = prosperityCalculator;
+        this.classifier = classifier;
     }
 
     public void updateConfig(FileConfiguration configuration) {
@@ -37,6 +51,8 @@ public class BlockScanService {
                 configuration.getLong("prosperity.block_scan_refresh_interval_millis",
                         DEFAULT_BLOCK_SCAN_REFRESH_INTERVAL_MILLIS));
         setBlockScanRefreshIntervalMillis(configured);
+        samplingTolerance = Math.max(0.0, configuration.getDouble("prosperity.block_scan_tolerance", DEFAULT_SAMPLING_TOLERANCE));
+        samplingMinChunks = Math.max(2, configuration.getInt("prosperity.block_scan_min_chunks", DEFAULT_SAMPLING_MIN_CHUNKS));
 
         List<String> configuredNature = configuration.getStringList("prosperity.nature_block_allowlist");
         if (configuredNature != null) {
@@ -50,9 +66,9 @@ public class BlockScanService {
                     parsed.add(material);
                 }
             }
-            extraNatureBlocks = parsed;
+            classifier.configureNature(parsed);
         } else {
-            extraNatureBlocks = EnumSet.noneOf(Material.class);
+            classifier.configureNature(EnumSet.noneOf(Material.class));
         }
     }
 
@@ -60,6 +76,17 @@ public class BlockScanService {
         blockScanRefreshIntervalMillis = Math.max(0L, intervalMillis);
     }
 
+    /**
+     * How long a chunk's last-known sample may stand in for it while the chunk is unloaded.
+     */
+    public void setSampleMaxAgeMillis(long maxAgeMillis) {
+        sampleMaxAgeMillis = Math.max(0L, maxAgeMillis);
+    }
+
+    public void setExecutor(Executor executor) {
+        this.executor = executor != null ? executor : Runnable::run;
+    }
+
     public City.BlockScanCache refreshBlockScanCache(City city) {
         if (city == null) {
             return null;
@@ -72,255 +99,160 @@ public class BlockScanService {
             return null;
         }
         long now = System.currentTimeMillis();
-        City.BlockScanCache cache = city.blockScanCache;
-        boolean expired = cache == null || blockScanRefreshIntervalMillis <= 0
-                || (now - cache.timestamp) >= blockScanRefreshIntervalMillis;
-        if (forceRefresh || expired) {
-            cache = recomputeBlockScanCache(city, now);
+        BlockMetricsJob job = prepareBlockMetrics(city, forceRefresh, Runnable::run);
+        if (job == null) {
+            return city.blockScanCache;
         }
-        return cache;
-    }
-
-    private City.BlockScanCache recomputeBlockScanCache(City city, long now) {
-        City.BlockScanCache cache = new City.BlockScanCache();
-        cache.light = averageSurfaceLight(city);
-        SampledRatio nature = natureRatio(city);
-        cache.nature = nature.ratio();
-        cache.natureSamples = nature.samples();
-        PollutionStats pollutionStats = pollutionStats(city);
-        cache.pollution = pollutionStats.ratio();
-        cache.pollutingBlocks = pollutionStats.blockCount();
-        cache.pollutionSamples = pollutionStats.samples();
-        cache.overcrowdingPenalty = prosperityCalculator.computeOvercrowdingPenalty(city);
-        cache.timestamp = now;
-        city.blockScanCache = cache;
-        return cache;
-    }
-
-    private double averageSurfaceLight(City city) {
-        final int step = 8;
-        if (!city.highrise) {
-            Set<City.ChunkPosition> residentialChunks = city.getResidentialChunks();
-            if (residentialChunks != null && !residentialChunks.isEmpty()) {
-                int residentialSamples = 0;
-                int residentialLightSum = 0;
-                for (City.ChunkPosition chunkPos : residentialChunks) {
-                    World world = Bukkit.getWorld(chunkPos.world());
-                    if (world == null) {
-                        continue;
-                    }
-                    Set<Long> sampledColumns = new HashSet<>();
-                    int chunkMinX = chunkPos.x() << 4;
-                    int chunkMaxX = chunkMinX + 15;
-                    int chunkMinZ = chunkPos.z() << 4;
-                    int chunkMaxZ = chunkMinZ + 15;
-                    for (Cuboid cuboid : city.cuboids) {
-                        if (cuboid == null || cuboid.world == null || !cuboid.world.equals(chunkPos.world())) {
-                            continue;
-                        }
-                        int minX = Math.max(cuboid.minX, chunkMinX);
-                        int maxX = Math.min(cuboid.maxX, chunkMaxX);
-                        int minZ = Math.max(cuboid.minZ, chunkMinZ);
-                        int maxZ = Math.min(cuboid.maxZ, chunkMaxZ);
-                        if (minX > maxX || minZ > maxZ) {
-                            continue;
-                        }
-                        for (int x = minX; x <= maxX; x += step) {
-                            for (int z = minZ; z <= maxZ; z += step) {
-                                long columnKey = (((long) x) << 32) | (z & 0xffffffffL);
-                                if (!sampledColumns.add(columnKey)) {
-                                    continue;
-                                }
-                                Integer blockLight = sampleSurfaceColumnBlockLight(world, x, z);
-                                if (blockLight == null) {
-                                    continue;
-                                }
-                                residentialLightSum += blockLight;
-                                residentialSamples++;
-                            }
-                        }
-                    }
-                }
-                if (residentialSamples > 0) {
-                    return (double) residentialLightSum / residentialSamples;
-                }
+        City.ChunkPosition chunk;
+        while ((chunk = job.nextPending()) != null) {
+            if (job.hasConverged()) {
+                job.stopSampling();
+                break;
             }
-        }
-
-        int samples = 0;
-        int lightSum = 0;
-        if (city.cuboids == null) {
-            return prosperityCalculator.getLightNeutral();
-        }
-        for (Cuboid c : city.cuboids) {
-            if (c == null || c.world == null) {
+            World world = Bukkit.getWorld(chunk.world());
+            if (world == null) {
+                job.skip(chunk);
                 continue;
             }
-            World w = Bukkit.getWorld(c.world);
-            if (w == null) continue;
-            for (int x = c.minX; x <= c.maxX; x += step) {
-                for (int z = c.minZ; z <= c.maxZ; z += step) {
-                    if (city.highrise) {
-                        for (int y = c.minY; y <= c.maxY; y += HIGHRISE_VERTICAL_STEP) {
-                            lightSum += w.getBlockAt(x, y, z).getLightFromBlocks();
-                            samples++;
-                        }
-                        if ((c.maxY - c.minY) % HIGHRISE_VERTICAL_STEP != 0) {
-                            lightSum += w.getBlockAt(x, c.maxY, z).getLightFromBlocks();
-                            samples++;
-                        }
-                    } else {
-                        Integer blockLight = sampleSurfaceColumnBlockLight(w, x, z);
-                        if (blockLight == null) {
-                            continue;
-                        }
-                        lightSum += blockLight;
-                        samples++;
-                    }
-                }
+            if (!world.isChunkLoaded(chunk.x(), chunk.z()) && job.reuseLastKnown(chunk, now)) {
+                continue;
             }
+            ChunkSnapshot snapshot = world.getChunkAt(chunk.x(), chunk.z()).getChunkSnapshot(true, false, false);
+            job.submit(chunk, snapshot, world.getMinHeight(), world.getMaxHeight());
         }
-        return samples == 0 ? prosperityCalculator.getLightNeutral() : (double) lightSum / samples;
+        return commitBlockMetrics(city, job);
     }
 
-    private SampledRatio natureRatio(City city) {
-        BlockTest natureTest = b -> matchesNatureBlock(b.getType());
-        return ratioSurface(city, 6, natureTest);
+    /**
+     * Forgets the city's sample for a chunk whose blocks were edited, so the next refresh samples it
+     * first instead of reusing the stale one. Main thread only.
+     */
+    public void markChunkDirty(City city, City.ChunkPosition chunk) {
+        if (city != null && chunk != null && city.metricSampleMap().remove(chunk) != null) {
+            dirtyChunks.computeIfAbsent(city.id, id -> new HashSet<>()).add(chunk);
+        }
     }
 
-    private PollutionStats pollutionStats(City city) {
-        SurfaceSampleResult result = sampleSurface(city, 8, b -> switch (b.getType()) {
-            case FURNACE, BLAST_FURNACE, SMOKER, CAMPFIRE, SOUL_CAMPFIRE, LAVA, LAVA_CAULDRON -> true;
-            default -> false;
-        });
-        return new PollutionStats(result.ratio(), result.found, result.probes);
+    /**
+     * Drops the dirty chunks recorded for a removed city.
+     */
+    public void forgetCity(String cityId) {
+        if (cityId != null) {
+            dirtyChunks.remove(cityId);
+        }
     }
 
-    private SampledRatio ratioSurface(City city, int step, BlockTest test) {
-        SurfaceSampleResult result = sampleSurface(city, step, test);
-        return new SampledRatio(result.ratio(), result.probes);
+    /**
+     * Keeps a renamed city's dirty chunks under its new id.
+     */
+    public void renameCity(String previousId, String cityId) {
+        Set<City.ChunkPosition> dirty = previousId != null ? dirtyChunks.remove(previousId) : null;
+        if (dirty != null && cityId != null) {
+            dirtyChunks.put(cityId, dirty);
+        }
     }
 
-    private SurfaceSampleResult sampleSurface(City city, int step, BlockTest test) {
-        int found = 0, probes = 0;
-        if (city.cuboids == null) {
-            return new SurfaceSampleResult(0, 0);
-        }
-        for (Cuboid c : city.cuboids) {
-            if (c == null || c.world == null) {
-                continue;
-            }
-            World w = Bukkit.getWorld(c.world);
-            if (w == null) continue;
-            for (int x = c.minX; x <= c.maxX; x += step) {
-                for (int z = c.minZ; z <= c.maxZ; z += step) {
-                    if (city.highrise) {
-                        for (int y = c.minY; y <= c.maxY; y += HIGHRISE_VERTICAL_STEP) {
-                            Block block = w.getBlockAt(x, y, z);
-                            if (test.test(block)) found++;
-                            probes++;
-                        }
-                        if ((c.maxY - c.minY) % HIGHRISE_VERTICAL_STEP != 0) {
-                            Block block = w.getBlockAt(x, c.maxY, z);
-                            if (test.test(block)) found++;
-                            probes++;
-                        }
-                    } else {
-                        int y = w.getHighestBlockYAt(x, z);
-                        Block block = w.getBlockAt(x, y, z);
-                        if (block.isLiquid()) {
-                            continue;
-                        }
-                        if (test.test(block)) found++;
-                        probes++;
-                    }
-                }
-            }
-        }
-        return new SurfaceSampleResult(found, probes);
+    /**
+     * Starts an asynchronous refresh, or returns {@code null} when the cached metrics are still fresh.
+     * Snapshots handed to the job are sampled on the configured executor.
+     */
+    public BlockMetricsJob prepareBlockMetrics(City city, boolean forceRefresh) {
+        return prepareBlockMetrics(city, forceRefresh, executor);
     }
 
-    private Integer sampleSurfaceColumnBlockLight(World world, int x, int z) {
-        if (world == null) {
+    private BlockMetricsJob prepareBlockMetrics(City city, boolean forceRefresh, Executor jobExecutor) {
+        if (city == null) {
             return null;
         }
-
-        int highestY = world.getHighestBlockYAt(x, z);
-        if (highestY < world.getMinHeight()) {
+        long now = System.currentTimeMillis();
+        City.BlockScanCache cache = city.blockScanCache;
+        boolean expired = cache == null || blockScanRefreshIntervalMillis <= 0
+                || (now - cache.timestamp) >= blockScanRefreshIntervalMillis;
+        if (!forceRefresh && !expired) {
             return null;
         }
+        Map<City.ChunkPosition, List<ChunkMetricSampler.Clip>> clips = ChunkMetricSampler.planClips(city.cuboids);
+        Set<City.ChunkPosition> priority = new HashSet<>(city.getResidentialChunks());
+        Set<City.ChunkPosition> dirty = dirtyChunks.remove(city.id);
+        if (dirty != null) {
+            dirty.retainAll(clips.keySet());
+            priority.addAll(dirty);
+        }
+        return new BlockMetricsJob(city.id, city.highrise, clips,
+                new HashMap<>(city.metricSampleMap()), sampleMaxAgeMillis,
+                type -> classifier.is(type, BlockClassifier.NATURE),
+                type -> classifier.is(type, BlockClassifier.POLLUTER), jobExecutor,
+                priority, samplingTolerance, samplingMinChunks);
+    }
 
-        Block surfaceBlock = world.getBlockAt(x, highestY, z);
-        if (surfaceBlock.isLiquid()) {
+    /**
+     * Folds a completed job into the city's per-chunk samples and rebuilds the cached averages.
+     * Must run on the main thread.
+     */
+    public City.BlockScanCache commitBlockMetrics(City city, BlockMetricsJob job) {
+        if (city == null) {
             return null;
         }
-
-        int maxHeight = world.getMaxHeight();
-        int sampleStartY = highestY + 1;
-        if (sampleStartY >= maxHeight) {
-            return (int) surfaceBlock.getLightFromBlocks();
+        if (job == null || job.highrise() != city.highrise) {
+            // Highrise toggled while sampling; the samples use the wrong grid.
+            return ensureBlockScanCache(city, true);
         }
+        Map<City.ChunkPosition, ChunkMetricSample> stored = city.metricSampleMap();
+        stored.keySet().retainAll(job.chunks());
+        stored.putAll(job.samples());
 
-        Block sampleBlock = null;
-        for (int y = sampleStartY; y < maxHeight; y++) {
-            Block candidate = world.getBlockAt(x, y, z);
-            if (candidate.getType().isAir()) {
-                sampleBlock = candidate;
-                break;
+        ClusterRatioEstimate light = new ClusterRatioEstimate();
+        ClusterRatioEstimate nature = new ClusterRatioEstimate();
+        ClusterRatioEstimate pollution = new ClusterRatioEstimate();
+        BlockMetricsJob.accumulate(stored.values(), light, nature, pollution);
+        int population = job.chunks().size();
+        double lightValue = light.ratio(prosperityCalculator.getLightNeutral());
+        // Errors only count chunks sampled or reused in this pass; older stored samples add no confidence.
+        double lightError = job.lightEstimate().halfWidth(population);
+        if (!city.highrise) {
+            ClusterRatioEstimate residential = new ClusterRatioEstimate();
+            ClusterRatioEstimate residentialPass = new ClusterRatioEstimate();
+            int residentialChunks = 0;
+            for (City.ChunkPosition chunk : city.getResidentialChunks()) {
+                residentialChunks++;
+                ChunkMetricSample sample = stored.get(chunk);
+                if (sample != null) {
+                    residential.add(sample.residentialLightSum(), sample.residentialLightSamples());
+                }
+                ChunkMetricSample passSample = job.passSample(chunk);
+                if (passSample != null) {
+                    residentialPass.add(passSample.residentialLightSum(), passSample.residentialLightSamples());
+                }
+            }
+            if (!residential.isEmpty()) {
+                lightValue = residential.ratio(lightValue);
+                lightError = residentialPass.halfWidth(residentialChunks);
             }
         }
 
-        if (sampleBlock == null) {
-            sampleBlock = surfaceBlock;
-        }
-
-        return (int) sampleBlock.getLightFromBlocks();
-    }
-
-    private boolean matchesNatureBlock(Material type) {
-        if (type == null) {
-            return false;
-        }
-        if (Tag.LOGS.isTagged(type)
-                || Tag.LEAVES.isTagged(type)
-                || Tag.FLOWERS.isTagged(type)
-                || Tag.SAPLINGS.isTagged(type)
-                || Tag.CROPS.isTagged(type)) {
-            return true;
-        }
-        if (extraNatureBlocks.contains(type)) {
-            return true;
-        }
-        return switch (type) {
-            case GRASS_BLOCK, SHORT_GRASS, TALL_GRASS, FERN, LARGE_FERN,
-                    VINE, LILY_PAD,
-                    DANDELION, POPPY, BLUE_ORCHID, ALLIUM, AZURE_BLUET, RED_TULIP, ORANGE_TULIP, WHITE_TULIP, PINK_TULIP,
-                    OXEYE_DAISY, CORNFLOWER, LILY_OF_THE_VALLEY, SUNFLOWER, PEONY, ROSE_BUSH -> true;
-            default -> false;
-        };
-    }
-
-    private interface BlockTest {
-        boolean test(Block block);
+        City.BlockScanCache cache = new City.BlockScanCache();
+        cache.light = lightValue;
+        cache.lightError = lightError;
+        cache.nature = nature.ratio(0.0);
+        cache.natureError = job.natureEstimate().halfWidth(population);
+        cache.natureSamples = (int) sum(stored.values(), ChunkMetricSample::natureProbes);
+        cache.pollution = pollution.ratio(0.0);
+        cache.pollutionError = job.pollutionEstimate().halfWidth(population);
+        cache.pollutingBlocks = (int) sum(stored.values(), ChunkMetricSample::pollutionFound);
+        cache.pollutionSamples = (int) sum(stored.values(), ChunkMetricSample::pollutionProbes);
+        cache.sampledChunks = job.sampledChunks();
+        cache.totalChunks = population;
+        cache.overcrowdingPenalty = prosperityCalculator.computeOvercrowdingPenalty(city);
+        cache.timestamp = System.currentTimeMillis();
+        city.blockScanCache = cache;
+        return cache;
     }
 
-    private static class SurfaceSampleResult {
-        final int found;
-        final int probes;
-
-        SurfaceSampleResult(int found, int probes) {
-            this.found = found;
-            this.probes = probes;
-        }
-
-        double ratio() {
-            return probes == 0 ? 0.0 : (double) found / (double) probes;
+    private static long sum(Iterable<ChunkMetricSample> samples, ToIntFunction<ChunkMetricSample> field) {
+        long total = 0L;
+        for (ChunkMetricSample sample : samples) {
+            total += field.applyAsInt(sample);
         }
-    }
-
-    private record SampledRatio(double ratio, int samples) {
-    }
-
-    private record PollutionStats(double ratio, int blockCount, int samples) {
+        return total;
     }
 }
@@ -0,0 +1,16 @@
+package dev.citysim.stats;
+
+/**
+ * Block-metric probes taken from one chunk of a city, kept per chunk so unloaded or unchanged
+ * chunks can contribute their last-known values to the city-wide averages.
+ */
+public record ChunkMetricSample(long lightSum,
+                                int lightSamples,
+                                long residentialLightSum,
+                                int residentialLightSamples,
+                                int natureFound,
+                                int natureProbes,
+                                int pollutionFound,
+                                int pollutionProbes,
+                                long timestamp) {
+}
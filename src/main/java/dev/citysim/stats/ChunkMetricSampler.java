@@ -0,0 +1,236 @@
+package dev.citysim.stats;
+
+import dev.citysim.city.City;
+import dev.citysim.city.Cuboid;
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.Material;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Computes light, nature and pollution probes for one chunk in a single pass over an immutable
+ * {@link ChunkSnapshot}. Sampling grids match the historical world-based sampler: light and pollution
+ * every 8 blocks and nature every 6 blocks from each cuboid's corner, residential light every 8 blocks
+ * from each chunk clip, and every 4 blocks vertically for highrise cities. Safe to call off the main thread.
+ */
+public final class ChunkMetricSampler {
+    static final int LIGHT_STEP = 8;
+    static final int NATURE_STEP = 6;
+    static final int POLLUTION_STEP = 8;
+    static final int HIGHRISE_VERTICAL_STEP = 4;
+
+    private ChunkMetricSampler() {
+    }
+
+    /**
+     * Splits cuboids into per-chunk clips, keeping each cuboid's origin so grids stay aligned.
+     */
+    public static Map<City.ChunkPosition, List<Clip>> planClips(Collection<Cuboid> cuboids) {
+        Map<City.ChunkPosition, List<Clip>> clips = new LinkedHashMap<>();
+        if (cuboids == null) {
+            return clips;
+        }
+        for (Cuboid cuboid : cuboids) {
+            if (cuboid == null || cuboid.world == null) {
+                continue;
+            }
+            for (int cx = cuboid.minX >> 4; cx <= cuboid.maxX >> 4; cx++) {
+                for (int cz = cuboid.minZ >> 4; cz <= cuboid.maxZ >> 4; cz++) {
+                    int chunkMinX = cx << 4;
+                    int chunkMinZ = cz << 4;
+                    int minX = Math.max(cuboid.minX, chunkMinX);
+                    int maxX = Math.min(cuboid.maxX, chunkMinX + 15);
+                    int minZ = Math.max(cuboid.minZ, chunkMinZ);
+                    int maxZ = Math.min(cuboid.maxZ, chunkMinZ + 15);
+                    if (minX > maxX || minZ > maxZ) {
+                        continue;
+                    }
+                    clips.computeIfAbsent(new City.ChunkPosition(cuboid.world, cx, cz), key -> new ArrayList<>())
+                            .add(new Clip(cuboid.minX, cuboid.minZ, minX, maxX, cuboid.minY, cuboid.maxY, minZ, maxZ));
+                }
+            }
+        }
+        for (Map.Entry<City.ChunkPosition, List<Clip>> entry : clips.entrySet()) {
+            entry.setValue(Collections.unmodifiableList(entry.getValue()));
+        }
+        return clips;
+    }
+
+    public static ChunkMetricSample sample(ChunkSnapshot snapshot,
+                                           List<Clip> clips,
+                                           boolean highrise,
+                                           int minHeight,
+                                           int maxHeight,
+                                           Predicate<Material> natureTest,
+                                           Predicate<Material> pollutionTest,
+                                           long timestamp) {
+        long lightSum = 0L;
+        int lightSamples = 0;
+        long residentialLightSum = 0L;
+        int residentialLightSamples = 0;
+        int natureFound = 0;
+        int natureProbes = 0;
+        int pollutionFound = 0;
+        int pollutionProbes = 0;
+        boolean[] residentialColumns = highrise ? null : new boolean[256];
+
+        for (Clip clip : clips) {
+            if (highrise) {
+                for (int x = firstOnGrid(clip.minX(), clip.originX(), LIGHT_STEP); x <= clip.maxX(); x += LIGHT_STEP) {
+                    for (int z = firstOnGrid(clip.minZ(), clip.originZ(), LIGHT_STEP); z <= clip.maxZ(); z += LIGHT_STEP) {
+                        for (int y : highriseLevels(clip)) {
+                            if (y < minHeight || y >= maxHeight) {
+                                continue;
+                            }
+                            lightSum += snapshot.getBlockEmittedLight(x & 15, y, z & 15);
+                            lightSamples++;
+                        }
+                    }
+                }
+                for (int x = firstOnGrid(clip.minX(), clip.originX(), NATURE_STEP); x <= clip.maxX(); x += NATURE_STEP) {
+                    for (int z = firstOnGrid(clip.minZ(), clip.originZ(), NATURE_STEP); z <= clip.maxZ(); z += NATURE_STEP) {
+                        for (int y : highriseLevels(clip)) {
+                            if (y < minHeight || y >= maxHeight) {
+                                continue;
+                            }
+                            if (natureTest.test(snapshot.getBlockType(x & 15, y, z & 15))) {
+                                natureFound++;
+                            }
+                            natureProbes++;
+                        }
+                    }
+                }
+                for (int x = firstOnGrid(clip.minX(), clip.originX(), POLLUTION_STEP); x <= clip.maxX(); x += POLLUTION_STEP) {
+                    for (int z = firstOnGrid(clip.minZ(), clip.originZ(), POLLUTION_STEP); z <= clip.maxZ(); z += POLLUTION_STEP) {
+                        for (int y : highriseLevels(clip)) {
+                            if (y < minHeight || y >= maxHeight) {
+                                continue;
+                            }
+                            if (pollutionTest.test(snapshot.getBlockType(x & 15, y, z & 15))) {
+                                pollutionFound++;
+                            }
+                            pollutionProbes++;
+                        }
+                    }
+                }
+                continue;
+            }
+
+            for (int x = firstOnGrid(clip.minX(), clip.originX(), LIGHT_STEP); x <= clip.maxX(); x += LIGHT_STEP) {
+                for (int z = firstOnGrid(clip.minZ(), clip.originZ(), LIGHT_STEP); z <= clip.maxZ(); z += LIGHT_STEP) {
+                    int light = surfaceColumnBlockLight(snapshot, x & 15, z & 15, minHeight, maxHeight);
+                    if (light >= 0) {
+                        lightSum += light;
+                        lightSamples++;
+                    }
+                }
+            }
+            for (int x = clip.minX(); x <= clip.maxX(); x += LIGHT_STEP) {
+                for (int z = clip.minZ(); z <= clip.maxZ(); z += LIGHT_STEP) {
+                    int column = ((z & 15) << 4) | (x & 15);
+                    if (residentialColumns[column]) {
+                        continue;
+                    }
+                    residentialColumns[column] = true;
+                    int light = surfaceColumnBlockLight(snapshot, x & 15, z & 15, minHeight, maxHeight);
+                    if (light >= 0) {
+                        residentialLightSum += light;
+                        residentialLightSamples++;
+                    }
+                }
+            }
+            for (int x = firstOnGrid(clip.minX(), clip.originX(), NATURE_STEP); x <= clip.maxX(); x += NATURE_STEP) {
+                for (int z = firstOnGrid(clip.minZ(), clip.originZ(), NATURE_STEP); z <= clip.maxZ(); z += NATURE_STEP) {
+                    Material surface = surfaceType(snapshot, x & 15, z & 15, minHeight);
+                    if (surface != null && isLiquid(surface)) {
+                        continue;
+                    }
+                    if (surface != null && natureTest.test(surface)) {
+                        natureFound++;
+                    }
+                    natureProbes++;
+                }
+            }
+            for (int x = firstOnGrid(clip.minX(), clip.originX(), POLLUTION_STEP); x <= clip.maxX(); x += POLLUTION_STEP) {
+                for (int z = firstOnGrid(clip.minZ(), clip.originZ(), POLLUTION_STEP); z <= clip.maxZ(); z += POLLUTION_STEP) {
+                    Material surface = surfaceType(snapshot, x & 15, z & 15, minHeight);
+                    if (surface != null && isLiquid(surface)) {
+                        continue;
+                    }
+                    if (surface != null && pollutionTest.test(surface)) {
+                        pollutionFound++;
+                    }
+                    pollutionProbes++;
+                }
+            }
+        }
+        return new ChunkMetricSample(lightSum, lightSamples, residentialLightSum, residentialLightSamples,
+                natureFound, natureProbes, pollutionFound, pollutionProbes, timestamp);
+    }
+
+    static int firstOnGrid(int min, int origin, int step) {
+        int offset = min - origin;
+        if (offset <= 0) {
+            return origin;
+        }
+        return origin + ((offset + step - 1) / step) * step;
+    }
+
+    private static int[] highriseLevels(Clip clip) {
+        int count = (clip.maxY() - clip.minY()) / HIGHRISE_VERTICAL_STEP + 1;
+        boolean extraTop = (clip.maxY() - clip.minY()) % HIGHRISE_VERTICAL_STEP != 0;
+        int[] levels = new int[extraTop ? count + 1 : count];
+        for (int i = 0; i < count; i++) {
+            levels[i] = clip.minY() + i * HIGHRISE_VERTICAL_STEP;
+        }
+        if (extraTop) {
+            levels[count] = clip.maxY();
+        }
+        return levels;
+    }
+
+    private static Material surfaceType(ChunkSnapshot snapshot, int localX, int localZ, int minHeight) {
+        int highestY = snapshot.getHighestBlockYAt(localX, localZ);
+        if (highestY < minHeight) {
+            return null;
+        }
+        return snapshot.getBlockType(localX, highestY, localZ);
+    }
+
+    /**
+     * Block light of the first air block above the surface, or {@code -1} when the column has no
+     * usable surface (void or liquid).
+     */
+    private static int surfaceColumnBlockLight(ChunkSnapshot snapshot, int localX, int localZ, int minHeight, int maxHeight) {
+        int highestY = snapshot.getHighestBlockYAt(localX, localZ);
+        if (highestY < minHeight) {
+            return -1;
+        }
+        if (isLiquid(snapshot.getBlockType(localX, highestY, localZ))) {
+            return -1;
+        }
+        for (int y = highestY + 1; y < maxHeight; y++) {
+            if (snapshot.getBlockType(localX, y, localZ).isAir()) {
+                return snapshot.getBlockEmittedLight(localX, y, localZ);
+            }
+        }
+        return snapshot.getBlockEmittedLight(localX, highestY, localZ);
+    }
+
+    private static boolean isLiquid(Material type) {
+        return type == Material.WATER || type == Material.LAVA;
+    }
+
+    /**
+     * Part of one cuboid inside one chunk. {@code originX}/{@code originZ} are the cuboid's minimum
+     * corner so sampling grids line up across chunk borders.
+     */
+    public record Clip(int originX, int originZ, int minX, int maxX, int minY, int maxY, int minZ, int maxZ) {
+    }
+}
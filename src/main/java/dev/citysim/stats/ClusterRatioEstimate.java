@@ -0,0 +1,60 @@
+package dev.citysim.stats;
+
+/**
+ * Ratio estimate over chunk clusters (sum of hits / sum of probes) with the 95% confidence half-width
+ * of the classic cluster-sampling ratio estimator, corrected for the fraction of chunks sampled.
+ */
+final class ClusterRatioEstimate {
+    private static final double Z_95 = 1.96;
+
+    private int clusters;
+    private double sumY;
+    private double sumX;
+    private double sumYY;
+    private double sumXX;
+    private double sumXY;
+
+    void add(double y, double x) {
+        clusters++;
+        sumY += y;
+        sumX += x;
+        sumYY += y * y;
+        sumXX += x * x;
+        sumXY += x * y;
+    }
+
+    int clusters() {
+        return clusters;
+    }
+
+    boolean isEmpty() {
+        return sumX <= 0.0;
+    }
+
+    double ratio(double fallback) {
+        return sumX <= 0.0 ? fallback : sumY / sumX;
+    }
+
+    /**
+     * @param populationClusters total number of chunks the estimate stands for
+     * @return half-width of the 95% interval, {@code 0} once every chunk was sampled (or there are none) and
+     *         {@link Double#POSITIVE_INFINITY} while there is too little data to tell
+     */
+    double halfWidth(int populationClusters) {
+        if (populationClusters <= 0) {
+            return 0.0;
+        }
+        double fpc = Math.max(0.0, 1.0 - (double) clusters / populationClusters);
+        if (fpc == 0.0) {
+            return 0.0;
+        }
+        if (clusters < 2 || sumX <= 0.0) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double r = sumY / sumX;
+        double residual = Math.max(0.0, sumYY - 2.0 * r * sumXY + r * r * sumXX);
+        double meanX = sumX / clusters;
+        double variance = fpc * residual / ((clusters - 1.0) * clusters * meanX * meanX);
+        return Z_95 * Math.sqrt(variance);
+    }
+}
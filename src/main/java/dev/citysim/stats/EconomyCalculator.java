@@ -24,6 +24,15 @@ public class EconomyCalculator {
         this.prosperityCalculator = prosperityCalculator;
     }
 
+    /**
+     * Copy of the current trust settings bound to the given prosperity weights.
+     */
+    public EconomyCalculator copy(ProsperityCalculator prosperityCalculator) {
+        EconomyCalculator copy = new EconomyCalculator(prosperityCalculator);
+        copy.configureTrust(trustNeutral, trustPositiveScale, trustNegativeScale, trustMaxPositive, trustMaxNegative);
+        return copy;
+    }
+
     public EconomyComputation compute(City city, ProsperityBreakdown prosperity, City.BlockScanCache metrics) {
         if (city == null) {
             return null;
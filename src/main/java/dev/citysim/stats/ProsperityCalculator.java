@@ -109,6 +109,27 @@ public class ProsperityCalculator {
         return hb;
     }
 
+    /**
+     * Copy of the current weights, for scoring off the main thread while a reload may change this one.
+     */
+    public ProsperityCalculator copy() {
+        ProsperityCalculator copy = new ProsperityCalculator();
+        copy.baseScore = baseScore;
+        copy.lightNeutral = lightNeutral;
+        copy.lightMaxPts = lightMaxPts;
+        copy.employmentMaxPts = employmentMaxPts;
+        copy.employmentNeutral = employmentNeutral;
+        copy.overcrowdMaxPenalty = overcrowdMaxPenalty;
+        copy.natureMaxPts = natureMaxPts;
+        copy.natureTargetRatio = natureTargetRatio;
+        copy.pollutionMaxPenalty = pollutionMaxPenalty;
+        copy.pollutionTargetRatio = pollutionTargetRatio;
+        copy.housingMaxPts = housingMaxPts;
+        copy.transitMaxPts = transitMaxPts;
+        copy.stationCountingMode = stationCountingMode;
+        return copy;
+    }
+
     public void setBaseScore(double baseScore) {
         this.baseScore = Math.max(0.0, baseScore);
     }
@@ -1,9 +1,15 @@
 
 package dev.citysim.stats;
 
+import dev.citysim.city.ChunkFootprintDiff;
 import dev.citysim.city.City;
 import dev.citysim.city.CityManager;
+import dev.citysim.city.CityManagerListener;
+import dev.citysim.city.CityMetricsTable;
+import dev.citysim.city.Cuboid;
 import dev.citysim.stats.schedule.ScanScheduler;
+import dev.citysim.stats.scan.BedLedger;
+import dev.citysim.stats.scan.ChunkCensusStore;
 import dev.citysim.stats.scan.CityScanCallbacks;
 import dev.citysim.stats.scan.CityScanRunner;
 import dev.citysim.stats.scan.CityScanJob;
@@ -11,15 +17,25 @@ import dev.citysim.stats.scan.CityScanRunner.CompletedJob;
 import dev.citysim.stats.scan.ScanContext;
 import dev.citysim.stats.scan.ScanDebugManager;
 import dev.citysim.stats.scan.ScanRequest;
+import dev.citysim.trace.Tracer;
+import dev.citysim.util.BlockChangeJournal;
+import dev.citysim.util.BlockClassifier;
 import org.bukkit.Bukkit;
 import org.bukkit.Location;
 import org.bukkit.entity.Player;
 import org.bukkit.plugin.Plugin;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.logging.Level;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 
 public class StatsService {
 
@@ -29,6 +45,8 @@ public class StatsService {
     private final EconomyCalculator economyCalculator;
     private final BlockScanService blockScanService;
     private final ScanDebugManager scanDebugManager;
+    private final ChunkCensusStore chunkCensusStore;
+    private final BedLedger bedLedger;
     private final CityScanCallbacks scanCallbacks;
     private final CityScanRunner scanRunner;
     private final ScanScheduler scanScheduler;
@@ -41,26 +59,54 @@ public class StatsService {
     private int configuredMaxEntityChunksPerTick = 2;
     private int configuredMaxBedBlocksPerTick = 2048;
     private final List<StatsUpdateListener> statsUpdateListeners = new CopyOnWriteArrayList<>();
+    private final Executor rescoreExecutor;
+    private final Executor mainThreadExecutor;
+    private long recomputeGeneration = 0L;
 
-    public StatsService(Plugin plugin, CityManager cityManager, StationCounter stationCounter) {
-        this(plugin, cityManager, stationCounter, null, null, null);
+    public StatsService(Plugin plugin, CityManager cityManager, StationCounter stationCounter,
+                        BlockClassifier classifier) {
+        this(plugin, cityManager, stationCounter, classifier, null, null, null, null, null);
     }
 
     StatsService(Plugin plugin, CityManager cityManager, StationCounter stationCounter,
+                 BlockClassifier classifier,
                  ProsperityCalculator prosperityCalculator,
                  BlockScanService blockScanService,
-                 StatsUpdateScheduler statsUpdateScheduler) {
+                 StatsUpdateScheduler statsUpdateScheduler,
+                 Executor rescoreExecutor,
+                 Executor mainThreadExecutor) {
         this.plugin = plugin;
         this.cityManager = cityManager;
         this.stationCounter = stationCounter;
         this.prosperityCalculator = prosperityCalculator != null ? prosperityCalculator : new ProsperityCalculator();
         this.economyCalculator = new EconomyCalculator(this.prosperityCalculator);
-        this.blockScanService = blockScanService != null ? blockScanService : new BlockScanService(this.prosperityCalculator);
+        this.blockScanService = blockScanService != null ? blockScanService : new BlockScanService(this.prosperityCalculator, classifier);
+        this.blockScanService.setExecutor(task -> Bukkit.getScheduler().runTaskAsynchronously(plugin, task));
         this.scanDebugManager = new ScanDebugManager();
+        this.chunkCensusStore = new ChunkCensusStore();
+        this.bedLedger = new BedLedger();
         this.scanCallbacks = new StatsScanCallbacks();
-        this.scanRunner = new CityScanRunner(scanCallbacks, scanDebugManager);
+        this.scanRunner = new CityScanRunner(scanCallbacks, scanDebugManager, chunkCensusStore, bedLedger, classifier);
         this.scanScheduler = new ScanScheduler(cityManager, scanRunner);
         this.statsUpdateScheduler = statsUpdateScheduler != null ? statsUpdateScheduler : new StatsUpdateScheduler(plugin, this::tick);
+        this.rescoreExecutor = rescoreExecutor != null
+                ? rescoreExecutor
+                : task -> Bukkit.getScheduler().runTaskAsynchronously(plugin, task);
+        this.mainThreadExecutor = mainThreadExecutor != null
+                ? mainThreadExecutor
+                : task -> Bukkit.getScheduler().runTask(plugin, task);
+        cityManager.addListener(new CityManagerListener() {
+            @Override
+            public void onCityRemoved(City city) {
+                forgetChunkCensus(city);
+                blockScanService.forgetCity(city.id);
+            }
+
+            @Override
+            public void onCityRenamed(String previousId, City city) {
+                blockScanService.renameCity(previousId, city.id);
+            }
+        });
         updateConfig();
     }
 
@@ -143,6 +189,62 @@ public class StatsService {
         return scanDebugManager.toggle(player);
     }
 
+    public void setTracer(Tracer tracer) {
+        scanDebugManager.setTracer(tracer);
+    }
+
+    public ChunkCensusStore getChunkCensusStore() {
+        return chunkCensusStore;
+    }
+
+    /**
+     * Forgets the census of every chunk of a removed city that no remaining city still covers.
+     */
+    private void forgetChunkCensus(City removed) {
+        Set<City.ChunkPosition> chunks = new HashSet<>(ChunkFootprintDiff.between(removed.cuboids, List.of()).removed());
+        for (City city : cityManager.all()) {
+            if (chunks.isEmpty()) {
+                break;
+            }
+            if (city == removed || city.cuboids == null) {
+                continue;
+            }
+            for (Cuboid cuboid : city.cuboids) {
+                if (cuboid != null && cuboid.world != null) {
+                    chunks.removeIf(chunk -> chunk.world().equals(cuboid.world)
+                            && chunk.x() >= cuboid.minX >> 4 && chunk.x() <= cuboid.maxX >> 4
+                            && chunk.z() >= cuboid.minZ >> 4 && chunk.z() <= cuboid.maxZ >> 4);
+                }
+            }
+        }
+        chunkCensusStore.forget(chunks);
+    }
+
+    public BedLedger getBedLedger() {
+        return bedLedger;
+    }
+
+    /**
+     * Journal subscriber that marks edited chunks for resampling in every city containing an edited block.
+     */
+    public BlockChangeJournal.Subscriber blockMetricsSubscriber() {
+        return (world, changes) -> {
+            if (changes.edits().isEmpty()) {
+                return;
+            }
+            City.ChunkPosition chunk = new City.ChunkPosition(world.getName(), changes.chunkX(), changes.chunkZ());
+            Location probe = new Location(world, 0, 0, 0);
+            changes.edits().forEach((x, y, z) -> {
+                probe.setX(x);
+                probe.setY(y);
+                probe.setZ(z);
+                for (City city : cityManager.citiesAt(probe)) {
+                    blockScanService.markChunkDirty(city, chunk);
+                }
+            });
+        };
+    }
+
     public StationCountingMode getStationCountingMode() {
         return stationCountingMode;
     }
@@ -208,11 +310,23 @@ public class StatsService {
     }
 
     public ProsperityBreakdown updateCity(City city, boolean forceRefresh) {
+        return updateCity(city, forceRefresh, "synchronous update");
+    }
+
+    /**
+     * Rescans a city right after its cuboids or highrise mode changed. Bed snapshots kept by
+     * {@link City#applyGeometryChange} are reused, so only new or reshaped chunks are visited.
+     */
+    public ProsperityBreakdown updateCityAfterGeometryChange(City city) {
+        return updateCity(city, false, "geometry change");
+    }
+
+    private ProsperityBreakdown updateCity(City city, boolean forceRefresh, String reason) {
         if (city == null) {
             return new ProsperityBreakdown();
         }
         cancelActiveJob(city);
-        ProsperityBreakdown result = scanRunner.runSynchronously(city, new ScanRequest(forceRefresh, true, "synchronous update", null));
+        ProsperityBreakdown result = scanRunner.runSynchronously(city, new ScanRequest(forceRefresh, true, reason, null));
         long completedAt = System.currentTimeMillis();
         if (result != null) {
             applyScanCompletion(city, result, completedAt, true);
@@ -244,6 +358,7 @@ public class StatsService {
             ProsperityBreakdown hb = calculateProsperityBreakdown(city, metrics);
             city.prosperityBreakdown = hb;
             city.prosperity = hb.total;
+            cityManager.metricsTable().update(city);
             return hb;
         }
         requestCityUpdate(city, true, "compute prosperity breakdown");
@@ -344,6 +459,7 @@ public class StatsService {
         int maxCitiesPerTick = 1;
         int maxEntityChunksPerTick = 2;
         int maxBedBlocksPerTick = 2048;
+        long censusMaxAgeSecs = TimeUnit.MILLISECONDS.toSeconds(ChunkCensusStore.DEFAULT_MAX_AGE_MILLIS);
         double baseScore = 50.0;
         double lightNeutral = 2.0;
         double lightMaxPts = 10.0;
@@ -366,6 +482,7 @@ public class StatsService {
             maxCitiesPerTick = Math.max(1, config.getInt("updates.max_cities_per_tick", maxCitiesPerTick));
             maxEntityChunksPerTick = Math.max(1, config.getInt("updates.max_entity_chunks_per_tick", maxEntityChunksPerTick));
             maxBedBlocksPerTick = Math.max(1, config.getInt("updates.max_bed_blocks_per_tick", maxBedBlocksPerTick));
+            censusMaxAgeSecs = Math.max(0L, config.getLong("updates.unloaded_census_max_age_secs", censusMaxAgeSecs));
 
             baseScore = config.getDouble("prosperity_weights.base_score", baseScore);
             lightNeutral = config.getDouble("prosperity_weights.light_neutral_level", lightNeutral);
@@ -387,6 +504,8 @@ public class StatsService {
         }
 
         scanScheduler.setLimits(maxCitiesPerTick, maxEntityChunksPerTick, maxBedBlocksPerTick);
+        chunkCensusStore.setMaxAgeMillis(TimeUnit.SECONDS.toMillis(censusMaxAgeSecs));
+        blockScanService.setSampleMaxAgeMillis(TimeUnit.SECONDS.toMillis(censusMaxAgeSecs));
         long sweepIntervalMillis = Math.max(1L, statsUpdateScheduler.getStatsIntervalTicks()) * 50L;
         scanScheduler.setBaseSweepIntervalMillis(sweepIntervalMillis);
         configuredMaxCitiesPerTick = maxCitiesPerTick;
@@ -407,6 +526,78 @@ public class StatsService {
         prosperityCalculator.setTransitMaxPts(transitMaxPts);
         economyCalculator.configureTrust(trustNeutral, trustPositiveScale, trustNegativeScale, trustMaxPositive, trustMaxNegative);
         prosperityCalculator.setStationCountingMode(stationCountingMode);
+        recomputeFromCachedMetrics();
+    }
+
+    /**
+     * Re-scores every city that already has cached block metrics with the current weights, so a reload does
+     * not leave stale breakdowns until each city is rescanned. The cities and calculator weights are copied
+     * here on the main thread, scored on the rescore executor and committed back on the main thread in one pass.
+     */
+    CompletableFuture<Void> recomputeFromCachedMetrics() {
+        List<City> inputs = new ArrayList<>();
+        for (City city : cityManager.all()) {
+            if (city != null && city.id != null && city.blockScanCache != null && city.prosperityBreakdown != null) {
+                inputs.add(city.scoringCopy());
+            }
+        }
+        if (inputs.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        long generation = ++recomputeGeneration;
+        ProsperityCalculator prosperity = prosperityCalculator.copy();
+        EconomyCalculator economy = economyCalculator.copy(prosperity);
+        return CompletableFuture
+                .supplyAsync(() -> inputs.stream().map(copy -> rescore(copy, prosperity, economy)).toList(), rescoreExecutor)
+                .thenAcceptAsync(scored -> commitRecompute(scored, generation), mainThreadExecutor)
+                .exceptionally(ex -> {
+                    plugin.getLogger().log(Level.WARNING, "Failed to recompute city stats after configuration change", ex);
+                    return null;
+                });
+    }
+
+    private static City rescore(City copy, ProsperityCalculator prosperity, EconomyCalculator economy) {
+        ProsperityBreakdown breakdown = prosperity.calculate(copy, copy.blockScanCache);
+        breakdown.setGhostTown(copy.isGhostTown() || breakdown.isGhostTown());
+        copy.prosperityBreakdown = breakdown;
+        updateDerivedMetrics(copy, prosperity, economy);
+        return copy;
+    }
+
+    private void commitRecompute(List<City> scored, long generation) {
+        if (generation != recomputeGeneration) {
+            // A later reload already queued a recompute with newer weights.
+            return;
+        }
+        CityMetricsTable metricsTable = cityManager.metricsTable();
+        List<City> updated = new ArrayList<>();
+        for (City copy : scored) {
+            City city = cityManager.get(copy.id);
+            if (city == null || city.blockScanCache != copy.blockScanCache || city.statsTimestamp != copy.statsTimestamp) {
+                // Rescanned or invalidated meanwhile; that result already reflects the current weights.
+                continue;
+            }
+            city.prosperityBreakdown = copy.prosperityBreakdown;
+            city.economyBreakdown = copy.economyBreakdown;
+            city.employmentRate = copy.employmentRate;
+            city.housingRatio = copy.housingRatio;
+            city.transitCoverage = copy.transitCoverage;
+            city.gdp = copy.gdp;
+            city.gdpPerCapita = copy.gdpPerCapita;
+            city.sectorAgri = copy.sectorAgri;
+            city.sectorInd = copy.sectorInd;
+            city.sectorServ = copy.sectorServ;
+            city.jobsPressure = copy.jobsPressure;
+            city.housingPressure = copy.housingPressure;
+            city.transitPressure = copy.transitPressure;
+            city.landValue = copy.landValue;
+            city.prosperity = copy.prosperity;
+            metricsTable.update(city);
+            updated.add(city);
+        }
+        if (!updated.isEmpty()) {
+            notifyStatsBatchUpdated(Collections.unmodifiableList(updated));
+        }
     }
 
     private class StatsScanCallbacks implements CityScanCallbacks {
@@ -420,6 +611,16 @@ public class StatsService {
             return blockScanService.ensureBlockScanCache(city, forceRefresh);
         }
 
+        @Override
+        public BlockMetricsJob prepareBlockMetrics(City city, boolean forceRefresh) {
+            return blockScanService.prepareBlockMetrics(city, forceRefresh);
+        }
+
+        @Override
+        public City.BlockScanCache commitBlockMetrics(City city, BlockMetricsJob job) {
+            return blockScanService.commitBlockMetrics(city, job);
+        }
+
         @Override
         public ProsperityBreakdown calculateProsperityBreakdown(City city, City.BlockScanCache cache) {
             return StatsService.this.calculateProsperityBreakdown(city, cache);
@@ -428,6 +629,11 @@ public class StatsService {
     }
 
     private void updateDerivedMetrics(City city) {
+        updateDerivedMetrics(city, prosperityCalculator, economyCalculator);
+    }
+
+    private static void updateDerivedMetrics(City city, ProsperityCalculator prosperityCalculator,
+                                             EconomyCalculator economyCalculator) {
         if (city == null) {
             return;
         }
@@ -494,6 +700,7 @@ public class StatsService {
         }
         updateDerivedMetrics(city);
         city.statsTimestamp = completedAtMillis;
+        cityManager.metricsTable().update(city);
         notifyStatsUpdated(city);
     }
 
@@ -544,6 +751,16 @@ public class StatsService {
         scanProgressTaskId = -1;
     }
 
+    private void notifyStatsBatchUpdated(List<City> cities) {
+        for (StatsUpdateListener listener : statsUpdateListeners) {
+            try {
+                listener.onCityStatsBatchUpdated(cities);
+            } catch (Exception ex) {
+                plugin.getLogger().log(Level.WARNING, "StatsUpdateListener threw while handling a batch of " + cities.size() + " cities", ex);
+            }
+        }
+    }
+
     private void notifyStatsUpdated(City city) {
         if (city == null) {
             return;
@@ -2,9 +2,20 @@ package dev.citysim.stats;
 
 import dev.citysim.city.City;
 
+import java.util.Collection;
+
 /**
  * Listener notified whenever fresh stats for a city are applied.
  */
 public interface StatsUpdateListener {
     void onCityStatsUpdated(City city);
+
+    /**
+     * Called once for a batch of cities re-scored together, e.g. after a configuration reload.
+     */
+    default void onCityStatsBatchUpdated(Collection<City> cities) {
+        for (City city : cities) {
+            onCityStatsUpdated(city);
+        }
+    }
 }
@@ -0,0 +1,104 @@
+package dev.citysim.stats.scan;
+
+import dev.citysim.city.City;
+import dev.citysim.city.CityManager;
+import dev.citysim.util.BlockChangeJournal;
+import dev.citysim.util.BlockClassifier;
+import dev.citysim.util.LongObjectMap;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.data.type.Bed;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Keeps the {@link BedLedger} and cached city bed totals exact from the {@link BlockChangeJournal}.
+ * The journal delivers a chunk's changes once per tick, after both bed halves settled. Positions are only
+ * read back from the world when a bed material was involved or the ledger knows a head there.
+ */
+public class BedChangeTracker implements BlockChangeJournal.Subscriber {
+    private static final int[][] NEIGHBOURS = {{0, 0}, {1, 0}, {-1, 0}, {0, 1}, {0, -1}};
+
+    private final CityManager cityManager;
+    private final BedLedger bedLedger;
+    private final LongObjectMap<Boolean> checked = new LongObjectMap<>();
+
+    public BedChangeTracker(CityManager cityManager, BedLedger bedLedger) {
+        this.cityManager = cityManager;
+        this.bedLedger = bedLedger != null ? bedLedger : new BedLedger();
+    }
+
+    @Override
+    public void onBlockChanges(World world, BlockChangeJournal.ChunkChanges changes) {
+        boolean bedTouched = changes.edits().touched(BlockClassifier.BED) || changes.updates().touched(BlockClassifier.BED);
+        // Neighbours stay within one chunk of the changed chunk, so the 3x3 positions around it cover every probe.
+        City.ChunkPosition[] chunks = new City.ChunkPosition[9];
+        checked.clear();
+        BlockChangeJournal.PositionVisitor visitor = (x, y, z) -> {
+            for (int[] offset : NEIGHBOURS) {
+                int nx = x + offset[0];
+                int nz = z + offset[1];
+                if (checked.put(pack(nx, y, nz), Boolean.TRUE) != null) {
+                    continue;
+                }
+                int slot = ((nx >> 4) - changes.chunkX() + 1) * 3 + (nz >> 4) - changes.chunkZ() + 1;
+                City.ChunkPosition chunkPos = chunks[slot];
+                if (chunkPos == null) {
+                    chunkPos = new City.ChunkPosition(world.getName(), nx >> 4, nz >> 4);
+                    chunks[slot] = chunkPos;
+                }
+                if (bedTouched || bedLedger.hasHead(chunkPos, nx, y, nz)) {
+                    verify(world, chunkPos, nx, y, nz);
+                }
+            }
+        };
+        changes.edits().forEach(visitor);
+        changes.updates().forEach(visitor);
+        checked.clear();
+    }
+
+    private void verify(World world, City.ChunkPosition chunkPos, int x, int y, int z) {
+        if (!world.isChunkLoaded(chunkPos.x(), chunkPos.z())) {
+            return;
+        }
+        Block block = world.getBlockAt(x, y, z);
+        Location location = block.getLocation();
+        if (!bedLedger.isKnown(chunkPos, x, y, z)) {
+            // No exact record for this block yet; let the next scan read the chunk again.
+            for (City city : cityManager.citiesAt(location)) {
+                city.bedSnapshotMap().remove(chunkPos);
+            }
+            return;
+        }
+        boolean head = block.getBlockData() instanceof Bed bed && bed.getPart() == Bed.Part.HEAD;
+        boolean changed = head
+                ? bedLedger.addHead(chunkPos, x, y, z)
+                : bedLedger.removeHead(chunkPos, x, y, z);
+        if (changed) {
+            // Overlapping cities each count the bed, so every one of them takes the delta.
+            for (City city : cityManager.citiesAt(location)) {
+                applyDelta(city, chunkPos, head ? 1 : -1);
+            }
+        }
+    }
+
+    private void applyDelta(City city, City.ChunkPosition chunkPos, int beds) {
+        city.beds = Math.max(0, city.beds + beds);
+        City.BedSnapshot snapshot = city.getBedSnapshot(chunkPos);
+        if (snapshot == null) {
+            return;
+        }
+        snapshot.bedHalves = Math.max(0, snapshot.bedHalves + 2 * beds);
+        Set<City.ChunkPosition> residential = new LinkedHashSet<>(city.getResidentialChunks());
+        boolean updated = snapshot.bedHalves > 0 ? residential.add(chunkPos) : residential.remove(chunkPos);
+        if (updated) {
+            city.setResidentialChunks(residential);
+        }
+    }
+
+    private static long pack(int x, int y, int z) {
+        return ((long) (x & 0x3FFFFFF) << 38) | ((long) (z & 0x3FFFFFF) << 12) | (y & 0xFFF);
+    }
+}
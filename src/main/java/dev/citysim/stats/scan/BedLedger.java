@@ -0,0 +1,168 @@
+package dev.citysim.stats.scan;
+
+import dev.citysim.city.City;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Exact record of bed-head positions per chunk section, kept current by {@link BedChangeTracker}.
+ * Scans seed the blocks they read; a clip is only answered once every block in it is known, and until
+ * then (or after the section was marked suspect) scans fall back to reading blocks. Seeded sections are
+ * re-verified by a rescan once they are older than {@link #RECONCILE_INTERVAL_MILLIS}.
+ */
+public class BedLedger {
+    static final long RECONCILE_INTERVAL_MILLIS = 6L * 60L * 60L * 1000L;
+
+    private final Map<City.ChunkPosition, Map<Integer, Section>> chunks = new HashMap<>();
+
+    /**
+     * Takes over the blocks a section index has read. A section that is due for reconciliation starts over
+     * from the index instead of merging into it.
+     */
+    public void seed(City.ChunkPosition chunk, ChunkSnapshotBroker.SectionBedIndex index, long now) {
+        if (chunk == null || index == null || index.scanned().isEmpty()) {
+            return;
+        }
+        Map<Integer, Section> sections = chunks.computeIfAbsent(chunk, key -> new HashMap<>());
+        Section section = sections.get(index.sectionY());
+        if (section == null || now - section.seededAt > RECONCILE_INTERVAL_MILLIS) {
+            section = new Section(now);
+            sections.put(index.sectionY(), section);
+        }
+        section.heads.andNot(index.scanned());
+        section.heads.or(index.heads());
+        section.known.or(index.scanned());
+    }
+
+    /**
+     * True when the block at an absolute position was seeded, so changes to it can be applied exactly.
+     */
+    public boolean isKnown(City.ChunkPosition chunk, int x, int y, int z) {
+        Section section = section(chunk, y >> 4);
+        return section != null && section.known.get(pack(x, y, z));
+    }
+
+    /**
+     * True when every block of a clip (chunk-local x/z, absolute y within one section) is known and the
+     * section is not due for reconciliation.
+     */
+    public boolean covers(City.ChunkPosition chunk, int sectionY, int minX, int maxX, int minY, int maxY,
+                          int minZ, int maxZ, long now) {
+        Section section = section(chunk, sectionY);
+        if (section == null || now - section.seededAt > RECONCILE_INTERVAL_MILLIS) {
+            return false;
+        }
+        int baseY = sectionY << 4;
+        for (int y = Math.max(minY, baseY); y <= Math.min(maxY, baseY + 15); y++) {
+            for (int z = minZ; z <= maxZ; z++) {
+                int row = ((y - baseY) << 8) | (z << 4);
+                if (section.known.nextClearBit(row + minX) <= row + maxX) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Records a bed head at an absolute block position. Returns {@code false} when the block is not
+     * known or the head was already recorded.
+     */
+    public boolean addHead(City.ChunkPosition chunk, int x, int y, int z) {
+        Section section = section(chunk, y >> 4);
+        return section != null && section.set(pack(x, y, z), true);
+    }
+
+    /**
+     * Forgets a bed head at an absolute block position. Returns {@code false} when the block is not
+     * known or no head was recorded there.
+     */
+    public boolean removeHead(City.ChunkPosition chunk, int x, int y, int z) {
+        Section section = section(chunk, y >> 4);
+        return section != null && section.set(pack(x, y, z), false);
+    }
+
+    public boolean hasHead(City.ChunkPosition chunk, int x, int y, int z) {
+        Section section = section(chunk, y >> 4);
+        return section != null && section.heads.get(pack(x, y, z));
+    }
+
+    /**
+     * Drops a section so the next scan reads its blocks again.
+     */
+    public void markSuspect(City.ChunkPosition chunk, int sectionY) {
+        Map<Integer, Section> sections = chunks.get(chunk);
+        if (sections == null) {
+            return;
+        }
+        sections.remove(sectionY);
+        if (sections.isEmpty()) {
+            chunks.remove(chunk);
+        }
+    }
+
+    /**
+     * Counts heads inside a clip given in chunk-local x/z and absolute y coordinates.
+     */
+    public int countWithin(City.ChunkPosition chunk, int sectionY, int minX, int maxX, int minY, int maxY, int minZ, int maxZ) {
+        Section section = section(chunk, sectionY);
+        if (section == null) {
+            return 0;
+        }
+        int baseY = sectionY << 4;
+        int count = 0;
+        for (int packed = section.heads.nextSetBit(0); packed >= 0; packed = section.heads.nextSetBit(packed + 1)) {
+            int x = packed & 15;
+            int z = (packed >> 4) & 15;
+            int y = baseY + (packed >> 8);
+            if (x >= minX && x <= maxX && z >= minZ && z <= maxZ && y >= minY && y <= maxY) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public void clear() {
+        chunks.clear();
+    }
+
+    public int size() {
+        return chunks.size();
+    }
+
+    private Section section(City.ChunkPosition chunk, int sectionY) {
+        Map<Integer, Section> sections = chunk != null ? chunks.get(chunk) : null;
+        return sections != null ? sections.get(sectionY) : null;
+    }
+
+    private static int pack(int x, int y, int z) {
+        return ((y & 15) << 8) | ((z & 15) << 4) | (x & 15);
+    }
+
+    /**
+     * Bed heads of one 16x16x16 section and the blocks they are known for, one bit per block in the same
+     * y/z/x order as the section scan.
+     */
+    private static final class Section {
+        private final long seededAt;
+        private final BitSet known = new BitSet(4096);
+        private final BitSet heads = new BitSet(4096);
+
+        Section(long seededAt) {
+            this.seededAt = seededAt;
+        }
+
+        /**
+         * Returns {@code true} when the bit changed; blocks that were never seeded are left alone.
+         */
+        private boolean set(int packed, boolean head) {
+            if (!known.get(packed) || heads.get(packed) == head) {
+                return false;
+            }
+            heads.set(packed, head);
+            return true;
+        }
+    }
+}
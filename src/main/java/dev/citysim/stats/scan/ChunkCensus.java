@@ -0,0 +1,118 @@
+package dev.citysim.stats.scan;
+
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Villager;
+import org.bukkit.entity.Villager.Profession;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Last-known villagers of a single chunk. Scans merge these for chunks that are not loaded instead of
+ * forcing them to load; each resident keeps its id so a villager counted elsewhere in the scan is not
+ * counted twice.
+ */
+public final class ChunkCensus {
+    private final List<Resident> residents;
+    private final int adults;
+    private final int adultNone;
+    private final int adultNitwit;
+    private final Map<Profession, Integer> employedByProfession;
+    private final long timestamp;
+
+    public ChunkCensus(List<Resident> residents, long timestamp) {
+        this.residents = residents != null ? List.copyOf(residents) : List.of();
+        int adultCount = 0;
+        int noneCount = 0;
+        int nitwitCount = 0;
+        Map<Profession, Integer> employed = new EnumMap<>(Profession.class);
+        for (Resident resident : this.residents) {
+            if (!resident.adult()) {
+                continue;
+            }
+            adultCount++;
+            if (resident.profession() == Profession.NONE) {
+                noneCount++;
+            } else if (resident.profession() == Profession.NITWIT) {
+                nitwitCount++;
+            } else if (resident.profession() != null) {
+                employed.merge(resident.profession(), 1, Integer::sum);
+            }
+        }
+        this.adults = adultCount;
+        this.adultNone = noneCount;
+        this.adultNitwit = nitwitCount;
+        this.employedByProfession = employed.isEmpty() ? Map.of() : Collections.unmodifiableMap(employed);
+        this.timestamp = timestamp;
+    }
+
+    public static ChunkCensus of(Iterable<? extends Entity> entities, long timestamp) {
+        Tally tally = new Tally();
+        if (entities != null) {
+            for (Entity entity : entities) {
+                if (entity instanceof Villager villager && villager.isValid()) {
+                    tally.add(villager);
+                }
+            }
+        }
+        return tally.build(timestamp);
+    }
+
+    public List<Resident> residents() {
+        return residents;
+    }
+
+    public int population() {
+        return residents.size();
+    }
+
+    public int adults() {
+        return adults;
+    }
+
+    public int adultNone() {
+        return adultNone;
+    }
+
+    public int adultNitwit() {
+        return adultNitwit;
+    }
+
+    public int employed() {
+        int sum = 0;
+        for (int count : employedByProfession.values()) {
+            sum += Math.max(0, count);
+        }
+        return sum;
+    }
+
+    public Map<Profession, Integer> employedByProfession() {
+        return employedByProfession;
+    }
+
+    public long timestamp() {
+        return timestamp;
+    }
+
+    /**
+     * One villager as last seen in the chunk.
+     */
+    public record Resident(UUID id, Profession profession, boolean adult) {
+    }
+
+    static final class Tally {
+        private final List<Resident> residents = new ArrayList<>();
+
+        void add(Villager villager) {
+            residents.add(new Resident(villager.getUniqueId(), villager.getProfession(), villager.isAdult()));
+        }
+
+        ChunkCensus build(long timestamp) {
+            return new ChunkCensus(residents, timestamp);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package dev.citysim.stats.scan;
+
+import dev.citysim.city.City;
+import org.bukkit.Chunk;
+import org.bukkit.entity.Entity;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.world.ChunkUnloadEvent;
+import org.bukkit.event.world.EntitiesUnloadEvent;
+
+import java.util.List;
+
+public class ChunkCensusListener implements Listener {
+    private final ChunkCensusStore censusStore;
+
+    public ChunkCensusListener(ChunkCensusStore censusStore) {
+        this.censusStore = censusStore;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkUnload(ChunkUnloadEvent event) {
+        if (event == null) {
+            return;
+        }
+        Chunk chunk = event.getChunk();
+        if (!chunk.isEntitiesLoaded()) {
+            return;
+        }
+        recordIfTracked(chunk, List.of(chunk.getEntities()));
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onEntitiesUnload(EntitiesUnloadEvent event) {
+        if (event == null) {
+            return;
+        }
+        recordIfTracked(event.getChunk(), event.getEntities());
+    }
+
+    private void recordIfTracked(Chunk chunk, List<Entity> entities) {
+        if (chunk == null) {
+            return;
+        }
+        City.ChunkPosition chunkPos = new City.ChunkPosition(chunk.getWorld().getName(), chunk.getX(), chunk.getZ());
+        if (!censusStore.isTracked(chunkPos)) {
+            return;
+        }
+        censusStore.record(chunkPos, ChunkCensus.of(entities, System.currentTimeMillis()));
+    }
+}
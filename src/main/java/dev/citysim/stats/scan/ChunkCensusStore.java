@@ -0,0 +1,74 @@
+package dev.citysim.stats.scan;
+
+import dev.citysim.city.City;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the most recent {@link ChunkCensus} for every chunk a city scan has visited. Entries are
+ * refreshed whenever the chunk is scanned or unloads, and are only trusted up to the configured age. Chunks
+ * left without a city when one is removed are forgotten.
+ */
+public class ChunkCensusStore {
+    public static final long DEFAULT_MAX_AGE_MILLIS = TimeUnit.MINUTES.toMillis(30);
+
+    private final Map<City.ChunkPosition, ChunkCensus> censusByChunk = new HashMap<>();
+    private long maxAgeMillis = DEFAULT_MAX_AGE_MILLIS;
+
+    public void setMaxAgeMillis(long maxAgeMillis) {
+        this.maxAgeMillis = Math.max(0L, maxAgeMillis);
+    }
+
+    public long maxAgeMillis() {
+        return maxAgeMillis;
+    }
+
+    public void record(City.ChunkPosition chunk, ChunkCensus census) {
+        if (chunk == null || census == null) {
+            return;
+        }
+        censusByChunk.put(chunk, census);
+    }
+
+    public boolean isTracked(City.ChunkPosition chunk) {
+        return chunk != null && censusByChunk.containsKey(chunk);
+    }
+
+    public ChunkCensus freshCensus(City.ChunkPosition chunk, long nowMillis) {
+        if (chunk == null) {
+            return null;
+        }
+        ChunkCensus census = censusByChunk.get(chunk);
+        if (census == null || !isFresh(census.timestamp(), nowMillis)) {
+            return null;
+        }
+        return census;
+    }
+
+    public boolean isFresh(long timestampMillis, long nowMillis) {
+        return maxAgeMillis > 0L && timestampMillis > 0L && (nowMillis - timestampMillis) <= maxAgeMillis;
+    }
+
+    /**
+     * Drops the given chunks, e.g. the footprint of a removed city that no other city covers.
+     */
+    public void forget(Collection<City.ChunkPosition> chunks) {
+        if (chunks == null) {
+            return;
+        }
+        for (City.ChunkPosition chunk : chunks) {
+            censusByChunk.remove(chunk);
+        }
+    }
+
+    public void clear() {
+        censusByChunk.clear();
+    }
+
+    public int size() {
+        return censusByChunk.size();
+    }
+}
@@ -0,0 +1,197 @@
+package dev.citysim.stats.scan;
+
+import dev.citysim.city.City;
+import dev.citysim.util.BlockClassifier;
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.data.type.Bed;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Shares one {@link ChunkSnapshot} per chunk between every scan job that currently needs it.
+ * Jobs {@link #retain(City.ChunkPosition) retain} a chunk when they start visiting it and release it once
+ * done; the snapshot is dropped as soon as nobody references it. Bed lookups read each block of a 16-block
+ * section at most once and are then answered for every interested city's clip from that index.
+ */
+public class ChunkSnapshotBroker {
+    private static final long SNAPSHOT_MAX_AGE_MILLIS = 10_000L;
+    private static final int SECTION_BLOCKS = 16 * 16 * 16;
+
+    private final BlockClassifier classifier;
+    private final Map<City.ChunkPosition, Entry> entries = new HashMap<>();
+
+    public ChunkSnapshotBroker(BlockClassifier classifier) {
+        this.classifier = classifier;
+    }
+
+    public void retain(City.ChunkPosition chunk) {
+        if (chunk == null) {
+            return;
+        }
+        entries.computeIfAbsent(chunk, key -> new Entry()).references++;
+    }
+
+    public void release(City.ChunkPosition chunk) {
+        if (chunk == null) {
+            return;
+        }
+        Entry entry = entries.get(chunk);
+        if (entry == null) {
+            return;
+        }
+        entry.references--;
+        if (entry.references <= 0) {
+            entries.remove(chunk);
+        }
+    }
+
+    public boolean hasSnapshot(City.ChunkPosition chunk, long nowMillis) {
+        Entry entry = entries.get(chunk);
+        return entry != null && entry.snapshot != null && !entry.isExpired(nowMillis);
+    }
+
+    /**
+     * Returns the shared snapshot for a retained chunk, capturing it from the (loaded) world chunk
+     * when it is missing or too old. Returns {@code null} for chunks nobody retained.
+     */
+    public ChunkSnapshot snapshot(City.ChunkPosition chunk, World world, long nowMillis) {
+        Entry entry = entries.get(chunk);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.snapshot == null || entry.isExpired(nowMillis)) {
+            if (world == null) {
+                return null;
+            }
+            entry.snapshot = world.getChunkAt(chunk.x(), chunk.z()).getChunkSnapshot(true, true, false);
+            entry.takenAtMillis = nowMillis;
+            entry.sections.clear();
+        }
+        return entry.snapshot;
+    }
+
+    /**
+     * Returns the bed index of one section of a retained chunk's snapshot. The index only knows the clips
+     * scans have covered so far; callers advance it over theirs with {@link SectionBedIndex#advance}.
+     */
+    public SectionBedIndex bedIndex(City.ChunkPosition chunk, int sectionY) {
+        Entry entry = entries.get(chunk);
+        if (entry == null) {
+            return null;
+        }
+        return entry.sections.computeIfAbsent(sectionY, key -> new SectionBedIndex(key, classifier));
+    }
+
+    public int referenceCount(City.ChunkPosition chunk) {
+        Entry entry = entries.get(chunk);
+        return entry != null ? entry.references : 0;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    private static final class Entry {
+        private int references;
+        private ChunkSnapshot snapshot;
+        private long takenAtMillis;
+        private final Map<Integer, SectionBedIndex> sections = new HashMap<>();
+
+        boolean isExpired(long nowMillis) {
+            return nowMillis - takenAtMillis > SNAPSHOT_MAX_AGE_MILLIS;
+        }
+    }
+
+    /**
+     * Bed heads found so far in one chunk section, one bit per packed local position
+     * ({@code y << 8 | z << 4 | x}). Only the blocks of the clips scans asked about are read; each block is
+     * read at most once per snapshot, however many clips overlap it.
+     */
+    public static final class SectionBedIndex {
+        private final int sectionY;
+        private final BlockClassifier classifier;
+        private final BitSet scanned = new BitSet(SECTION_BLOCKS);
+        private final BitSet heads = new BitSet(SECTION_BLOCKS);
+
+        SectionBedIndex(int sectionY, BlockClassifier classifier) {
+            this.sectionY = sectionY;
+            this.classifier = classifier;
+        }
+
+        /**
+         * Visits up to {@code budget} positions of a clip, given in chunk-local x/z and absolute y coordinates,
+         * starting at its {@code from}-th position in y/z/x order. Positions another clip already read are
+         * skipped. Returns how many positions were visited; the clip is covered once the caller's running total
+         * reaches its volume.
+         */
+        public int advance(ChunkSnapshot snapshot, int minX, int maxX, int minY, int maxY, int minZ, int maxZ,
+                           int from, int budget) {
+            int baseY = sectionY << 4;
+            int lowY = Math.max(minY, baseY);
+            int highY = Math.min(maxY, baseY + 15);
+            int width = maxX - minX + 1;
+            int depth = maxZ - minZ + 1;
+            int volume = width * depth * Math.max(0, highY - lowY + 1);
+            int used = 0;
+            for (int position = from; position < volume && used < budget; position++) {
+                used++;
+                int x = minX + position % width;
+                int z = minZ + (position / width) % depth;
+                int y = lowY + position / (width * depth);
+                int packed = ((y - baseY) << 8) | (z << 4) | x;
+                if (scanned.get(packed)) {
+                    continue;
+                }
+                scanned.set(packed);
+                if (y < 0 || y > 255) {
+                    continue;
+                }
+                Material type = snapshot.getBlockType(x, y, z);
+                if (classifier.is(type, BlockClassifier.BED)
+                        && snapshot.getBlockData(x, y, z) instanceof Bed bed
+                        && bed.getPart() == Bed.Part.HEAD) {
+                    heads.set(packed);
+                }
+            }
+            return used;
+        }
+
+        public int sectionY() {
+            return sectionY;
+        }
+
+        BitSet scanned() {
+            return scanned;
+        }
+
+        BitSet heads() {
+            return heads;
+        }
+
+        /**
+         * Counts bed heads inside a clip given in chunk-local x/z and absolute y coordinates. Only exact once
+         * the clip was covered by {@link #advance}.
+         */
+        public int countWithin(int minX, int maxX, int minY, int maxY, int minZ, int maxZ) {
+            int count = 0;
+            int baseY = sectionY << 4;
+            for (int packed = heads.nextSetBit(0); packed >= 0; packed = heads.nextSetBit(packed + 1)) {
+                int x = packed & 15;
+                int z = (packed >> 4) & 15;
+                int y = baseY + (packed >> 8);
+                if (x >= minX && x <= maxX && z >= minZ && z <= maxZ && y >= minY && y <= maxY) {
+                    count++;
+                }
+            }
+            return count;
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package dev.citysim.stats.scan;
 
 import dev.citysim.city.City;
+import dev.citysim.stats.BlockMetricsJob;
 import dev.citysim.stats.ProsperityBreakdown;
 import dev.citysim.stats.StationCountResult;
 
@@ -9,5 +10,17 @@ public interface CityScanCallbacks {
 
     City.BlockScanCache ensureBlockScanCache(City city, boolean forceRefresh);
 
+    /**
+     * Starts an off-thread block metric refresh, or returns {@code null} to fall back to
+     * {@link #ensureBlockScanCache} when the job finalizes.
+     */
+    default BlockMetricsJob prepareBlockMetrics(City city, boolean forceRefresh) {
+        return null;
+    }
+
+    default City.BlockScanCache commitBlockMetrics(City city, BlockMetricsJob job) {
+        return ensureBlockScanCache(city, true);
+    }
+
     ProsperityBreakdown calculateProsperityBreakdown(City city, City.BlockScanCache cache);
 }
@@ -2,12 +2,12 @@ package dev.citysim.stats.scan;
 
 import dev.citysim.city.City;
 import dev.citysim.city.Cuboid;
+import dev.citysim.stats.BlockMetricsJob;
 import dev.citysim.stats.ProsperityBreakdown;
 import dev.citysim.stats.StationCountResult;
 import org.bukkit.Bukkit;
 import org.bukkit.Chunk;
 import org.bukkit.ChunkSnapshot;
-import org.bukkit.Material;
 import org.bukkit.World;
 import org.bukkit.entity.Entity;
 import org.bukkit.entity.Villager;
@@ -19,6 +19,7 @@ import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.List;
+import java.util.Objects;
 import java.util.Set;
 import java.util.HashSet;
 import java.util.UUID;
@@ -74,13 +75,26 @@ public class CityScanJob {
 
     private final CityScanCallbacks callbacks;
     private final ScanDebugManager debugManager;
+    private final ChunkCensusStore censusStore;
+    private final ChunkSnapshotBroker snapshotBroker;
+    private final BedLedger bedLedger;
+    private final BlockMetricsJob metricsJob;
 
     private int entityChunksProcessed = 0;
+    private int censusChunksMerged = 0;
+    private int ledgerChunks = 0;
     private int bedBlocksProcessed = 0;
     private ScanWorkload workloadSnapshot = ScanWorkload.EMPTY;
     private final Set<UUID> countedVillagers = new HashSet<>();
 
-    public CityScanJob(City city, ScanRequest request, CityScanCallbacks callbacks, ScanDebugManager debugManager, boolean synchronous) {
+    public CityScanJob(City city, ScanRequest request, CityScanCallbacks callbacks, ScanDebugManager debugManager,
+                       ChunkCensusStore censusStore, ChunkSnapshotBroker snapshotBroker, boolean synchronous) {
+        this(city, request, callbacks, debugManager, censusStore, snapshotBroker, new BedLedger(), synchronous);
+    }
+
+    public CityScanJob(City city, ScanRequest request, CityScanCallbacks callbacks, ScanDebugManager debugManager,
+                       ChunkCensusStore censusStore, ChunkSnapshotBroker snapshotBroker, BedLedger bedLedger,
+                       boolean synchronous) {
         this.city = city;
         boolean refresh = request != null && request.forceRefresh();
         this.forceRefresh = refresh;
@@ -89,9 +103,13 @@ public class CityScanJob {
         this.context = request != null ? request.context() : null;
         this.callbacks = callbacks;
         this.debugManager = debugManager;
+        this.censusStore = Objects.requireNonNull(censusStore, "censusStore");
+        this.snapshotBroker = Objects.requireNonNull(snapshotBroker, "snapshotBroker");
+        this.bedLedger = bedLedger != null ? bedLedger : new BedLedger();
         this.synchronous = synchronous;
         this.entityChunks = buildChunkList(city);
         this.bedTasks = buildBedTasks(city);
+        this.metricsJob = synchronous || callbacks == null ? null : callbacks.prepareBlockMetrics(city, refresh);
     }
 
     public boolean process(int chunkLimit, int bedLimit) {
@@ -111,9 +129,15 @@ public class CityScanJob {
             if (!processBedStage(bedLimit)) {
                 return false;
             }
-            stage = Stage.BLOCK_CACHE;
+            stage = Stage.BLOCK_METRICS;
             releaseAllLoadedChunks();
         }
+        if (stage == Stage.BLOCK_METRICS) {
+            if (!processMetricsStage(chunkLimit)) {
+                return false;
+            }
+            stage = Stage.BLOCK_CACHE;
+        }
         if (stage == Stage.BLOCK_CACHE) {
             releaseAllLoadedChunks();
             finalizeCity();
@@ -123,7 +147,7 @@ public class CityScanJob {
                     entityChunksProcessed,
                     bedBlocksProcessed
             );
-            if (debugManager.isEnabled()) {
+            if (debugManager.isActive()) {
                 debugManager.logJobCompleted(this);
             }
         }
@@ -131,7 +155,7 @@ public class CityScanJob {
     }
 
     private void logStartIfNeeded() {
-        if (!startLogged && debugManager.isEnabled()) {
+        if (!startLogged && debugManager.isActive()) {
             startLogged = true;
             debugManager.logJobStarted(this);
         }
@@ -150,9 +174,19 @@ public class CityScanJob {
                 processed++;
                 continue;
             }
+            City.ChunkPosition chunkPos = new City.ChunkPosition(coord.world(), coord.x(), coord.z());
             boolean available = world.isChunkLoaded(coord.x(), coord.z());
-            if (!available && forceChunkLoad) {
-                available = ensureChunkAvailable(world, coord);
+            if (!available) {
+                ChunkCensus census = censusStore.freshCensus(chunkPos, System.currentTimeMillis());
+                if (census != null) {
+                    mergeCensus(census);
+                    censusChunksMerged++;
+                    processed++;
+                    continue;
+                }
+                if (forceChunkLoad) {
+                    available = ensureChunkAvailable(world, coord);
+                }
             }
             if (!available) {
                 processed++;
@@ -164,6 +198,7 @@ public class CityScanJob {
                 continue;
             }
             Entity[] entities = chunk.getEntities();
+            ChunkCensus.Tally chunkTally = new ChunkCensus.Tally();
             for (Entity entity : entities) {
                 if (!(entity instanceof Villager villager)) {
                     continue;
@@ -171,26 +206,10 @@ public class CityScanJob {
                 if (!villager.isValid()) {
                     continue;
                 }
-                UUID uuid = villager.getUniqueId();
-                if (uuid != null && !countedVillagers.add(uuid)) {
-                    continue;
-                }
-                Profession profession = villager.getProfession();
-                boolean adult = villager.isAdult();
-                if (adult) {
-                    adultPopulation++;
-                    if (profession == Profession.NONE) {
-                        adultNoneCount++;
-                    } else if (profession == Profession.NITWIT) {
-                        adultNitwitCount++;
-                    }
-                }
-                population++;
-                if (adult && profession != Profession.NONE && profession != Profession.NITWIT) {
-                    employedAdults++;
-                    professionHistogram.merge(profession, 1, Integer::sum);
-                }
+                chunkTally.add(villager);
+                countVillager(villager.getUniqueId(), villager.getProfession(), villager.isAdult());
             }
+            censusStore.record(chunkPos, chunkTally.build(System.currentTimeMillis()));
             processed++;
             entityChunksProcessed++;
         }
@@ -201,6 +220,35 @@ public class CityScanJob {
         return complete;
     }
 
+    /**
+     * Merges a last-known census; residents already counted by this scan, e.g. because they walked into a
+     * loaded chunk, are skipped.
+     */
+    private void mergeCensus(ChunkCensus census) {
+        for (ChunkCensus.Resident resident : census.residents()) {
+            countVillager(resident.id(), resident.profession(), resident.adult());
+        }
+    }
+
+    private void countVillager(UUID uuid, Profession profession, boolean adult) {
+        if (uuid != null && !countedVillagers.add(uuid)) {
+            return;
+        }
+        if (adult) {
+            adultPopulation++;
+            if (profession == Profession.NONE) {
+                adultNoneCount++;
+            } else if (profession == Profession.NITWIT) {
+                adultNitwitCount++;
+            }
+        }
+        population++;
+        if (adult && profession != Profession.NONE && profession != Profession.NITWIT) {
+            employedAdults++;
+            professionHistogram.merge(profession, 1, Integer::sum);
+        }
+    }
+
     private boolean processBedStage(int bedLimit) {
         if (bedTasks.isEmpty()) {
             beds = bedHalfCount / 2;
@@ -247,50 +295,118 @@ public class CityScanJob {
             finalizeChunkSegment(task, false);
             return 0;
         }
-        ChunkCoord coord = new ChunkCoord(task.world(), task.chunkX(), task.chunkZ());
-        if (!ensureChunkAvailable(world, coord)) {
+        long now = System.currentTimeMillis();
+        City.ChunkPosition chunkPos = task.chunkPosition();
+        retainSnapshot(task);
+        if (!snapshotBroker.hasSnapshot(chunkPos, now)) {
+            ChunkCoord coord = new ChunkCoord(task.world(), task.chunkX(), task.chunkZ());
+            ChunkTracker tracker = task.tracker();
+            boolean reuseLastKnown = tracker != null
+                    && tracker.lastKnown() != null
+                    && censusStore.isFresh(tracker.lastKnown().timestamp, now)
+                    && !world.isChunkLoaded(coord.x(), coord.z());
+            if (reuseLastKnown || !ensureChunkAvailable(world, coord)) {
+                task.markComplete();
+                finalizeChunkSegment(task, false);
+                return 0;
+            }
+        }
+        ChunkSnapshot snapshot = snapshotBroker.snapshot(chunkPos, world, now);
+        ChunkSnapshotBroker.SectionBedIndex index = snapshotBroker.bedIndex(chunkPos, task.sectionY());
+        if (snapshot == null || index == null) {
             task.markComplete();
             finalizeChunkSegment(task, false);
             return 0;
         }
-        ChunkTracker tracker = task.tracker();
-        ChunkSnapshot snapshot = tracker != null ? tracker.snapshot() : null;
-        if (snapshot == null) {
-            Chunk chunk = world.getChunkAt(task.chunkX(), task.chunkZ());
-            snapshot = chunk.getChunkSnapshot(true, true, false);
-            if (tracker != null) {
-                tracker.setSnapshot(snapshot);
+        task.useIndex(index);
+        int used = 0;
+        if (!task.isCovered()) {
+            used = index.advance(snapshot, task.minX(), task.maxX(), task.minY(), task.maxY(), task.minZ(), task.maxZ(),
+                    task.cursor(), budget);
+            task.advance(used);
+            bedBlocksProcessed += used;
+        }
+        if (task.isCovered()) {
+            offerMetricsSnapshot(chunkPos, world, snapshot);
+            bedLedger.seed(chunkPos, index, now);
+            int halves = 2 * index.countWithin(task.minX(), task.maxX(), task.minY(), task.maxY(), task.minZ(), task.maxZ());
+            if (halves > 0) {
+                bedHalfCount += halves;
+                if (task.tracker() != null) {
+                    task.tracker().addBedHalves(halves);
+                }
+                residentialBedChunks.add(chunkPos);
             }
+            task.markComplete();
+            finalizeChunkSegment(task, true);
         }
-        int used = 0;
-        while (!task.isComplete() && used < budget) {
-            int localX = task.nextX() & 15;
-            int localZ = task.nextZ() & 15;
-            int y = task.nextY();
-            if (y < 0 || y > 255) {
-                task.recordProgress();
-                task.advance();
-                used++;
-                bedBlocksProcessed++;
+        return used;
+    }
+
+    /**
+     * Takes the job's reference on the chunk's shared snapshot when its first bed task starts, so only the
+     * chunks being scanned hold a snapshot.
+     */
+    private void retainSnapshot(BedChunkTask task) {
+        ChunkTracker tracker = task.tracker();
+        if (tracker != null && !tracker.retained) {
+            tracker.retained = true;
+            snapshotBroker.retain(task.chunkPosition());
+        }
+    }
+
+    private void offerMetricsSnapshot(City.ChunkPosition chunkPos, World world, ChunkSnapshot snapshot) {
+        if (metricsJob != null && metricsJob.needs(chunkPos)) {
+            metricsJob.submit(chunkPos, snapshot, world.getMinHeight(), world.getMaxHeight());
+        }
+    }
+
+    /**
+     * Hands the chunks the bed stage did not capture to the metrics job, then waits for off-thread
+     * sampling to finish. Unloaded chunks reuse a fresh last-known sample and are only loaded once it ages out;
+     * capturing stops early once the sampled chunks pin the metrics down to the configured tolerance.
+     */
+    private boolean processMetricsStage(int chunkLimit) {
+        if (metricsJob == null) {
+            return true;
+        }
+        int limit = Math.max(1, chunkLimit);
+        int captured = 0;
+        City.ChunkPosition chunkPos;
+        while (captured < limit && (chunkPos = metricsJob.nextPending()) != null) {
+            if (metricsJob.hasConverged()) {
+                metricsJob.stopSampling();
+                break;
+            }
+            World world = Bukkit.getWorld(chunkPos.world());
+            if (world == null) {
+                metricsJob.skip(chunkPos);
                 continue;
             }
-            Material type = snapshot.getBlockType(localX, y, localZ);
-            if (isBed(type)) {
-                bedHalfCount++;
-                if (tracker != null) {
-                    tracker.addBedHalf();
+            long now = System.currentTimeMillis();
+            if (!snapshotBroker.hasSnapshot(chunkPos, now) && !world.isChunkLoaded(chunkPos.x(), chunkPos.z())) {
+                if (metricsJob.reuseLastKnown(chunkPos, now)) {
+                    continue;
+                }
+                ChunkCoord coord = new ChunkCoord(chunkPos.world(), chunkPos.x(), chunkPos.z());
+                if (!chunksLoadedByJob.contains(coord)) {
+                    if (!tryLoadChunk(world, coord)) {
+                        metricsJob.skip(chunkPos);
+                        continue;
+                    }
+                    chunksLoadedByJob.add(coord);
                 }
-                residentialBedChunks.add(task.chunkPosition());
             }
-            used++;
-            bedBlocksProcessed++;
-            task.recordProgress();
-            task.advance();
-        }
-        if (task.isComplete()) {
-            finalizeChunkSegment(task, true);
+            snapshotBroker.retain(chunkPos);
+            try {
+                metricsJob.submit(chunkPos, snapshotBroker.snapshot(chunkPos, world, now),
+                        world.getMinHeight(), world.getMaxHeight());
+            } finally {
+                snapshotBroker.release(chunkPos);
+            }
+            captured++;
         }
-        return used;
+        return metricsJob.isComplete();
     }
 
     private void finalizeChunkSegment(BedChunkTask task, boolean scanned) {
@@ -298,21 +414,49 @@ public class CityScanJob {
         if (tracker == null) {
             return;
         }
+        if (!scanned) {
+            tracker.markUnavailable();
+        }
         tracker.segmentCompleted();
         if (tracker.remainingSegments <= 0) {
             long now = System.currentTimeMillis();
-            city.putBedSnapshot(task.chunkPosition(), tracker.bedHalves, now);
-            if (tracker.bedHalves > 0) {
-                residentialBedChunks.add(task.chunkPosition());
+            if (tracker.unavailable) {
+                applyLastKnownBeds(task.chunkPosition(), tracker, now);
             } else {
-                residentialBedChunks.remove(task.chunkPosition());
+                city.putBedSnapshot(task.chunkPosition(), tracker.bedHalves, now);
+                if (tracker.bedHalves > 0) {
+                    residentialBedChunks.add(task.chunkPosition());
+                } else {
+                    residentialBedChunks.remove(task.chunkPosition());
+                }
             }
             chunkTrackers.remove(task.chunkPosition());
-            tracker.clearSnapshot();
+            if (tracker.retained) {
+                snapshotBroker.release(task.chunkPosition());
+            }
         }
         completedBedWorkUnits++;
     }
 
+    private void applyLastKnownBeds(City.ChunkPosition chunkPos, ChunkTracker tracker, long now) {
+        bedHalfCount -= tracker.bedHalves;
+        City.BedSnapshot lastKnown = tracker.lastKnown();
+        if (lastKnown == null || !censusStore.isFresh(lastKnown.timestamp, now)) {
+            // Nothing trustworthy to fall back to; leave the chunk uncached so the next scan retries it.
+            city.bedSnapshotMap().remove(chunkPos);
+            residentialBedChunks.remove(chunkPos);
+            return;
+        }
+        bedHalfCount += lastKnown.bedHalves;
+        city.putBedSnapshot(chunkPos, lastKnown.bedHalves, lastKnown.timestamp);
+        if (lastKnown.bedHalves > 0) {
+            residentialBedChunks.add(chunkPos);
+        } else {
+            residentialBedChunks.remove(chunkPos);
+        }
+        censusChunksMerged++;
+    }
+
     private void finalizeCity() {
         int unemployedAdults = Math.max(0, adultPopulation - employedAdults);
         city.population = population;
@@ -327,7 +471,9 @@ public class CityScanJob {
 
         trainCartsStationCount = callbacks.refreshStationCount(city);
 
-        City.BlockScanCache metrics = callbacks.ensureBlockScanCache(city, forceRefresh);
+        City.BlockScanCache metrics = metricsJob != null
+                ? callbacks.commitBlockMetrics(city, metricsJob)
+                : callbacks.ensureBlockScanCache(city, forceRefresh);
         result = callbacks.calculateProsperityBreakdown(city, metrics);
         city.prosperityBreakdown = result;
         city.prosperity = result.total;
@@ -494,6 +640,19 @@ public class CityScanJob {
     public int deferredBedChunks() {
         return deferredDirtyChunks;
     }
+
+    public int censusChunksMerged() {
+        return censusChunksMerged;
+    }
+
+    public int ledgerChunks() {
+        return ledgerChunks;
+    }
+
+    public BlockMetricsJob metricsJob() {
+        return metricsJob;
+    }
+
     public static final class ScanWorkload {
         public static final ScanWorkload EMPTY = new ScanWorkload(0L, 0, 0);
         private final long durationMillis;
@@ -525,6 +684,7 @@ public class CityScanJob {
 
     public void cancel() {
         releaseAllLoadedChunks();
+        releaseSnapshots();
         cancelled = true;
         countedVillagers.clear();
     }
@@ -624,6 +784,15 @@ public class CityScanJob {
         }
     }
 
+    private void releaseSnapshots() {
+        for (Map.Entry<City.ChunkPosition, ChunkTracker> entry : chunkTrackers.entrySet()) {
+            if (entry.getValue().retained) {
+                snapshotBroker.release(entry.getKey());
+            }
+        }
+        chunkTrackers.clear();
+    }
+
     private void releaseAllLoadedChunks() {
         if (chunksLoadedByJob.isEmpty()) {
             return;
@@ -656,6 +825,41 @@ public class CityScanJob {
         return new ArrayList<>(coords);
     }
 
+    /**
+     * Splits segments into slabs that follow chunk sections, so overlapping cities share one bed index
+     * per section and the ledger can answer per section.
+     */
+    private static List<BedChunkSegment> sectionSlabs(List<BedChunkSegment> segments) {
+        List<BedChunkSegment> slabs = new ArrayList<>();
+        for (BedChunkSegment segment : segments) {
+            int slabMinY = segment.minY();
+            while (slabMinY <= segment.maxY()) {
+                int slabMaxY = Math.min(segment.maxY(), ((slabMinY >> 4) << 4) + 15);
+                slabs.add(new BedChunkSegment(
+                        segment.cuboidIndex(),
+                        segment.minX(),
+                        segment.maxX(),
+                        slabMinY,
+                        slabMaxY,
+                        segment.minZ(),
+                        segment.maxZ()
+                ));
+                slabMinY = slabMaxY + 1;
+            }
+        }
+        return slabs;
+    }
+
+    private boolean isCoveredByLedger(City.ChunkPosition chunkPos, List<BedChunkSegment> slabs, long now) {
+        for (BedChunkSegment slab : slabs) {
+            if (!bedLedger.covers(chunkPos, slab.minY() >> 4, slab.minX() & 15, slab.maxX() & 15,
+                    slab.minY(), slab.maxY(), slab.minZ() & 15, slab.maxZ() & 15, now)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     private List<BedChunkTask> buildBedTasks(City city) {
         List<BedChunkTask> tasks = new ArrayList<>();
         if (city == null || city.cuboids == null || city.cuboids.isEmpty()) {
@@ -712,6 +916,24 @@ public class CityScanJob {
                 completedBedWorkUnits++;
                 continue;
             }
+            List<BedChunkSegment> slabs = sectionSlabs(entry.getValue());
+            if (!forceRefresh && isCoveredByLedger(chunkPos, slabs, now)) {
+                int halves = 0;
+                for (BedChunkSegment slab : slabs) {
+                    halves += 2 * bedLedger.countWithin(chunkPos, slab.minY() >> 4,
+                            slab.minX() & 15, slab.maxX() & 15, slab.minY(), slab.maxY(), slab.minZ() & 15, slab.maxZ() & 15);
+                }
+                city.putBedSnapshot(chunkPos, halves, now);
+                cachedChunks.add(chunkPos);
+                bedHalfCount += halves;
+                if (halves > 0) {
+                    residentialBedChunks.add(chunkPos);
+                }
+                ledgerChunks++;
+                totalBedWorkUnits++;
+                completedBedWorkUnits++;
+                continue;
+            }
             if (!synchronous && !forceRefresh && snapshot != null && snapshot.dirty) {
                 if (expiredChunksScheduled >= MAX_EXPIRED_CHUNKS_PER_JOB) {
                     deferredDirtyChunks++;
@@ -728,26 +950,16 @@ public class CityScanJob {
                 expiredChunksScheduled++;
                 city.bedSnapshotMap().remove(chunkPos);
             }
-            List<BedChunkSegment> segments = entry.getValue();
-            ChunkTracker tracker = new ChunkTracker(segments.size());
+            List<BedChunkTask> chunkTasks = new ArrayList<>();
+            for (BedChunkSegment slab : slabs) {
+                chunkTasks.add(new BedChunkTask(chunkPos, key.world(), key.x(), key.z(), slab.minY() >> 4, slab));
+            }
+            ChunkTracker tracker = new ChunkTracker(chunkTasks.size(), snapshot);
             chunkTrackers.put(chunkPos, tracker);
-            for (BedChunkSegment segment : segments) {
-                int slabMinY = segment.minY();
-                while (slabMinY <= segment.maxY()) {
-                    int slabMaxY = Math.min(segment.maxY(), slabMinY + 15);
-                    BedChunkSegment slab = new BedChunkSegment(
-                            segment.cuboidIndex(),
-                            segment.minX(),
-                            segment.maxX(),
-                            slabMinY,
-                            slabMaxY,
-                            segment.minZ(),
-                            segment.maxZ()
-                    );
-                    tasks.add(new BedChunkTask(chunkPos, key.world(), key.x(), key.z(), slab, tracker));
-                    totalBedWorkUnits++;
-                    slabMinY = slabMaxY + 1;
-                }
+            for (BedChunkTask task : chunkTasks) {
+                task.attach(tracker);
+                tasks.add(task);
+                totalBedWorkUnits++;
             }
         }
         return tasks;
@@ -761,7 +973,7 @@ public class CityScanJob {
         return rerunRequested ? new RerunRequest(true, rerunForceRefresh, rerunForceChunkLoad, rerunReason, rerunContext) : new RerunRequest(false, false, false, null, null);
     }
 
-    private enum Stage { ENTITY_SCAN, BEDS, BLOCK_CACHE, COMPLETE }
+    private enum Stage { ENTITY_SCAN, BEDS, BLOCK_METRICS, BLOCK_CACHE, COMPLETE }
 
     public record ScanProgress(int remainingEntityChunks, long remainingBedBlocks, long totalWorkUnits) {
         public boolean hasRemainingWork() {
@@ -786,31 +998,30 @@ public class CityScanJob {
     private static final class ChunkTracker {
         private int remainingSegments;
         private int bedHalves;
-        private ChunkSnapshot snapshot;
+        private final City.BedSnapshot lastKnown;
+        private boolean unavailable;
+        private boolean retained;
 
-        ChunkTracker(int segments) {
+        ChunkTracker(int segments, City.BedSnapshot lastKnown) {
             this.remainingSegments = Math.max(1, segments);
             this.bedHalves = 0;
+            this.lastKnown = lastKnown;
         }
 
-        void addBedHalf() {
-            bedHalves++;
+        City.BedSnapshot lastKnown() {
+            return lastKnown;
         }
 
-        void segmentCompleted() {
-            remainingSegments = Math.max(0, remainingSegments - 1);
+        void markUnavailable() {
+            unavailable = true;
         }
 
-        ChunkSnapshot snapshot() {
-            return snapshot;
+        void addBedHalves(int halves) {
+            bedHalves += Math.max(0, halves);
         }
 
-        void setSnapshot(ChunkSnapshot snapshot) {
-            this.snapshot = snapshot;
-        }
-
-        void clearSnapshot() {
-            this.snapshot = null;
+        void segmentCompleted() {
+            remainingSegments = Math.max(0, remainingSegments - 1);
         }
     }
 
@@ -819,41 +1030,41 @@ public class CityScanJob {
         private final String world;
         private final int chunkX;
         private final int chunkZ;
+        private final int sectionY;
         private final int minX;
         private final int maxX;
         private final int minY;
         private final int maxY;
         private final int minZ;
         private final int maxZ;
-        private final ChunkTracker tracker;
         private final long totalBlocks;
-        private int nextX;
-        private int nextY;
-        private int nextZ;
-        private long processedBlocks = 0L;
+        private ChunkTracker tracker;
+        private ChunkSnapshotBroker.SectionBedIndex index;
+        private long cursor = 0L;
         private boolean complete = false;
 
-        BedChunkTask(City.ChunkPosition chunkPosition, String world, int chunkX, int chunkZ, BedChunkSegment segment, ChunkTracker tracker) {
+        BedChunkTask(City.ChunkPosition chunkPosition, String world, int chunkX, int chunkZ, int sectionY, BedChunkSegment segment) {
             this.chunkPosition = chunkPosition;
             this.world = world;
             this.chunkX = chunkX;
             this.chunkZ = chunkZ;
-            this.minX = segment.minX();
-            this.maxX = segment.maxX();
+            this.sectionY = sectionY;
+            this.minX = segment.minX() & 15;
+            this.maxX = segment.maxX() & 15;
             this.minY = segment.minY();
             this.maxY = segment.maxY();
-            this.minZ = segment.minZ();
-            this.maxZ = segment.maxZ();
-            this.tracker = tracker;
-            this.nextX = minX;
-            this.nextY = minY;
-            this.nextZ = minZ;
+            this.minZ = segment.minZ() & 15;
+            this.maxZ = segment.maxZ() & 15;
             long width = (long) (maxX - minX + 1);
             long height = (long) (maxY - minY + 1);
             long depth = (long) (maxZ - minZ + 1);
             this.totalBlocks = Math.max(0L, width * height * depth);
         }
 
+        void attach(ChunkTracker tracker) {
+            this.tracker = tracker;
+        }
+
         City.ChunkPosition chunkPosition() {
             return chunkPosition;
         }
@@ -870,16 +1081,32 @@ public class CityScanJob {
             return chunkZ;
         }
 
-        int nextX() {
-            return nextX;
+        int sectionY() {
+            return sectionY;
+        }
+
+        int minX() {
+            return minX;
+        }
+
+        int maxX() {
+            return maxX;
+        }
+
+        int minY() {
+            return minY;
         }
 
-        int nextY() {
-            return nextY;
+        int maxY() {
+            return maxY;
         }
 
-        int nextZ() {
-            return nextZ;
+        int minZ() {
+            return minZ;
+        }
+
+        int maxZ() {
+            return maxZ;
         }
 
         boolean isComplete() {
@@ -887,59 +1114,42 @@ public class CityScanJob {
         }
 
         long remainingBlocks() {
-            if (complete) {
-                return 0L;
-            }
-            long remaining = totalBlocks - processedBlocks;
-            return remaining < 0L ? 0L : remaining;
-        }
-
-        void advance() {
-            if (complete) {
-                return;
-            }
-            nextY++;
-            if (nextY > maxY) {
-                nextY = minY;
-                nextZ++;
-                if (nextZ > maxZ) {
-                    nextZ = minZ;
-                    nextX++;
-                    if (nextX > maxX) {
-                        complete = true;
-                    }
-                }
+            return complete ? 0L : totalBlocks - cursor;
+        }
+
+        int cursor() {
+            return (int) cursor;
+        }
+
+        /**
+         * Starts the clip over when the broker re-captured the snapshot and handed out a fresh index.
+         */
+        void useIndex(ChunkSnapshotBroker.SectionBedIndex current) {
+            if (index != current) {
+                index = current;
+                cursor = 0L;
             }
         }
 
+        void advance(int positions) {
+            cursor = Math.min(totalBlocks, cursor + positions);
+        }
+
+        boolean isCovered() {
+            return cursor >= totalBlocks;
+        }
+
         void markComplete() {
             complete = true;
-            processedBlocks = totalBlocks;
         }
 
         ChunkTracker tracker() {
             return tracker;
         }
-
-        void recordProgress() {
-            if (complete) {
-                processedBlocks = totalBlocks;
-                return;
-            }
-            processedBlocks++;
-        }
     }
 
     private record ChunkCoord(String world, int x, int z) {
     }
-
-    private static boolean isBed(Material type) {
-        return switch (type) {
-            case WHITE_BED, ORANGE_BED, MAGENTA_BED, LIGHT_BLUE_BED, YELLOW_BED, LIME_BED, PINK_BED,
-                    GRAY_BED, LIGHT_GRAY_BED, CYAN_BED, PURPLE_BED, BLUE_BED, BROWN_BED, GREEN_BED, RED_BED, BLACK_BED -> true;
-            default -> false;
-        };
-    }
 }
 
     
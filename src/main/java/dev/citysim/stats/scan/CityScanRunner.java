@@ -2,21 +2,30 @@ package dev.citysim.stats.scan;
 
 import dev.citysim.city.City;
 import dev.citysim.stats.ProsperityBreakdown;
+import dev.citysim.util.BlockClassifier;
 
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 
 public class CityScanRunner {
     private final Map<String, CityScanJob> activeCityJobs = new LinkedHashMap<>();
     private final CityScanCallbacks callbacks;
     private final ScanDebugManager debugManager;
+    private final ChunkCensusStore censusStore;
+    private final BedLedger bedLedger;
+    private final ChunkSnapshotBroker snapshotBroker;
     private long lastDebugSummaryMillis = 0L;
 
-    public CityScanRunner(CityScanCallbacks callbacks, ScanDebugManager debugManager) {
+    public CityScanRunner(CityScanCallbacks callbacks, ScanDebugManager debugManager, ChunkCensusStore censusStore,
+                          BedLedger bedLedger, BlockClassifier classifier) {
         this.callbacks = callbacks;
         this.debugManager = debugManager;
+        this.censusStore = Objects.requireNonNull(censusStore, "censusStore");
+        this.bedLedger = bedLedger != null ? bedLedger : new BedLedger();
+        this.snapshotBroker = new ChunkSnapshotBroker(classifier);
     }
 
     public boolean hasActiveJob(String cityId) {
@@ -33,7 +42,7 @@ public class CityScanRunner {
             existing.requestRequeue(effective.forceRefresh(), effective.forceChunkLoad(), effective.reason(), effective.context());
             return existing;
         }
-        CityScanJob job = new CityScanJob(city, effective, callbacks, debugManager, false);
+        CityScanJob job = new CityScanJob(city, effective, callbacks, debugManager, censusStore, snapshotBroker, bedLedger, false);
         activeCityJobs.put(city.id, job);
         return job;
     }
@@ -56,6 +65,7 @@ public class CityScanRunner {
             job.cancel();
         }
         activeCityJobs.clear();
+        snapshotBroker.clear();
     }
 
     public List<CompletedJob> progressJobs(int jobsToProcess, int maxEntityChunks, int maxBedBlocks) {
@@ -162,7 +172,7 @@ public class CityScanRunner {
                 activeCityJobs.put(entry.getKey(), entry.getValue());
             }
         }
-        if (debugManager.isEnabled()) {
+        if (debugManager.isActive()) {
             long now = System.currentTimeMillis();
             if (now - lastDebugSummaryMillis >= 1000L) {
                 java.util.List<ScanDebugManager.JobDebugSummary> summaries = new java.util.ArrayList<>();
@@ -196,7 +206,7 @@ public class CityScanRunner {
     }
 
     public ProsperityBreakdown runSynchronously(City city, ScanRequest request) {
-        CityScanJob job = new CityScanJob(city, request, callbacks, debugManager, true);
+        CityScanJob job = new CityScanJob(city, request, callbacks, debugManager, censusStore, snapshotBroker, bedLedger, true);
         while (!job.process(Integer.MAX_VALUE, Integer.MAX_VALUE)) {
             // Keep processing until the scan completes synchronously
         }
@@ -1,6 +1,10 @@
 package dev.citysim.stats.scan;
 
 import dev.citysim.city.City;
+import dev.citysim.stats.BlockMetricsJob;
+import dev.citysim.trace.TraceCategory;
+import dev.citysim.trace.TraceType;
+import dev.citysim.trace.Tracer;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.TextComponent;
 import net.kyori.adventure.text.format.NamedTextColor;
@@ -10,12 +14,18 @@ import org.bukkit.entity.Player;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.UUID;
 
 public class ScanDebugManager {
     private final Set<UUID> watchers = new HashSet<>();
     private final DateTimeFormatter timestampFormat = DateTimeFormatter.ofPattern("HH:mm:ss.SSS");
+    private volatile Tracer tracer = new Tracer();
+
+    public void setTracer(Tracer tracer) {
+        this.tracer = tracer != null ? tracer : new Tracer();
+    }
 
     public boolean toggle(Player player) {
         UUID id = player.getUniqueId();
@@ -30,7 +40,22 @@ public class ScanDebugManager {
         return !watchers.isEmpty();
     }
 
+    /**
+     * True while a player watches scans or scan tracing is on; callers skip collecting debug data otherwise.
+     */
+    public boolean isActive() {
+        return !watchers.isEmpty() || tracer.isEnabled(TraceCategory.SCAN);
+    }
+
     public void logJobStarted(CityScanJob job) {
+        Tracer tracer = this.tracer;
+        if (tracer.isEnabled(TraceCategory.SCAN)) {
+            tracer.record(TraceType.SCAN_STARTED, cityId(job.city()), describeReason(job), null,
+                    job.totalEntityChunks(), job.cuboidCount(), 0L, 0L, null);
+        }
+        if (watchers.isEmpty()) {
+            return;
+        }
         broadcast(Component.text()
                 .append(Component.text("[" + timestamp() + "] ", NamedTextColor.DARK_GRAY))
                 .append(Component.text(startMessage(job), NamedTextColor.GRAY))
@@ -38,13 +63,32 @@ public class ScanDebugManager {
     }
 
     public void logJobCompleted(CityScanJob job) {
+        Tracer tracer = this.tracer;
+        if (tracer.isEnabled(TraceCategory.SCAN)) {
+            tracer.record(TraceType.SCAN_COMPLETED, cityId(job.city()), describeReason(job), null,
+                    Math.max(0L, System.currentTimeMillis() - job.startedAtMillis()),
+                    job.populationCount(), job.employedCount(), job.bedCount(), null);
+        }
+        if (watchers.isEmpty()) {
+            return;
+        }
         broadcast(Component.text()
                 .append(Component.text("[" + timestamp() + "] ", NamedTextColor.DARK_GRAY))
                 .append(Component.text(completeMessage(job), NamedTextColor.GRAY))
                 .build());
     }
 
-    public void logTickSummary(int processedJobs, int completedJobs, java.util.List<JobDebugSummary> jobs) {
+    public void logTickSummary(int processedJobs, int completedJobs, List<JobDebugSummary> jobs) {
+        Tracer tracer = this.tracer;
+        if (tracer.isEnabled(TraceCategory.SCAN)) {
+            tracer.record(TraceType.SCAN_TICK, null, null, null, processedJobs, completedJobs, jobs.size(), 0L, null);
+            for (JobDebugSummary job : jobs) {
+                CityScanJob.ScanProgress progress = job.progress();
+                tracer.record(TraceType.SCAN_PROGRESS, cityId(job.city()), null, null,
+                        Math.max(0L, job.completedBedUnits()), Math.max(0L, job.totalBedUnits()),
+                        progress != null ? Math.max(0, progress.remainingEntityChunks()) : 0, job.deferredChunks(), null);
+            }
+        }
         if (watchers.isEmpty()) {
             return;
         }
@@ -115,6 +159,21 @@ public class ScanDebugManager {
                 job.bedCount(),
                 job.resultingProsperity()
         ));
+        if (job.censusChunksMerged() > 0) {
+            message.append(", censusChunks=").append(job.censusChunksMerged());
+        }
+        if (job.ledgerChunks() > 0) {
+            message.append(", ledgerChunks=").append(job.ledgerChunks());
+        }
+        BlockMetricsJob metrics = job.metricsJob();
+        if (metrics != null) {
+            message.append(String.format(
+                    ", metricChunks=%d/%d (reused %d)",
+                    metrics.sampledChunks(),
+                    metrics.chunks().size(),
+                    metrics.reusedChunks()
+            ));
+        }
         if (job.trainCartsStationCount() != null) {
             message.append(String.format(
                     ", TrainCarts stations=%d (Signs: %d)",
@@ -134,6 +193,10 @@ public class ScanDebugManager {
         return name + " (" + id + ")";
     }
 
+    private String cityId(City city) {
+        return city != null && city.id != null ? city.id : "?";
+    }
+
     private String describeReason(CityScanJob job) {
         String reason = job.reasonDescription();
         if (reason != null && !reason.isBlank()) {
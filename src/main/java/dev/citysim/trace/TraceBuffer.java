@@ -0,0 +1,64 @@
+package dev.citysim.trace;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Fixed-size lock-free ring of events. Writers claim a sequence number and overwrite the oldest slot; readers keep
+ * only entries whose sequence matches the slot they expect, so a concurrently overwritten slot is skipped rather
+ * than reported out of order.
+ */
+final class TraceBuffer {
+    private final AtomicReferenceArray<TraceEvent> slots;
+    private final AtomicLong cursor = new AtomicLong();
+    private final int mask;
+
+    TraceBuffer(int capacity) {
+        int size = 2;
+        while (size < capacity) {
+            size <<= 1;
+        }
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    long claim() {
+        return cursor.getAndIncrement();
+    }
+
+    void publish(TraceEvent event) {
+        slots.set((int) (event.sequence() & mask), event);
+    }
+
+    int capacity() {
+        return mask + 1;
+    }
+
+    long written() {
+        return cursor.get();
+    }
+
+    /**
+     * Up to {@code limit} most recent events, oldest first.
+     */
+    List<TraceEvent> recent(int limit) {
+        long end = cursor.get();
+        long start = Math.max(0L, end - Math.min(capacity(), Math.max(0, limit)));
+        List<TraceEvent> events = new ArrayList<>((int) (end - start));
+        for (long sequence = start; sequence < end; sequence++) {
+            TraceEvent event = slots.get((int) (sequence & mask));
+            if (event != null && event.sequence() == sequence) {
+                events.add(event);
+            }
+        }
+        return events;
+    }
+
+    void clear() {
+        for (int i = 0; i < slots.length(); i++) {
+            slots.set(i, null);
+        }
+    }
+}
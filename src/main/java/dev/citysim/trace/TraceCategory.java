@@ -0,0 +1,36 @@
+package dev.citysim.trace;
+
+import java.util.Locale;
+
+public enum TraceCategory {
+    MIGRATION("migration"),
+    SCAN("scans"),
+    PLATFORM("platforms");
+
+    private final String key;
+
+    TraceCategory(String key) {
+        this.key = key;
+    }
+
+    public String key() {
+        return key;
+    }
+
+    int bit() {
+        return 1 << ordinal();
+    }
+
+    public static TraceCategory fromKey(String key) {
+        if (key == null) {
+            return null;
+        }
+        String normalized = key.toLowerCase(Locale.ROOT);
+        for (TraceCategory category : values()) {
+            if (category.key.equals(normalized)) {
+                return category;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,21 @@
+package dev.citysim.trace;
+
+/**
+ * One captured event. Field meaning depends on the {@link TraceType}; {@code sequence} is -1 for events that were
+ * formatted for a watcher without being buffered.
+ */
+public record TraceEvent(long sequence, long timeMillis, TraceType type, String subject, String tag, String world,
+                         long a, long b, long c, long d, Object detail) {
+
+    /** Placeholder for a coordinate that was not resolved. */
+    public static final long UNKNOWN = Long.MIN_VALUE;
+
+    public static TraceEvent unbuffered(TraceType type, String subject, String tag, String world,
+                                        long a, long b, long c, long d, Object detail) {
+        return new TraceEvent(-1L, System.currentTimeMillis(), type, subject, tag, world, a, b, c, d, detail);
+    }
+
+    public String message() {
+        return type.format(this);
+    }
+}
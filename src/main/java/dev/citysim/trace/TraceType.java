@@ -0,0 +1,89 @@
+package dev.citysim.trace;
+
+import java.util.function.Function;
+
+/**
+ * Event types with a fixed field layout. Callers pass raw values; the message is only formatted when an event is
+ * dumped or shown to a debug watcher.
+ */
+public enum TraceType {
+    /** a = pairs considered, b = moves planned. */
+    MIGRATION_PLAN(TraceCategory.MIGRATION, false,
+            e -> "planned " + e.b() + " move(s) from " + e.a() + " pair(s)"),
+    /** subject = destination, a = resolver slots. */
+    MIGRATION_RESOLVER_SLOTS(TraceCategory.MIGRATION, false,
+            e -> "resolver returned " + e.a() + " slot(s) for '" + e.subject() + "'"),
+    /** subject = city, a = candidate slots. */
+    MIGRATION_CANDIDATES(TraceCategory.MIGRATION, false,
+            e -> "evaluating " + e.a() + " candidate slot(s) for '" + e.subject() + "'"),
+    /** subject = city, a = validated slots. */
+    MIGRATION_VALIDATED(TraceCategory.MIGRATION, false,
+            e -> "validated slots=" + e.a() + " for '" + e.subject() + "'"),
+    /** subject = context, tag = reason, a/b/c = floor block. */
+    MIGRATION_LATE_REJECT(TraceCategory.MIGRATION, true,
+            e -> "LATE-REJECT[" + e.tag() + "]: context='" + e.subject() + "' floor=" + block(e.a(), e.b(), e.c())
+                    + " feet=" + block(e.a(), e.b() == TraceEvent.UNKNOWN ? e.b() : e.b() + 1, e.c()) + " world=" + e.world()
+                    + (e.detail() != null ? " detail=" + e.detail() : "")),
+    /** subject = city or context, a/b/c = feet block, d = rail radius. */
+    MIGRATION_RAIL_NEAR_FEET(TraceCategory.MIGRATION, true,
+            e -> "LATE-REJECT[rail-near-feet]: context='" + e.subject() + "' feet=" + block(e.a(), e.b(), e.c())
+                    + " radius=" + e.d()),
+    /** subject = origin id, tag = destination id, a/b/c = target block, detail = profession. */
+    MIGRATION_MOVED(TraceCategory.MIGRATION, false,
+            e -> "moved " + e.detail() + " villager " + e.subject() + " -> " + e.tag() + " to " + e.world()
+                    + " (" + e.a() + ", " + e.b() + ", " + e.c() + ")"),
+    /** subject = city id, tag = reason, a = entity chunks, b = cuboids. */
+    SCAN_STARTED(TraceCategory.SCAN, false,
+            e -> "started " + e.tag() + " scan for " + e.subject() + " - entityChunks=" + e.a() + ", cuboids=" + e.b()),
+    /** subject = city id, tag = reason, a = duration ms, b = population, c = employed, d = beds. */
+    SCAN_COMPLETED(TraceCategory.SCAN, false,
+            e -> "completed " + e.tag() + " scan for " + e.subject() + " in " + e.a() + " ms - pop=" + e.b()
+                    + ", employed=" + e.c() + ", beds=" + e.d()),
+    /** a = processed jobs, b = completed jobs, c = active jobs. */
+    SCAN_TICK(TraceCategory.SCAN, false,
+            e -> "scan tick: processed=" + e.a() + ", completed=" + e.b() + ", active=" + e.c()),
+    /** subject = city id, a = completed bed slabs, b = total bed slabs, c = remaining entity chunks, d = deferred. */
+    SCAN_PROGRESS(TraceCategory.SCAN, false,
+            e -> "scan progress for " + e.subject() + ": bedSlabs=" + e.a() + "/" + e.b()
+                    + ", remainingEntityChunks=" + e.c() + ", deferredChunks=" + e.d()),
+    /** tag = source, a/b/c = feet block. */
+    PLATFORM_SLOT(TraceCategory.PLATFORM, false,
+            e -> "ADD slot: source=" + e.tag() + " feet=" + e.world() + "@" + e.a() + "," + e.b() + "," + e.c()),
+    /** tag = reason, a/b/c = candidate block, detail = material or note. */
+    PLATFORM_REJECT(TraceCategory.PLATFORM, true,
+            e -> "rejected[" + e.tag() + "]: candidate=" + e.world() + "@" + e.a() + "," + e.b() + "," + e.c()
+                    + (e.detail() != null ? " (" + e.detail() + ")" : "")),
+    /** subject = city, a = slots. */
+    PLATFORM_RESOLVED(TraceCategory.PLATFORM, false,
+            e -> "returning total slots=" + e.a() + " for city='" + e.subject() + "'");
+
+    private final TraceCategory category;
+    private final boolean warning;
+    private final Function<TraceEvent, String> formatter;
+
+    TraceType(TraceCategory category, boolean warning, Function<TraceEvent, String> formatter) {
+        this.category = category;
+        this.warning = warning;
+        this.formatter = formatter;
+    }
+
+    public TraceCategory category() {
+        return category;
+    }
+
+    public boolean isWarning() {
+        return warning;
+    }
+
+    String format(TraceEvent event) {
+        return formatter.apply(event);
+    }
+
+    private static String block(long x, long y, long z) {
+        return coordinate(x) + "," + coordinate(y) + "," + coordinate(z);
+    }
+
+    private static String coordinate(long value) {
+        return value == TraceEvent.UNKNOWN ? "?" : String.valueOf(value);
+    }
+}
@@ -0,0 +1,113 @@
+package dev.citysim.trace;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Structured tracing for migration, scans and platform resolution. Events are only captured for enabled categories,
+ * optionally keeping one in every {@code sampleEvery}, into a bounded ring; nothing is formatted until
+ * {@link #dump(int)}. A disabled category costs one volatile read. Safe to record from any thread.
+ */
+public class Tracer {
+
+    public static final int DEFAULT_CAPACITY = 4096;
+
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("HH:mm:ss.SSS")
+            .withZone(ZoneId.systemDefault());
+
+    private final TraceBuffer buffer;
+    private final AtomicIntegerArray sampleEvery = new AtomicIntegerArray(TraceCategory.values().length);
+    private final AtomicLongArray seen = new AtomicLongArray(TraceCategory.values().length);
+    private volatile int enabledMask;
+
+    public Tracer() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public Tracer(int capacity) {
+        this.buffer = new TraceBuffer(capacity);
+    }
+
+    public boolean isEnabled(TraceCategory category) {
+        return (enabledMask & category.bit()) != 0;
+    }
+
+    public synchronized void enable(TraceCategory category, int sampleEvery) {
+        this.sampleEvery.set(category.ordinal(), Math.max(1, sampleEvery));
+        enabledMask |= category.bit();
+    }
+
+    public synchronized void disable(TraceCategory category) {
+        enabledMask &= ~category.bit();
+    }
+
+    public Set<TraceCategory> enabledCategories() {
+        Set<TraceCategory> enabled = EnumSet.noneOf(TraceCategory.class);
+        for (TraceCategory category : TraceCategory.values()) {
+            if (isEnabled(category)) {
+                enabled.add(category);
+            }
+        }
+        return enabled;
+    }
+
+    public int sampleEvery(TraceCategory category) {
+        return Math.max(1, sampleEvery.get(category.ordinal()));
+    }
+
+    /**
+     * Captures an event if its category is enabled and the sample admits it; returns the buffered event or
+     * {@code null}.
+     */
+    public TraceEvent record(TraceType type, String subject, String tag, String world,
+                             long a, long b, long c, long d, Object detail) {
+        TraceCategory category = type.category();
+        if (!isEnabled(category)) {
+            return null;
+        }
+        int every = sampleEvery.get(category.ordinal());
+        if (every > 1 && seen.getAndIncrement(category.ordinal()) % every != 0) {
+            return null;
+        }
+        TraceEvent event = new TraceEvent(buffer.claim(), System.currentTimeMillis(), type, subject, tag, world,
+                a, b, c, d, detail);
+        buffer.publish(event);
+        return event;
+    }
+
+    public List<TraceEvent> recent(int limit) {
+        return buffer.recent(limit);
+    }
+
+    /**
+     * Formats up to {@code limit} most recent events, oldest first.
+     */
+    public List<String> dump(int limit) {
+        List<TraceEvent> events = buffer.recent(limit);
+        List<String> lines = new ArrayList<>(events.size());
+        for (TraceEvent event : events) {
+            lines.add("[" + TIMESTAMP.format(Instant.ofEpochMilli(event.timeMillis())) + "] "
+                    + event.type().category().key() + " " + event.message());
+        }
+        return lines;
+    }
+
+    public int capacity() {
+        return buffer.capacity();
+    }
+
+    public long recordedCount() {
+        return buffer.written();
+    }
+
+    public void clear() {
+        buffer.clear();
+    }
+}
@@ -0,0 +1,298 @@
+package dev.citysim.util;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockFace;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.event.block.BlockExplodeEvent;
+import org.bukkit.event.block.BlockPhysicsEvent;
+import org.bukkit.event.block.BlockPistonExtendEvent;
+import org.bukkit.event.block.BlockPistonRetractEvent;
+import org.bukkit.event.block.BlockPlaceEvent;
+import org.bukkit.event.entity.EntityExplodeEvent;
+import org.bukkit.plugin.Plugin;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Collects block changes for the current tick into per-chunk bitsets and hands each touched chunk to the
+ * subscribers once, on the next tick. Listeners therefore only set a bit per event, and repeated physics
+ * updates of the same block collapse into one entry.
+ * <p>
+ * Edits (place, break, explosions, pistons) and physics updates are kept apart, because most consumers
+ * only care about physics when it touches specific materials. Each kind also tracks the union of
+ * {@link BlockClassifier} flags of the materials involved.
+ */
+public class BlockChangeJournal implements Listener {
+    private final Plugin plugin;
+    private final BlockClassifier classifier;
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private Map<ChunkKey, ChunkChanges> pending = new LinkedHashMap<>();
+    private boolean flushScheduled = false;
+
+    public BlockChangeJournal(Plugin plugin, BlockClassifier classifier) {
+        this.plugin = plugin;
+        this.classifier = classifier;
+    }
+
+    public void subscribe(Subscriber subscriber) {
+        if (subscriber != null) {
+            subscribers.add(subscriber);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockPlace(BlockPlaceEvent event) {
+        Block block = event.getBlockPlaced();
+        recordEdit(block, block.getType());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockBreak(BlockBreakEvent event) {
+        Block block = event.getBlock();
+        recordEdit(block, block.getType());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onEntityExplode(EntityExplodeEvent event) {
+        for (Block block : event.blockList()) {
+            recordEdit(block, block.getType());
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockExplode(BlockExplodeEvent event) {
+        for (Block block : event.blockList()) {
+            recordEdit(block, block.getType());
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPistonExtend(BlockPistonExtendEvent event) {
+        recordMoved(event.getBlocks(), event.getDirection());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPistonRetract(BlockPistonRetractEvent event) {
+        recordMoved(event.getBlocks(), event.getDirection());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockPhysics(BlockPhysicsEvent event) {
+        Block block = event.getBlock();
+        int flags = classifier.flags(event.getChangedType()) | classifier.flags(block.getType());
+        changesFor(block).mark(false, block.getX(), block.getY(), block.getZ(), flags);
+    }
+
+    private void recordMoved(List<Block> blocks, BlockFace direction) {
+        for (Block block : blocks) {
+            Material type = block.getType();
+            recordEdit(block, type);
+            recordEdit(block.getRelative(direction), type);
+        }
+    }
+
+    private void recordEdit(Block block, Material type) {
+        if (block == null) {
+            return;
+        }
+        changesFor(block).mark(true, block.getX(), block.getY(), block.getZ(), classifier.flags(type));
+    }
+
+    private ChunkChanges changesFor(Block block) {
+        World world = block.getWorld();
+        ChunkKey key = new ChunkKey(world.getUID(), block.getX() >> 4, block.getZ() >> 4);
+        ChunkChanges changes = pending.get(key);
+        if (changes == null) {
+            changes = new ChunkChanges(key.x(), key.z());
+            pending.put(key, changes);
+            scheduleFlush();
+        }
+        return changes;
+    }
+
+    private void scheduleFlush() {
+        if (flushScheduled || plugin == null) {
+            return;
+        }
+        flushScheduled = true;
+        Bukkit.getScheduler().runTask(plugin, this::flush);
+    }
+
+    /**
+     * Delivers every chunk touched since the last flush to the subscribers.
+     */
+    public void flush() {
+        flushScheduled = false;
+        if (pending.isEmpty()) {
+            return;
+        }
+        Map<ChunkKey, ChunkChanges> batch = pending;
+        pending = new LinkedHashMap<>();
+        Map<UUID, World> worlds = new HashMap<>();
+        for (Map.Entry<ChunkKey, ChunkChanges> entry : batch.entrySet()) {
+            World world = worlds.computeIfAbsent(entry.getKey().worldId(), Bukkit::getWorld);
+            if (world == null) {
+                continue;
+            }
+            for (Subscriber subscriber : subscribers) {
+                subscriber.onBlockChanges(world, entry.getValue());
+            }
+        }
+    }
+
+    public int pendingChunks() {
+        return pending.size();
+    }
+
+    public interface Subscriber {
+        void onBlockChanges(World world, ChunkChanges changes);
+    }
+
+    public interface PositionVisitor {
+        void visit(int x, int y, int z);
+    }
+
+    /**
+     * Deduplicated changes of one chunk. Positions are stored as one 4096-bit set per touched section.
+     */
+    public static final class ChunkChanges {
+        private final int chunkX;
+        private final int chunkZ;
+        private final Changes edits = new Changes();
+        private final Changes updates = new Changes();
+
+        ChunkChanges(int chunkX, int chunkZ) {
+            this.chunkX = chunkX;
+            this.chunkZ = chunkZ;
+        }
+
+        public int chunkX() {
+            return chunkX;
+        }
+
+        public int chunkZ() {
+            return chunkZ;
+        }
+
+        /**
+         * Blocks placed, broken, blown up or moved.
+         */
+        public Changes edits() {
+            return edits;
+        }
+
+        /**
+         * Blocks that received physics updates.
+         */
+        public Changes updates() {
+            return updates;
+        }
+
+        void mark(boolean edit, int x, int y, int z, int flags) {
+            (edit ? edits : updates).mark(x, y, z, flags);
+        }
+    }
+
+    public static final class Changes {
+        private final Map<Integer, long[]> sections = new HashMap<>();
+        private int flags;
+        private int count;
+        private int minX = Integer.MAX_VALUE;
+        private int minY = Integer.MAX_VALUE;
+        private int minZ = Integer.MAX_VALUE;
+        private int maxX = Integer.MIN_VALUE;
+        private int maxY = Integer.MIN_VALUE;
+        private int maxZ = Integer.MIN_VALUE;
+        private int baseX;
+        private int baseZ;
+
+        void mark(int x, int y, int z, int materialFlags) {
+            flags |= materialFlags;
+            long[] bits = sections.computeIfAbsent(y >> 4, key -> new long[64]);
+            int index = ((y & 15) << 8) | ((z & 15) << 4) | (x & 15);
+            long mask = 1L << (index & 63);
+            if ((bits[index >> 6] & mask) != 0L) {
+                return;
+            }
+            bits[index >> 6] |= mask;
+            if (count++ == 0) {
+                baseX = x & ~15;
+                baseZ = z & ~15;
+            }
+            minX = Math.min(minX, x);
+            minY = Math.min(minY, y);
+            minZ = Math.min(minZ, z);
+            maxX = Math.max(maxX, x);
+            maxY = Math.max(maxY, y);
+            maxZ = Math.max(maxZ, z);
+        }
+
+        public boolean isEmpty() {
+            return count == 0;
+        }
+
+        public int size() {
+            return count;
+        }
+
+        /**
+         * True when any changed block involved a material with the given {@link BlockClassifier} flag.
+         */
+        public boolean touched(int flag) {
+            return (flags & flag) != 0;
+        }
+
+        public int minX() {
+            return minX;
+        }
+
+        public int minY() {
+            return minY;
+        }
+
+        public int minZ() {
+            return minZ;
+        }
+
+        public int maxX() {
+            return maxX;
+        }
+
+        public int maxY() {
+            return maxY;
+        }
+
+        public int maxZ() {
+            return maxZ;
+        }
+
+        public void forEach(PositionVisitor visitor) {
+            for (Map.Entry<Integer, long[]> entry : sections.entrySet()) {
+                int baseY = entry.getKey() << 4;
+                long[] bits = entry.getValue();
+                for (int word = 0; word < bits.length; word++) {
+                    long value = bits[word];
+                    while (value != 0L) {
+                        int index = (word << 6) | Long.numberOfTrailingZeros(value);
+                        value &= value - 1;
+                        visitor.visit(baseX | (index & 15), baseY + (index >> 8), baseZ | ((index >> 4) & 15));
+                    }
+                }
+            }
+        }
+    }
+
+    private record ChunkKey(UUID worldId, int x, int z) {
+    }
+}
@@ -0,0 +1,153 @@
+package dev.citysim.util;
+
+import org.bukkit.Material;
+import org.bukkit.Tag;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Precomputed material classification shared by every hot block loop. Each {@link Material} ordinal maps
+ * to a bitmask of the flags below, so a probe is one array lookup instead of tag and set checks.
+ * The plugin owns one instance and hands it to the services that probe blocks. Configurable inputs (extra
+ * nature blocks, rail materials) are applied on reload and the table is rebuilt the next time it is read.
+ * Probes are safe from any thread.
+ */
+public final class BlockClassifier {
+    public static final int NATURE = 1;
+    public static final int POLLUTER = 1 << 1;
+    public static final int BED = 1 << 2;
+    public static final int RAIL = 1 << 3;
+    public static final int SOLID_FLOOR = 1 << 4;
+
+    private static final String LEGACY_PREFIX = "LEGACY_";
+
+    private final Object lock = new Object();
+    private volatile Table table;
+    private Set<Material> extraNature = EnumSet.noneOf(Material.class);
+    private Set<Material> railMaterials = EnumSet.noneOf(Material.class);
+
+    public void configureNature(Set<Material> extraNatureBlocks) {
+        synchronized (lock) {
+            extraNature = copyOf(extraNatureBlocks);
+            table = null;
+        }
+    }
+
+    public void configureRails(Set<Material> rails) {
+        synchronized (lock) {
+            railMaterials = copyOf(rails);
+            table = null;
+        }
+    }
+
+    public boolean is(Material type, int flag) {
+        return type != null && (table().flags[type.ordinal()] & flag) != 0;
+    }
+
+    /**
+     * True when at least one material carries the flag, e.g. whether any rail materials are configured.
+     */
+    public boolean hasAny(int flag) {
+        return (table().presentFlags & flag) != 0;
+    }
+
+    public int flags(Material type) {
+        return type == null ? 0 : table().flags[type.ordinal()];
+    }
+
+    private Table table() {
+        Table current = table;
+        if (current != null) {
+            return current;
+        }
+        synchronized (lock) {
+            if (table == null) {
+                table = build(extraNature, railMaterials);
+            }
+            return table;
+        }
+    }
+
+    private static Table build(Set<Material> extraNature, Set<Material> rails) {
+        Material[] materials = Material.values();
+        int[] flags = new int[materials.length];
+        for (Material type : materials) {
+            if (type.name().startsWith(LEGACY_PREFIX)) {
+                continue;
+            }
+            int mask = 0;
+            if (type.isBlock() && (isBaseNature(type) || extraNature.contains(type))) {
+                mask |= NATURE;
+            }
+            if (isPolluter(type)) {
+                mask |= POLLUTER;
+            }
+            if (isBed(type)) {
+                mask |= BED;
+            }
+            if (rails.contains(type)) {
+                mask |= RAIL;
+            }
+            if (type.isBlock() && type.isSolid() && type.isOccluding()) {
+                mask |= SOLID_FLOOR;
+            }
+            flags[type.ordinal()] = mask;
+        }
+        return new Table(flags);
+    }
+
+    private static boolean isBaseNature(Material type) {
+        if (Tag.LOGS.isTagged(type)
+                || Tag.LEAVES.isTagged(type)
+                || Tag.FLOWERS.isTagged(type)
+                || Tag.SAPLINGS.isTagged(type)
+                || Tag.CROPS.isTagged(type)) {
+            return true;
+        }
+        return switch (type) {
+            case GRASS_BLOCK, SHORT_GRASS, TALL_GRASS, FERN, LARGE_FERN,
+                    VINE, LILY_PAD,
+                    DANDELION, POPPY, BLUE_ORCHID, ALLIUM, AZURE_BLUET, RED_TULIP, ORANGE_TULIP, WHITE_TULIP, PINK_TULIP,
+                    OXEYE_DAISY, CORNFLOWER, LILY_OF_THE_VALLEY, SUNFLOWER, PEONY, ROSE_BUSH -> true;
+            default -> false;
+        };
+    }
+
+    private static boolean isPolluter(Material type) {
+        return switch (type) {
+            case FURNACE, BLAST_FURNACE, SMOKER, CAMPFIRE, SOUL_CAMPFIRE, LAVA, LAVA_CAULDRON -> true;
+            default -> false;
+        };
+    }
+
+    private static boolean isBed(Material type) {
+        return switch (type) {
+            case WHITE_BED, ORANGE_BED, MAGENTA_BED, LIGHT_BLUE_BED, YELLOW_BED, LIME_BED, PINK_BED,
+                    GRAY_BED, LIGHT_GRAY_BED, CYAN_BED, PURPLE_BED, BLUE_BED, BROWN_BED, GREEN_BED, RED_BED, BLACK_BED -> true;
+            default -> false;
+        };
+    }
+
+    private static Set<Material> copyOf(Set<Material> source) {
+        Set<Material> copy = EnumSet.noneOf(Material.class);
+        if (source != null) {
+            copy.addAll(source);
+        }
+        return copy;
+    }
+
+    private static final class Table {
+        private final int[] flags;
+        private final int presentFlags;
+
+        private Table(int[] flags) {
+            this.flags = flags;
+            int present = 0;
+            for (int mask : flags) {
+                present |= mask;
+            }
+            this.presentFlags = present;
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package dev.citysim.util;
+
+import org.bukkit.HeightMap;
+import org.bukkit.World;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.world.ChunkUnloadEvent;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Per-chunk memo of {@link HeightMap#MOTION_BLOCKING} and {@link HeightMap#WORLD_SURFACE} heights.
+ * Columns are filled on first lookup and kept in packed short arrays for a short TTL; block edits reported by
+ * the {@link BlockChangeJournal} clear the affected columns and unloading a chunk drops its entry. Expired entries
+ * are swept at most once per TTL during lookups, so chunks that stay loaded but are never queried again do not
+ * accumulate. Main thread only.
+ */
+public class HeightmapCache implements Listener, BlockChangeJournal.Subscriber {
+    public static final long DEFAULT_TTL_MILLIS = 5_000L;
+    private static final short UNKNOWN = Short.MIN_VALUE;
+
+    private final Map<ChunkKey, Entry> entries = new HashMap<>();
+    private final long ttlMillis;
+    private LongSupplier clock = System::currentTimeMillis;
+    private long lastSweep;
+
+    public HeightmapCache() {
+        this(DEFAULT_TTL_MILLIS);
+    }
+
+    public HeightmapCache(long ttlMillis) {
+        this.ttlMillis = Math.max(0L, ttlMillis);
+    }
+
+    void setClock(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * Same as {@link World#getHighestBlockYAt(int, int)}, which uses the motion-blocking heightmap.
+     */
+    public int highestBlockY(World world, int x, int z) {
+        return highestBlockY(world, x, z, HeightMap.MOTION_BLOCKING);
+    }
+
+    public int highestBlockY(World world, int x, int z, HeightMap heightMap) {
+        boolean surface = heightMap == HeightMap.WORLD_SURFACE;
+        if (ttlMillis <= 0L || (!surface && heightMap != HeightMap.MOTION_BLOCKING)) {
+            return world.getHighestBlockYAt(x, z, heightMap);
+        }
+        long now = clock.getAsLong();
+        sweepExpired(now);
+        ChunkKey key = new ChunkKey(world.getName(), x >> 4, z >> 4);
+        Entry entry = entries.get(key);
+        if (entry == null || now - entry.capturedAt > ttlMillis) {
+            entry = new Entry(now);
+            entries.put(key, entry);
+        }
+        short[] heights = surface ? entry.worldSurface : entry.motionBlocking;
+        int column = ((z & 15) << 4) | (x & 15);
+        short cached = heights[column];
+        if (cached != UNKNOWN) {
+            return cached;
+        }
+        int y = world.getHighestBlockYAt(x, z, heightMap);
+        heights[column] = (short) y;
+        return y;
+    }
+
+    private void sweepExpired(long now) {
+        if (now - lastSweep <= ttlMillis) {
+            return;
+        }
+        lastSweep = now;
+        entries.values().removeIf(entry -> now - entry.capturedAt > ttlMillis);
+    }
+
+    public void invalidateColumn(String world, int x, int z) {
+        Entry entry = entries.get(new ChunkKey(world, x >> 4, z >> 4));
+        if (entry == null) {
+            return;
+        }
+        int column = ((z & 15) << 4) | (x & 15);
+        entry.motionBlocking[column] = UNKNOWN;
+        entry.worldSurface[column] = UNKNOWN;
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    @Override
+    public void onBlockChanges(World world, BlockChangeJournal.ChunkChanges changes) {
+        if (entries.isEmpty() || changes.edits().isEmpty()) {
+            return;
+        }
+        Entry entry = entries.get(new ChunkKey(world.getName(), changes.chunkX(), changes.chunkZ()));
+        if (entry == null) {
+            return;
+        }
+        changes.edits().forEach((x, y, z) -> {
+            int column = ((z & 15) << 4) | (x & 15);
+            entry.motionBlocking[column] = UNKNOWN;
+            entry.worldSurface[column] = UNKNOWN;
+        });
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkUnload(ChunkUnloadEvent event) {
+        entries.remove(new ChunkKey(event.getWorld().getName(), event.getChunk().getX(), event.getChunk().getZ()));
+    }
+
+    private record ChunkKey(String world, int x, int z) {
+    }
+
+    private static final class Entry {
+        final long capturedAt;
+        final short[] motionBlocking = new short[256];
+        final short[] worldSurface = new short[256];
+
+        Entry(long capturedAt) {
+            this.capturedAt = capturedAt;
+            Arrays.fill(motionBlocking, UNKNOWN);
+            Arrays.fill(worldSurface, UNKNOWN);
+        }
+    }
+}
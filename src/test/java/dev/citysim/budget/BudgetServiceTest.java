@@ -0,0 +1,122 @@
+package dev.citysim.budget;
+
+import dev.citysim.TestPluginFactory;
+import dev.citysim.city.City;
+import dev.citysim.city.CityManager;
+import dev.citysim.city.CityMetricsTable;
+import org.bukkit.plugin.Plugin;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BudgetServiceTest {
+
+    @Test
+    void ticksEachCityOncePerIntervalAtItsOffset() {
+        Plugin plugin = TestPluginFactory.create("budget-service-stagger");
+        CityManager cityManager = new CityManager(plugin);
+        BudgetService budgetService = new BudgetService(plugin, cityManager);
+        budgetService.setExecutors(Runnable::run, Runnable::run);
+        City city = cityManager.create("Staggered");
+        city.population = 20;
+        city.gdp = 1000.0;
+        long interval = budgetService.getBudgetIntervalTicks();
+        int offset = BudgetService.tickOffset(city.id, interval);
+
+        for (int tick = 0; tick < offset; tick++) {
+            budgetService.tickDueCities();
+        }
+        assertNull(city.lastBudgetSnapshot);
+
+        budgetService.tickDueCities();
+        BudgetSnapshot first = city.lastBudgetSnapshot;
+        assertNotNull(first);
+        assertEquals(first.treasuryAfter, city.treasury);
+
+        for (int tick = 1; tick < interval; tick++) {
+            budgetService.tickDueCities();
+        }
+        assertEquals(first, city.lastBudgetSnapshot);
+
+        budgetService.tickDueCities();
+        assertNotSame(first, city.lastBudgetSnapshot);
+    }
+
+    @Test
+    void asyncTickIsDiscardedAfterASynchronousCommit() {
+        Plugin plugin = TestPluginFactory.create("budget-service-stale-tick");
+        CityManager cityManager = new CityManager(plugin);
+        BudgetService budgetService = new BudgetService(plugin, cityManager);
+        List<Runnable> mainThread = new ArrayList<>();
+        budgetService.setExecutors(Runnable::run, mainThread::add);
+        City city = cityManager.create("Raced");
+        city.population = 20;
+        city.gdp = 1000.0;
+        int offset = BudgetService.tickOffset(city.id, budgetService.getBudgetIntervalTicks());
+
+        for (int tick = 0; tick <= offset; tick++) {
+            budgetService.tickDueCities();
+        }
+        assertEquals(1, mainThread.size());
+
+        BudgetSnapshot synchronous = budgetService.tickCity(city);
+        double treasury = city.treasury;
+        mainThread.forEach(Runnable::run);
+
+        assertSame(synchronous, city.lastBudgetSnapshot);
+        assertEquals(treasury, city.treasury);
+    }
+
+    @Test
+    void previewIsReusedUntilInputsChange() {
+        Plugin plugin = TestPluginFactory.create("budget-service-preview");
+        CityManager cityManager = new CityManager(plugin);
+        BudgetService budgetService = new BudgetService(plugin, cityManager);
+        City city = cityManager.create("Previewed");
+        city.population = 10;
+
+        BudgetSnapshot first = budgetService.previewCity(city);
+        assertSame(first, budgetService.previewCity(city));
+        assertEquals(1, budgetService.getPreviewCacheHits());
+        assertEquals(1, budgetService.getPreviewCacheMisses());
+
+        budgetService.setTaxRate(city, 0.2);
+        assertNotSame(first, budgetService.previewCity(city));
+        assertEquals(2, budgetService.getPreviewCacheMisses());
+
+        cityManager.remove(city.id);
+        assertEquals(0, budgetService.getPreviewCacheSize());
+    }
+
+    @Test
+    void policyTrustCutReordersTrustRanking() {
+        Plugin plugin = TestPluginFactory.create("budget-service-policy-trust");
+        CityManager cityManager = new CityManager(plugin);
+        BudgetService budgetService = new BudgetService(plugin, cityManager);
+        City taxed = cityManager.create("Taxed");
+        City steady = cityManager.create("Steady");
+        taxed.population = 10;
+        steady.population = 10;
+        taxed.trust = 70;
+        steady.trust = 60;
+        CityMetricsTable table = cityManager.metricsTable();
+        table.update(taxed);
+        table.update(steady);
+        assertSame(taxed, table.city(table.top(1, table.descending(CityMetricsTable.Column.TRUST))[0]));
+
+        budgetService.setTaxRate(taxed, BudgetDefaults.MAX_TAX_RATE);
+        budgetService.applyPolicyChangeTrust(taxed);
+
+        assertTrue(taxed.trust < 60);
+        assertSame(steady, table.city(table.top(1, table.descending(CityMetricsTable.Column.TRUST))[0]));
+        assertEquals(taxed.trust, table.trust(table.slotOf(taxed)));
+    }
+}
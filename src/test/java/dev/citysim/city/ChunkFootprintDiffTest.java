@@ -0,0 +1,76 @@
+package dev.citysim.city;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ChunkFootprintDiffTest {
+
+    @Test
+    void addingCuboidOnlyTouchesNewAndReshapedChunks() {
+        Cuboid base = cuboid(0, 31, 0, 31);
+        Cuboid extension = cuboid(24, 47, 0, 15);
+
+        ChunkFootprintDiff diff = ChunkFootprintDiff.between(List.of(base), List.of(base, extension));
+
+        assertEquals(Set.of(chunk(2, 0)), diff.added());
+        assertEquals(Set.of(chunk(1, 0)), diff.changed());
+        assertEquals(Set.of(chunk(0, 0), chunk(0, 1), chunk(1, 1)), diff.unchanged());
+        assertTrue(diff.removed().isEmpty());
+    }
+
+    @Test
+    void removingCuboidReportsRemovedChunks() {
+        Cuboid base = cuboid(0, 15, 0, 15);
+        Cuboid extension = cuboid(16, 31, 0, 15);
+
+        ChunkFootprintDiff diff = ChunkFootprintDiff.between(List.of(base, extension), List.of(base));
+
+        assertEquals(Set.of(chunk(1, 0)), diff.removed());
+        assertEquals(Set.of(chunk(0, 0)), diff.unchanged());
+        assertTrue(diff.added().isEmpty());
+        assertTrue(diff.changed().isEmpty());
+    }
+
+    @Test
+    void applyGeometryChangeKeepsSnapshotsOfUnchangedChunks() {
+        City city = new City();
+        city.cuboids = new ArrayList<>(List.of(cuboid(0, 15, 0, 15), cuboid(16, 31, 0, 15)));
+        city.putBedSnapshot(chunk(0, 0), 6, 1_000L);
+        city.putBedSnapshot(chunk(1, 0), 4, 1_000L);
+        city.blockScanCache = new City.BlockScanCache();
+        city.blockScanCache.timestamp = 1_000L;
+
+        List<Cuboid> before = new ArrayList<>(city.cuboids);
+        city.cuboids.remove(1);
+        city.applyGeometryChange(ChunkFootprintDiff.between(before, city.cuboids));
+
+        assertNotNull(city.getBedSnapshot(chunk(0, 0)));
+        assertNull(city.getBedSnapshot(chunk(1, 0)));
+        assertNotNull(city.blockScanCache);
+        assertEquals(0L, city.blockScanCache.timestamp);
+    }
+
+    private static Cuboid cuboid(int minX, int maxX, int minZ, int maxZ) {
+        Cuboid cuboid = new Cuboid();
+        cuboid.world = "world";
+        cuboid.minX = minX;
+        cuboid.maxX = maxX;
+        cuboid.minY = 0;
+        cuboid.maxY = 64;
+        cuboid.minZ = minZ;
+        cuboid.maxZ = maxZ;
+        return cuboid;
+    }
+
+    private static City.ChunkPosition chunk(int x, int z) {
+        return new City.ChunkPosition("world", x, z);
+    }
+}
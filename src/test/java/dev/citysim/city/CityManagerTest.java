@@ -126,6 +126,39 @@ class CityManagerTest {
         assertNull(manager.cityAt(location));
     }
 
+    @Test
+    void citiesAtReportsEveryOverlappingCity() throws Exception {
+        Plugin plugin = createPluginStub();
+        CityManager manager = new CityManager(plugin);
+
+        World world = createWorldStub("testworld", -64, 320);
+        setBukkitServer(createServerStub(world));
+
+        City west = manager.create("West");
+        manager.addCuboid(west.id, cuboid("testworld", 0, 20));
+        City east = manager.create("East");
+        manager.addCuboid(east.id, cuboid("testworld", 10, 30));
+
+        List<City> shared = manager.citiesAt(new Location(world, 15, 64, 15));
+        assertEquals(2, shared.size());
+        assertTrue(shared.contains(west) && shared.contains(east));
+        assertEquals(List.of(east), manager.citiesAt(new Location(world, 25, 64, 15)));
+        assertTrue(manager.citiesAt(new Location(world, 100, 64, 100)).isEmpty());
+    }
+
+    private static Cuboid cuboid(String world, int min, int max) {
+        Cuboid cuboid = new Cuboid();
+        cuboid.world = world;
+        cuboid.minX = min;
+        cuboid.maxX = max;
+        cuboid.minZ = min;
+        cuboid.maxZ = max;
+        cuboid.minY = 0;
+        cuboid.maxY = 100;
+        cuboid.fullHeight = false;
+        return cuboid;
+    }
+
     private static Plugin createPluginStub() throws Exception {
         Path tempDir = Files.createTempDirectory("citysim-plugin");
         File dataFolder = tempDir.toFile();
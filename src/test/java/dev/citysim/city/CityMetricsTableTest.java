@@ -0,0 +1,62 @@
+package dev.citysim.city;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CityMetricsTableTest {
+
+    @Test
+    void ranksGhostTownsLastThenByColumnAndName() {
+        CityMetricsTable table = new CityMetricsTable();
+        City ghost = city("ghost", 0, 99);
+        City beta = city("Beta", 10, 60);
+        City alpha = city("alpha", 12, 60);
+        City gamma = city("Gamma", 5, 80);
+        table.update(ghost);
+        table.update(beta);
+        table.update(alpha);
+        table.update(gamma);
+
+        CityMetricsTable.RowComparator order = table.ghostTownsLast()
+                .then(table.descending(CityMetricsTable.Column.PROSPERITY))
+                .then(table.byName());
+
+        int[] sorted = table.sorted(order);
+        assertArrayEquals(new int[]{3, 2, 1, 0}, sorted);
+        assertArrayEquals(new int[]{3, 2}, table.top(2, order));
+        assertArrayEquals(new int[]{1, 2}, table.filter(row -> table.population(row) >= 10));
+    }
+
+    @Test
+    void removeKeepsCreationOrderAndSlots() {
+        CityMetricsTable table = new CityMetricsTable();
+        City first = city("first", 1, 50);
+        City second = city("second", 2, 50);
+        City third = city("third", 3, 50);
+        table.update(first);
+        table.update(second);
+        table.update(third);
+
+        table.remove(second);
+
+        assertEquals(2, table.size());
+        assertEquals("third", table.id(1));
+        assertEquals(1, table.slotOf(third));
+        assertEquals(-1, table.slotOf(second));
+
+        third.population = 30;
+        table.update(third);
+        assertEquals(30, table.population(1));
+    }
+
+    private static City city(String name, int population, int prosperity) {
+        City city = new City();
+        city.id = name.toLowerCase();
+        city.name = name;
+        city.population = population;
+        city.prosperity = prosperity;
+        return city;
+    }
+}
@@ -0,0 +1,72 @@
+package dev.citysim.integration.traincarts;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BindingPlanStoreTest {
+
+    @TempDir
+    Path folder;
+
+    @Test
+    void plansOnlyApplyToTheBuildTheyWereRecordedFor() {
+        File file = folder.resolve("traincarts-binding.json").toFile();
+        BindingPlanStore.Key key = new BindingPlanStore.Key("1.21.1-v1", "abc123");
+        BindingPlanStore.Plan plan = new BindingPlanStore.Plan(key,
+                "com.bergerkiller.bukkit.tc.controller.global.SignControllerWorld", "signChunks", true);
+
+        new BindingPlanStore(file, null).save(plan);
+        BindingPlanStore store = new BindingPlanStore(file, null);
+
+        assertEquals(plan, store.load(key));
+        assertNull(store.load(new BindingPlanStore.Key("1.21.1-v2", "abc123")));
+        assertNull(store.load(new BindingPlanStore.Key("1.21.1-v1", "def456")));
+        assertTrue(Files.notExists(folder.resolve("traincarts-binding.json.tmp")));
+
+        store.clear();
+        assertFalse(file.exists());
+        assertNull(store.load(key));
+    }
+
+    @Test
+    void ignoresCorruptAndOutdatedFiles() throws IOException {
+        File file = folder.resolve("traincarts-binding.json").toFile();
+        BindingPlanStore store = new BindingPlanStore(file, null);
+        BindingPlanStore.Key key = new BindingPlanStore.Key("1", "hash");
+
+        Files.writeString(file.toPath(), "{not json", StandardCharsets.UTF_8);
+        assertNull(store.load(key));
+
+        Files.writeString(file.toPath(), "{\"version\":" + (BindingPlanStore.VERSION + 1) + ",\"plan\":{"
+                + "\"trainCartsVersion\":\"1\",\"jarHash\":\"hash\",\"owner\":\"A\",\"member\":\"b\",\"field\":true}}",
+                StandardCharsets.UTF_8);
+        assertNull(store.load(key));
+
+        Files.writeString(file.toPath(), "{\"version\":" + BindingPlanStore.VERSION + ",\"plan\":{"
+                + "\"trainCartsVersion\":\"1\",\"jarHash\":\"hash\",\"owner\":\"A\"}}", StandardCharsets.UTF_8);
+        assertNull(store.load(key));
+    }
+
+    @Test
+    void jarHashFollowsContent() throws IOException {
+        Path jar = folder.resolve("TrainCarts.jar");
+        Files.write(jar, new byte[]{1, 2, 3});
+        String first = BindingPlanStore.hash(jar);
+        assertEquals(first, BindingPlanStore.hash(jar));
+
+        Files.write(jar, new byte[]{1, 2, 4});
+        assertNotEquals(first, BindingPlanStore.hash(jar));
+    }
+}
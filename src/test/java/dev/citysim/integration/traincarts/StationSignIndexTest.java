@@ -0,0 +1,93 @@
+package dev.citysim.integration.traincarts;
+
+import dev.citysim.city.Cuboid;
+import org.bukkit.block.Block;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class StationSignIndexTest {
+
+    @Test
+    void packedPositionsRoundTripNegativeCoordinates() {
+        long packed = StationSignIndex.pack(-30_000_000, -64, 29_999_999);
+        assertEquals(-30_000_000, StationSignIndex.unpackX(packed));
+        assertEquals(-64, StationSignIndex.unpackY(packed));
+        assertEquals(29_999_999, StationSignIndex.unpackZ(packed));
+    }
+
+    @Test
+    void overlappingCuboidsReportEachSignOnce() {
+        StationSignIndex index = new StationSignIndex(0L);
+        Block inside = block(5, 64, 5);
+        Block edge = block(-1, 70, 17);
+        Block outside = block(40, 64, 40);
+        Block tooHigh = block(6, 200, 6);
+        assertTrue(index.add(inside));
+        assertTrue(index.add(edge));
+        assertTrue(index.add(outside));
+        assertTrue(index.add(tooHigh));
+        assertFalse(index.add(block(5, 64, 5)));
+
+        List<Cuboid> cuboids = List.of(cuboid(-8, 0, -8, 20, 100, 20), cuboid(0, 0, 0, 10, 100, 10));
+        List<Block> found = new ArrayList<>();
+        index.query(cuboids, found::add);
+
+        assertEquals(2, found.size());
+        assertTrue(found.contains(inside));
+        assertTrue(found.contains(edge));
+        assertEquals(4, index.size());
+    }
+
+    @Test
+    void largeCuboidsScanBucketsInsteadOfChunkRange() {
+        StationSignIndex index = new StationSignIndex(0L);
+        index.add(block(100_000, 64, -100_000));
+        index.add(block(3, 64, 3));
+
+        List<Block> found = new ArrayList<>();
+        index.query(List.of(cuboid(-200_000, -64, -200_000, 200_000, 320, 200_000)), found::add);
+
+        assertEquals(2, found.size());
+    }
+
+    @Test
+    void removedSignsLeaveTheIndex() {
+        StationSignIndex index = new StationSignIndex(0L);
+        index.add(block(1, 64, 1));
+        index.add(block(2, 64, 1));
+
+        assertTrue(index.remove(1, 64, 1));
+        assertFalse(index.remove(1, 64, 1));
+        assertFalse(index.contains(1, 64, 1));
+        assertTrue(index.contains(2, 64, 1));
+        assertEquals(1, index.size());
+    }
+
+    private static Block block(int x, int y, int z) {
+        Block block = mock(Block.class);
+        when(block.getX()).thenReturn(x);
+        when(block.getY()).thenReturn(y);
+        when(block.getZ()).thenReturn(z);
+        return block;
+    }
+
+    private static Cuboid cuboid(int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        Cuboid cuboid = new Cuboid();
+        cuboid.world = "world";
+        cuboid.minX = minX;
+        cuboid.minY = minY;
+        cuboid.minZ = minZ;
+        cuboid.maxX = maxX;
+        cuboid.maxY = maxY;
+        cuboid.maxZ = maxZ;
+        return cuboid;
+    }
+}
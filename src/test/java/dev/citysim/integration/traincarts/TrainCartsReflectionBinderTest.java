@@ -0,0 +1,215 @@
+package dev.citysim.integration.traincarts;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.lang.reflect.Member;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TrainCartsReflectionBinderTest {
+
+    private static final BindingPlanStore.Key KEY = new BindingPlanStore.Key("1.21.1-v1", "abc123");
+    private static final BindingPlanStore.Plan DISCOVERED =
+            new BindingPlanStore.Plan(KEY, FakeWorld.class.getName(), "signChunks", true);
+
+    @TempDir
+    Path folder;
+
+    @Test
+    void accessorsCallPrivateMembersDirectly() throws Exception {
+        FakeEntry entry = new FakeEntry("Central", true);
+
+        TrainCartsReflectionBinder.Accessor name = TrainCartsReflectionBinder.accessor(
+                FakeEntry.class.getDeclaredMethod("name"));
+        TrainCartsReflectionBinder.Condition active = TrainCartsReflectionBinder.condition(
+                FakeEntry.class.getDeclaredMethod("isActive"));
+        TrainCartsReflectionBinder.BiAccessor prefixed = TrainCartsReflectionBinder.biAccessor(
+                FakeEntry.class.getDeclaredMethod("prefixed", String.class));
+        TrainCartsReflectionBinder.LineReader line = TrainCartsReflectionBinder.lineReader(
+                FakeEntry.class.getDeclaredMethod("line", int.class));
+
+        assertEquals("Central", name.get(entry));
+        assertTrue(active.test(entry));
+        assertFalse(active.test(new FakeEntry("Depot", false)));
+        assertEquals("[Train] Central", prefixed.get(entry, "[Train]"));
+        assertEquals("Central#1", line.line(entry, 1));
+    }
+
+    @Test
+    void trailingArgumentsAreBound() throws Exception {
+        TrainCartsReflectionBinder.Accessor bound = TrainCartsReflectionBinder.accessor(
+                FakeEntry.class.getDeclaredMethod("prefixed", String.class), "[Cart]");
+
+        assertEquals("[Cart] North", bound.get(new FakeEntry("North", true)));
+    }
+
+    @Test
+    void failuresSurfaceAsReflectiveExceptionsWithCause() throws Exception {
+        TrainCartsReflectionBinder.Accessor failing = TrainCartsReflectionBinder.accessor(
+                FakeEntry.class.getDeclaredMethod("fail"));
+
+        ReflectiveOperationException ex = assertThrows(ReflectiveOperationException.class,
+                () -> failing.get(new FakeEntry("South", true)));
+        assertInstanceOf(IllegalStateException.class, ex.getCause());
+    }
+
+    @Test
+    void cachedPlanBindsWithoutDiscovery() throws Exception {
+        File file = folder.resolve("traincarts-binding.json").toFile();
+        new BindingPlanStore(file, null).save(DISCOVERED);
+        CountingBinder binder = new CountingBinder(file);
+
+        TrainCartsReflectionBinder.SignChunksAccessor accessor = binder.bindPlanned();
+
+        FakeWorld world = new FakeWorld();
+        assertSame(world.signChunks, accessor.load(world));
+        assertEquals(0, binder.discoveries);
+    }
+
+    @Test
+    void staleOwnerOrMemberFallsBackToDiscoveryAndRecordsANewPlan() throws Exception {
+        File file = folder.resolve("traincarts-binding.json").toFile();
+        BindingPlanStore store = new BindingPlanStore(file, null);
+        List<BindingPlanStore.Plan> stalePlans = List.of(
+                new BindingPlanStore.Plan(KEY, FakeWorld.class.getPackageName() + ".MissingWorld", "signChunks", true),
+                new BindingPlanStore.Plan(KEY, FakeWorld.class.getName(), "removedChunks", true));
+        for (BindingPlanStore.Plan stale : stalePlans) {
+            store.save(stale);
+            CountingBinder binder = new CountingBinder(file);
+
+            TrainCartsReflectionBinder.SignChunksAccessor accessor = binder.bindPlanned();
+
+            assertEquals(1, binder.discoveries, stale.toString());
+            FakeWorld world = new FakeWorld();
+            assertSame(world.signChunks, accessor.load(world));
+            assertEquals(DISCOVERED, store.load(KEY));
+        }
+    }
+
+    @Test
+    void failingPlannedAccessorClearsThePlanAndDiscoversOnce() throws Exception {
+        File file = folder.resolve("traincarts-binding.json").toFile();
+        BindingPlanStore store = new BindingPlanStore(file, null);
+        store.save(new BindingPlanStore.Plan(KEY, FakeWorld.class.getName(), "legacyChunks", false));
+        CountingBinder binder = new CountingBinder(file);
+
+        TrainCartsReflectionBinder.SignChunksAccessor accessor = binder.bindPlanned();
+        FakeWorld world = new FakeWorld();
+        assertSame(world.signChunks, accessor.load(world));
+        assertEquals(0, binder.discoveries);
+
+        world.broken = true;
+        assertSame(world.signChunks, accessor.load(world));
+        assertSame(world.signChunks, accessor.load(world));
+
+        assertEquals(1, binder.discoveries);
+        assertNull(binder.planSeenByDiscovery);
+        assertEquals(DISCOVERED, store.load(KEY));
+    }
+
+    private static final class FakeEntry {
+        private final String name;
+        private final boolean active;
+
+        private FakeEntry(String name, boolean active) {
+            this.name = name;
+            this.active = active;
+        }
+
+        private String name() {
+            return name;
+        }
+
+        private boolean isActive() {
+            return active;
+        }
+
+        private String prefixed(String prefix) {
+            return prefix + " " + name;
+        }
+
+        private String line(int index) {
+            return name + "#" + index;
+        }
+
+        private Object fail() {
+            throw new IllegalStateException("boom");
+        }
+    }
+
+    /**
+     * Binds the fake TrainCarts classes below and counts how often discovery runs.
+     */
+    private static final class CountingBinder extends TrainCartsReflectionBinder {
+        private final BindingPlanStore observer;
+        private int discoveries;
+        private BindingPlanStore.Plan planSeenByDiscovery;
+
+        private CountingBinder(File planFile) {
+            super(Logger.getLogger("TrainCartsReflectionBinderTest"), planFile);
+            this.observer = new BindingPlanStore(planFile, null);
+        }
+
+        private SignChunksAccessor bindPlanned() throws ReflectiveOperationException {
+            ChunkIntrospector introspector = new ChunkIntrospector(FakeChunk.class,
+                    FakeChunk.class.getMethod("getEntries"), FakeChunkEntry.class, FakeLongHashMap.class,
+                    FakeLongHashMap.class.getMethod("values"));
+            return bindSignChunksAccessor(KEY, FakeWorld.class, FakeChunk.class, FakeChunkEntry.class, introspector);
+        }
+
+        @Override
+        SignChunksAccessor discoverSignChunksAccessor(Class<?> signControllerWorldClass,
+                                                      Class<?> chunkClass,
+                                                      Class<?> entryClass,
+                                                      ChunkIntrospector chunkIntrospector,
+                                                      Consumer<Member> recorder)
+                throws ReflectiveOperationException {
+            discoveries++;
+            planSeenByDiscovery = observer.load(KEY);
+            return super.discoverSignChunksAccessor(signControllerWorldClass, chunkClass, entryClass,
+                    chunkIntrospector, recorder);
+        }
+    }
+
+    static final class FakeWorld {
+        private final List<FakeChunk> signChunks = List.of(new FakeChunk());
+        private boolean broken;
+
+        private List<FakeChunk> legacyChunks() {
+            if (broken) {
+                throw new IllegalStateException("legacy chunk view removed");
+            }
+            return signChunks;
+        }
+    }
+
+    static final class FakeChunk {
+        private final List<FakeChunkEntry> entries = List.of(new FakeChunkEntry());
+
+        public List<FakeChunkEntry> getEntries() {
+            return entries;
+        }
+    }
+
+    static final class FakeChunkEntry {
+    }
+
+    static final class FakeLongHashMap {
+        public Collection<Object> values() {
+            return List.of();
+        }
+    }
+}
@@ -5,6 +5,7 @@ import dev.citysim.city.Cuboid;
 import dev.citysim.stats.StationCountResult;
 import org.bukkit.World;
 import org.bukkit.block.Block;
+import org.bukkit.event.world.WorldUnloadEvent;
 import org.bukkit.plugin.Plugin;
 import org.bukkit.Server;
 import org.junit.jupiter.api.Test;
@@ -119,6 +120,57 @@ class TrainCartsStationServiceTest {
         assertEquals(1, counts.signs());
     }
 
+    @Test
+    void citiesShareOneWorldIndexThatFollowsSignEdits() {
+        Plugin plugin = mock(Plugin.class);
+        Server server = mock(Server.class);
+        when(plugin.getLogger()).thenReturn(Logger.getLogger("TrainCartsStationServiceTest"));
+
+        World world = mock(World.class);
+        when(world.getUID()).thenReturn(UUID.randomUUID());
+        when(server.getWorld("world")).thenReturn(world);
+
+        Block west = mock(Block.class);
+        when(west.getWorld()).thenReturn(world);
+        when(west.getX()).thenReturn(10);
+        when(west.getY()).thenReturn(64);
+        when(west.getZ()).thenReturn(10);
+
+        Block east = mock(Block.class);
+        when(east.getWorld()).thenReturn(world);
+        when(east.getX()).thenReturn(110);
+        when(east.getY()).thenReturn(64);
+        when(east.getZ()).thenReturn(10);
+
+        StubBinding binding = new StubBinding(new Object[]{ new Object(), new Object() }, new Block[]{ west, east },
+                List.of(List.of(new TrainCartsReflectionBinder.StationText("[Train]", "Station")),
+                        List.of(new TrainCartsReflectionBinder.StationText("[Train]", "Station"))),
+                new boolean[]{ true, true });
+        TrainCartsStationService service =
+                new TrainCartsStationService(plugin, server, mock(Plugin.class), binding, new StationSignParser());
+
+        City westCity = createCityWithCuboid();
+        City eastCity = createCityWithCuboid();
+        eastCity.cuboids.getFirst().minX = 100;
+        eastCity.cuboids.getFirst().maxX = 120;
+
+        assertEquals(1, service.countStations(westCity).orElseThrow().signs());
+        assertEquals(1, service.countStations(eastCity).orElseThrow().signs());
+        assertEquals(1, binding.chunkLoads);
+
+        service.updateIndex(east, "[Train]", "Destination");
+        assertEquals(0, service.countStations(eastCity).orElseThrow().signs());
+        service.updateIndex(east, "[Cart]", "Station");
+        assertEquals(1, service.countStations(eastCity).orElseThrow().signs());
+        assertEquals(1, binding.chunkLoads);
+
+        WorldUnloadEvent unload = mock(WorldUnloadEvent.class);
+        when(unload.getWorld()).thenReturn(world);
+        service.onWorldUnload(unload);
+        assertEquals(1, service.countStations(westCity).orElseThrow().signs());
+        assertEquals(2, binding.chunkLoads);
+    }
+
     private City createCityWithCuboid() {
         City city = new City();
         Cuboid cuboid = new Cuboid();
@@ -143,6 +195,7 @@ class TrainCartsStationServiceTest {
         private final List<List<TrainCartsReflectionBinder.StationText>> texts;
         private final boolean[] events;
         private final Map<Object, Integer> indexByEntry = new IdentityHashMap<>();
+        private int chunkLoads;
 
         private StubBinding(Object[] entries,
                              Block[] blocks,
@@ -174,6 +227,7 @@ class TrainCartsStationServiceTest {
 
         @Override
         public Collection<?> loadSignChunks(Object worldController) {
+            chunkLoads++;
             return List.of(chunk);
         }
 
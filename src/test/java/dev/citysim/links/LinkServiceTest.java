@@ -11,6 +11,7 @@ import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class LinkServiceTest {
@@ -40,6 +41,40 @@ class LinkServiceTest {
         assertEquals(0, link.opsStrength(), "Ops strength should be zero when logistics multiplier is zero");
     }
 
+    @Test
+    void graphTracksNeighbourChangesAndRemoval() {
+        Plugin plugin = TestPluginFactory.create("link-service-graph");
+        CityManager cityManager = new CityManager(plugin);
+        City a = cityManager.create("alpha");
+        City b = cityManager.create("beta");
+        City far = cityManager.create("gamma");
+        setupCity(a, "world", 2, 1.0);
+        setupCity(b, "world", 2, 1.0);
+        setupCity(far, "world", 10, 1.0);
+        far.cuboids.get(0).minX = 5000;
+        far.cuboids.get(0).maxX = 5010;
+
+        LinkService service = new LinkService(cityManager);
+        org.bukkit.configuration.file.YamlConfiguration config = new org.bukkit.configuration.file.YamlConfiguration();
+        config.set("links.enabled", true);
+        config.set("links.link_distance_blocks", 1000);
+        service.reload(config);
+
+        List<CityLink> before = service.computeLinks(a);
+        assertEquals(1, before.size(), "Far city should be pruned by distance");
+        assertSame(before, service.computeLinks(a), "Unchanged graph should reuse the cached link list");
+        long version = service.getGraphVersion();
+
+        b.stations = 4;
+        List<CityLink> after = service.computeLinks(a);
+        assertTrue(after.get(0).rawStrength() > before.get(0).rawStrength(), "Neighbour station change should refresh edges");
+        assertTrue(service.getGraphVersion() > version);
+
+        cityManager.remove(b.id);
+        assertTrue(service.computeLinks(a).isEmpty());
+        assertEquals(0, service.countPhysicalLinks(a));
+    }
+
     private void setupCity(City city, String world, int stations, double logiMultiplier) {
         city.world = world;
         city.stations = stations;
@@ -0,0 +1,44 @@
+package dev.citysim.migration;
+
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.Material;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BlockViewTest {
+
+    @Test
+    void snapshotViewMapsWorldCoordinatesToChunkLocalOnes() {
+        ChunkSnapshot snapshot = mock(ChunkSnapshot.class);
+        when(snapshot.getBlockType(15, 64, 1)).thenReturn(Material.STONE);
+        BlockView.SnapshotView view = new BlockView.SnapshotView(-64, 320);
+        view.add(-1, 0, snapshot);
+
+        assertTrue(view.isLoaded(-1, 1));
+        assertTrue(view.isLoaded(-16, 15));
+        assertFalse(view.isLoaded(0, 1));
+        assertFalse(view.isLoaded(-1, -1));
+        assertEquals(Material.STONE, view.type(-1, 64, 1));
+        assertEquals(1, view.chunkCount());
+    }
+
+    @Test
+    void positionsOutsideTheSnapshotsAreNotStandable() {
+        ChunkSnapshot snapshot = mock(ChunkSnapshot.class);
+        BlockView.SnapshotView view = new BlockView.SnapshotView(-64, 320);
+        view.add(0, 0, snapshot);
+
+        assertEquals(Material.VOID_AIR, view.type(40, 64, 40));
+        assertEquals(Material.VOID_AIR, view.type(1, 320, 1));
+        assertFalse(view.isPassable(40, 64, 40));
+        assertFalse(view.isPassable(1, -65, 1));
+        assertTrue(view.isPassable(1, 320, 1));
+        assertNull(view.dataString(40, 64, 40));
+    }
+}
@@ -0,0 +1,45 @@
+package dev.citysim.migration;
+
+import dev.citysim.TestPluginFactory;
+import dev.citysim.city.City;
+import dev.citysim.city.CityManager;
+import dev.citysim.util.BlockClassifier;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DestinationSpotPoolTest {
+
+    @Test
+    void removedAndRenamedCitiesDropTheirPools() {
+        CityManager cityManager = mock(CityManager.class);
+        DestinationSpotPool pool = new DestinationSpotPool(TestPluginFactory.create("spot-pool"), cityManager,
+                new BlockClassifier());
+        verify(cityManager).addListener(pool);
+
+        World world = mock(World.class);
+        when(world.getName()).thenReturn("world");
+        Location anchor = new Location(world, 0, 64, 0);
+        assertNull(pool.take("harbor", anchor, TeleportSettings.defaults(), 8, 100));
+        assertNull(pool.take("mill", anchor, TeleportSettings.defaults(), 8, 100));
+        assertEquals(2, pool.size());
+
+        pool.onCityRemoved(city("harbor"));
+        assertEquals(1, pool.size());
+
+        pool.onCityRenamed("mill", city("old-mill"));
+        assertEquals(0, pool.size());
+    }
+
+    private static City city(String id) {
+        City city = new City();
+        city.id = id;
+        return city;
+    }
+}
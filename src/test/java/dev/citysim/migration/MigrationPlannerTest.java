@@ -0,0 +1,56 @@
+package dev.citysim.migration;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MigrationPlannerTest {
+
+    private static final int A = 0;
+    private static final int B = 1;
+    private static final int C = 2;
+    private static final int X = 3;
+    private static final int Y = 4;
+    private static final int Z = 5;
+    private static final int U = MigrationPlanner.UNLIMITED;
+
+    @Test
+    void allocatesGloballyByScore() {
+        List<MigrationPlanner.Pair> pairs = List.of(
+                new MigrationPlanner.Pair(A, X, 1, 0.2, 10.0),
+                new MigrationPlanner.Pair(B, X, 1, 0.9, 50.0),
+                new MigrationPlanner.Pair(A, Y, 1, 0.5, 20.0)
+        );
+        int[] origins = {1, 1, 0, 0, 0, 0};
+        int[] destinations = {0, 0, 0, 1, 5, 0};
+        MigrationPlanner.Snapshot snapshot = new MigrationPlanner.Snapshot(pairs, origins, destinations, U, 10);
+
+        List<MigrationPlanner.Move> moves = MigrationPlanner.plan(snapshot);
+
+        assertEquals(List.of(
+                new MigrationPlanner.Move(B, X),
+                new MigrationPlanner.Move(A, Y)
+        ), moves);
+        assertEquals(moves, MigrationPlanner.plan(snapshot), "Planning must not consume the snapshot");
+    }
+
+    @Test
+    void respectsGlobalLinkAndMoveCaps() {
+        List<MigrationPlanner.Pair> pairs = List.of(
+                new MigrationPlanner.Pair(A, X, U, 0.9, 10.0),
+                new MigrationPlanner.Pair(B, Y, U, 0.8, 10.0),
+                new MigrationPlanner.Pair(C, Z, 0, 0.7, 10.0)
+        );
+        int[] unlimited = {U, U, U, U, U, U};
+
+        assertEquals(1, MigrationPlanner.plan(new MigrationPlanner.Snapshot(pairs, unlimited, unlimited, 1, 10)).size());
+        assertEquals(2, MigrationPlanner.plan(new MigrationPlanner.Snapshot(pairs, unlimited, unlimited, U, 10)).size(),
+                "Pairs without link capacity must be skipped");
+        assertEquals(1, MigrationPlanner.plan(new MigrationPlanner.Snapshot(pairs, unlimited, unlimited, U, 1)).size());
+        assertTrue(MigrationPlanner.plan(new MigrationPlanner.Snapshot(pairs, new int[0], unlimited, U, 10)).isEmpty(),
+                "Origins without capacity must not move anyone");
+    }
+}
@@ -0,0 +1,319 @@
+package dev.citysim.migration;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+/**
+ * Headless host for {@link MigrationPlanner}: feeds synthetic cities and links through the same origin gating,
+ * snapshot, planning and approval as {@link MigrationService}, with villagers and teleports replaced by population
+ * counters. Tick order mirrors the service (execute due moves, update averages, collect, plan, approve). Stats are
+ * always fresh, every city has a station and every executed move succeeds.
+ */
+final class MigrationSimulator implements MigrationPlanner.Host {
+
+    private final MigrationService.MigrationSettings settings;
+    private final List<SimCity> cities = new ArrayList<>();
+    private final List<List<SimLink>> links = new ArrayList<>();
+    private final List<MigrationService.CityState> states = new ArrayList<>();
+    private final MigrationService.TokenBucket globalBucket = new MigrationService.TokenBucket();
+    private final PriorityQueue<Pending> queue = new PriorityQueue<>(Comparator.comparingLong(Pending::executeTick));
+    private final Random random;
+    private long logicalTick;
+
+    MigrationSimulator(MigrationService.MigrationSettings settings, long seed) {
+        this.settings = settings;
+        this.random = new Random(seed);
+        globalBucket.configure(settings.rate.globalPerInterval);
+    }
+
+    static MigrationService.MigrationSettings settings(int intervalTicks, int maxMovesPerTick, int populationFloor,
+                                                       MigrationService.LogicSettings logic,
+                                                       MigrationService.RateSettings rate) {
+        return new MigrationService.MigrationSettings(true, intervalTicks, maxMovesPerTick, 0L, populationFloor,
+                TeleportSettings.defaults(), logic, rate);
+    }
+
+    int addCity(String id, int population, int beds, int jobs, double x, double z) {
+        cities.add(new SimCity(id, population, beds, jobs, x, z));
+        links.add(new ArrayList<>());
+        states.add(new MigrationService.CityState());
+        return cities.size() - 1;
+    }
+
+    void link(int a, int b, double strength) {
+        links.get(a).add(new SimLink(b, strength));
+        links.get(b).add(new SimLink(a, strength));
+    }
+
+    SimCity city(int index) {
+        return cities.get(index);
+    }
+
+    int cityCount() {
+        return cities.size();
+    }
+
+    Report run(int ticks) {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        boolean cpuSupported = threads.isCurrentThreadCpuTimeSupported();
+        com.sun.management.ThreadMXBean allocations = threads instanceof com.sun.management.ThreadMXBean sun
+                && sun.isThreadAllocatedMemorySupported() ? sun : null;
+
+        List<TickStats> stats = new ArrayList<>(ticks);
+        for (int i = 0; i < ticks; i++) {
+            long cpuBefore = cpuSupported ? threads.getCurrentThreadCpuTime() : System.nanoTime();
+            long allocatedBefore = allocations != null ? allocations.getCurrentThreadAllocatedBytes() : 0L;
+            int[] counts = tick();
+            long cpu = (cpuSupported ? threads.getCurrentThreadCpuTime() : System.nanoTime()) - cpuBefore;
+            long allocated = allocations != null ? allocations.getCurrentThreadAllocatedBytes() - allocatedBefore : -1L;
+            stats.add(new TickStats(logicalTick, counts[0], counts[1], cpu, allocated));
+        }
+        return new Report(stats);
+    }
+
+    /**
+     * Returns {approvals, executed} for the tick.
+     */
+    private int[] tick() {
+        logicalTick += Math.max(1, settings.intervalTicks);
+        int executed = executeDue();
+
+        for (int i = 0; i < cities.size(); i++) {
+            SimCity city = cities.get(i);
+            states.get(i).ema.update(city.employmentRate(), city.housingRatio(), city.prosperity());
+        }
+
+        int[] origins = new int[cities.size()];
+        for (int i = 0; i < origins.length; i++) {
+            origins[i] = i;
+        }
+        MigrationPlanner.Snapshot snapshot = MigrationPlanner.collect(this, origins, cities.size());
+        if (snapshot == null) {
+            return new int[]{0, executed};
+        }
+        int approvals = MigrationPlanner.approve(this, MigrationPlanner.plan(snapshot));
+        return new int[]{approvals, executed};
+    }
+
+    @Override
+    public MigrationService.MigrationSettings settings() {
+        return settings;
+    }
+
+    @Override
+    public long logicalTick() {
+        return logicalTick;
+    }
+
+    @Override
+    public MigrationService.CityState state(int slot) {
+        return states.get(slot);
+    }
+
+    @Override
+    public MigrationService.TokenBucket globalBucket() {
+        return globalBucket;
+    }
+
+    @Override
+    public boolean exists(int slot) {
+        return slot >= 0 && slot < cities.size();
+    }
+
+    @Override
+    public int population(int slot) {
+        return cities.get(slot).population;
+    }
+
+    @Override
+    public int beds(int slot) {
+        return cities.get(slot).beds;
+    }
+
+    @Override
+    public boolean isOriginEligible(int slot) {
+        return MigrationRules.originRejection(states.get(slot).ema, cities.get(slot).population,
+                settings.minPopulationFloor) == null;
+    }
+
+    @Override
+    public List<MigrationPlanner.Candidate> candidates(int origin) {
+        MigrationService.CityState originState = states.get(origin);
+        List<SimLink> passed = new ArrayList<>();
+        List<Double> deltas = new ArrayList<>();
+        double maxStrength = 0.0d;
+        double maxProsperityDelta = 0.0d;
+        for (SimLink link : links.get(origin)) {
+            SimCity destination = cities.get(link.neighbor);
+            MigrationService.CityState destinationState = states.get(link.neighbor);
+            MigrationService.ConsistencyCounter consistency = originState.pair(link.neighbor).consistency;
+            if ((!settings.logic.allowZeroPopulationDestinations && destination.population <= 0)
+                    || !destinationState.ema.isInitialized()) {
+                MigrationRules.streak(consistency, false, logicalTick, settings.intervalTicks);
+                continue;
+            }
+            if (destination.population > 0) {
+                destinationState.zeroPopArrivals = 0;
+            }
+            MigrationRules.DestinationCheck check = MigrationRules.checkDestination(settings.logic, originState.ema,
+                    destinationState.ema, destination.population, destination.beds, destinationState.zeroPopArrivals);
+            if (!check.passes() || MigrationRules.unemploymentRejection(settings.logic.unemployment,
+                    destination.population, destination.unemployed(), 0) != null) {
+                MigrationRules.streak(consistency, false, logicalTick, settings.intervalTicks);
+                continue;
+            }
+            if (MigrationRules.streak(consistency, true, logicalTick, settings.intervalTicks) < settings.logic.requireConsistencyScans) {
+                continue;
+            }
+            passed.add(link);
+            deltas.add(check.prosperityDelta());
+            maxStrength = Math.max(maxStrength, Math.max(0, link.strength));
+            maxProsperityDelta = Math.max(maxProsperityDelta, check.prosperityDelta());
+        }
+        List<MigrationPlanner.Candidate> candidates = new ArrayList<>(passed.size());
+        for (int i = 0; i < passed.size(); i++) {
+            double strength = Math.max(0, passed.get(i).strength);
+            double delta = deltas.get(i);
+            candidates.add(new MigrationPlanner.Candidate(passed.get(i).neighbor,
+                    MigrationRules.score(settings.logic.scoreWeights, strength, maxStrength, delta, maxProsperityDelta),
+                    strength, delta));
+        }
+        return candidates;
+    }
+
+    @Override
+    public double distance(int origin, int destination) {
+        SimCity a = cities.get(origin);
+        SimCity b = cities.get(destination);
+        double dx = a.x - b.x;
+        double dz = a.z - b.z;
+        return Math.sqrt(dx * dx + dz * dz);
+    }
+
+    @Override
+    public boolean canApprove(int origin, int destination) {
+        return true;
+    }
+
+    @Override
+    public int jitter(int max) {
+        return random.nextInt(max + 1);
+    }
+
+    @Override
+    public void enqueue(long executeTick, int origin, int destination) {
+        queue.add(new Pending(executeTick, origin, destination));
+    }
+
+    private int executeDue() {
+        int executed = 0;
+        while (!queue.isEmpty() && queue.peek().executeTick() <= logicalTick) {
+            Pending move = queue.poll();
+            SimCity origin = cities.get(move.origin());
+            SimCity destination = cities.get(move.destination());
+            MigrationService.CityState originState = states.get(move.origin());
+            MigrationService.CityState destinationState = states.get(move.destination());
+            boolean destinationWasEmpty = destination.population <= 0;
+            origin.population--;
+            destination.population++;
+            origin.departures++;
+            destination.arrivals++;
+            if (destinationWasEmpty) {
+                destinationState.zeroPopArrivals++;
+            }
+            originState.pending = Math.max(0, originState.pending - 1);
+            destinationState.inflight = Math.max(0, destinationState.inflight - 1);
+            executed++;
+        }
+        return executed;
+    }
+
+    /**
+     * Synthetic city. Employment is jobs over population, housing is beds over population and prosperity blends
+     * the two, so moves feed back into the next tick's averages.
+     */
+    static final class SimCity {
+        final String id;
+        final int beds;
+        final int jobs;
+        final double x;
+        final double z;
+        int population;
+        int arrivals;
+        int departures;
+
+        SimCity(String id, int population, int beds, int jobs, double x, double z) {
+            this.id = id;
+            this.population = population;
+            this.beds = beds;
+            this.jobs = jobs;
+            this.x = x;
+            this.z = z;
+        }
+
+        double employmentRate() {
+            return population > 0 ? Math.min(1.0d, jobs / (double) population) : 0.0d;
+        }
+
+        double housingRatio() {
+            return population > 0 ? beds / (double) population : 1.0d;
+        }
+
+        double prosperity() {
+            return 60.0d * employmentRate() + 40.0d * Math.min(1.0d, housingRatio());
+        }
+
+        int unemployed() {
+            return Math.max(0, population - jobs);
+        }
+    }
+
+    record TickStats(long tick, int approvals, int executed, long cpuNanos, long allocatedBytes) {
+    }
+
+    record Report(List<TickStats> ticks) {
+        int totalApprovals() {
+            return ticks.stream().mapToInt(TickStats::approvals).sum();
+        }
+
+        int totalExecuted() {
+            return ticks.stream().mapToInt(TickStats::executed).sum();
+        }
+
+        int maxApprovalsPerTick() {
+            return ticks.stream().mapToInt(TickStats::approvals).max().orElse(0);
+        }
+
+        double meanCpuMicros() {
+            return ticks.stream().mapToLong(TickStats::cpuNanos).average().orElse(0.0d) / 1_000.0d;
+        }
+
+        /**
+         * Mean bytes allocated per tick, or -1 when the JVM cannot measure thread allocation.
+         */
+        double meanAllocatedBytes() {
+            if (ticks.isEmpty() || ticks.get(0).allocatedBytes() < 0) {
+                return -1.0d;
+            }
+            return ticks.stream().mapToLong(TickStats::allocatedBytes).average().orElse(0.0d);
+        }
+
+        String summary() {
+            return String.format(java.util.Locale.US,
+                    "ticks=%d approvals=%d executed=%d maxPerTick=%d cpu=%.1fus/tick alloc=%.0fB/tick",
+                    ticks.size(), totalApprovals(), totalExecuted(), maxApprovalsPerTick(), meanCpuMicros(),
+                    meanAllocatedBytes());
+        }
+    }
+
+    private record SimLink(int neighbor, double strength) {
+    }
+
+    private record Pending(long executeTick, int origin, int destination) {
+    }
+}
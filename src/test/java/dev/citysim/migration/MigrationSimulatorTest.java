@@ -0,0 +1,134 @@
+package dev.citysim.migration;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MigrationSimulatorTest {
+
+    private static final int INTERVAL = 200;
+    private static final int FLOOR = 5;
+
+    @Test
+    void crowdedOriginDrainsTowardsProsperousDestination() {
+        MigrationSimulator simulator = new MigrationSimulator(settings(4, 10), 7L);
+        int origin = simulator.addCity("crowded", 40, 20, 10, 0, 0);
+        int destination = simulator.addCity("prosperous", 10, 30, 30, 100, 0);
+        simulator.link(origin, destination, 1.0d);
+
+        MigrationSimulator.Report report = simulator.run(400);
+
+        MigrationSimulator.SimCity from = simulator.city(origin);
+        MigrationSimulator.SimCity to = simulator.city(destination);
+        assertTrue(report.totalExecuted() > 0, report::summary);
+        assertTrue(from.population < 40 && to.population > 10, report::summary);
+        assertEquals(50, from.population + to.population);
+        assertTrue(from.population > FLOOR, "origin dropped to " + from.population);
+        assertTrue(to.population <= to.beds, "destination overfilled to " + to.population);
+        assertEquals(report.totalExecuted(), to.arrivals);
+    }
+
+    @Test
+    void approvalsStayWithinRateAndMoveCaps() {
+        MigrationSimulator simulator = grid(11L, 12, 8, settings(3, 6));
+        int before = totalPopulation(simulator);
+
+        MigrationSimulator.Report report = simulator.run(1_000);
+
+        assertTrue(report.totalApprovals() > 0, report::summary);
+        assertTrue(report.maxApprovalsPerTick() <= 3, report::summary);
+        assertEquals(before, totalPopulation(simulator));
+        for (int i = 0; i < simulator.cityCount(); i++) {
+            assertTrue(simulator.city(i).population >= FLOOR || simulator.city(i).departures == 0);
+        }
+    }
+
+    @Test
+    void sameSeedReplaysIdentically() {
+        MigrationSimulator first = grid(3L, 10, 10, settings(4, 10));
+        MigrationSimulator second = grid(3L, 10, 10, settings(4, 10));
+
+        MigrationSimulator.Report a = first.run(500);
+        MigrationSimulator.Report b = second.run(500);
+
+        for (int tick = 0; tick < a.ticks().size(); tick++) {
+            assertEquals(a.ticks().get(tick).approvals(), b.ticks().get(tick).approvals(), "tick " + tick);
+            assertEquals(a.ticks().get(tick).executed(), b.ticks().get(tick).executed(), "tick " + tick);
+        }
+        for (int i = 0; i < first.cityCount(); i++) {
+            assertEquals(first.city(i).population, second.city(i).population, first.city(i).id);
+        }
+    }
+
+    @Test
+    void largeGridKeepsApprovingWithinCaps() {
+        MigrationSimulator simulator = grid(42L, 20, 10, settings(8, 20));
+        int before = totalPopulation(simulator);
+
+        simulator.run(200);
+        MigrationSimulator.Report report = simulator.run(3_000);
+
+        assertTrue(report.totalApprovals() > 0, report::summary);
+        assertTrue(report.totalExecuted() > 0, report::summary);
+        assertTrue(report.maxApprovalsPerTick() <= 8, report::summary);
+        assertEquals(before, totalPopulation(simulator));
+    }
+
+    @Test
+    @Tag("perf")
+    void gridThroughputStaysWithinBudget() {
+        MigrationSimulator simulator = grid(42L, 20, 10, settings(8, 20));
+
+        simulator.run(200);
+        MigrationSimulator.Report report = simulator.run(3_000);
+
+        assertTrue(report.meanCpuMicros() < 5_000.0d, report::summary);
+    }
+
+    private static MigrationService.MigrationSettings settings(int maxMovesPerTick, int globalPerInterval) {
+        return MigrationSimulator.settings(INTERVAL, maxMovesPerTick, FLOOR, MigrationService.LogicSettings.defaults(),
+                new MigrationService.RateSettings(INTERVAL, globalPerInterval, 2, 2, 1, 40));
+    }
+
+    /**
+     * Cities on a grid linked to their right and lower neighbours, alternating between crowded jobless towns and
+     * roomy towns with spare jobs.
+     */
+    private static MigrationSimulator grid(long seed, int width, int height, MigrationService.MigrationSettings settings) {
+        Random random = new Random(seed);
+        MigrationSimulator simulator = new MigrationSimulator(settings, seed);
+        for (int z = 0; z < height; z++) {
+            for (int x = 0; x < width; x++) {
+                int population = 15 + random.nextInt(40);
+                boolean crowded = ((x + z) & 1) == 0;
+                int beds = crowded ? population / 2 + random.nextInt(5) : population * 2 + random.nextInt(10);
+                int jobs = crowded ? population / 3 : population + 10 + random.nextInt(20);
+                simulator.addCity("city-" + x + "-" + z, population, beds, jobs, x * 200.0d, z * 200.0d);
+            }
+        }
+        for (int z = 0; z < height; z++) {
+            for (int x = 0; x < width; x++) {
+                int index = z * width + x;
+                if (x + 1 < width) {
+                    simulator.link(index, index + 1, 0.2d + random.nextDouble());
+                }
+                if (z + 1 < height) {
+                    simulator.link(index, index + width, 0.2d + random.nextDouble());
+                }
+            }
+        }
+        return simulator;
+    }
+
+    private static int totalPopulation(MigrationSimulator simulator) {
+        int total = 0;
+        for (int i = 0; i < simulator.cityCount(); i++) {
+            total += simulator.city(i).population;
+        }
+        return total;
+    }
+}
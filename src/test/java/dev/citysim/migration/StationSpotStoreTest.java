@@ -0,0 +1,73 @@
+package dev.citysim.migration;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StationSpotStoreTest {
+
+    @TempDir
+    Path folder;
+
+    @Test
+    void roundTripsEntries() {
+        File file = folder.resolve("station-spots.json").toFile();
+        UUID world = UUID.randomUUID();
+        StationSpotStore.Entry entry = new StationSpotStore.Entry(world, 10, 64, -20, 7L, Long.MIN_VALUE,
+                List.of(new double[]{10.5, 65.01, -19.5}, new double[]{11.5, 65.01, -19.5}));
+
+        new StationSpotStore(file, null).save(List.of(entry));
+        List<StationSpotStore.Entry> loaded = new StationSpotStore(file, null).load();
+
+        assertEquals(1, loaded.size());
+        StationSpotStore.Entry restored = loaded.get(0);
+        assertEquals(world, restored.world());
+        assertEquals(-20, restored.z());
+        assertEquals(7L, restored.settingsHash());
+        assertEquals(Long.MIN_VALUE, restored.contentHash());
+        assertArrayEquals(new double[]{11.5, 65.01, -19.5}, restored.spots().get(1));
+        assertTrue(Files.notExists(folder.resolve("station-spots.json.tmp")));
+    }
+
+    @Test
+    void ignoresMissingCorruptAndOutdatedFiles() throws IOException {
+        File file = folder.resolve("station-spots.json").toFile();
+        StationSpotStore store = new StationSpotStore(file, null);
+        assertTrue(store.load().isEmpty());
+
+        Files.writeString(file.toPath(), "{not json", StandardCharsets.UTF_8);
+        assertTrue(store.load().isEmpty());
+
+        Files.writeString(file.toPath(), "{\"version\":" + (StationSpotStore.VERSION + 1) + ",\"entries\":[]}",
+                StandardCharsets.UTF_8);
+        assertTrue(store.load().isEmpty());
+
+        Files.writeString(file.toPath(), "{\"version\":" + StationSpotStore.VERSION + ",\"entries\":["
+                + "{\"x\":1,\"y\":2,\"z\":3,\"spots\":[[1,2,3]]},"
+                + "{\"world\":\"" + UUID.randomUUID() + "\",\"x\":1,\"y\":2,\"z\":3,\"spots\":[[1,2]]}]}",
+                StandardCharsets.UTF_8);
+        assertTrue(store.load().isEmpty());
+    }
+
+    @Test
+    void hashIsStableAndOrderSensitive() {
+        long seed = StationSpotStore.seed();
+        long ab = StationSpotStore.mix(StationSpotStore.mix(seed, "minecraft:stone"), "minecraft:air");
+        long ba = StationSpotStore.mix(StationSpotStore.mix(seed, "minecraft:air"), "minecraft:stone");
+        assertEquals(ab, StationSpotStore.mix(StationSpotStore.mix(seed, "minecraft:stone"), "minecraft:air"));
+        assertNotEquals(ab, ba);
+        assertNotEquals(StationSpotStore.mix(seed, 1L), StationSpotStore.mix(seed, 2L));
+    }
+}
@@ -0,0 +1,138 @@
+package dev.citysim.migration;
+
+import com.destroystokyo.paper.event.entity.EntityAddToWorldEvent;
+import com.destroystokyo.paper.event.entity.EntityRemoveFromWorldEvent;
+import dev.citysim.TestPluginFactory;
+import dev.citysim.city.City;
+import dev.citysim.city.CityManager;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Villager;
+import org.bukkit.persistence.PersistentDataContainer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class VillagerPoolTest {
+
+    private World world;
+    private City city;
+    private CityManager cityManager;
+    private VillagerPool pool;
+
+    @BeforeEach
+    void setUp() {
+        world = mock(World.class);
+        when(world.getName()).thenReturn("world");
+        city = new City();
+        city.id = "harbor";
+        cityManager = mock(CityManager.class);
+        when(cityManager.citiesAt(any())).thenReturn(List.of(city));
+        pool = new VillagerPool(TestPluginFactory.create("villager-pool"), cityManager);
+    }
+
+    @Test
+    void addedVillagersAreBucketedByChunk() {
+        Villager villager = villager(8.5, 64, 8.5);
+        pool.onEntityAdd(addEvent(villager));
+
+        assertEquals(1, pool.trackedCount());
+        assertEquals(1, pool.pooledCount());
+        assertSame(villager, pool.nearest(city, new Location(world, 10, 64, 10), 8, 4, 0L, v -> true));
+        assertNull(pool.nearest(city, new Location(world, 100, 64, 100), 8, 4, 0L, v -> true));
+    }
+
+    @Test
+    void removedVillagersLeaveThePool() {
+        Villager villager = villager(8.5, 64, 8.5);
+        pool.onEntityAdd(addEvent(villager));
+
+        EntityRemoveFromWorldEvent remove = mock(EntityRemoveFromWorldEvent.class);
+        when(remove.getEntity()).thenReturn(villager);
+        pool.onEntityRemove(remove);
+
+        assertEquals(0, pool.trackedCount());
+        assertEquals(0, pool.pooledCount());
+        assertNull(pool.nearest(city, new Location(world, 10, 64, 10), 8, 4, 0L, v -> true));
+    }
+
+    @Test
+    void refreshFollowsVillagersIntoOtherChunks() {
+        Villager villager = villager(8.5, 64, 8.5);
+        pool.onEntityAdd(addEvent(villager));
+
+        when(villager.getLocation()).thenReturn(new Location(world, 56.5, 64, 8.5));
+        pool.refresh(0L);
+
+        assertEquals(1, pool.pooledCount());
+        assertNull(pool.nearest(city, new Location(world, 4, 64, 4), 6, 4, 0L, v -> true));
+        assertSame(villager, pool.nearest(city, new Location(world, 56, 64, 8), 6, 4, 0L, v -> true));
+    }
+
+    @Test
+    void villagersInOverlappingCitiesArePooledForEach() {
+        City mill = new City();
+        mill.id = "mill";
+        Villager villager = villager(8.5, 64, 8.5);
+        Location overlap = villager.getLocation();
+        when(cityManager.citiesAt(overlap)).thenReturn(List.of(city, mill));
+        pool.onEntityAdd(addEvent(villager));
+
+        assertEquals(1, pool.pooledCount());
+        assertSame(villager, pool.nearest(city, new Location(world, 10, 64, 10), 8, 4, 0L, v -> true));
+        assertSame(villager, pool.nearest(mill, new Location(world, 10, 64, 10), 8, 4, 0L, v -> true));
+
+        when(villager.getLocation()).thenReturn(new Location(world, 56.5, 64, 8.5));
+        pool.refresh(0L);
+
+        assertNull(pool.nearest(mill, new Location(world, 10, 64, 10), 8, 4, 0L, v -> true));
+        assertSame(villager, pool.nearest(city, new Location(world, 56, 64, 8), 6, 4, 0L, v -> true));
+        assertNull(pool.nearest(mill, new Location(world, 56, 64, 8), 6, 4, 0L, v -> true));
+    }
+
+    @Test
+    void villagersOutsideCitiesOrCoolingDownAreNotPooled() {
+        Villager outside = villager(500.5, 64, 500.5);
+        Location wilderness = outside.getLocation();
+        when(cityManager.citiesAt(wilderness)).thenReturn(List.of());
+        pool.onEntityAdd(addEvent(outside));
+        assertEquals(1, pool.trackedCount());
+        assertEquals(0, pool.pooledCount());
+
+        Villager resting = villager(8.5, 64, 8.5);
+        pool.onEntityAdd(addEvent(resting));
+        assertEquals(1, pool.pooledCount());
+
+        long now = System.currentTimeMillis();
+        pool.markCooldown(resting, now + 60_000L);
+        assertEquals(0, pool.pooledCount());
+
+        pool.refresh(now + 120_000L);
+        assertEquals(1, pool.pooledCount());
+    }
+
+    private Villager villager(double x, double y, double z) {
+        Villager villager = mock(Villager.class);
+        Location location = new Location(world, x, y, z);
+        when(villager.getUniqueId()).thenReturn(UUID.randomUUID());
+        when(villager.getLocation()).thenReturn(location);
+        when(villager.isValid()).thenReturn(true);
+        when(villager.getPersistentDataContainer()).thenReturn(mock(PersistentDataContainer.class));
+        return villager;
+    }
+
+    private static EntityAddToWorldEvent addEvent(Villager villager) {
+        EntityAddToWorldEvent event = mock(EntityAddToWorldEvent.class);
+        when(event.getEntity()).thenReturn(villager);
+        return event;
+    }
+}
@@ -0,0 +1,55 @@
+package dev.citysim.stats;
+
+import dev.citysim.city.City;
+import dev.citysim.stats.scan.ChunkCensus;
+import dev.citysim.stats.scan.ChunkCensusStore;
+import org.bukkit.entity.Villager.Profession;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ChunkCensusStoreTest {
+
+    @Test
+    void returnsCensusOnlyWhileFresh() {
+        ChunkCensusStore store = new ChunkCensusStore();
+        store.setMaxAgeMillis(1_000L);
+        City.ChunkPosition chunk = new City.ChunkPosition("world", 3, -2);
+
+        assertFalse(store.isTracked(chunk));
+        store.record(chunk, new ChunkCensus(List.of(
+                resident(Profession.FARMER, true),
+                resident(Profession.FARMER, true),
+                resident(Profession.NONE, true),
+                resident(Profession.NONE, false)), 10_000L));
+
+        assertTrue(store.isTracked(chunk));
+        ChunkCensus fresh = store.freshCensus(chunk, 10_500L);
+        assertNotNull(fresh);
+        assertEquals(4, fresh.population());
+        assertEquals(2, fresh.employed());
+        assertNull(store.freshCensus(chunk, 11_001L));
+    }
+
+    @Test
+    void zeroMaxAgeDisablesFallback() {
+        ChunkCensusStore store = new ChunkCensusStore();
+        store.setMaxAgeMillis(0L);
+        City.ChunkPosition chunk = new City.ChunkPosition("world", 0, 0);
+        store.record(chunk, new ChunkCensus(List.of(resident(Profession.NONE, true)), 5_000L));
+
+        assertNull(store.freshCensus(chunk, 5_000L));
+        assertFalse(store.isFresh(5_000L, 5_000L));
+    }
+
+    private static ChunkCensus.Resident resident(Profession profession, boolean adult) {
+        return new ChunkCensus.Resident(UUID.randomUUID(), profession, adult);
+    }
+}
@@ -0,0 +1,74 @@
+package dev.citysim.stats;
+
+import dev.citysim.city.City;
+import dev.citysim.city.Cuboid;
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.Material;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ChunkMetricSamplerTest {
+
+    @Test
+    void samplesSurfaceMetricsInOnePass() {
+        ChunkSnapshot snapshot = mock(ChunkSnapshot.class);
+        when(snapshot.getHighestBlockYAt(anyInt(), anyInt())).thenReturn(64);
+        when(snapshot.getBlockType(anyInt(), anyInt(), anyInt())).thenReturn(Material.AIR);
+        when(snapshot.getBlockType(anyInt(), eq(64), anyInt())).thenReturn(Material.GRASS_BLOCK);
+        when(snapshot.getBlockEmittedLight(anyInt(), eq(65), anyInt())).thenReturn(10);
+
+        List<ChunkMetricSampler.Clip> clips = List.of(new ChunkMetricSampler.Clip(0, 0, 0, 15, 60, 70, 0, 15));
+        ChunkMetricSample sample = ChunkMetricSampler.sample(snapshot, clips, false, -64, 320,
+                type -> type == Material.GRASS_BLOCK, type -> false, 5L);
+
+        assertEquals(4, sample.lightSamples());
+        assertEquals(40L, sample.lightSum());
+        assertEquals(4, sample.residentialLightSamples());
+        assertEquals(9, sample.natureProbes());
+        assertEquals(9, sample.natureFound());
+        assertEquals(4, sample.pollutionProbes());
+        assertEquals(0, sample.pollutionFound());
+        assertEquals(5L, sample.timestamp());
+    }
+
+    @Test
+    void planKeepsCuboidGridAcrossChunkBorders() {
+        Cuboid cuboid = new Cuboid();
+        cuboid.world = "world";
+        cuboid.minX = -3;
+        cuboid.maxX = 20;
+        cuboid.minZ = 0;
+        cuboid.maxZ = 4;
+        cuboid.minY = 60;
+        cuboid.maxY = 70;
+
+        Map<City.ChunkPosition, List<ChunkMetricSampler.Clip>> clips = ChunkMetricSampler.planClips(List.of(cuboid));
+
+        assertEquals(3, clips.size());
+        ChunkMetricSampler.Clip west = clips.get(new City.ChunkPosition("world", -1, 0)).get(0);
+        assertEquals(-3, west.minX());
+        assertEquals(-1, west.maxX());
+        assertEquals(-3, ChunkMetricSampler.firstOnGrid(west.minX(), west.originX(), ChunkMetricSampler.LIGHT_STEP));
+
+        ChunkMetricSampler.Clip middle = clips.get(new City.ChunkPosition("world", 0, 0)).get(0);
+        assertEquals(0, middle.minX());
+        assertEquals(15, middle.maxX());
+        assertEquals(5, ChunkMetricSampler.firstOnGrid(middle.minX(), middle.originX(), ChunkMetricSampler.LIGHT_STEP));
+        assertEquals(3, ChunkMetricSampler.firstOnGrid(middle.minX(), middle.originX(), ChunkMetricSampler.NATURE_STEP));
+
+        ChunkMetricSampler.Clip east = clips.get(new City.ChunkPosition("world", 1, 0)).get(0);
+        assertEquals(16, east.minX());
+        assertEquals(20, east.maxX());
+        assertEquals(-3, east.originX());
+        assertEquals(21, ChunkMetricSampler.firstOnGrid(east.minX(), east.originX(), ChunkMetricSampler.LIGHT_STEP));
+        assertEquals(21, ChunkMetricSampler.firstOnGrid(east.minX(), east.originX(), ChunkMetricSampler.NATURE_STEP));
+    }
+}
@@ -0,0 +1,36 @@
+package dev.citysim.stats;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ClusterRatioEstimateTest {
+
+    @Test
+    void errorShrinksAsMoreChunksAreSampled() {
+        ClusterRatioEstimate few = new ClusterRatioEstimate();
+        ClusterRatioEstimate many = new ClusterRatioEstimate();
+        for (int i = 0; i < 40; i++) {
+            int found = i % 2 == 0 ? 2 : 6;
+            if (i < 4) {
+                few.add(found, 10);
+            }
+            many.add(found, 10);
+        }
+
+        assertEquals(0.4, few.ratio(0.0), 1e-9);
+        assertEquals(0.4, many.ratio(0.0), 1e-9);
+        assertTrue(many.halfWidth(400) < few.halfWidth(400));
+    }
+
+    @Test
+    void fullCensusHasNoError() {
+        ClusterRatioEstimate estimate = new ClusterRatioEstimate();
+        estimate.add(1, 10);
+
+        assertEquals(Double.POSITIVE_INFINITY, estimate.halfWidth(5));
+        estimate.add(9, 10);
+        assertEquals(0.0, estimate.halfWidth(2));
+    }
+}
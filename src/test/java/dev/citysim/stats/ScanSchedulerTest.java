@@ -4,9 +4,12 @@ import dev.citysim.TestPluginFactory;
 import dev.citysim.city.City;
 import dev.citysim.city.CityManager;
 import dev.citysim.stats.schedule.ScanScheduler;
+import dev.citysim.stats.scan.BedLedger;
+import dev.citysim.stats.scan.ChunkCensusStore;
 import dev.citysim.stats.scan.CityScanCallbacks;
 import dev.citysim.stats.scan.CityScanRunner;
 import dev.citysim.stats.scan.ScanDebugManager;
+import dev.citysim.util.BlockClassifier;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.plugin.Plugin;
 import org.junit.jupiter.api.Test;
@@ -23,7 +26,8 @@ class ScanSchedulerTest {
         City alpha = cityManager.create("Alpha");
         City beta = cityManager.create("Beta");
 
-        CityScanRunner runner = new CityScanRunner(new StubCallbacks(), new ScanDebugManager());
+        CityScanRunner runner = new CityScanRunner(new StubCallbacks(), new ScanDebugManager(), new ChunkCensusStore(),
+                new BedLedger(), new BlockClassifier());
         ScanScheduler scheduler = new ScanScheduler(cityManager, runner);
         scheduler.setLimits(1, 16, 128);
 
@@ -3,17 +3,27 @@ package dev.citysim.stats;
 import dev.citysim.TestPluginFactory;
 import dev.citysim.city.City;
 import dev.citysim.city.CityManager;
+import dev.citysim.city.Cuboid;
+import dev.citysim.stats.scan.ChunkCensus;
+import dev.citysim.stats.scan.ChunkCensusStore;
+import dev.citysim.util.BlockClassifier;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.plugin.Plugin;
 import org.junit.jupiter.api.Test;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 
 import static java.nio.file.Files.writeString;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class StatsServiceTest {
 
@@ -54,7 +64,8 @@ class StatsServiceTest {
         StubBlockScanService blockScanService = new StubBlockScanService(calculator);
         StubStatsUpdateScheduler scheduler = new StubStatsUpdateScheduler(plugin);
 
-        StatsService statsService = new StatsService(plugin, cityManager, null, calculator, blockScanService, scheduler);
+        StatsService statsService = new StatsService(plugin, cityManager, null, new BlockClassifier(), calculator, blockScanService, scheduler,
+                null, null);
         blockScanService.reset();
         scheduler.reset();
 
@@ -76,7 +87,8 @@ class StatsServiceTest {
         StubBlockScanService blockScanService = new StubBlockScanService(calculator);
         StubStatsUpdateScheduler scheduler = new StubStatsUpdateScheduler(plugin);
 
-        StatsService statsService = new StatsService(plugin, cityManager, null, calculator, blockScanService, scheduler);
+        StatsService statsService = new StatsService(plugin, cityManager, null, new BlockClassifier(), calculator, blockScanService, scheduler,
+                null, null);
         blockScanService.reset();
         scheduler.reset();
 
@@ -86,6 +98,48 @@ class StatsServiceTest {
         assertEquals(1, scheduler.updateCalls);
     }
 
+    @Test
+    void recomputeRescoresCachedCitiesInOneBatch() {
+        Plugin plugin = TestPluginFactory.create("stats-service-recompute");
+        CityManager cityManager = new CityManager(plugin);
+        ProsperityCalculator calculator = new ProsperityCalculator();
+        StubBlockScanService blockScanService = new StubBlockScanService(calculator);
+        StubStatsUpdateScheduler scheduler = new StubStatsUpdateScheduler(plugin);
+        StatsService statsService = new StatsService(plugin, cityManager, null, new BlockClassifier(), calculator, blockScanService, scheduler,
+                Runnable::run, Runnable::run);
+
+        City scanned = cityManager.create("Scanned");
+        scanned.population = 10;
+        scanned.adultPopulation = 8;
+        scanned.employed = 6;
+        scanned.beds = 10;
+        scanned.blockScanCache = new City.BlockScanCache();
+        scanned.prosperityBreakdown = new ProsperityBreakdown();
+        City unscanned = cityManager.create("Unscanned");
+
+        List<Integer> batchSizes = new ArrayList<>();
+        statsService.addStatsUpdateListener(new StatsUpdateListener() {
+            @Override
+            public void onCityStatsUpdated(City city) {
+                throw new AssertionError("expected a batched notification");
+            }
+
+            @Override
+            public void onCityStatsBatchUpdated(Collection<City> cities) {
+                batchSizes.add(cities.size());
+            }
+        });
+
+        calculator.setBaseScore(70.0);
+        statsService.recomputeFromCachedMetrics().join();
+
+        assertEquals(70, scanned.prosperityBreakdown.base);
+        assertNotNull(scanned.economyBreakdown);
+        assertEquals(scanned.economyBreakdown.total, scanned.prosperity);
+        assertNull(unscanned.prosperityBreakdown);
+        assertEquals(List.of(1), batchSizes);
+    }
+
     @Test
     void stopDelegatesToScheduler() {
         Plugin plugin = TestPluginFactory.create("stats-service-stop");
@@ -94,7 +148,8 @@ class StatsServiceTest {
         StubBlockScanService blockScanService = new StubBlockScanService(calculator);
         StubStatsUpdateScheduler scheduler = new StubStatsUpdateScheduler(plugin);
 
-        StatsService statsService = new StatsService(plugin, cityManager, null, calculator, blockScanService, scheduler);
+        StatsService statsService = new StatsService(plugin, cityManager, null, new BlockClassifier(), calculator, blockScanService, scheduler,
+                null, null);
         blockScanService.reset();
         scheduler.reset();
         scheduler.running = true;
@@ -104,9 +159,46 @@ class StatsServiceTest {
         assertEquals(1, scheduler.stopCalls);
     }
 
+    @Test
+    void removedCityForgetsChunkCensusNoOtherCityCovers() {
+        Plugin plugin = TestPluginFactory.create("stats-service-census-removal");
+        CityManager cityManager = new CityManager(plugin);
+        ProsperityCalculator calculator = new ProsperityCalculator();
+        StatsService statsService = new StatsService(plugin, cityManager, null, new BlockClassifier(), calculator,
+                new StubBlockScanService(calculator), new StubStatsUpdateScheduler(plugin), null, null);
+
+        City removed = cityManager.create("Removed");
+        removed.cuboids.add(cuboid(0, 31));
+        City neighbour = cityManager.create("Neighbour");
+        neighbour.cuboids.add(cuboid(16, 47));
+
+        ChunkCensusStore store = statsService.getChunkCensusStore();
+        City.ChunkPosition own = new City.ChunkPosition("world", 0, 0);
+        City.ChunkPosition shared = new City.ChunkPosition("world", 1, 1);
+        store.record(own, new ChunkCensus(List.of(), 1L));
+        store.record(shared, new ChunkCensus(List.of(), 1L));
+
+        cityManager.remove(removed.id);
+
+        assertFalse(store.isTracked(own));
+        assertTrue(store.isTracked(shared));
+    }
+
+    private static Cuboid cuboid(int min, int max) {
+        Cuboid cuboid = new Cuboid();
+        cuboid.world = "world";
+        cuboid.minX = min;
+        cuboid.maxX = max;
+        cuboid.minZ = min;
+        cuboid.maxZ = max;
+        cuboid.minY = 0;
+        cuboid.maxY = 100;
+        return cuboid;
+    }
+
     private static final class TestStatsService extends StatsService {
         TestStatsService(Plugin plugin, CityManager cityManager) {
-            super(plugin, cityManager, null);
+            super(plugin, cityManager, null, new BlockClassifier());
         }
 
         @Override
@@ -123,7 +215,7 @@ class StatsServiceTest {
         City.BlockScanCache valueToReturn = new City.BlockScanCache();
 
         StubBlockScanService(ProsperityCalculator calculator) {
-            super(calculator);
+            super(calculator, new BlockClassifier());
         }
 
         @Override
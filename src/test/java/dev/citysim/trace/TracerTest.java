@@ -0,0 +1,70 @@
+package dev.citysim.trace;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TracerTest {
+
+    @Test
+    void disabledCategoryCapturesNothing() {
+        Tracer tracer = new Tracer(16);
+        assertNull(tracer.record(TraceType.MIGRATION_RESOLVER_SLOTS, "alpha", null, null, 3, 0, 0, 0, null));
+        tracer.enable(TraceCategory.SCAN, 1);
+        assertNull(tracer.record(TraceType.MIGRATION_RESOLVER_SLOTS, "alpha", null, null, 3, 0, 0, 0, null));
+        assertEquals(0L, tracer.recordedCount());
+        assertTrue(tracer.dump(16).isEmpty());
+    }
+
+    @Test
+    void samplingKeepsOneInEvery() {
+        Tracer tracer = new Tracer(64);
+        tracer.enable(TraceCategory.MIGRATION, 4);
+        int kept = 0;
+        for (int i = 0; i < 20; i++) {
+            if (tracer.record(TraceType.MIGRATION_VALIDATED, "alpha", null, null, i, 0, 0, 0, null) != null) {
+                kept++;
+            }
+        }
+        assertEquals(5, kept);
+        assertEquals(5, tracer.recent(64).size());
+    }
+
+    @Test
+    void ringKeepsNewestEventsInOrder() {
+        Tracer tracer = new Tracer(8);
+        tracer.enable(TraceCategory.MIGRATION, 1);
+        for (int i = 0; i < 20; i++) {
+            tracer.record(TraceType.MIGRATION_CANDIDATES, "city", null, null, i, 0, 0, 0, null);
+        }
+        List<TraceEvent> events = tracer.recent(100);
+        assertEquals(8, events.size());
+        for (int i = 0; i < events.size(); i++) {
+            assertEquals(12 + i, events.get(i).a());
+        }
+        assertEquals(3, tracer.recent(3).size());
+        assertEquals(19L, tracer.recent(3).get(2).a());
+
+        tracer.clear();
+        assertTrue(tracer.recent(100).isEmpty());
+    }
+
+    @Test
+    void dumpFormatsOnDemand() {
+        Tracer tracer = new Tracer(8);
+        tracer.enable(TraceCategory.MIGRATION, 1);
+        TraceEvent event = tracer.record(TraceType.MIGRATION_LATE_REJECT, "fallback", "chunk-unloaded", "world",
+                10, TraceEvent.UNKNOWN, -4, 0, null);
+        assertNotNull(event);
+        assertEquals("LATE-REJECT[chunk-unloaded]: context='fallback' floor=10,?,-4 feet=10,?,-4 world=world",
+                event.message());
+        List<String> lines = tracer.dump(8);
+        assertEquals(1, lines.size());
+        assertTrue(lines.get(0).endsWith("migration " + event.message()));
+    }
+}
@@ -0,0 +1,46 @@
+package dev.citysim.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BlockChangeJournalTest {
+
+    @Test
+    void deduplicatesPositionsAndRestoresCoordinates() {
+        BlockChangeJournal.ChunkChanges changes = new BlockChangeJournal.ChunkChanges(-2, 3);
+        changes.mark(true, -17, -40, 50, 0);
+        changes.mark(true, -17, -40, 50, 0);
+        changes.mark(true, -32, 200, 63, BlockClassifier.BED);
+
+        BlockChangeJournal.Changes edits = changes.edits();
+        assertEquals(2, edits.size());
+        assertTrue(edits.touched(BlockClassifier.BED));
+        assertFalse(edits.touched(BlockClassifier.RAIL));
+        assertTrue(changes.updates().isEmpty());
+
+        List<String> visited = new ArrayList<>();
+        edits.forEach((x, y, z) -> visited.add(x + "," + y + "," + z));
+        visited.sort(String::compareTo);
+        assertEquals(List.of("-17,-40,50", "-32,200,63"), visited);
+        assertEquals(-32, edits.minX());
+        assertEquals(-17, edits.maxX());
+        assertEquals(-40, edits.minY());
+        assertEquals(200, edits.maxY());
+    }
+
+    @Test
+    void keepsPhysicsUpdatesApartFromEdits() {
+        BlockChangeJournal.ChunkChanges changes = new BlockChangeJournal.ChunkChanges(0, 0);
+        changes.mark(false, 1, 64, 1, BlockClassifier.RAIL);
+
+        assertTrue(changes.edits().isEmpty());
+        assertEquals(1, changes.updates().size());
+        assertTrue(changes.updates().touched(BlockClassifier.RAIL));
+    }
+}
@@ -0,0 +1,59 @@
+package dev.citysim.util;
+
+import org.bukkit.HeightMap;
+import org.bukkit.World;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class HeightmapCacheTest {
+
+    @Test
+    void reusesColumnUntilInvalidated() {
+        World world = mock(World.class);
+        when(world.getName()).thenReturn("world");
+        when(world.getHighestBlockYAt(17, -3, HeightMap.MOTION_BLOCKING)).thenReturn(70, 72);
+        HeightmapCache cache = new HeightmapCache(60_000L);
+
+        assertEquals(70, cache.highestBlockY(world, 17, -3));
+        assertEquals(70, cache.highestBlockY(world, 17, -3));
+        verify(world, times(1)).getHighestBlockYAt(17, -3, HeightMap.MOTION_BLOCKING);
+
+        cache.invalidateColumn("world", 17, -3);
+        assertEquals(72, cache.highestBlockY(world, 17, -3));
+    }
+
+    @Test
+    void keepsHeightmapsApart() {
+        World world = mock(World.class);
+        when(world.getName()).thenReturn("world");
+        when(world.getHighestBlockYAt(0, 0, HeightMap.MOTION_BLOCKING)).thenReturn(64);
+        when(world.getHighestBlockYAt(0, 0, HeightMap.WORLD_SURFACE)).thenReturn(66);
+        HeightmapCache cache = new HeightmapCache(60_000L);
+
+        assertEquals(64, cache.highestBlockY(world, 0, 0, HeightMap.MOTION_BLOCKING));
+        assertEquals(66, cache.highestBlockY(world, 0, 0, HeightMap.WORLD_SURFACE));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void lookupsSweepExpiredChunks() {
+        World world = mock(World.class);
+        when(world.getName()).thenReturn("world");
+        long[] now = {1_000L};
+        HeightmapCache cache = new HeightmapCache(100L);
+        cache.setClock(() -> now[0]);
+
+        cache.highestBlockY(world, 0, 0);
+        cache.highestBlockY(world, 32, 32);
+        assertEquals(2, cache.size());
+
+        now[0] += 101L;
+        cache.highestBlockY(world, 64, 64);
+        assertEquals(1, cache.size());
+    }
+}
@@ -0,0 +1,44 @@
+package dev.citysim.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class LongObjectMapTest {
+
+    @Test
+    void matchesHashMapUnderRandomOperations() {
+        LongObjectMap<String> map = new LongObjectMap<>();
+        Map<Long, String> reference = new HashMap<>();
+        Random random = new Random(42L);
+        for (int i = 0; i < 20_000; i++) {
+            long key = random.nextInt(512) - 256L;
+            if (random.nextInt(3) == 0) {
+                assertEquals(reference.remove(key), map.remove(key));
+            } else {
+                String value = "v" + i;
+                assertEquals(reference.put(key, value), map.put(key, value));
+            }
+            assertEquals(reference.size(), map.size());
+        }
+        for (long key = -256; key < 256; key++) {
+            assertEquals(reference.get(key), map.get(key));
+        }
+    }
+
+    @Test
+    void clearEmptiesTheMap() {
+        LongObjectMap<Integer> map = new LongObjectMap<>();
+        for (int i = 0; i < 100; i++) {
+            map.put(((long) i << 32) | i, i);
+        }
+        map.clear();
+        assertEquals(0, map.size());
+        assertNull(map.get(0L));
+    }
+}